@@ -1,6 +1,7 @@
 plugins {
     alias(libs.plugins.hivemq.extension)
     alias(libs.plugins.defaults)
+    alias(libs.plugins.jmh)
     alias(libs.plugins.oci)
     alias(libs.plugins.spotless)
 }
@@ -35,7 +36,6 @@ tasks.compileJava {
 
 dependencies {
     compileOnly(libs.jetbrains.annotations)
-    implementation(libs.commonsLang)
     implementation(libs.jaxb.api)
     runtimeOnly(libs.jaxb.impl)
 }
@@ -123,6 +123,21 @@ testing {
     }
 }
 
+jmh {
+    jmhVersion = libs.versions.jmh
+    // the benchmarks reuse the packet fixtures of the tests
+    includeTests = true
+    // report the allocated bytes per operation next to the throughput
+    profilers.add("gc")
+    resultFormat = "JSON"
+}
+
+dependencies {
+    jmhCompileOnly(libs.jetbrains.annotations)
+    jmhImplementation(libs.logback.classic)
+    jmhImplementation(libs.mockito)
+}
+
 spotless {
     java {
         licenseHeaderFile(rootDir.resolve("HEADER"))
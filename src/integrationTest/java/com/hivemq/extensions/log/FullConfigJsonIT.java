@@ -153,6 +153,7 @@ public class FullConfigJsonIT {
                 {"timestamp":12345,\
                 "messageType":"PUBLISH",\
                 "direction":"INBOUND",\
+                "clientId":"json-test-client",\
                 "topic":"test/binary",\
                 "payloadBase64":"AAEC//5/",\
                 "qos":1,\
@@ -182,6 +183,7 @@ public class FullConfigJsonIT {
                 {"timestamp":12345,\
                 "messageType":"PUBLISH",\
                 "direction":"INBOUND",\
+                "clientId":"json-test-client",\
                 "topic":"test/text",\
                 "payload":"Hello JSON World!",\
                 "qos":0,\
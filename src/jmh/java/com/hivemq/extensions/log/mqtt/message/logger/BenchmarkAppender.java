@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Replaces the appenders of {@link MessageLogger#LOG} during a benchmark.
+ * <p>
+ * The appender formats every message like a real appender would, but does not write it anywhere, so the benchmarks
+ * measure the cost of the message loggers instead of the cost of the console or the disk.
+ *
+ * @since 1.4.0
+ */
+class BenchmarkAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    private long characters;
+
+    static @NotNull BenchmarkAppender install() {
+        final var logger = (Logger) MessageLogger.LOG;
+        logger.detachAndStopAllAppenders();
+        logger.setAdditive(false);
+        logger.setLevel(Level.INFO);
+        final var appender = new BenchmarkAppender();
+        appender.setContext(logger.getLoggerContext());
+        appender.start();
+        logger.addAppender(appender);
+        return appender;
+    }
+
+    @Override
+    protected void append(final @NotNull ILoggingEvent event) {
+        characters += event.getFormattedMessage().length();
+    }
+
+    long getCharacters() {
+        return characters;
+    }
+}
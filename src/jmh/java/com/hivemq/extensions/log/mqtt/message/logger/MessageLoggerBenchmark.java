@@ -0,0 +1,198 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import com.hivemq.extension.sdk.api.events.client.parameters.DisconnectEventInput;
+import com.hivemq.extension.sdk.api.interceptor.connack.parameter.ConnackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.pingreq.parameter.PingReqInboundInput;
+import com.hivemq.extension.sdk.api.interceptor.pingresp.parameter.PingRespOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.suback.parameter.SubackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.subscribe.parameter.SubscribeInboundInput;
+import com.hivemq.extension.sdk.api.interceptor.unsuback.parameter.UnsubackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.unsubscribe.parameter.UnsubscribeInboundInput;
+import com.hivemq.extension.sdk.api.packets.connect.ConnectPacket;
+import com.hivemq.extension.sdk.api.packets.disconnect.DisconnectPacket;
+import com.hivemq.extension.sdk.api.packets.general.DisconnectedReasonCode;
+import com.hivemq.extension.sdk.api.packets.puback.PubackPacket;
+import com.hivemq.extension.sdk.api.packets.pubcomp.PubcompPacket;
+import com.hivemq.extension.sdk.api.packets.publish.PublishPacket;
+import com.hivemq.extension.sdk.api.packets.pubrec.PubrecPacket;
+import com.hivemq.extension.sdk.api.packets.pubrel.PubrelPacket;
+import com.hivemq.extensions.log.mqtt.message.util.PacketUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures every {@link MessageLogger} method for both output formats and all combinations of the verbose, payload
+ * and redact-password flags.
+ * <p>
+ * Run with {@code ./gradlew jmh}. The GC profiler adds the allocated bytes per operation ({@code gc.alloc.rate.norm})
+ * next to the throughput.
+ *
+ * @since 1.4.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageLoggerBenchmark {
+
+    private static final String CLIENT_ID = "benchmark-client-id";
+    private static final ConnectionContext CONNECTION = new ConnectionContext(CLIENT_ID);
+
+    @Param({"PLAIN_TEXT", "JSON"})
+    public OutputFormat format;
+
+    @Param({"false", "true"})
+    public boolean verbose;
+
+    @Param({"false", "true"})
+    public boolean payload;
+
+    @Param({"false", "true"})
+    public boolean redactPassword;
+
+    private MessageLogger messageLogger;
+
+    private DisconnectEventInput disconnectEventInput;
+    private DisconnectPacket disconnectPacket;
+    private ConnectPacket connectPacket;
+    private ConnackOutboundInput connackOutboundInput;
+    private PublishPacket publishPacket;
+    private SubscribeInboundInput subscribeInboundInput;
+    private SubackOutboundInput subackOutboundInput;
+    private UnsubscribeInboundInput unsubscribeInboundInput;
+    private UnsubackOutboundInput unsubackOutboundInput;
+    private PingReqInboundInput pingReqInboundInput;
+    private PingRespOutboundInput pingRespOutboundInput;
+    private PubackPacket pubackPacket;
+    private PubrecPacket pubrecPacket;
+    private PubrelPacket pubrelPacket;
+    private PubcompPacket pubcompPacket;
+
+    @Setup
+    public void setup() {
+        BenchmarkAppender.install();
+        messageLogger = MessageLoggerFactory.createLogger(verbose, payload, redactPassword, format);
+
+        disconnectEventInput = new PacketUtil.TestDisconnect(DisconnectedReasonCode.NORMAL_DISCONNECTION,
+                "reason",
+                new PacketUtil.TestUserProperties(2));
+        disconnectPacket = PacketUtil.createFullDisconnect();
+        connectPacket = PacketUtil.createFullConnect();
+        connackOutboundInput = PacketUtil.createFullConnack();
+        publishPacket = PacketUtil.createFullPublish();
+        subscribeInboundInput = PacketUtil.createFullSubsribe();
+        subackOutboundInput = PacketUtil.createFullSuback();
+        unsubscribeInboundInput = PacketUtil.createFullUnsubsribe();
+        unsubackOutboundInput = PacketUtil.createFullUnsuback();
+        pingReqInboundInput = PacketUtil.createPingreq();
+        pingRespOutboundInput = PacketUtil.createPingresp();
+        pubackPacket = PacketUtil.createFullPuback();
+        pubrecPacket = PacketUtil.createFullPubrec();
+        pubrelPacket = PacketUtil.createFullPubrel();
+        pubcompPacket = PacketUtil.createFullPubcomp();
+    }
+
+    @Benchmark
+    public void logDisconnectEvent() {
+        messageLogger.logDisconnect(disconnectEventInput, CONNECTION, true);
+    }
+
+    @Benchmark
+    public void logDisconnect() {
+        messageLogger.logDisconnect(disconnectPacket, CONNECTION, true);
+    }
+
+    @Benchmark
+    public void logConnect() {
+        messageLogger.logConnect(connectPacket);
+    }
+
+    @Benchmark
+    public void logConnack() {
+        messageLogger.logConnack(connackOutboundInput);
+    }
+
+    @Benchmark
+    public void logPublish() {
+        messageLogger.logPublish(publishPacket, CONNECTION, true);
+    }
+
+    @Benchmark
+    public void logSubscribe() {
+        messageLogger.logSubscribe(subscribeInboundInput);
+    }
+
+    @Benchmark
+    public void logSuback() {
+        messageLogger.logSuback(subackOutboundInput);
+    }
+
+    @Benchmark
+    public void logUnsubscribe() {
+        messageLogger.logUnsubscribe(unsubscribeInboundInput);
+    }
+
+    @Benchmark
+    public void logUnsuback() {
+        messageLogger.logUnsuback(unsubackOutboundInput);
+    }
+
+    @Benchmark
+    public void logPingreq() {
+        messageLogger.logPingreq(pingReqInboundInput);
+    }
+
+    @Benchmark
+    public void logPingresp() {
+        messageLogger.logPingresp(pingRespOutboundInput);
+    }
+
+    @Benchmark
+    public void logPuback() {
+        messageLogger.logPuback(pubackPacket, CONNECTION, true);
+    }
+
+    @Benchmark
+    public void logPubrec() {
+        messageLogger.logPubrec(pubrecPacket, CONNECTION, true);
+    }
+
+    @Benchmark
+    public void logPubrel() {
+        messageLogger.logPubrel(pubrelPacket, CONNECTION, true);
+    }
+
+    @Benchmark
+    public void logPubcomp() {
+        messageLogger.logPubcomp(pubcompPacket, CONNECTION, true);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import com.hivemq.extensions.log.mqtt.message.util.StringUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the rendering of large payloads from heap, read-only and direct buffers, as JSON field and as plain text.
+ *
+ * @since 1.4.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadRenderingBenchmark {
+
+    public enum PayloadType {
+        TEXT,
+        BINARY
+    }
+
+    public enum BufferType {
+        HEAP,
+        READ_ONLY,
+        DIRECT
+    }
+
+    @Param({"1024", "65536", "1048576", "10485760"})
+    public int payloadSize;
+
+    @Param({"TEXT", "BINARY"})
+    public PayloadType payloadType;
+
+    @Param({"HEAP", "READ_ONLY", "DIRECT"})
+    public BufferType bufferType;
+
+    private ByteBuffer payload;
+
+    @Setup
+    public void setup() {
+        final var bytes = new byte[payloadSize];
+        if (payloadType == PayloadType.BINARY) {
+            new Random(42).nextBytes(bytes);
+        } else {
+            for (var i = 0; i < payloadSize; i++) {
+                bytes[i] = (byte) (' ' + i % ('~' - ' ' + 1));
+            }
+        }
+        switch (bufferType) {
+            case HEAP:
+                payload = ByteBuffer.wrap(bytes);
+                break;
+            case READ_ONLY:
+                payload = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+                break;
+            default:
+                payload = ByteBuffer.allocateDirect(payloadSize).put(bytes).flip();
+                break;
+        }
+    }
+
+    @Benchmark
+    public int json() {
+        final var json = JsonEncoder.get();
+        json.binaryField("payload", "payloadBase64", payload);
+        return json.length();
+    }
+
+    @Benchmark
+    public String plainText() {
+        final var text = StringUtil.getAsciiPrintableString(payload);
+        return text != null ? text : StringUtil.getHexStringFromByteBuffer(payload);
+    }
+}
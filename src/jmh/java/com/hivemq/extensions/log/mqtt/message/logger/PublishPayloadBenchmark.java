@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import com.hivemq.extension.sdk.api.packets.publish.PublishPacket;
+import com.hivemq.extensions.log.mqtt.message.util.PacketUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link MessageLogger#logPublish(PublishPacket, ConnectionContext, boolean)} for different payload sizes
+ * and for printable and binary payloads, which are logged as text or encoded as hex or Base64.
+ *
+ * @since 1.4.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PublishPayloadBenchmark {
+
+    private static final ConnectionContext CONNECTION = new ConnectionContext("benchmark-client-id");
+
+    public enum PayloadType {
+        TEXT,
+        BINARY
+    }
+
+    @Param({"PLAIN_TEXT", "JSON"})
+    public OutputFormat format;
+
+    @Param({"false", "true"})
+    public boolean verbose;
+
+    @Param({"false", "true"})
+    public boolean payload;
+
+    @Param({"0", "64", "1024", "16384", "262144"})
+    public int payloadSize;
+
+    @Param({"TEXT", "BINARY"})
+    public PayloadType payloadType;
+
+    private MessageLogger messageLogger;
+    private PublishPacket publishPacket;
+
+    @Setup
+    public void setup() {
+        BenchmarkAppender.install();
+        messageLogger = MessageLoggerFactory.createLogger(verbose, payload, false, format);
+        publishPacket = PacketUtil.createFullPublish(createPayload(payloadSize, payloadType));
+    }
+
+    @Benchmark
+    public void logPublish() {
+        messageLogger.logPublish(publishPacket, CONNECTION, true);
+    }
+
+    private static byte[] createPayload(final int size, final PayloadType type) {
+        final var payload = new byte[size];
+        if (type == PayloadType.BINARY) {
+            new Random(42).nextBytes(payload);
+        } else {
+            for (var i = 0; i < size; i++) {
+                payload[i] = (byte) (' ' + i % ('~' - ' ' + 1));
+            }
+        }
+        return payload;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.topic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the topic lookup in tries with many exact and wildcard topic filters.
+ *
+ * @since 1.4.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TopicFilterTrieBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int filterCount;
+
+    private TopicFilterTrie trie;
+    private String matchingTopic;
+    private String wildcardMatchingTopic;
+    private String nonMatchingTopic;
+
+    @Setup
+    public void setup() {
+        final var topicFilters = new ArrayList<String>();
+        for (var i = 0; i < filterCount; i++) {
+            switch (i % 3) {
+                case 0:
+                    topicFilters.add("devices/" + i + "/status");
+                    break;
+                case 1:
+                    topicFilters.add("devices/" + i + "/+/telemetry");
+                    break;
+                default:
+                    topicFilters.add("tenants/" + i + "/#");
+            }
+        }
+        trie = TopicFilterTrie.compile(topicFilters);
+        matchingTopic = "devices/" + (filterCount / 3 * 3) + "/status";
+        wildcardMatchingTopic = "tenants/2/site/building/floor";
+        nonMatchingTopic = "devices/" + filterCount + "/sensor/telemetry";
+    }
+
+    @Benchmark
+    public boolean matching() {
+        return trie.matches(matchingTopic);
+    }
+
+    @Benchmark
+    public boolean wildcardMatching() {
+        return trie.matches(wildcardMatchingTopic);
+    }
+
+    @Benchmark
+    public boolean nonMatching() {
+        return trie.matches(nonMatchingTopic);
+    }
+}
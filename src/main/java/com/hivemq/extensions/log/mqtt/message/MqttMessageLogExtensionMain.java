@@ -26,13 +26,47 @@ import com.hivemq.extension.sdk.api.services.admin.LicenseEdition;
 import com.hivemq.extension.sdk.api.services.intializer.ClientInitializer;
 import com.hivemq.extensions.log.mqtt.message.config.ExtensionConfig;
 import com.hivemq.extensions.log.mqtt.message.config.ExtensionConfigReader;
+import com.hivemq.extensions.log.mqtt.message.config.ExtensionConfigXml;
+import com.hivemq.extensions.log.mqtt.message.config.LogPolicy;
+import com.hivemq.extensions.log.mqtt.message.config.LogPolicyReloader;
+import com.hivemq.extensions.log.mqtt.message.flow.FlowTracking;
+import com.hivemq.extensions.log.mqtt.message.flow.PingAggregator;
 import com.hivemq.extensions.log.mqtt.message.initializer.ClientInitializerImpl;
 import com.hivemq.extensions.log.mqtt.message.initializer.ClientInitializerImpl4_2;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLoggerFactory;
+import com.hivemq.extensions.log.mqtt.message.logger.OutputFormat;
+import com.hivemq.extensions.log.mqtt.message.metrics.MessageLogMetrics;
+import com.hivemq.extensions.log.mqtt.message.pipeline.AsyncMessageLogger;
+import com.hivemq.extensions.log.mqtt.message.pipeline.DeduplicatingMessageLogger;
+import com.hivemq.extensions.log.mqtt.message.pipeline.Lane;
+import com.hivemq.extensions.log.mqtt.message.pipeline.LogLevelFilteringMessageLogger;
+import com.hivemq.extensions.log.mqtt.message.pipeline.MeteredMessageLogger;
+import com.hivemq.extensions.log.mqtt.message.pipeline.PolicyFilteringMessageLogger;
+import com.hivemq.extensions.log.mqtt.message.sink.BatchingLogSink;
+import com.hivemq.extensions.log.mqtt.message.sink.BinarySegmentLogSink;
+import com.hivemq.extensions.log.mqtt.message.sink.FileLogSink;
+import com.hivemq.extensions.log.mqtt.message.sink.LogSink;
+import com.hivemq.extensions.log.mqtt.message.sink.MappedSegmentLogSink;
+import com.hivemq.extensions.log.mqtt.message.sink.MeteredLogSink;
+import com.hivemq.extensions.log.mqtt.message.sink.OutputSink;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.VisibleForTesting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import static com.hivemq.extensions.log.mqtt.message.ExtensionConstants.EXTENSION_NAME;
+
 /**
  * @since 1.0.0
  */
@@ -40,6 +74,25 @@ public class MqttMessageLogExtensionMain implements ExtensionMain {
 
     private static final @NotNull Logger LOG = LoggerFactory.getLogger(MqttMessageLogExtensionMain.class);
 
+    // a segment is mapped as a single buffer, which is limited to 2 GiB
+    private static final int MAX_SEGMENT_SIZE_MB = 1024;
+    private static final long RELOAD_INTERVAL_SECONDS = 5;
+    private static final long FLOW_EXPIRY_INTERVAL_SECONDS = 1;
+    private static final long DEDUP_EXPIRY_INTERVAL_SECONDS = 1;
+
+    private @Nullable MessageLogMetrics metrics;
+    private @Nullable AsyncMessageLogger asyncMessageLogger;
+    private @Nullable DeduplicatingMessageLogger deduplicatingMessageLogger;
+    private @Nullable PingAggregator pingAggregator;
+    private @Nullable BatchingLogSink batchingLogSink;
+    private @Nullable LogSink logSink;
+    private @Nullable ScheduledFuture<?> batchFlushTask;
+    private @Nullable ScheduledFuture<?> flushTask;
+    private @Nullable ScheduledFuture<?> reloadTask;
+    private @Nullable ScheduledFuture<?> flowExpiryTask;
+    private @Nullable ScheduledFuture<?> pingDigestTask;
+    private @Nullable ScheduledFuture<?> dedupExpiryTask;
+
     @Override
     public void extensionStart(
             final @NotNull ExtensionStartInput extensionStartInput,
@@ -60,11 +113,50 @@ public class MqttMessageLogExtensionMain implements ExtensionMain {
                         " start prevented because all properties set to false");
                 return;
             }
+            final var extensionHomeFolder = extensionStartInput.getExtensionInformation().getExtensionHomeFolder();
+            final var policy = new AtomicReference<>(LogPolicy.compile(config));
+            final var metrics = new MessageLogMetrics(Services.metricRegistry());
+            this.metrics = metrics;
+            final var unfilteredMessageLogger =
+                    createMessageLogger(config, policy::get, extensionHomeFolder, metrics);
+            final var filter = createFilter(policy::get);
+            final var messageLogger = filter.apply(unfilteredMessageLogger);
+            final var pingAggregator = config.isPingDigest() ? new PingAggregator(messageLogger) : null;
+            final var flowTracking = config.isAckLatency() || config.isQos2FlowAggregation() ||
+                    config.isSessionSummary() || pingAggregator != null ?
+                    new FlowTracking(config, metrics, pingAggregator) :
+                    null;
             final var initializer =
                     getClientInitializerForEdition(Services.adminService().getLicenseInformation().getEdition(),
                             extensionStartInput.getServerInformation().getVersion(),
-                            config);
+                            config,
+                            policy::get,
+                            unfilteredMessageLogger,
+                            filter,
+                            flowTracking);
             Services.initializerRegistry().setClientInitializer(initializer);
+            if (flowTracking != null && config.isQos2FlowAggregation()) {
+                flowExpiryTask = Services.extensionExecutorService()
+                        .scheduleWithFixedDelay(flowTracking::expire,
+                                FLOW_EXPIRY_INTERVAL_SECONDS,
+                                FLOW_EXPIRY_INTERVAL_SECONDS,
+                                TimeUnit.SECONDS);
+            }
+            if (pingAggregator != null) {
+                this.pingAggregator = pingAggregator;
+                pingDigestTask = Services.extensionExecutorService()
+                        .scheduleAtFixedRate(pingAggregator::flush,
+                                config.getPingDigestInterval(),
+                                config.getPingDigestInterval(),
+                                TimeUnit.SECONDS);
+            }
+            if (config instanceof ExtensionConfigXml) {
+                reloadTask = Services.extensionExecutorService()
+                        .scheduleWithFixedDelay(new LogPolicyReloader(extensionHomeFolder, policy),
+                                RELOAD_INTERVAL_SECONDS,
+                                RELOAD_INTERVAL_SECONDS,
+                                TimeUnit.SECONDS);
+            }
         } catch (final Exception e) {
             extensionStartOutput.preventExtensionStartup(
                     extensionStartInput.getExtensionInformation().getName() + " cannot be started");
@@ -78,19 +170,222 @@ public class MqttMessageLogExtensionMain implements ExtensionMain {
     public void extensionStop(
             final @NotNull ExtensionStopInput extensionStopInput,
             final @NotNull ExtensionStopOutput extensionStopOutput) {
+        if (reloadTask != null) {
+            reloadTask.cancel(false);
+            reloadTask = null;
+        }
+        if (flowExpiryTask != null) {
+            flowExpiryTask.cancel(false);
+            flowExpiryTask = null;
+        }
+        if (pingDigestTask != null) {
+            pingDigestTask.cancel(false);
+            pingDigestTask = null;
+        }
+        if (pingAggregator != null) {
+            // the pings since the last digest are logged before the logger is stopped
+            pingAggregator.flush();
+            pingAggregator = null;
+        }
+        if (dedupExpiryTask != null) {
+            dedupExpiryTask.cancel(false);
+            dedupExpiryTask = null;
+        }
+        if (deduplicatingMessageLogger != null) {
+            // the pending repetitions are logged before the logger is stopped
+            deduplicatingMessageLogger.flush();
+            deduplicatingMessageLogger = null;
+        }
+        if (asyncMessageLogger != null) {
+            asyncMessageLogger.stop();
+            asyncMessageLogger = null;
+        }
+        if (batchFlushTask != null) {
+            batchFlushTask.cancel(false);
+            batchFlushTask = null;
+        }
+        if (batchingLogSink != null) {
+            // the file sink is flushed and closed below
+            batchingLogSink.drain();
+            batchingLogSink = null;
+        }
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        if (logSink != null) {
+            logSink.close();
+            logSink = null;
+        }
+        if (metrics != null) {
+            metrics.remove();
+            metrics = null;
+        }
+    }
+
+    /**
+     * Creates the logger for the events that passed the policy and the rate limit of their connection.
+     */
+    @VisibleForTesting
+    @NotNull MessageLogger createMessageLogger(
+            final @NotNull ExtensionConfig config,
+            final @NotNull Supplier<LogPolicy> currentPolicy,
+            final @NotNull File extensionHomeFolder,
+            final @NotNull MessageLogMetrics metrics) throws IOException {
+        final var fileSink = createLogSink(config, extensionHomeFolder);
+        var outputFormat = config.getOutputFormat();
+        if (outputFormat == OutputFormat.CBOR && fileSink == null) {
+            LOG.warn("{}: The cbor output format requires a file output sink, using the json output format instead",
+                    EXTENSION_NAME);
+            outputFormat = OutputFormat.JSON;
+        }
+        final var meteredSink = fileSink == null ? null : new MeteredLogSink(fileSink, metrics);
+        final var batchingSink = createBatchingLogSink(config, meteredSink);
+        final var sink = batchingSink != null ? batchingSink : meteredSink;
+        final var timestampFormat = config.getTimestampFormat();
+        if (outputFormat == OutputFormat.BINARY && timestampFormat != null) {
+            LOG.warn("{}: The binary output format always uses epoch milliseconds, ignoring the timestamp format",
+                    EXTENSION_NAME);
+        }
+        final var messageLogger = new MeteredMessageLogger(MessageLoggerFactory.createLogger(outputFormat,
+                timestampFormat,
+                currentPolicy,
+                sink), metrics);
+        if (!config.isAsync()) {
+            return deduplicate(config, currentPolicy, messageLogger);
+        }
+        final var asyncMessageLogger = new AsyncMessageLogger(messageLogger,
+                config.getAsyncBufferSize(),
+                config.getAsyncConsumerThreads(),
+                config.getAsyncOverflowPolicy(),
+                config.getAsyncOverflowTimeout(),
+                config.getAsyncSampleRate());
+        this.asyncMessageLogger = asyncMessageLogger;
+        for (final var lane : Lane.values()) {
+            metrics.registerDropped(lane.name().toLowerCase(Locale.ROOT),
+                    () -> asyncMessageLogger.getDroppedCount(lane));
+        }
+        asyncMessageLogger.start();
+        return deduplicate(config, currentPolicy, asyncMessageLogger);
+    }
+
+    /**
+     * Creates the filter that drops the events which are not logged before they are rate limited, captured or
+     * formatted. The loggers of the event types are only checked if the records are written via SLF4J, so the output
+     * sink must have been created.
+     */
+    @VisibleForTesting
+    @NotNull UnaryOperator<MessageLogger> createFilter(final @NotNull Supplier<LogPolicy> currentPolicy) {
+        if (logSink != null) {
+            return delegate -> new PolicyFilteringMessageLogger(delegate, currentPolicy);
+        }
+        return delegate -> new LogLevelFilteringMessageLogger(new PolicyFilteringMessageLogger(delegate,
+                currentPolicy));
+    }
+
+    /**
+     * Suppresses the repetitions of the events that passed the filters before they are captured or formatted.
+     */
+    private @NotNull MessageLogger deduplicate(
+            final @NotNull ExtensionConfig config,
+            final @NotNull Supplier<LogPolicy> currentPolicy,
+            final @NotNull MessageLogger messageLogger) {
+        if (config.getDedupWindow() == 0) {
+            return messageLogger;
+        }
+        final var deduplicatingMessageLogger = new DeduplicatingMessageLogger(messageLogger,
+                currentPolicy,
+                TimeUnit.SECONDS.toMillis(config.getDedupWindow()),
+                config.getDedupTableSize());
+        this.deduplicatingMessageLogger = deduplicatingMessageLogger;
+        dedupExpiryTask = Services.extensionExecutorService()
+                .scheduleWithFixedDelay(deduplicatingMessageLogger::expire,
+                        DEDUP_EXPIRY_INTERVAL_SECONDS,
+                        DEDUP_EXPIRY_INTERVAL_SECONDS,
+                        TimeUnit.SECONDS);
+        return deduplicatingMessageLogger;
+    }
+
+    private @Nullable LogSink createBatchingLogSink(
+            final @NotNull ExtensionConfig config,
+            final @Nullable LogSink fileSink) {
+        if (config.getBatchSize() == 0) {
+            return null;
+        }
+        if (fileSink == null) {
+            // a batch of the log output sink would be logged by a single logger, not by the loggers of the event types
+            LOG.warn("{}: Batching requires the json, cbor or binary output format with a file output sink, " +
+                    "writing every record separately with the logger of its event type", EXTENSION_NAME);
+            return null;
+        }
+        final var sink = new BatchingLogSink(fileSink, config.getBatchSize(), config.getBatchBytes());
+        batchingLogSink = sink;
+        batchFlushTask = Services.extensionExecutorService()
+                .scheduleAtFixedRate(sink::drain,
+                        config.getBatchLinger(),
+                        config.getBatchLinger(),
+                        TimeUnit.MILLISECONDS);
+        return sink;
+    }
+
+    private @Nullable LogSink createLogSink(
+            final @NotNull ExtensionConfig config,
+            final @NotNull File extensionHomeFolder) throws IOException {
+        final var outputSink = config.getOutputSink();
+        final var outputFormat = config.getOutputFormat();
+        if (outputSink == OutputSink.LOG && outputFormat != OutputFormat.BINARY) {
+            return null;
+        }
+        if (outputFormat == OutputFormat.PLAIN_TEXT) {
+            LOG.warn("{}: The file output sinks require the json or cbor output format, using the HiveMQ log instead",
+                    EXTENSION_NAME);
+            return null;
+        }
+        final var file = extensionHomeFolder.toPath().resolve(config.getOutputFile());
+        // CBOR records are written as CBOR sequence, a line separator would be decoded as data item
+        final var lineSeparated = outputFormat != OutputFormat.CBOR;
+        final LogSink sink;
+        if (outputFormat == OutputFormat.BINARY) {
+            // binary records cannot be written to the HiveMQ log, so the output sink is not used
+            sink = new BinarySegmentLogSink(file,
+                    (long) Math.min(config.getSegmentSizeMb(), MAX_SEGMENT_SIZE_MB) * 1024 * 1024,
+                    TimeUnit.SECONDS.toMillis(config.getSegmentRollInterval()));
+            LOG.info("{}: Writing MQTT events to binary segments of {}", EXTENSION_NAME, file.toAbsolutePath());
+        } else if (outputSink == OutputSink.MAPPED_FILE) {
+            sink = new MappedSegmentLogSink(file,
+                    Math.min(config.getSegmentSizeMb(), MAX_SEGMENT_SIZE_MB) * 1024 * 1024,
+                    TimeUnit.SECONDS.toMillis(config.getSegmentRollInterval()),
+                    lineSeparated);
+            LOG.info("{}: Writing MQTT events to memory-mapped segments of {}", EXTENSION_NAME, file.toAbsolutePath());
+        } else {
+            sink = new FileLogSink(file, lineSeparated);
+            LOG.info("{}: Writing MQTT events to {}", EXTENSION_NAME, file.toAbsolutePath());
+        }
+        logSink = sink;
+        flushTask = Services.extensionExecutorService().scheduleAtFixedRate(sink::flush, 1, 1, TimeUnit.SECONDS);
+        return sink;
     }
 
     @VisibleForTesting
     @NotNull ClientInitializer getClientInitializerForEdition(
             final @NotNull LicenseEdition edition,
             final @NotNull String version,
-            final @NotNull ExtensionConfig config) {
+            final @NotNull ExtensionConfig config,
+            final @NotNull Supplier<LogPolicy> currentPolicy,
+            final @NotNull MessageLogger messageLogger,
+            final @NotNull UnaryOperator<MessageLogger> filter,
+            final @Nullable FlowTracking flowTracking) {
         if (LicenseEdition.COMMUNITY.equals(edition)) {
-            return new ClientInitializerImpl(config);
+            return new ClientInitializerImpl(config, currentPolicy, messageLogger, filter, flowTracking);
         } else if (version.startsWith("4.2.")) {
-            return new ClientInitializerImpl4_2(config);
+            if (flowTracking != null) {
+                LOG.warn("{}: Tracking the ack latency, QoS 2 flows, sessions and pings requires HiveMQ 4.3 or " +
+                                "later, ignoring ack-latency, qos2-flow-aggregation, session-summary and ping-digest",
+                        EXTENSION_NAME);
+            }
+            return new ClientInitializerImpl4_2(config, currentPolicy, messageLogger, filter);
         } else {
-            return new ClientInitializerImpl(config);
+            return new ClientInitializerImpl(config, currentPolicy, messageLogger, filter, flowTracking);
         }
     }
 }
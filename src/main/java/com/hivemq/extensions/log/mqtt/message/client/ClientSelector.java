@@ -0,0 +1,175 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.client;
+
+import com.hivemq.extension.sdk.api.client.parameter.ClientBasedInput;
+import com.hivemq.extension.sdk.api.client.parameter.ConnectionInformation;
+import com.hivemq.extension.sdk.api.client.parameter.Listener;
+import com.hivemq.extension.sdk.api.packets.general.MqttVersion;
+import com.hivemq.extensions.log.mqtt.message.config.ExtensionConfig;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static com.hivemq.extensions.log.mqtt.message.ExtensionConstants.EXTENSION_NAME;
+
+/**
+ * Decides once per connection whether the events of a client are logged.
+ * <p>
+ * A client is selected if it matches every configured kind of rule: its client id starts with one of the client id
+ * prefixes or matches one of the client id patterns, its username is one of the usernames, it connected to one of
+ * the listeners and uses one of the MQTT versions. The decision is made when the CONNECT is received and stored in the
+ * connection attribute store, so the interceptor providers and the client initializer only have to look it up.
+ *
+ * @since 1.4.0
+ */
+public class ClientSelector {
+
+    private static final @NotNull Logger LOG = LoggerFactory.getLogger(ClientSelector.class);
+
+    static final @NotNull String SELECTED_ATTRIBUTE = "com.hivemq.extensions.log.mqtt.message.selected";
+
+    private final @Nullable Pattern clientIdPattern;
+    private final @Nullable Set<String> usernames;
+    private final @Nullable Set<String> listeners;
+    private final @Nullable Set<MqttVersion> mqttVersions;
+
+    ClientSelector(
+            final @Nullable Pattern clientIdPattern,
+            final @Nullable Set<String> usernames,
+            final @Nullable Set<String> listeners,
+            final @Nullable Set<MqttVersion> mqttVersions) {
+        this.clientIdPattern = clientIdPattern;
+        this.usernames = usernames;
+        this.listeners = listeners;
+        this.mqttVersions = mqttVersions;
+    }
+
+    /**
+     * Compiles the client selection rules of the configuration, invalid rules are ignored with a warning.
+     *
+     * @return the client selector, or null if no rules are configured and all clients are logged
+     */
+    public static @Nullable ClientSelector create(final @NotNull ExtensionConfig config) {
+        final var clientIdPattern = compileClientIdPattern(config.getClientIdPrefixes(), config.getClientIdPatterns());
+        final var usernames = config.getUsernames().isEmpty() ? null : new HashSet<>(config.getUsernames());
+        final var listeners = config.getListeners().isEmpty() ? null : new HashSet<>(config.getListeners());
+        final var mqttVersions = parseMqttVersions(config.getMqttVersions());
+        if (clientIdPattern == null && usernames == null && listeners == null && mqttVersions == null) {
+            return null;
+        }
+        return new ClientSelector(clientIdPattern, usernames, listeners, mqttVersions);
+    }
+
+    /**
+     * Evaluates the rules for a connecting client and stores the decision for the later lookups.
+     *
+     * @param  input    the input of the CONNECT
+     * @param  username the username of the CONNECT, or null if it has none
+     * @return          whether the events of the client are logged
+     */
+    public boolean select(final @NotNull ClientBasedInput input, final @Nullable String username) {
+        final var connectionInformation = input.getConnectionInformation();
+        final var selected = matches(input.getClientInformation().getClientId(), username, connectionInformation);
+        connectionInformation.getConnectionAttributeStore()
+                .putAsString(SELECTED_ATTRIBUTE, Boolean.toString(selected));
+        return selected;
+    }
+
+    /**
+     * Looks up the decision made for the CONNECT of a client. If there is none, the rules are evaluated without a
+     * username, so a client is never selected by username in this case.
+     *
+     * @return whether the events of the client are logged
+     */
+    public boolean isSelected(final @NotNull ClientBasedInput input) {
+        final var connectionInformation = input.getConnectionInformation();
+        final var selected = connectionInformation.getConnectionAttributeStore().getAsString(SELECTED_ATTRIBUTE);
+        if (selected.isPresent()) {
+            return Boolean.parseBoolean(selected.get());
+        }
+        return matches(input.getClientInformation().getClientId(), null, connectionInformation);
+    }
+
+    boolean matches(
+            final @NotNull String clientId,
+            final @Nullable String username,
+            final @NotNull ConnectionInformation connectionInformation) {
+        if (clientIdPattern != null && !clientIdPattern.matcher(clientId).matches()) {
+            return false;
+        }
+        if (usernames != null && (username == null || !usernames.contains(username))) {
+            return false;
+        }
+        if (listeners != null &&
+                !connectionInformation.getListener().map(Listener::getName).filter(listeners::contains).isPresent()) {
+            return false;
+        }
+        return mqttVersions == null || mqttVersions.contains(connectionInformation.getMqttVersion());
+    }
+
+    /**
+     * Compiles the prefixes and patterns into a single pattern, so a client id is matched in one pass.
+     */
+    private static @Nullable Pattern compileClientIdPattern(
+            final @NotNull List<String> prefixes,
+            final @NotNull List<String> patterns) {
+        final var alternatives = new StringJoiner("|");
+        var empty = true;
+        for (final var prefix : prefixes) {
+            alternatives.add(Pattern.quote(prefix) + ".*");
+            empty = false;
+        }
+        for (final var pattern : patterns) {
+            try {
+                Pattern.compile(pattern);
+            } catch (final PatternSyntaxException e) {
+                LOG.warn("{}: Ignoring invalid client id pattern '{}': {}", EXTENSION_NAME, pattern, e.getDescription());
+                continue;
+            }
+            alternatives.add("(?:" + pattern + ")");
+            empty = false;
+        }
+        return empty ? null : Pattern.compile(alternatives.toString(), Pattern.DOTALL);
+    }
+
+    private static @Nullable Set<MqttVersion> parseMqttVersions(final @NotNull List<String> values) {
+        if (values.isEmpty()) {
+            return null;
+        }
+        final var mqttVersions = EnumSet.noneOf(MqttVersion.class);
+        for (final var value : values) {
+            final var name = value.toUpperCase(Locale.ROOT).replace('.', '_');
+            try {
+                mqttVersions.add(MqttVersion.valueOf(name.startsWith("V_") ? name : "V_" + name));
+            } catch (final IllegalArgumentException e) {
+                LOG.warn("{}: Ignoring invalid MQTT version '{}'", EXTENSION_NAME, value);
+            }
+        }
+        return mqttVersions.isEmpty() ? null : mqttVersions;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.config;
+
+/**
+ * The MQTT event types that can be enabled and disabled in the configuration.
+ *
+ * @since 1.4.0
+ */
+public enum EventType {
+    CLIENT_CONNECT,
+    CONNACK_SEND,
+    CLIENT_DISCONNECT,
+    PUBLISH_RECEIVED,
+    PUBLISH_SEND,
+    SUBSCRIBE_RECEIVED,
+    SUBACK_SEND,
+    UNSUBSCRIBE_RECEIVED,
+    UNSUBACK_SEND,
+    PING_REQUEST_RECEIVED,
+    PING_RESPONSE_SEND,
+    PUBACK_RECEIVED,
+    PUBACK_SEND,
+    PUBREC_RECEIVED,
+    PUBREC_SEND,
+    PUBREL_RECEIVED,
+    PUBREL_SEND,
+    PUBCOMP_RECEIVED,
+    PUBCOMP_SEND
+}
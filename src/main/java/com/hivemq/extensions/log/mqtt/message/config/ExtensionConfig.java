@@ -17,7 +17,13 @@
 package com.hivemq.extensions.log.mqtt.message.config;
 
 import com.hivemq.extensions.log.mqtt.message.logger.OutputFormat;
+import com.hivemq.extensions.log.mqtt.message.logger.TimestampFormat;
+import com.hivemq.extensions.log.mqtt.message.pipeline.OverflowPolicy;
+import com.hivemq.extensions.log.mqtt.message.sink.OutputSink;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
 
 /**
  * @since 1.2.0
@@ -68,13 +74,171 @@ public interface ExtensionConfig {
 
     boolean isRedactPassword();
 
+    /**
+     * @return the number of leading payload bytes that are logged, {@code 0} to log payloads in full
+     */
+    int getMaxPayloadBytes();
+
+    /**
+     * @return the number of trailing payload bytes that are additionally logged for truncated payloads
+     */
+    int getPayloadTailBytes();
+
+    int getPublishReceivedMaxPayloadBytes();
+
+    int getPublishSendMaxPayloadBytes();
+
+    int getWillMaxPayloadBytes();
+
     @NotNull OutputFormat getOutputFormat();
 
+    /**
+     * @return the format of the event timestamps, {@code null} if not configured to use the default of the output
+     *         format
+     */
+    @Nullable TimestampFormat getTimestampFormat();
+
+    @NotNull OutputSink getOutputSink();
+
+    @NotNull String getOutputFile();
+
+    int getSegmentSizeMb();
+
+    int getSegmentRollInterval();
+
+    /**
+     * @return the number of records a thread collects before they are written at once, {@code 0} to not batch
+     */
+    int getBatchSize();
+
+    /**
+     * @return the number of record bytes a thread collects before they are written at once
+     */
+    int getBatchBytes();
+
+    /**
+     * @return the milliseconds after which the collected records are written even if the batch is not full
+     */
+    int getBatchLinger();
+
+    /**
+     * @return the topic filters of the PUBLISH and will messages that are logged, empty to log all topics
+     */
+    @NotNull List<String> getIncludeTopics();
+
+    /**
+     * @return the topic filters of the PUBLISH and will messages that are not logged
+     */
+    @NotNull List<String> getExcludeTopics();
+
+    /**
+     * @return the prefixes of the client ids of the clients that are logged, empty to not select by prefix
+     */
+    @NotNull List<String> getClientIdPrefixes();
+
+    /**
+     * @return the regular expressions of the client ids of the clients that are logged, empty to not select by pattern
+     */
+    @NotNull List<String> getClientIdPatterns();
+
+    /**
+     * @return the usernames of the clients that are logged, empty to not select by username
+     */
+    @NotNull List<String> getUsernames();
+
+    /**
+     * @return the names of the listeners of the clients that are logged, empty to not select by listener
+     */
+    @NotNull List<String> getListeners();
+
+    /**
+     * @return the MQTT versions of the clients that are logged, empty to not select by MQTT version
+     */
+    @NotNull List<String> getMqttVersions();
+
+    /**
+     * @return the number of events per second that are logged per client, {@code 0} if not limited
+     */
+    int getRateLimit();
+
+    /**
+     * @return the number of events that are logged at once for a client that was idle
+     */
+    int getRateLimitBurst();
+
+    boolean isAsync();
+
+    int getAsyncBufferSize();
+
+    int getAsyncConsumerThreads();
+
+    /**
+     * @return what happens to PUBLISH and PING events if their asynchronous logging buffer is full
+     */
+    @NotNull OverflowPolicy getAsyncOverflowPolicy();
+
+    /**
+     * @return the milliseconds a HiveMQ thread waits for a free slot with the block overflow policy
+     */
+    int getAsyncOverflowTimeout();
+
+    /**
+     * @return the n of the sample overflow policy, every n-th event is logged while a buffer is at least half full
+     */
+    int getAsyncSampleRate();
+
+    /**
+     * @return whether the time between a QoS 1 PUBLISH and its PUBACK is measured
+     */
+    boolean isAckLatency();
+
+    /**
+     * @return the number of topic levels of the topic prefixes the ack latency metrics are kept for
+     */
+    int getAckLatencyTopicLevels();
+
+    /**
+     * @return whether the packets of a QoS 2 delivery are logged as a single record
+     */
+    boolean isQos2FlowAggregation();
+
+    /**
+     * @return the seconds after the PUBLISH after which a QoS 2 flow that did not end is logged as incomplete
+     */
+    int getQos2FlowTimeout();
+
+    /**
+     * @return whether the packets of a connection are counted and logged as a single record when it is closed
+     */
+    boolean isSessionSummary();
+
+    /**
+     * @return whether the pings of all connections are logged as a periodic digest instead of individual events
+     */
+    boolean isPingDigest();
+
+    /**
+     * @return the seconds between two ping digests
+     */
+    int getPingDigestInterval();
+
+    /**
+     * @return the seconds in which the repetitions of an event are logged as a single record, {@code 0} if not
+     *         deduplicated
+     */
+    int getDedupWindow();
+
+    /**
+     * @return the number of distinct events whose repetitions are tracked at the same time
+     */
+    int getDedupTableSize();
+
     default boolean allDisabled() {
         return !isClientConnect() && !isClientDisconnect() && !isConnackSend() && !isPublishSend() &&
                 !isPublishReceived() && !isSubscribeReceived() && !isSubackSend() && !isUnsubscribeReceived() &&
                 !isUnsubackSend() && !isPingRequestReceived() && !isPingResponseSend() && !isPubackReceived() &&
                 !isPubackSend() && !isPubrecReceived() && !isPubrecSend() && !isPubrelReceived() && !isPubrelSend() &&
-                !isPubcompReceived() && !isPubcompSend();
+                !isPubcompReceived() && !isPubcompSend() && !isSessionSummary() &&
+                !isPingDigest();
     }
 }
@@ -17,11 +17,17 @@
 package com.hivemq.extensions.log.mqtt.message.config;
 
 import com.hivemq.extensions.log.mqtt.message.logger.OutputFormat;
+import com.hivemq.extensions.log.mqtt.message.logger.TimestampFormat;
+import com.hivemq.extensions.log.mqtt.message.pipeline.OverflowPolicy;
+import com.hivemq.extensions.log.mqtt.message.sink.OutputSink;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.VisibleForTesting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 public class ExtensionConfigProperties implements ExtensionConfig {
@@ -31,9 +37,22 @@ public class ExtensionConfigProperties implements ExtensionConfig {
     static final @NotNull String TRUE = "true";
     static final @NotNull String FALSE = "false";
     static final @NotNull String OUTPUT_FORMAT = "output-format";
+    static final @NotNull String TIMESTAMP_FORMAT = "timestamp-format";
+    static final @NotNull String OUTPUT_SINK = "output-sink";
+    static final @NotNull String OUTPUT_FILE = "output-file";
+    static final @NotNull String SEGMENT_SIZE_MB = "segment-size-mb";
+    static final @NotNull String SEGMENT_ROLL_INTERVAL = "segment-roll-interval";
+    static final @NotNull String BATCH_SIZE = "batch-size";
+    static final @NotNull String BATCH_BYTES = "batch-bytes";
+    static final @NotNull String BATCH_LINGER = "batch-linger";
     static final @NotNull String VERBOSE = "verbose";
     static final @NotNull String PAYLOAD = "payload";
     static final @NotNull String REDACT_PASSWORD = "redact-password";
+    static final @NotNull String MAX_PAYLOAD_BYTES = "max-payload-bytes";
+    static final @NotNull String PAYLOAD_TAIL_BYTES = "payload-tail-bytes";
+    static final @NotNull String PUBLISH_RECEIVED_MAX_PAYLOAD_BYTES = "publish-received-max-payload-bytes";
+    static final @NotNull String PUBLISH_SEND_MAX_PAYLOAD_BYTES = "publish-send-max-payload-bytes";
+    static final @NotNull String WILL_MAX_PAYLOAD_BYTES = "will-max-payload-bytes";
     static final @NotNull String CLIENT_CONNECT = "client-connect";
     static final @NotNull String CLIENT_DISCONNECT = "client-disconnect";
     static final @NotNull String CONNACK_SEND = "connack-send";
@@ -53,6 +72,44 @@ public class ExtensionConfigProperties implements ExtensionConfig {
     static final @NotNull String PUBREL_SEND = "pubrel-send";
     static final @NotNull String PUBCOMP_RECEIVED = "pubcomp-received";
     static final @NotNull String PUBCOMP_SEND = "pubcomp-send";
+    static final @NotNull String INCLUDE_TOPICS = "include-topics";
+    static final @NotNull String EXCLUDE_TOPICS = "exclude-topics";
+    static final @NotNull String CLIENT_ID_PREFIXES = "client-id-prefixes";
+    static final @NotNull String CLIENT_ID_PATTERNS = "client-id-patterns";
+    static final @NotNull String USERNAMES = "usernames";
+    static final @NotNull String LISTENERS = "listeners";
+    static final @NotNull String MQTT_VERSIONS = "mqtt-versions";
+    static final @NotNull String RATE_LIMIT = "rate-limit";
+    static final @NotNull String RATE_LIMIT_BURST = "rate-limit-burst";
+    static final @NotNull String ASYNC = "async";
+    static final @NotNull String ASYNC_BUFFER_SIZE = "async-buffer-size";
+    static final @NotNull String ASYNC_CONSUMER_THREADS = "async-consumer-threads";
+    static final @NotNull String ASYNC_OVERFLOW_POLICY = "async-overflow-policy";
+    static final @NotNull String ASYNC_OVERFLOW_TIMEOUT = "async-overflow-timeout";
+    static final @NotNull String ASYNC_SAMPLE_RATE = "async-sample-rate";
+    static final @NotNull String ACK_LATENCY = "ack-latency";
+    static final @NotNull String ACK_LATENCY_TOPIC_LEVELS = "ack-latency-topic-levels";
+    static final @NotNull String QOS2_FLOW_AGGREGATION = "qos2-flow-aggregation";
+    static final @NotNull String QOS2_FLOW_TIMEOUT = "qos2-flow-timeout";
+    static final @NotNull String SESSION_SUMMARY = "session-summary";
+    static final @NotNull String PING_DIGEST = "ping-digest";
+    static final @NotNull String PING_DIGEST_INTERVAL = "ping-digest-interval";
+    static final @NotNull String DEDUP_WINDOW = "dedup-window";
+    static final @NotNull String DEDUP_TABLE_SIZE = "dedup-table-size";
+
+    static final @NotNull String DEFAULT_OUTPUT_FILE = "mqtt-message-log.json";
+    static final int DEFAULT_SEGMENT_SIZE_MB = 64;
+    static final int DEFAULT_SEGMENT_ROLL_INTERVAL = 3600;
+    static final int DEFAULT_BATCH_BYTES = 64 * 1024;
+    static final int DEFAULT_BATCH_LINGER = 100;
+    static final int DEFAULT_ASYNC_BUFFER_SIZE = 8192;
+    static final int DEFAULT_ASYNC_CONSUMER_THREADS = 1;
+    static final int DEFAULT_ASYNC_OVERFLOW_TIMEOUT = 10;
+    static final int DEFAULT_ASYNC_SAMPLE_RATE = 10;
+    static final int DEFAULT_ACK_LATENCY_TOPIC_LEVELS = 1;
+    static final int DEFAULT_QOS2_FLOW_TIMEOUT = 60;
+    static final int DEFAULT_PING_DIGEST_INTERVAL = 60;
+    static final int DEFAULT_DEDUP_TABLE_SIZE = 4096;
 
     private final @NotNull Properties properties;
 
@@ -148,6 +205,31 @@ public class ExtensionConfigProperties implements ExtensionConfig {
         return getForKey(REDACT_PASSWORD);
     }
 
+    @Override
+    public int getMaxPayloadBytes() {
+        return getIntForKey(MAX_PAYLOAD_BYTES, 0, 0);
+    }
+
+    @Override
+    public int getPayloadTailBytes() {
+        return getIntForKey(PAYLOAD_TAIL_BYTES, 0, 0);
+    }
+
+    @Override
+    public int getPublishReceivedMaxPayloadBytes() {
+        return getIntForKey(PUBLISH_RECEIVED_MAX_PAYLOAD_BYTES, getMaxPayloadBytes(), 0);
+    }
+
+    @Override
+    public int getPublishSendMaxPayloadBytes() {
+        return getIntForKey(PUBLISH_SEND_MAX_PAYLOAD_BYTES, getMaxPayloadBytes(), 0);
+    }
+
+    @Override
+    public int getWillMaxPayloadBytes() {
+        return getIntForKey(WILL_MAX_PAYLOAD_BYTES, getMaxPayloadBytes(), 0);
+    }
+
     @Override
     public @NotNull OutputFormat getOutputFormat() {
         final var format = properties.getProperty(OUTPUT_FORMAT, "plain-text");
@@ -159,6 +241,218 @@ public class ExtensionConfigProperties implements ExtensionConfig {
         }
     }
 
+    @Override
+    public @Nullable TimestampFormat getTimestampFormat() {
+        final var format = properties.getProperty(TIMESTAMP_FORMAT);
+        if (format == null) {
+            return null;
+        }
+        try {
+            return TimestampFormat.valueOf(format.toUpperCase().replace('-', '_'));
+        } catch (final IllegalArgumentException e) {
+            LOG.warn("Invalid timestamp format '{}', using the default of the output format", format);
+            return null;
+        }
+    }
+
+    @Override
+    public @NotNull OutputSink getOutputSink() {
+        final var sink = properties.getProperty(OUTPUT_SINK, "log");
+        try {
+            return OutputSink.valueOf(sink.toUpperCase().replace('-', '_'));
+        } catch (final IllegalArgumentException e) {
+            LOG.warn("Invalid output sink '{}', defaulting to LOG", sink);
+            return OutputSink.LOG;
+        }
+    }
+
+    @Override
+    public @NotNull String getOutputFile() {
+        return properties.getProperty(OUTPUT_FILE, DEFAULT_OUTPUT_FILE);
+    }
+
+    @Override
+    public int getSegmentSizeMb() {
+        return getIntForKey(SEGMENT_SIZE_MB, DEFAULT_SEGMENT_SIZE_MB, 1);
+    }
+
+    @Override
+    public int getSegmentRollInterval() {
+        return getIntForKey(SEGMENT_ROLL_INTERVAL, DEFAULT_SEGMENT_ROLL_INTERVAL, 0);
+    }
+
+    @Override
+    public int getBatchSize() {
+        return getIntForKey(BATCH_SIZE, 0, 0);
+    }
+
+    @Override
+    public int getBatchBytes() {
+        return getIntForKey(BATCH_BYTES, DEFAULT_BATCH_BYTES, 1);
+    }
+
+    @Override
+    public int getBatchLinger() {
+        return getIntForKey(BATCH_LINGER, DEFAULT_BATCH_LINGER, 1);
+    }
+
+    @Override
+    public @NotNull List<String> getIncludeTopics() {
+        return getListForKey(INCLUDE_TOPICS);
+    }
+
+    @Override
+    public @NotNull List<String> getExcludeTopics() {
+        return getListForKey(EXCLUDE_TOPICS);
+    }
+
+    @Override
+    public @NotNull List<String> getClientIdPrefixes() {
+        return getListForKey(CLIENT_ID_PREFIXES);
+    }
+
+    @Override
+    public @NotNull List<String> getClientIdPatterns() {
+        return getListForKey(CLIENT_ID_PATTERNS);
+    }
+
+    @Override
+    public @NotNull List<String> getUsernames() {
+        return getListForKey(USERNAMES);
+    }
+
+    @Override
+    public @NotNull List<String> getListeners() {
+        return getListForKey(LISTENERS);
+    }
+
+    @Override
+    public @NotNull List<String> getMqttVersions() {
+        return getListForKey(MQTT_VERSIONS);
+    }
+
+    @Override
+    public int getRateLimit() {
+        return getIntForKey(RATE_LIMIT, 0, 0);
+    }
+
+    @Override
+    public int getRateLimitBurst() {
+        return getIntForKey(RATE_LIMIT_BURST, getRateLimit(), 1);
+    }
+
+    @Override
+    public boolean isAsync() {
+        return properties.getProperty(ASYNC, FALSE).equalsIgnoreCase(TRUE);
+    }
+
+    @Override
+    public int getAsyncBufferSize() {
+        return getIntForKey(ASYNC_BUFFER_SIZE, DEFAULT_ASYNC_BUFFER_SIZE, 1);
+    }
+
+    @Override
+    public int getAsyncConsumerThreads() {
+        return getIntForKey(ASYNC_CONSUMER_THREADS, DEFAULT_ASYNC_CONSUMER_THREADS, 1);
+    }
+
+    @Override
+    public @NotNull OverflowPolicy getAsyncOverflowPolicy() {
+        final var policy = properties.getProperty(ASYNC_OVERFLOW_POLICY, "drop-newest");
+        try {
+            return OverflowPolicy.valueOf(policy.toUpperCase().replace('-', '_'));
+        } catch (final IllegalArgumentException e) {
+            LOG.warn("Invalid async overflow policy '{}', defaulting to DROP_NEWEST", policy);
+            return OverflowPolicy.DROP_NEWEST;
+        }
+    }
+
+    @Override
+    public int getAsyncOverflowTimeout() {
+        return getIntForKey(ASYNC_OVERFLOW_TIMEOUT, DEFAULT_ASYNC_OVERFLOW_TIMEOUT, 0);
+    }
+
+    @Override
+    public int getAsyncSampleRate() {
+        return getIntForKey(ASYNC_SAMPLE_RATE, DEFAULT_ASYNC_SAMPLE_RATE, 1);
+    }
+
+    @Override
+    public boolean isAckLatency() {
+        return properties.getProperty(ACK_LATENCY, FALSE).equalsIgnoreCase(TRUE);
+    }
+
+    @Override
+    public int getAckLatencyTopicLevels() {
+        return getIntForKey(ACK_LATENCY_TOPIC_LEVELS, DEFAULT_ACK_LATENCY_TOPIC_LEVELS, 1);
+    }
+
+    @Override
+    public boolean isQos2FlowAggregation() {
+        return properties.getProperty(QOS2_FLOW_AGGREGATION, FALSE).equalsIgnoreCase(TRUE);
+    }
+
+    @Override
+    public int getQos2FlowTimeout() {
+        return getIntForKey(QOS2_FLOW_TIMEOUT, DEFAULT_QOS2_FLOW_TIMEOUT, 1);
+    }
+
+    @Override
+    public boolean isSessionSummary() {
+        return properties.getProperty(SESSION_SUMMARY, FALSE).equalsIgnoreCase(TRUE);
+    }
+
+    @Override
+    public boolean isPingDigest() {
+        return properties.getProperty(PING_DIGEST, FALSE).equalsIgnoreCase(TRUE);
+    }
+
+    @Override
+    public int getPingDigestInterval() {
+        return getIntForKey(PING_DIGEST_INTERVAL, DEFAULT_PING_DIGEST_INTERVAL, 1);
+    }
+
+    @Override
+    public int getDedupWindow() {
+        return getIntForKey(DEDUP_WINDOW, 0, 0);
+    }
+
+    @Override
+    public int getDedupTableSize() {
+        return getIntForKey(DEDUP_TABLE_SIZE, DEFAULT_DEDUP_TABLE_SIZE, 1);
+    }
+
+    private int getIntForKey(final @NotNull String key, final int defaultValue, final int minValue) {
+        final var value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            final var parsed = Integer.parseInt(value.trim());
+            if (parsed >= minValue) {
+                return parsed;
+            }
+        } catch (final NumberFormatException ignored) {
+        }
+        LOG.warn("Invalid value '{}' for {}, defaulting to {}", value, key, defaultValue);
+        return defaultValue;
+    }
+
+    private @NotNull List<String> getListForKey(final @NotNull String key) {
+        final var value = properties.getProperty(key);
+        if (value == null) {
+            return List.of();
+        }
+        final var list = new ArrayList<String>();
+        for (final var element : value.split(",")) {
+            final var trimmed = element.trim();
+            if (!trimmed.isEmpty()) {
+                list.add(trimmed);
+            }
+        }
+        return list;
+    }
+
     private boolean getForKey(final @NotNull String key) {
         return properties.getProperty(key, TRUE).equalsIgnoreCase(TRUE);
     }
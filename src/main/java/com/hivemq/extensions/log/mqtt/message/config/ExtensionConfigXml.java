@@ -17,15 +17,22 @@
 package com.hivemq.extensions.log.mqtt.message.config;
 
 import com.hivemq.extensions.log.mqtt.message.logger.OutputFormat;
+import com.hivemq.extensions.log.mqtt.message.logger.TimestampFormat;
+import com.hivemq.extensions.log.mqtt.message.pipeline.OverflowPolicy;
+import com.hivemq.extensions.log.mqtt.message.sink.OutputSink;
 import jakarta.xml.bind.annotation.XmlAccessType;
 import jakarta.xml.bind.annotation.XmlAccessorType;
 import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlElementWrapper;
 import jakarta.xml.bind.annotation.XmlRootElement;
 import jakarta.xml.bind.annotation.XmlType;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+
 /**
  * @since 1.2.0
  */
@@ -41,6 +48,30 @@ public class ExtensionConfigXml implements ExtensionConfig {
     @XmlElement(name = "output-format", defaultValue = "plain-text")
     private String outputFormat = "plain-text";
 
+    @XmlElement(name = "timestamp-format")
+    private @Nullable String timestampFormat;
+
+    @XmlElement(name = "output-sink", defaultValue = "log")
+    private String outputSink = "log";
+
+    @XmlElement(name = "output-file", defaultValue = "mqtt-message-log.json")
+    private String outputFile = "mqtt-message-log.json";
+
+    @XmlElement(name = "segment-size-mb", defaultValue = "64")
+    private int segmentSizeMb = 64;
+
+    @XmlElement(name = "segment-roll-interval", defaultValue = "3600")
+    private int segmentRollInterval = 3600;
+
+    @XmlElement(name = "batch-size", defaultValue = "0")
+    private int batchSize = 0;
+
+    @XmlElement(name = "batch-bytes", defaultValue = "65536")
+    private int batchBytes = 65536;
+
+    @XmlElement(name = "batch-linger", defaultValue = "100")
+    private int batchLinger = 100;
+
     @XmlElement(name = "verbose", defaultValue = "false")
     private boolean verbose = false;
 
@@ -50,6 +81,22 @@ public class ExtensionConfigXml implements ExtensionConfig {
     @XmlElement(name = "redact-password", defaultValue = "false")
     private boolean redactPassword = false;
 
+    @XmlElement(name = "max-payload-bytes", defaultValue = "0")
+    private int maxPayloadBytes = 0;
+
+    @XmlElement(name = "payload-tail-bytes", defaultValue = "0")
+    private int payloadTailBytes = 0;
+
+    // null if the value of max-payload-bytes applies
+    @XmlElement(name = "publish-received-max-payload-bytes")
+    private @Nullable Integer publishReceivedMaxPayloadBytes;
+
+    @XmlElement(name = "publish-send-max-payload-bytes")
+    private @Nullable Integer publishSendMaxPayloadBytes;
+
+    @XmlElement(name = "will-max-payload-bytes")
+    private @Nullable Integer willMaxPayloadBytes;
+
     @XmlElement(name = "publish-received", defaultValue = "true")
     private boolean publishReceived = true;
 
@@ -107,6 +154,86 @@ public class ExtensionConfigXml implements ExtensionConfig {
     @XmlElement(name = "pubcomp-send", defaultValue = "true")
     private boolean pubcompSend = true;
 
+    @XmlElementWrapper(name = "include-topics")
+    @XmlElement(name = "topic-filter")
+    private @Nullable List<String> includeTopics;
+
+    @XmlElementWrapper(name = "exclude-topics")
+    @XmlElement(name = "topic-filter")
+    private @Nullable List<String> excludeTopics;
+
+    @XmlElementWrapper(name = "client-id-prefixes")
+    @XmlElement(name = "client-id-prefix")
+    private @Nullable List<String> clientIdPrefixes;
+
+    @XmlElementWrapper(name = "client-id-patterns")
+    @XmlElement(name = "client-id-pattern")
+    private @Nullable List<String> clientIdPatterns;
+
+    @XmlElementWrapper(name = "usernames")
+    @XmlElement(name = "username")
+    private @Nullable List<String> usernames;
+
+    @XmlElementWrapper(name = "listeners")
+    @XmlElement(name = "listener")
+    private @Nullable List<String> listeners;
+
+    @XmlElementWrapper(name = "mqtt-versions")
+    @XmlElement(name = "mqtt-version")
+    private @Nullable List<String> mqttVersions;
+
+    @XmlElement(name = "rate-limit", defaultValue = "0")
+    private int rateLimit = 0;
+
+    // null if the value of rate-limit applies
+    @XmlElement(name = "rate-limit-burst")
+    private @Nullable Integer rateLimitBurst;
+
+    @XmlElement(name = "async", defaultValue = "false")
+    private boolean async = false;
+
+    @XmlElement(name = "async-buffer-size", defaultValue = "8192")
+    private int asyncBufferSize = 8192;
+
+    @XmlElement(name = "async-consumer-threads", defaultValue = "1")
+    private int asyncConsumerThreads = 1;
+
+    @XmlElement(name = "async-overflow-policy", defaultValue = "drop-newest")
+    private @NotNull String asyncOverflowPolicy = "drop-newest";
+
+    @XmlElement(name = "async-overflow-timeout", defaultValue = "10")
+    private int asyncOverflowTimeout = 10;
+
+    @XmlElement(name = "async-sample-rate", defaultValue = "10")
+    private int asyncSampleRate = 10;
+
+    @XmlElement(name = "ack-latency", defaultValue = "false")
+    private boolean ackLatency = false;
+
+    @XmlElement(name = "ack-latency-topic-levels", defaultValue = "1")
+    private int ackLatencyTopicLevels = 1;
+
+    @XmlElement(name = "qos2-flow-aggregation", defaultValue = "false")
+    private boolean qos2FlowAggregation = false;
+
+    @XmlElement(name = "qos2-flow-timeout", defaultValue = "60")
+    private int qos2FlowTimeout = 60;
+
+    @XmlElement(name = "session-summary", defaultValue = "false")
+    private boolean sessionSummary = false;
+
+    @XmlElement(name = "ping-digest", defaultValue = "false")
+    private boolean pingDigest = false;
+
+    @XmlElement(name = "ping-digest-interval", defaultValue = "60")
+    private int pingDigestInterval = 60;
+
+    @XmlElement(name = "dedup-window", defaultValue = "0")
+    private int dedupWindow = 0;
+
+    @XmlElement(name = "dedup-table-size", defaultValue = "4096")
+    private int dedupTableSize = 4096;
+
     public boolean isVerbose() {
         return verbose;
     }
@@ -205,10 +332,303 @@ public class ExtensionConfigXml implements ExtensionConfig {
         }
     }
 
+    @Override
+    public @Nullable TimestampFormat getTimestampFormat() {
+        if (timestampFormat == null) {
+            return null;
+        }
+        try {
+            return TimestampFormat.valueOf(timestampFormat.toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Invalid timestamp format '{}', using the default of the output format", timestampFormat);
+            return null;
+        }
+    }
+
+    @Override
+    public @NotNull OutputSink getOutputSink() {
+        try {
+            return OutputSink.valueOf(outputSink.toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Invalid output sink '{}', defaulting to LOG", outputSink);
+            return OutputSink.LOG;
+        }
+    }
+
+    @Override
+    public @NotNull String getOutputFile() {
+        return outputFile;
+    }
+
+    @Override
+    public int getMaxPayloadBytes() {
+        return getPayloadBytes("max-payload-bytes", maxPayloadBytes, 0);
+    }
+
+    @Override
+    public int getPayloadTailBytes() {
+        return getPayloadBytes("payload-tail-bytes", payloadTailBytes, 0);
+    }
+
+    @Override
+    public int getPublishReceivedMaxPayloadBytes() {
+        return getPayloadBytes("publish-received-max-payload-bytes",
+                publishReceivedMaxPayloadBytes,
+                getMaxPayloadBytes());
+    }
+
+    @Override
+    public int getPublishSendMaxPayloadBytes() {
+        return getPayloadBytes("publish-send-max-payload-bytes", publishSendMaxPayloadBytes, getMaxPayloadBytes());
+    }
+
+    @Override
+    public int getWillMaxPayloadBytes() {
+        return getPayloadBytes("will-max-payload-bytes", willMaxPayloadBytes, getMaxPayloadBytes());
+    }
+
+    private static int getPayloadBytes(
+            final @NotNull String name,
+            final @Nullable Integer value,
+            final int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value < 0) {
+            LOG.warn("Invalid {} '{}', defaulting to {}", name, value, defaultValue);
+            return defaultValue;
+        }
+        return value;
+    }
+
+    @Override
+    public int getSegmentSizeMb() {
+        if (segmentSizeMb <= 0) {
+            LOG.warn("Invalid segment-size-mb '{}', defaulting to 64", segmentSizeMb);
+            return 64;
+        }
+        return segmentSizeMb;
+    }
+
+    @Override
+    public int getSegmentRollInterval() {
+        if (segmentRollInterval < 0) {
+            LOG.warn("Invalid segment-roll-interval '{}', defaulting to 3600", segmentRollInterval);
+            return 3600;
+        }
+        return segmentRollInterval;
+    }
+
+    @Override
+    public int getBatchSize() {
+        if (batchSize < 0) {
+            LOG.warn("Invalid batch-size '{}', defaulting to 0", batchSize);
+            return 0;
+        }
+        return batchSize;
+    }
+
+    @Override
+    public int getBatchBytes() {
+        if (batchBytes <= 0) {
+            LOG.warn("Invalid batch-bytes '{}', defaulting to 65536", batchBytes);
+            return 65536;
+        }
+        return batchBytes;
+    }
+
+    @Override
+    public int getBatchLinger() {
+        if (batchLinger <= 0) {
+            LOG.warn("Invalid batch-linger '{}', defaulting to 100", batchLinger);
+            return 100;
+        }
+        return batchLinger;
+    }
+
+    @Override
+    public @NotNull List<String> getIncludeTopics() {
+        return includeTopics != null ? includeTopics : List.of();
+    }
+
+    @Override
+    public @NotNull List<String> getExcludeTopics() {
+        return excludeTopics != null ? excludeTopics : List.of();
+    }
+
+    @Override
+    public @NotNull List<String> getClientIdPrefixes() {
+        return clientIdPrefixes != null ? clientIdPrefixes : List.of();
+    }
+
+    @Override
+    public @NotNull List<String> getClientIdPatterns() {
+        return clientIdPatterns != null ? clientIdPatterns : List.of();
+    }
+
+    @Override
+    public @NotNull List<String> getUsernames() {
+        return usernames != null ? usernames : List.of();
+    }
+
+    @Override
+    public @NotNull List<String> getListeners() {
+        return listeners != null ? listeners : List.of();
+    }
+
+    @Override
+    public @NotNull List<String> getMqttVersions() {
+        return mqttVersions != null ? mqttVersions : List.of();
+    }
+
+    @Override
+    public int getRateLimit() {
+        if (rateLimit < 0) {
+            LOG.warn("Invalid rate-limit '{}', defaulting to 0", rateLimit);
+            return 0;
+        }
+        return rateLimit;
+    }
+
+    @Override
+    public int getRateLimitBurst() {
+        if (rateLimitBurst == null) {
+            return getRateLimit();
+        }
+        if (rateLimitBurst <= 0) {
+            LOG.warn("Invalid rate-limit-burst '{}', defaulting to {}", rateLimitBurst, getRateLimit());
+            return getRateLimit();
+        }
+        return rateLimitBurst;
+    }
+
+    @Override
+    public boolean isAsync() {
+        return async;
+    }
+
+    @Override
+    public int getAsyncBufferSize() {
+        if (asyncBufferSize <= 0) {
+            LOG.warn("Invalid async-buffer-size '{}', defaulting to 8192", asyncBufferSize);
+            return 8192;
+        }
+        return asyncBufferSize;
+    }
+
+    @Override
+    public int getAsyncConsumerThreads() {
+        if (asyncConsumerThreads <= 0) {
+            LOG.warn("Invalid async-consumer-threads '{}', defaulting to 1", asyncConsumerThreads);
+            return 1;
+        }
+        return asyncConsumerThreads;
+    }
+
+    @Override
+    public @NotNull OverflowPolicy getAsyncOverflowPolicy() {
+        try {
+            return OverflowPolicy.valueOf(asyncOverflowPolicy.toUpperCase().replace('-', '_'));
+        } catch (final IllegalArgumentException e) {
+            LOG.warn("Invalid async-overflow-policy '{}', defaulting to DROP_NEWEST", asyncOverflowPolicy);
+            return OverflowPolicy.DROP_NEWEST;
+        }
+    }
+
+    @Override
+    public int getAsyncOverflowTimeout() {
+        if (asyncOverflowTimeout < 0) {
+            LOG.warn("Invalid async-overflow-timeout '{}', defaulting to 10", asyncOverflowTimeout);
+            return 10;
+        }
+        return asyncOverflowTimeout;
+    }
+
+    @Override
+    public int getAsyncSampleRate() {
+        if (asyncSampleRate <= 0) {
+            LOG.warn("Invalid async-sample-rate '{}', defaulting to 10", asyncSampleRate);
+            return 10;
+        }
+        return asyncSampleRate;
+    }
+
+    @Override
+    public boolean isAckLatency() {
+        return ackLatency;
+    }
+
+    @Override
+    public int getAckLatencyTopicLevels() {
+        if (ackLatencyTopicLevels <= 0) {
+            LOG.warn("Invalid ack-latency-topic-levels '{}', defaulting to 1", ackLatencyTopicLevels);
+            return 1;
+        }
+        return ackLatencyTopicLevels;
+    }
+
+    @Override
+    public boolean isQos2FlowAggregation() {
+        return qos2FlowAggregation;
+    }
+
+    @Override
+    public int getQos2FlowTimeout() {
+        if (qos2FlowTimeout <= 0) {
+            LOG.warn("Invalid qos2-flow-timeout '{}', defaulting to 60", qos2FlowTimeout);
+            return 60;
+        }
+        return qos2FlowTimeout;
+    }
+
+    @Override
+    public boolean isSessionSummary() {
+        return sessionSummary;
+    }
+
+    @Override
+    public boolean isPingDigest() {
+        return pingDigest;
+    }
+
+    @Override
+    public int getPingDigestInterval() {
+        if (pingDigestInterval <= 0) {
+            LOG.warn("Invalid ping-digest-interval '{}', defaulting to 60", pingDigestInterval);
+            return 60;
+        }
+        return pingDigestInterval;
+    }
+
+    @Override
+    public int getDedupWindow() {
+        if (dedupWindow < 0) {
+            LOG.warn("Invalid dedup-window '{}', defaulting to 0", dedupWindow);
+            return 0;
+        }
+        return dedupWindow;
+    }
+
+    @Override
+    public int getDedupTableSize() {
+        if (dedupTableSize <= 0) {
+            LOG.warn("Invalid dedup-table-size '{}', defaulting to 4096", dedupTableSize);
+            return 4096;
+        }
+        return dedupTableSize;
+    }
+
     @Override
     public @NotNull String toString() {
-        return "{" + "outputFormat=" + outputFormat + ", verbose=" + verbose + ", payload=" + payload +
-                ", passwordInVerbose=" + redactPassword + ", publishReceived=" + publishReceived + ", publishSend=" +
+        return "{" + "outputFormat=" + outputFormat + ", timestampFormat=" + timestampFormat + ", outputSink=" +
+                outputSink + ", outputFile=" + outputFile +
+                ", segmentSizeMb=" + segmentSizeMb + ", segmentRollInterval=" + segmentRollInterval +
+                ", batchSize=" + batchSize + ", batchBytes=" + batchBytes + ", batchLinger=" + batchLinger +
+                ", verbose=" + verbose + ", payload=" + payload + ", maxPayloadBytes=" + maxPayloadBytes +
+                ", payloadTailBytes=" + payloadTailBytes + ", publishReceivedMaxPayloadBytes=" +
+                publishReceivedMaxPayloadBytes +
+                ", publishSendMaxPayloadBytes=" + publishSendMaxPayloadBytes + ", willMaxPayloadBytes=" +
+                willMaxPayloadBytes + ", passwordInVerbose=" + redactPassword + ", publishReceived=" + publishReceived + ", publishSend=" +
                 publishSend + ", clientConnect=" + clientConnect + ", connackSend=" + connackSend +
                 ", clientDisconnect=" + clientDisconnect + ", subscribeReceived=" + subscribeReceived +
                 ", subackSend=" + subackSend + ", unsubscribeReceived=" + unsubscribeReceived + ", unsubackSend=" +
@@ -216,6 +636,16 @@ public class ExtensionConfigXml implements ExtensionConfig {
                 pingResponseSend + ", pubackReceived=" + pubackReceived + ", pubackSend=" + pubackSend +
                 ", pubrecReceived=" + pubrecReceived + ", pubrecSend=" + pubrecSend + ", pubrelReceived=" +
                 pubrelReceived + ", pubrelSend=" + pubrelSend + ", pubcompReceived=" + pubcompReceived +
-                ", pubcompSend=" + pubcompSend + '}';
+                ", pubcompSend=" + pubcompSend + ", includeTopics=" + includeTopics + ", excludeTopics=" + excludeTopics +
+                ", clientIdPrefixes=" + clientIdPrefixes + ", clientIdPatterns=" + clientIdPatterns +
+                ", usernames=" + usernames + ", listeners=" + listeners + ", mqttVersions=" + mqttVersions +
+                ", rateLimit=" + rateLimit + ", rateLimitBurst=" + rateLimitBurst +
+                ", async=" + async + ", asyncBufferSize=" + asyncBufferSize +
+                ", asyncConsumerThreads=" + asyncConsumerThreads + ", asyncOverflowPolicy=" + asyncOverflowPolicy +
+                ", asyncOverflowTimeout=" + asyncOverflowTimeout + ", asyncSampleRate=" + asyncSampleRate +
+                ", ackLatency=" + ackLatency + ", ackLatencyTopicLevels=" + ackLatencyTopicLevels +
+                ", qos2FlowAggregation=" + qos2FlowAggregation + ", qos2FlowTimeout=" + qos2FlowTimeout +
+                ", sessionSummary=" + sessionSummary + ", pingDigest=" + pingDigest + ", pingDigestInterval=" +
+                pingDigestInterval + ", dedupWindow=" + dedupWindow + ", dedupTableSize=" + dedupTableSize + '}';
     }
 }
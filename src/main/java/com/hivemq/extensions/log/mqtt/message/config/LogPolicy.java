@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.config;
+
+import com.hivemq.extensions.log.mqtt.message.logger.PayloadLimit;
+import com.hivemq.extensions.log.mqtt.message.logger.PayloadLimits;
+import com.hivemq.extensions.log.mqtt.message.topic.TopicFilter;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Immutable snapshot of the configuration that can change while the extension is running, precompiled so that the
+ * loggers only have to test bits and read fields.
+ * <p>
+ * A new policy is compiled whenever the configuration file changes and published through a single reference, so
+ * every event is logged with one consistent policy.
+ *
+ * @since 1.4.0
+ */
+public class LogPolicy {
+
+    /**
+     * Bitmask with all {@link EventType}s enabled.
+     */
+    public static final int ALL_EVENTS = (1 << EventType.values().length) - 1;
+
+    private final int events;
+    private final boolean verbose;
+    private final boolean payload;
+    private final boolean redactPassword;
+    private final @NotNull PayloadLimits payloadLimits;
+    private final @NotNull TopicFilter topicFilter;
+
+    /**
+     * @param events         bitmask of the enabled {@link EventType}s, indexed by their ordinal
+     * @param verbose        whether to include verbose details
+     * @param payload        whether to include message payloads
+     * @param redactPassword whether to redact passwords
+     * @param payloadLimits  how much of the payloads is included
+     * @param topicFilter    the topics of the PUBLISH and will messages that are logged
+     */
+    public LogPolicy(
+            final int events,
+            final boolean verbose,
+            final boolean payload,
+            final boolean redactPassword,
+            final @NotNull PayloadLimits payloadLimits,
+            final @NotNull TopicFilter topicFilter) {
+        this.events = events;
+        this.verbose = verbose;
+        this.payload = payload;
+        this.redactPassword = redactPassword;
+        this.payloadLimits = payloadLimits;
+        this.topicFilter = topicFilter;
+    }
+
+    /**
+     * Compiles the policy of a configuration, invalid topic filters are ignored with a warning.
+     */
+    public static @NotNull LogPolicy compile(final @NotNull ExtensionConfig config) {
+        var events = 0;
+        events |= bit(EventType.CLIENT_CONNECT, config.isClientConnect());
+        events |= bit(EventType.CONNACK_SEND, config.isConnackSend());
+        events |= bit(EventType.CLIENT_DISCONNECT, config.isClientDisconnect());
+        events |= bit(EventType.PUBLISH_RECEIVED, config.isPublishReceived());
+        events |= bit(EventType.PUBLISH_SEND, config.isPublishSend());
+        events |= bit(EventType.SUBSCRIBE_RECEIVED, config.isSubscribeReceived());
+        events |= bit(EventType.SUBACK_SEND, config.isSubackSend());
+        events |= bit(EventType.UNSUBSCRIBE_RECEIVED, config.isUnsubscribeReceived());
+        events |= bit(EventType.UNSUBACK_SEND, config.isUnsubackSend());
+        // the ping digest replaces the individual ping events
+        events |= bit(EventType.PING_REQUEST_RECEIVED, config.isPingRequestReceived() && !config.isPingDigest());
+        events |= bit(EventType.PING_RESPONSE_SEND, config.isPingResponseSend() && !config.isPingDigest());
+        events |= bit(EventType.PUBACK_RECEIVED, config.isPubackReceived());
+        events |= bit(EventType.PUBACK_SEND, config.isPubackSend());
+        events |= bit(EventType.PUBREC_RECEIVED, config.isPubrecReceived());
+        events |= bit(EventType.PUBREC_SEND, config.isPubrecSend());
+        events |= bit(EventType.PUBREL_RECEIVED, config.isPubrelReceived());
+        events |= bit(EventType.PUBREL_SEND, config.isPubrelSend());
+        events |= bit(EventType.PUBCOMP_RECEIVED, config.isPubcompReceived());
+        events |= bit(EventType.PUBCOMP_SEND, config.isPubcompSend());
+        final var tailBytes = config.getPayloadTailBytes();
+        final var payloadLimits =
+                new PayloadLimits(new PayloadLimit(config.getPublishReceivedMaxPayloadBytes(), tailBytes),
+                        new PayloadLimit(config.getPublishSendMaxPayloadBytes(), tailBytes),
+                        new PayloadLimit(config.getWillMaxPayloadBytes(), tailBytes));
+        return new LogPolicy(events,
+                config.isVerbose(),
+                config.isPayload(),
+                config.isRedactPassword(),
+                payloadLimits,
+                TopicFilter.compile(config.getIncludeTopics(), config.getExcludeTopics()));
+    }
+
+    private static int bit(final @NotNull EventType eventType, final boolean enabled) {
+        return enabled ? 1 << eventType.ordinal() : 0;
+    }
+
+    public boolean isEnabled(final @NotNull EventType eventType) {
+        return (events & (1 << eventType.ordinal())) != 0;
+    }
+
+    public boolean isVerbose() {
+        return verbose;
+    }
+
+    public boolean isPayload() {
+        return payload;
+    }
+
+    public boolean isRedactPassword() {
+        return redactPassword;
+    }
+
+    public @NotNull PayloadLimits getPayloadLimits() {
+        return payloadLimits;
+    }
+
+    public @NotNull TopicFilter getTopicFilter() {
+        return topicFilter;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.config;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.hivemq.extensions.log.mqtt.message.ExtensionConstants.EXTENSION_CONFIG_XML_LOCATION;
+import static com.hivemq.extensions.log.mqtt.message.ExtensionConstants.EXTENSION_NAME;
+
+/**
+ * Checks config.xml for changes when run and publishes the {@link LogPolicy} of a changed file.
+ * <p>
+ * A file that cannot be parsed is reported and the current policy is kept, so a half-written file never resets the
+ * logging to the defaults.
+ *
+ * @since 1.4.0
+ */
+public class LogPolicyReloader implements Runnable {
+
+    private static final @NotNull Logger LOG = LoggerFactory.getLogger(LogPolicyReloader.class);
+
+    private final @NotNull File configXmlFile;
+    private final @NotNull AtomicReference<LogPolicy> policy;
+    private long lastModified;
+    private long length;
+
+    public LogPolicyReloader(
+            final @NotNull File extensionHomeFolder,
+            final @NotNull AtomicReference<LogPolicy> policy) {
+        this.configXmlFile = extensionHomeFolder.toPath().resolve(EXTENSION_CONFIG_XML_LOCATION).toFile();
+        this.policy = policy;
+        this.lastModified = configXmlFile.lastModified();
+        this.length = configXmlFile.length();
+    }
+
+    @Override
+    public void run() {
+        final var modified = configXmlFile.lastModified();
+        final var size = configXmlFile.length();
+        if (modified == lastModified && size == length) {
+            return;
+        }
+        lastModified = modified;
+        length = size;
+        if (modified == 0) {
+            LOG.warn("{}: Configuration file {} was removed, keeping the current configuration",
+                    EXTENSION_NAME,
+                    configXmlFile.getAbsolutePath());
+            return;
+        }
+        final ExtensionConfigXml config;
+        try {
+            config = XmlParser.unmarshalExtensionConfig(configXmlFile);
+        } catch (final IOException e) {
+            LOG.warn("{}: Could not reload configuration file, reason: {}, keeping the current configuration",
+                    EXTENSION_NAME,
+                    e.getMessage());
+            return;
+        }
+        policy.set(LogPolicy.compile(config));
+        LOG.info("{}: Reloaded configuration: {}", EXTENSION_NAME, config);
+    }
+}
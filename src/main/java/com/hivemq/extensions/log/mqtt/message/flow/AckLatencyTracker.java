@@ -0,0 +1,166 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.flow;
+
+import com.hivemq.extension.sdk.api.packets.general.Qos;
+import com.hivemq.extension.sdk.api.packets.publish.PublishPacket;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
+import com.hivemq.extensions.log.mqtt.message.metrics.MessageLogMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Correlates the QoS 1 PUBLISH packets of a connection with their PUBACK packets by packet identifier and measures the
+ * time in between.
+ * <p>
+ * There is one tracker per connection, so the in-flight packets are kept in small {@link PacketIdMap}s that are only
+ * locked by the threads of the connection. The latencies are recorded in a histogram of the client, which is logged
+ * when the connection is closed, and in the {@link MessageLogMetrics} of the topic prefix of the PUBLISH.
+ *
+ * @since 1.4.0
+ */
+public class AckLatencyTracker {
+
+    private final @NotNull String clientId;
+    private final int topicLevels;
+    private final @NotNull MessageLogMetrics metrics;
+    private final @NotNull LongSupplier nanoClock;
+    // PUBLISH packets that were sent to the client and wait for its PUBACK
+    private final @NotNull PacketIdMap sent = new PacketIdMap();
+    // PUBLISH packets that were received from the client and wait for the PUBACK of HiveMQ
+    private final @NotNull PacketIdMap received = new PacketIdMap();
+    private final @NotNull LatencyHistogram sentLatency = new LatencyHistogram();
+    private final @NotNull LatencyHistogram receivedLatency = new LatencyHistogram();
+    // the topic prefix of the last acknowledged PUBLISH, clients mostly publish to few topics
+    private @Nullable String lastTopic;
+    private @Nullable String lastTopicPrefix;
+    private boolean evicted;
+
+    /**
+     * @param topicLevels the number of topic levels of the topic prefixes of the metrics
+     */
+    public AckLatencyTracker(
+            final @NotNull String clientId,
+            final int topicLevels,
+            final @NotNull MessageLogMetrics metrics) {
+        this(clientId, topicLevels, metrics, System::nanoTime);
+    }
+
+    AckLatencyTracker(
+            final @NotNull String clientId,
+            final int topicLevels,
+            final @NotNull MessageLogMetrics metrics,
+            final @NotNull LongSupplier nanoClock) {
+        this.clientId = clientId;
+        this.topicLevels = topicLevels;
+        this.metrics = metrics;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Starts the measurement of a PUBLISH, nothing is tracked for QoS 0 and 2.
+     * <p>
+     * A redelivered PUBLISH keeps the time of the first delivery, so the latency includes the retries.
+     *
+     * @param inbound whether the PUBLISH was received from the client
+     */
+    public synchronized void published(final @NotNull PublishPacket publishPacket, final boolean inbound) {
+        if (evicted || publishPacket.getQos() != Qos.AT_LEAST_ONCE) {
+            return;
+        }
+        final var inFlight = inbound ? received : sent;
+        final var packetId = publishPacket.getPacketId();
+        if (publishPacket.getDupFlag() && inFlight.indexOf(packetId) >= 0) {
+            return;
+        }
+        // the prefix is only cut from the topic when the PUBLISH is acknowledged
+        inFlight.put(packetId, nanoClock.getAsLong(), publishPacket.getTopic());
+    }
+
+    /**
+     * Completes the measurement of the PUBLISH that a PUBACK acknowledges.
+     *
+     * @param inbound whether the PUBACK was received from the client, so it acknowledges a PUBLISH sent to the client
+     * @return the microseconds since the PUBLISH, or {@code -1} if the PUBLISH is not known
+     */
+    public long acknowledged(final int packetId, final boolean inbound) {
+        final long nanos;
+        final String topicPrefix;
+        synchronized (this) {
+            final var inFlight = inbound ? sent : received;
+            final var slot = inFlight.indexOf(packetId);
+            if (slot < 0) {
+                return -1;
+            }
+            nanos = Math.max(nanoClock.getAsLong() - inFlight.valueAt(slot), 0);
+            //noinspection DataFlowIssue
+            topicPrefix = topicPrefix((String) inFlight.attachmentAt(slot));
+            inFlight.removeAt(slot);
+            (inbound ? sentLatency : receivedLatency).record(nanos / 1_000);
+        }
+        metrics.acknowledged(!inbound, topicPrefix, nanos);
+        return nanos / 1_000;
+    }
+
+    /**
+     * Drops the in-flight packets of the closed connection and logs the latency histogram of the client.
+     */
+    public synchronized void evict() {
+        evicted = true;
+        sent.clear();
+        received.clear();
+        if (sentLatency.getCount() > 0) {
+            logHistogram("sent to", sentLatency);
+        }
+        if (receivedLatency.getCount() > 0) {
+            logHistogram("received from", receivedLatency);
+        }
+    }
+
+    private void logHistogram(final @NotNull String direction, final @NotNull LatencyHistogram histogram) {
+        MessageLogger.LOG.info(
+                "Ack latency of QoS 1 PUBLISH {} client '{}': Count: '{}', p50: '{}us', p99: '{}us', Max: '{}us'",
+                direction,
+                clientId,
+                histogram.getCount(),
+                histogram.getValue(0.5),
+                histogram.getValue(0.99),
+                histogram.getMax());
+    }
+
+    private @NotNull String topicPrefix(final @NotNull String topic) {
+        if (!topic.equals(lastTopic)) {
+            lastTopic = topic;
+            lastTopicPrefix = cutTopicPrefix(topic);
+        }
+        //noinspection DataFlowIssue
+        return lastTopicPrefix;
+    }
+
+    private @NotNull String cutTopicPrefix(final @NotNull String topic) {
+        var end = -1;
+        for (var level = 0; level < topicLevels; level++) {
+            end = topic.indexOf('/', end + 1);
+            if (end < 0) {
+                return topic;
+            }
+        }
+        return topic.substring(0, end);
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.flow;
+
+import com.hivemq.extension.sdk.api.packets.publish.PublishPacket;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The state that is tracked across the packets of a connection and dropped when the connection is closed.
+ *
+ * @since 1.4.0
+ */
+public class ConnectionFlows {
+
+    private final @Nullable AckLatencyTracker ackLatencyTracker;
+    private final @Nullable PingAggregator.ClientPings clientPings;
+    private final long startNanos = System.nanoTime();
+    private volatile @Nullable Qos2FlowAggregator qos2FlowAggregator;
+    private @Nullable SessionSummary sessionSummary;
+    private @Nullable MessageLogger sessionSummaryLogger;
+    private @Nullable ConnectionContext sessionSummaryConnection;
+    private boolean closed;
+
+    ConnectionFlows(
+            final @Nullable AckLatencyTracker ackLatencyTracker,
+            final @Nullable PingAggregator.ClientPings clientPings) {
+        this.ackLatencyTracker = ackLatencyTracker;
+        this.clientPings = clientPings;
+    }
+
+    /**
+     * @return the ack latency tracker of the connection, or {@code null} if the ack latency is not tracked
+     */
+    public @Nullable AckLatencyTracker getAckLatencyTracker() {
+        return ackLatencyTracker;
+    }
+
+    /**
+     * @return the pings of the connection, or {@code null} if the pings are not aggregated
+     */
+    public @Nullable PingAggregator.ClientPings getClientPings() {
+        return clientPings;
+    }
+
+    /**
+     * Starts to aggregate the QoS 2 flows of the connection.
+     * <p>
+     * The aggregator is created by the client initializer, so the flows are logged with the logger of the client.
+     *
+     * @param messageLogger the logger of the flow records
+     * @param connection    the context of the connection the flows are logged with
+     * @param timeoutNanos  the nanoseconds after the PUBLISH after which a flow is logged as incomplete
+     */
+    public synchronized @NotNull Qos2FlowAggregator aggregateQos2Flows(
+            final @NotNull MessageLogger messageLogger,
+            final @NotNull ConnectionContext connection,
+            final long timeoutNanos) {
+        final var aggregator = new Qos2FlowAggregator(connection, messageLogger, timeoutNanos);
+        if (closed) {
+            aggregator.evict();
+        }
+        qos2FlowAggregator = aggregator;
+        return aggregator;
+    }
+
+    /**
+     * Starts to count the packets of the connection, the summary is logged when the connection is closed.
+     * <p>
+     * The duration of the summary starts with the connection, not with this call.
+     *
+     * @param messageLogger the logger of the summary record
+     * @param connection    the context of the connection the summary is logged with
+     */
+    public synchronized @NotNull SessionSummary summarizeSession(
+            final @NotNull MessageLogger messageLogger,
+            final @NotNull ConnectionContext connection) {
+        final var summary = new SessionSummary(startNanos);
+        if (closed) {
+            summary.close();
+            messageLogger.logSessionSummary(summary, connection);
+        } else {
+            sessionSummary = summary;
+            sessionSummaryLogger = messageLogger;
+            sessionSummaryConnection = connection;
+        }
+        return summary;
+    }
+
+    /**
+     * Passes a PUBLISH to the trackers of the connection.
+     *
+     * @param inbound whether the PUBLISH was received from the client
+     */
+    public void published(final @NotNull PublishPacket publishPacket, final boolean inbound) {
+        if (ackLatencyTracker != null) {
+            ackLatencyTracker.published(publishPacket, inbound);
+        }
+        final var aggregator = qos2FlowAggregator;
+        if (aggregator != null) {
+            aggregator.published(publishPacket, inbound);
+        }
+    }
+
+    void expire() {
+        final var aggregator = qos2FlowAggregator;
+        if (aggregator != null) {
+            aggregator.expire();
+        }
+    }
+
+    void close() {
+        final Qos2FlowAggregator aggregator;
+        final SessionSummary summary;
+        final MessageLogger summaryLogger;
+        final ConnectionContext summaryConnection;
+        synchronized (this) {
+            closed = true;
+            aggregator = qos2FlowAggregator;
+            summary = sessionSummary;
+            summaryLogger = sessionSummaryLogger;
+            summaryConnection = sessionSummaryConnection;
+        }
+        if (ackLatencyTracker != null) {
+            ackLatencyTracker.evict();
+        }
+        // the incomplete QoS 2 flows are counted in the summary
+        if (aggregator != null) {
+            aggregator.evict();
+        }
+        if (summary != null && summaryLogger != null && summaryConnection != null) {
+            summary.close();
+            summaryLogger.logSessionSummary(summary, summaryConnection);
+        }
+    }
+}
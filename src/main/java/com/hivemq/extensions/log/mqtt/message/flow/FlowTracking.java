@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.flow;
+
+import com.hivemq.extension.sdk.api.events.client.ClientLifecycleEventListener;
+import com.hivemq.extension.sdk.api.events.client.parameters.AuthenticationSuccessfulInput;
+import com.hivemq.extension.sdk.api.events.client.parameters.ConnectionStartInput;
+import com.hivemq.extension.sdk.api.events.client.parameters.DisconnectEventInput;
+import com.hivemq.extensions.log.mqtt.message.config.ExtensionConfig;
+import com.hivemq.extensions.log.mqtt.message.metrics.MessageLogMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link ConnectionFlows} of the connected clients.
+ * <p>
+ * The flows are created with the lifecycle listener of a connection, which HiveMQ creates when the connection starts
+ * and before the client initializer adds the interceptors that look up the flows. When the connection is closed the
+ * listener closes the flows. A connection that takes over the session of a client id replaces the flows of the
+ * previous connection, which only removes its own flows when it is closed.
+ *
+ * @since 1.4.0
+ */
+public class FlowTracking {
+
+    private final @NotNull ConcurrentHashMap<String, ConnectionFlows> connections = new ConcurrentHashMap<>();
+    private final boolean ackLatency;
+    private final int ackLatencyTopicLevels;
+    private final @NotNull MessageLogMetrics metrics;
+    private final @Nullable PingAggregator pingAggregator;
+
+    /**
+     * @param pingAggregator the aggregator of the pings of all connections, or {@code null} if pings are not aggregated
+     */
+    public FlowTracking(
+            final @NotNull ExtensionConfig config,
+            final @NotNull MessageLogMetrics metrics,
+            final @Nullable PingAggregator pingAggregator) {
+        this.ackLatency = config.isAckLatency();
+        this.ackLatencyTopicLevels = config.getAckLatencyTopicLevels();
+        this.metrics = metrics;
+        this.pingAggregator = pingAggregator;
+    }
+
+    /**
+     * Creates the flows of a new connection.
+     *
+     * @return the lifecycle listener of the connection that closes the flows when the connection is closed
+     */
+    public @NotNull ClientLifecycleEventListener connectionStarted(final @NotNull String clientId) {
+        final var flows =
+                new ConnectionFlows(ackLatency ? new AckLatencyTracker(clientId, ackLatencyTopicLevels, metrics) : null,
+                        pingAggregator != null ? pingAggregator.track(clientId) : null);
+        connections.put(clientId, flows);
+        return new ClosingListener(clientId, flows);
+    }
+
+    /**
+     * @return the flows of the current connection of the client, or {@code null} if there are none
+     */
+    public @Nullable ConnectionFlows get(final @NotNull String clientId) {
+        return connections.get(clientId);
+    }
+
+    /**
+     * Logs the QoS 2 flows of all connections that did not end within their timeout.
+     */
+    public void expire() {
+        for (final var flows : connections.values()) {
+            flows.expire();
+        }
+    }
+
+    private class ClosingListener implements ClientLifecycleEventListener {
+
+        private final @NotNull String clientId;
+        private final @NotNull ConnectionFlows flows;
+
+        ClosingListener(final @NotNull String clientId, final @NotNull ConnectionFlows flows) {
+            this.clientId = clientId;
+            this.flows = flows;
+        }
+
+        @Override
+        public void onMqttConnectionStart(final @NotNull ConnectionStartInput connectionStartInput) {
+            final var clientPings = flows.getClientPings();
+            if (clientPings != null) {
+                clientPings.connected(connectionStartInput.getConnectPacket().getKeepAlive());
+            }
+        }
+
+        @Override
+        public void onAuthenticationSuccessful(
+                final @NotNull AuthenticationSuccessfulInput authenticationSuccessfulInput) {
+            // NOOP
+        }
+
+        @Override
+        public void onDisconnect(final @NotNull DisconnectEventInput disconnectEventInput) {
+            connections.remove(clientId, flows);
+            flows.close();
+        }
+    }
+}
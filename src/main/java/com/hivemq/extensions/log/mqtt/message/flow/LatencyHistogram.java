@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.flow;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Compact histogram of latencies in microseconds with one bucket per power of two, for the statistics of a single
+ * connection. Not thread-safe.
+ * <p>
+ * The percentiles are the upper bounds of their buckets, so they are at most twice the exact value, which is precise
+ * enough to find the slow clients among many.
+ *
+ * @since 1.4.0
+ */
+final class LatencyHistogram {
+
+    // bucket i holds the values below 2^i, the last bucket holds all larger values (about 12 days and more)
+    private static final int BUCKETS = 41;
+
+    private final long @NotNull [] counts = new long[BUCKETS];
+    private long count;
+    private long max;
+
+    void record(final long micros) {
+        final var value = Math.max(micros, 0);
+        counts[Math.min(64 - Long.numberOfLeadingZeros(value), BUCKETS - 1)]++;
+        count++;
+        max = Math.max(max, value);
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    long getMax() {
+        return max;
+    }
+
+    /**
+     * @param quantile the quantile between {@code 0} and {@code 1}
+     * @return the upper bound of the bucket of the quantile, at most the maximum, or {@code 0} if empty
+     */
+    long getValue(final double quantile) {
+        final var rank = (long) Math.ceil(quantile * count);
+        var seen = 0L;
+        for (var i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0) {
+                return Math.min((1L << i) - 1, max);
+            }
+        }
+        return max;
+    }
+}
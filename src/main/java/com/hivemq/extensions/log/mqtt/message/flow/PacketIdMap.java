@@ -0,0 +1,164 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.flow;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Map from MQTT packet identifiers to a timestamp and an attachment, with open addressing and linear probing.
+ * <p>
+ * The keys are stored as primitive ints, so neither a lookup nor an insert allocates once the map has grown to the
+ * number of in-flight packets of a connection. Packet identifier {@code 0} is not valid in MQTT and marks free slots.
+ * Removed entries are not replaced with tombstones, the following entries of the probe sequence are shifted back
+ * instead, so lookups stay short under the constant inserts and removals of a connection. Not thread-safe.
+ *
+ * @since 1.4.0
+ */
+final class PacketIdMap {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int FREE = 0;
+
+    private int @NotNull [] keys = new int[INITIAL_CAPACITY];
+    private long @NotNull [] values = new long[INITIAL_CAPACITY];
+    private @Nullable Object @NotNull [] attachments = new Object[INITIAL_CAPACITY];
+    private int mask = INITIAL_CAPACITY - 1;
+    private int shift = Integer.numberOfLeadingZeros(INITIAL_CAPACITY - 1);
+    private int size;
+
+    /**
+     * Puts the value and attachment of the packet identifier, replacing the previous ones.
+     *
+     * @param packetId the packet identifier, must not be {@code 0}
+     */
+    void put(final int packetId, final long value, final @Nullable Object attachment) {
+        var slot = slot(packetId);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == packetId) {
+                values[slot] = value;
+                attachments[slot] = attachment;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = packetId;
+        values[slot] = value;
+        attachments[slot] = attachment;
+        // the load factor is kept at most 1/2, so probe sequences stay short
+        if (++size > keys.length / 2) {
+            grow();
+        }
+    }
+
+    /**
+     * @return the slot of the packet identifier, or {@code -1} if it is not contained
+     */
+    int indexOf(final int packetId) {
+        var slot = slot(packetId);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == packetId) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    long valueAt(final int slot) {
+        return values[slot];
+    }
+
+    @Nullable Object attachmentAt(final int slot) {
+        return attachments[slot];
+    }
+
+    /**
+     * Removes the entry of a slot returned by {@link #indexOf(int)}.
+     */
+    void removeAt(int slot) {
+        size--;
+        // shifts back the following entries of the probe sequence that cannot be found anymore once the slot is free
+        var next = (slot + 1) & mask;
+        while (keys[next] != FREE) {
+            final var home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                values[slot] = values[next];
+                attachments[slot] = attachments[next];
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[slot] = FREE;
+        attachments[slot] = null;
+    }
+
+    /**
+     * @return the packet identifier of a slot, {@code 0} if the slot is free
+     */
+    int keyAt(final int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * @return the number of slots, which are iterated with {@link #keyAt(int)}
+     */
+    int capacity() {
+        return keys.length;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(keys, FREE);
+        Arrays.fill(attachments, null);
+        size = 0;
+    }
+
+    private int slot(final int packetId) {
+        // Fibonacci hashing spreads the consecutive packet identifiers of a connection over the table
+        return (packetId * 0x9E3779B9) >>> shift;
+    }
+
+    private void grow() {
+        final var oldKeys = keys;
+        final var oldValues = values;
+        final var oldAttachments = attachments;
+        final var capacity = oldKeys.length * 2;
+        keys = new int[capacity];
+        values = new long[capacity];
+        attachments = new Object[capacity];
+        mask = capacity - 1;
+        shift--;
+        for (var i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                var slot = slot(oldKeys[i]);
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                attachments[slot] = oldAttachments[i];
+            }
+        }
+    }
+}
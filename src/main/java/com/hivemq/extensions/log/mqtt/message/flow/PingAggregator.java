@@ -0,0 +1,174 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hivemq.extensions.log.mqtt.message.flow;
+
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts the PINGREQ and PINGRESP packets of all connections and logs them as a {@link PingDigest} every interval.
+ * <p>
+ * The state of a connection is a {@link ClientPings} with the keep-alive of its CONNECT and the time of its last
+ * PINGREQ, so no map of clients is kept. A client is an outlier if it sends a PINGREQ earlier than half of its
+ * keep-alive after the previous one. A PINGREQ that is counted while the digest is logged may be counted in either
+ * interval.
+ *
+ * @since 1.4.0
+ */
+public class PingAggregator {
+
+    private static final int MAX_OUTLIERS = 10;
+
+    private final @NotNull MessageLogger messageLogger;
+    private final @NotNull LongSupplier nanoClock;
+    private final @NotNull LongAdder pingreqs = new LongAdder();
+    private final @NotNull LongAdder pingresps = new LongAdder();
+    private final @NotNull LongAdder clients = new LongAdder();
+    private final @NotNull LongAdder outlierClients = new LongAdder();
+    // the first outliers of the interval, recorded without a lock as they are found while a client is locked
+    private final @NotNull AtomicReferenceArray<PingDigest.Outlier> outliers =
+            new AtomicReferenceArray<>(MAX_OUTLIERS);
+    private final @NotNull AtomicInteger outlierCount = new AtomicInteger();
+    private volatile int interval;
+    private long intervalStartNanos;
+
+    /**
+     * @param messageLogger the logger of the digest records
+     */
+    public PingAggregator(final @NotNull MessageLogger messageLogger) {
+        this(messageLogger, System::nanoTime);
+    }
+
+    @VisibleForTesting
+    PingAggregator(final @NotNull MessageLogger messageLogger, final @NotNull LongSupplier nanoClock) {
+        this.messageLogger = messageLogger;
+        this.nanoClock = nanoClock;
+        intervalStartNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * @return the ping state of a new connection
+     */
+    public @NotNull ClientPings track(final @NotNull String clientId) {
+        return new ClientPings(clientId);
+    }
+
+    /**
+     * Logs the digest of the current interval and starts the next one, nothing is logged if there were no pings.
+     */
+    public void flush() {
+        final PingDigest digest;
+        synchronized (this) {
+            interval++;
+            final var nanos = nanoClock.getAsLong();
+            final var durationMillis = TimeUnit.NANOSECONDS.toMillis(nanos - intervalStartNanos);
+            intervalStartNanos = nanos;
+            digest = new PingDigest(durationMillis,
+                    pingreqs.sumThenReset(),
+                    pingresps.sumThenReset(),
+                    clients.sumThenReset(),
+                    outlierClients.sumThenReset(),
+                    takeOutliers());
+        }
+        if (digest.getPingreqs() > 0 || digest.getPingresps() > 0) {
+            messageLogger.logPingDigest(digest);
+        }
+    }
+
+    private void outlier(final @NotNull String clientId, final int keepAlive, final long intervalNanos) {
+        if (outlierCount.get() >= MAX_OUTLIERS) {
+            return;
+        }
+        final var index = outlierCount.getAndIncrement();
+        if (index < MAX_OUTLIERS) {
+            outliers.set(index,
+                    new PingDigest.Outlier(clientId, keepAlive, TimeUnit.NANOSECONDS.toMillis(intervalNanos)));
+        }
+    }
+
+    private @NotNull List<PingDigest.Outlier> takeOutliers() {
+        final var count = Math.min(outlierCount.getAndSet(0), MAX_OUTLIERS);
+        final var taken = new ArrayList<PingDigest.Outlier>(count);
+        for (var i = 0; i < count; i++) {
+            // an outlier that is recorded while the digest is logged may be missing or logged in the next interval
+            final var outlier = outliers.getAndSet(i, null);
+            if (outlier != null) {
+                taken.add(outlier);
+            }
+        }
+        return List.copyOf(taken);
+    }
+
+    /**
+     * The pings of a single connection.
+     *
+     * @since 1.4.0
+     */
+    public final class ClientPings {
+
+        private final @NotNull String clientId;
+        // unknown until the connection started
+        private volatile int keepAlive = -1;
+        private long lastPingreqNanos = -1;
+        private int pingreqInterval = -1;
+        private int outlierInterval = -1;
+
+        private ClientPings(final @NotNull String clientId) {
+            this.clientId = clientId;
+        }
+
+        /**
+         * @param keepAlive the keep-alive of the CONNECT in seconds
+         */
+        public void connected(final int keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        public synchronized void pingreq() {
+            final var nanos = nanoClock.getAsLong();
+            final var current = interval;
+            pingreqs.increment();
+            if (pingreqInterval != current) {
+                pingreqInterval = current;
+                clients.increment();
+            }
+            final var keepAlive = this.keepAlive;
+            if (lastPingreqNanos >= 0 && keepAlive > 0 &&
+                    nanos - lastPingreqNanos < TimeUnit.SECONDS.toNanos(keepAlive) / 2 &&
+                    outlierInterval != current) {
+                outlierInterval = current;
+                outlierClients.increment();
+                outlier(clientId, keepAlive, nanos - lastPingreqNanos);
+            }
+            lastPingreqNanos = nanos;
+        }
+
+        public void pingresp() {
+            pingresps.increment();
+        }
+    }
+}
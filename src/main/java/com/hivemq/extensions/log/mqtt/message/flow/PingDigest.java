@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hivemq.extensions.log.mqtt.message.flow;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * The PINGREQ and PINGRESP packets of all connections within one digest interval, which are logged as a single record
+ * instead of a record per packet.
+ *
+ * @since 1.4.0
+ */
+public final class PingDigest {
+
+    private final long durationMillis;
+    private final long pingreqs;
+    private final long pingresps;
+    private final long clients;
+    private final long outlierClients;
+    private final @NotNull List<Outlier> outliers;
+
+    PingDigest(
+            final long durationMillis,
+            final long pingreqs,
+            final long pingresps,
+            final long clients,
+            final long outlierClients,
+            final @NotNull List<Outlier> outliers) {
+        this.durationMillis = durationMillis;
+        this.pingreqs = pingreqs;
+        this.pingresps = pingresps;
+        this.clients = clients;
+        this.outlierClients = outlierClients;
+        this.outliers = outliers;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public long getPingreqs() {
+        return pingreqs;
+    }
+
+    public long getPingresps() {
+        return pingresps;
+    }
+
+    /**
+     * @return the number of clients that sent at least one PINGREQ
+     */
+    public long getClients() {
+        return clients;
+    }
+
+    /**
+     * @return the number of clients that sent a PINGREQ earlier than half of their keep-alive after the previous one
+     */
+    public long getOutlierClients() {
+        return outlierClients;
+    }
+
+    /**
+     * @return the first outliers of the interval, at most one per client
+     */
+    public @NotNull List<Outlier> getOutliers() {
+        return outliers;
+    }
+
+    /**
+     * A PINGREQ that was sent earlier than the keep-alive of the CONNECT of the client requires.
+     *
+     * @since 1.4.0
+     */
+    public static final class Outlier {
+
+        private final @NotNull String clientId;
+        private final int keepAlive;
+        private final long intervalMillis;
+
+        Outlier(final @NotNull String clientId, final int keepAlive, final long intervalMillis) {
+            this.clientId = clientId;
+            this.keepAlive = keepAlive;
+            this.intervalMillis = intervalMillis;
+        }
+
+        public @NotNull String getClientId() {
+            return clientId;
+        }
+
+        /**
+         * @return the keep-alive of the CONNECT in seconds
+         */
+        public int getKeepAlive() {
+            return keepAlive;
+        }
+
+        /**
+         * @return the milliseconds since the previous PINGREQ of the client
+         */
+        public long getIntervalMillis() {
+            return intervalMillis;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.flow;
+
+import com.hivemq.extension.sdk.api.packets.pubcomp.PubcompReasonCode;
+import com.hivemq.extension.sdk.api.packets.publish.AckReasonCode;
+import com.hivemq.extension.sdk.api.packets.pubrel.PubrelReasonCode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The PUBLISH, PUBREC, PUBREL and PUBCOMP packets of a QoS 2 delivery, which are logged as a single record.
+ * <p>
+ * A flow is only changed by its {@link Qos2FlowAggregator} until it is closed, afterward it is not changed anymore and
+ * can be logged asynchronously.
+ *
+ * @since 1.4.0
+ */
+public final class Qos2Flow {
+
+    private final int packetId;
+    private final boolean inbound;
+    private final @NotNull String topic;
+    private final long publishNanos;
+    private long pubrecNanos;
+    private long pubrelNanos;
+    private long pubcompNanos;
+    private long closeNanos;
+    private @Nullable AckReasonCode pubrecReasonCode;
+    private @Nullable PubrelReasonCode pubrelReasonCode;
+    private @Nullable PubcompReasonCode pubcompReasonCode;
+    private boolean complete;
+
+    Qos2Flow(final int packetId, final boolean inbound, final @NotNull String topic, final long publishNanos) {
+        this.packetId = packetId;
+        this.inbound = inbound;
+        this.topic = topic;
+        this.publishNanos = publishNanos;
+    }
+
+    void pubrec(final @NotNull AckReasonCode reasonCode, final long nanos) {
+        pubrecReasonCode = reasonCode;
+        pubrecNanos = nanos;
+    }
+
+    void pubrel(final @NotNull PubrelReasonCode reasonCode, final long nanos) {
+        pubrelReasonCode = reasonCode;
+        pubrelNanos = nanos;
+    }
+
+    void pubcomp(final @NotNull PubcompReasonCode reasonCode, final long nanos) {
+        pubcompReasonCode = reasonCode;
+        pubcompNanos = nanos;
+    }
+
+    /**
+     * @param complete whether the flow ended with its last packet, not by a timeout or disconnect
+     */
+    void close(final boolean complete, final long nanos) {
+        this.complete = complete;
+        closeNanos = nanos;
+    }
+
+    public int getPacketId() {
+        return packetId;
+    }
+
+    /**
+     * @return whether the PUBLISH was received from the client
+     */
+    public boolean isInbound() {
+        return inbound;
+    }
+
+    public @NotNull String getTopic() {
+        return topic;
+    }
+
+    /**
+     * @return whether the flow ended with a PUBCOMP or a PUBREC with an error, {@code false} if it timed out or the
+     *         client disconnected before
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return whether the flow is complete and none of its packets has an error reason code
+     */
+    public boolean isSuccessful() {
+        return complete && pubcompReasonCode == PubcompReasonCode.SUCCESS && isSuccess(pubrecReasonCode) &&
+                pubrelReasonCode == PubrelReasonCode.SUCCESS;
+    }
+
+    public @Nullable AckReasonCode getPubrecReasonCode() {
+        return pubrecReasonCode;
+    }
+
+    public @Nullable PubrelReasonCode getPubrelReasonCode() {
+        return pubrelReasonCode;
+    }
+
+    public @Nullable PubcompReasonCode getPubcompReasonCode() {
+        return pubcompReasonCode;
+    }
+
+    /**
+     * @return the microseconds from the PUBLISH to the PUBREC, or {@code -1} if there was no PUBREC
+     */
+    public long getPubrecMicros() {
+        return pubrecReasonCode == null ? -1 : micros(publishNanos, pubrecNanos);
+    }
+
+    /**
+     * @return the microseconds from the PUBREC to the PUBREL, or {@code -1} if there was no PUBREL
+     */
+    public long getPubrelMicros() {
+        if (pubrelReasonCode == null) {
+            return -1;
+        }
+        return micros(pubrecReasonCode == null ? publishNanos : pubrecNanos, pubrelNanos);
+    }
+
+    /**
+     * @return the microseconds from the PUBREL to the PUBCOMP, or {@code -1} if there was no PUBCOMP
+     */
+    public long getPubcompMicros() {
+        if (pubcompReasonCode == null) {
+            return -1;
+        }
+        return micros(pubrelReasonCode == null ? publishNanos : pubrelNanos, pubcompNanos);
+    }
+
+    /**
+     * @return the microseconds from the PUBLISH until the flow was closed
+     */
+    public long getDurationMicros() {
+        return micros(publishNanos, closeNanos);
+    }
+
+    long getPublishNanos() {
+        return publishNanos;
+    }
+
+    private static long micros(final long fromNanos, final long toNanos) {
+        return Math.max(toNanos - fromNanos, 0) / 1_000;
+    }
+
+    static boolean isSuccess(final @Nullable AckReasonCode reasonCode) {
+        return reasonCode == AckReasonCode.SUCCESS || reasonCode == AckReasonCode.NO_MATCHING_SUBSCRIBERS;
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.flow;
+
+import com.hivemq.extension.sdk.api.packets.general.Qos;
+import com.hivemq.extension.sdk.api.packets.pubcomp.PubcompPacket;
+import com.hivemq.extension.sdk.api.packets.publish.PublishPacket;
+import com.hivemq.extension.sdk.api.packets.pubrec.PubrecPacket;
+import com.hivemq.extension.sdk.api.packets.pubrel.PubrelPacket;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Collects the PUBLISH, PUBREC, PUBREL and PUBCOMP packets of the QoS 2 flows of a connection by packet identifier and
+ * logs each flow as a single record when it ends.
+ * <p>
+ * A flow that does not end within the timeout or is still open when the connection is closed is logged as incomplete
+ * flow. Packets that do not belong to a flow that was started on this connection, e.g. the PUBREL of a PUBLISH of a
+ * previous connection of the session, are not aggregated.
+ *
+ * @since 1.4.0
+ */
+public class Qos2FlowAggregator {
+
+    private final @NotNull ConnectionContext connection;
+    private final @NotNull MessageLogger messageLogger;
+    private final long timeoutNanos;
+    private final @NotNull LongSupplier nanoClock;
+    // flows of PUBLISH packets received from the client
+    private final @NotNull PacketIdMap inboundFlows = new PacketIdMap();
+    // flows of PUBLISH packets sent to the client
+    private final @NotNull PacketIdMap outboundFlows = new PacketIdMap();
+    private boolean evicted;
+
+    /**
+     * @param connection    the context of the connection the flows are logged with
+     * @param messageLogger the logger of the flow records
+     * @param timeoutNanos  the nanoseconds after the PUBLISH after which a flow is logged as incomplete
+     */
+    public Qos2FlowAggregator(
+            final @NotNull ConnectionContext connection,
+            final @NotNull MessageLogger messageLogger,
+            final long timeoutNanos) {
+        this(connection, messageLogger, timeoutNanos, System::nanoTime);
+    }
+
+    Qos2FlowAggregator(
+            final @NotNull ConnectionContext connection,
+            final @NotNull MessageLogger messageLogger,
+            final long timeoutNanos,
+            final @NotNull LongSupplier nanoClock) {
+        this.connection = connection;
+        this.messageLogger = messageLogger;
+        this.timeoutNanos = timeoutNanos;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Starts the flow of a QoS 2 PUBLISH, nothing is aggregated for QoS 0 and 1.
+     * <p>
+     * A redelivered PUBLISH continues the flow of the first delivery.
+     *
+     * @param inbound whether the PUBLISH was received from the client
+     */
+    public synchronized void published(final @NotNull PublishPacket publishPacket, final boolean inbound) {
+        if (evicted || publishPacket.getQos() != Qos.EXACTLY_ONCE) {
+            return;
+        }
+        final var flows = inbound ? inboundFlows : outboundFlows;
+        final var packetId = publishPacket.getPacketId();
+        if (publishPacket.getDupFlag() && flows.indexOf(packetId) >= 0) {
+            return;
+        }
+        final var nanos = nanoClock.getAsLong();
+        flows.put(packetId, nanos, new Qos2Flow(packetId, inbound, publishPacket.getTopic(), nanos));
+    }
+
+    /**
+     * Adds a PUBREC to its flow, a PUBREC with an error reason code ends the flow.
+     *
+     * @param inbound whether the PUBREC was received from the client
+     * @return whether the PUBREC was aggregated, otherwise it has to be logged on its own
+     */
+    public boolean pubrec(final @NotNull PubrecPacket pubrecPacket, final boolean inbound) {
+        final Qos2Flow flow;
+        synchronized (this) {
+            final var flows = inbound ? outboundFlows : inboundFlows;
+            final var slot = flows.indexOf(pubrecPacket.getPacketIdentifier());
+            if (slot < 0) {
+                return false;
+            }
+            flow = flowAt(flows, slot);
+            final var nanos = nanoClock.getAsLong();
+            flow.pubrec(pubrecPacket.getReasonCode(), nanos);
+            if (Qos2Flow.isSuccess(pubrecPacket.getReasonCode())) {
+                return true;
+            }
+            // no PUBREL follows a PUBREC with an error reason code
+            flows.removeAt(slot);
+            flow.close(true, nanos);
+        }
+        messageLogger.logQos2Flow(flow, connection);
+        return true;
+    }
+
+    /**
+     * Adds a PUBREL to its flow.
+     *
+     * @param inbound whether the PUBREL was received from the client
+     * @return whether the PUBREL was aggregated, otherwise it has to be logged on its own
+     */
+    public synchronized boolean pubrel(final @NotNull PubrelPacket pubrelPacket, final boolean inbound) {
+        final var flows = inbound ? inboundFlows : outboundFlows;
+        final var slot = flows.indexOf(pubrelPacket.getPacketIdentifier());
+        if (slot < 0) {
+            return false;
+        }
+        flowAt(flows, slot).pubrel(pubrelPacket.getReasonCode(), nanoClock.getAsLong());
+        return true;
+    }
+
+    /**
+     * Adds a PUBCOMP to its flow and logs the completed flow.
+     *
+     * @param inbound whether the PUBCOMP was received from the client
+     * @return whether the PUBCOMP was aggregated, otherwise it has to be logged on its own
+     */
+    public boolean pubcomp(final @NotNull PubcompPacket pubcompPacket, final boolean inbound) {
+        final Qos2Flow flow;
+        synchronized (this) {
+            final var flows = inbound ? outboundFlows : inboundFlows;
+            final var slot = flows.indexOf(pubcompPacket.getPacketIdentifier());
+            if (slot < 0) {
+                return false;
+            }
+            flow = flowAt(flows, slot);
+            flows.removeAt(slot);
+            final var nanos = nanoClock.getAsLong();
+            flow.pubcomp(pubcompPacket.getReasonCode(), nanos);
+            flow.close(true, nanos);
+        }
+        messageLogger.logQos2Flow(flow, connection);
+        return true;
+    }
+
+    /**
+     * Logs the flows that did not end within the timeout as incomplete.
+     */
+    public void expire() {
+        final List<Qos2Flow> expired;
+        synchronized (this) {
+            if (inboundFlows.size() == 0 && outboundFlows.size() == 0) {
+                return;
+            }
+            final var nanos = nanoClock.getAsLong();
+            expired = new ArrayList<>();
+            expire(inboundFlows, nanos, expired);
+            expire(outboundFlows, nanos, expired);
+        }
+        for (final var flow : expired) {
+            messageLogger.logQos2Flow(flow, connection);
+        }
+    }
+
+    /**
+     * Logs the flows of the closed connection that are still open as incomplete.
+     */
+    public void evict() {
+        final List<Qos2Flow> open = new ArrayList<>();
+        synchronized (this) {
+            evicted = true;
+            final var nanos = nanoClock.getAsLong();
+            close(inboundFlows, nanos, open);
+            close(outboundFlows, nanos, open);
+        }
+        for (final var flow : open) {
+            messageLogger.logQos2Flow(flow, connection);
+        }
+    }
+
+    private void expire(final @NotNull PacketIdMap flows, final long nanos, final @NotNull List<Qos2Flow> expired) {
+        // removing shifts entries back, so the packet identifiers are collected before
+        int @Nullable [] expiredIds = null;
+        var count = 0;
+        for (var slot = 0; slot < flows.capacity(); slot++) {
+            if (flows.keyAt(slot) != 0 && nanos - flows.valueAt(slot) >= timeoutNanos) {
+                if (expiredIds == null) {
+                    expiredIds = new int[flows.size()];
+                }
+                expiredIds[count++] = flows.keyAt(slot);
+            }
+        }
+        for (var i = 0; i < count; i++) {
+            final var slot = flows.indexOf(expiredIds[i]);
+            final var flow = flowAt(flows, slot);
+            flows.removeAt(slot);
+            flow.close(false, nanos);
+            expired.add(flow);
+        }
+    }
+
+    private static void close(final @NotNull PacketIdMap flows, final long nanos, final @NotNull List<Qos2Flow> open) {
+        for (var slot = 0; slot < flows.capacity(); slot++) {
+            if (flows.keyAt(slot) != 0) {
+                final var flow = flowAt(flows, slot);
+                flow.close(false, nanos);
+                open.add(flow);
+            }
+        }
+        flows.clear();
+    }
+
+    private static @NotNull Qos2Flow flowAt(final @NotNull PacketIdMap flows, final int slot) {
+        //noinspection DataFlowIssue
+        return (Qos2Flow) flows.attachmentAt(slot);
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.flow;
+
+import com.hivemq.extension.sdk.api.packets.publish.PublishPacket;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * The counters of the packets of a connection, which are logged as a single record when the connection is closed.
+ * <p>
+ * Only a few arrays are kept per connection: the packets by message type and direction, the payload bytes and QoS of
+ * the PUBLISH packets, the error reason codes and a sketch of the topics. Once closed, the summary is not changed
+ * anymore and can be logged asynchronously.
+ *
+ * @since 1.4.0
+ */
+public class SessionSummary {
+
+    // linear counting over 1024 bits, accurate to a few percent up to about a thousand topics
+    private static final int TOPIC_SKETCH_BITS = 1024;
+    private static final int TOPIC_SKETCH_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(TOPIC_SKETCH_BITS);
+
+    private final long startNanos;
+    private final @NotNull LongSupplier nanoClock;
+    // indexed by message type and direction, see index()
+    private final long @NotNull [] packets = new long[MessageType.values().length * 2];
+    private final long @NotNull [] payloadBytes = new long[2];
+    private final long @NotNull [] qos = new long[6];
+    private final @NotNull List<ErrorCount> errors = new ArrayList<>(0);
+    private long @Nullable [] topicSketch;
+    private long closeNanos;
+    private boolean closed;
+
+    SessionSummary(final long startNanos) {
+        this(startNanos, System::nanoTime);
+    }
+
+    @VisibleForTesting
+    SessionSummary(final long startNanos, final @NotNull LongSupplier nanoClock) {
+        this.startNanos = startNanos;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Counts a packet.
+     *
+     * @param inbound whether the packet was received from the client
+     */
+    public synchronized void packet(final @NotNull MessageType messageType, final boolean inbound) {
+        if (!closed) {
+            packets[index(messageType, inbound)]++;
+        }
+    }
+
+    /**
+     * Counts an error reason code of a packet, a SUBACK or UNSUBACK can contain several.
+     *
+     * @param inbound whether the packet was received from the client
+     */
+    public synchronized void error(
+            final @NotNull MessageType messageType,
+            final boolean inbound,
+            final @NotNull String reasonCode) {
+        if (closed) {
+            return;
+        }
+        for (final var error : errors) {
+            if (error.messageType == messageType && error.inbound == inbound && error.reasonCode.equals(reasonCode)) {
+                error.count++;
+                return;
+            }
+        }
+        errors.add(new ErrorCount(messageType, inbound, reasonCode));
+    }
+
+    /**
+     * Counts a PUBLISH with its payload bytes, QoS and topic.
+     *
+     * @param inbound whether the PUBLISH was received from the client
+     */
+    public synchronized void published(final @NotNull PublishPacket publishPacket, final boolean inbound) {
+        if (closed) {
+            return;
+        }
+        final var direction = inbound ? 0 : 1;
+        packets[index(MessageType.PUBLISH, inbound)]++;
+        qos[direction * 3 + publishPacket.getQos().getQosNumber()]++;
+        final var payload = publishPacket.getPayload();
+        if (payload.isPresent()) {
+            payloadBytes[direction] += payload.get().remaining();
+        }
+        if (topicSketch == null) {
+            topicSketch = new long[TOPIC_SKETCH_BITS / Long.SIZE];
+        }
+        final var bit = mix(publishPacket.getTopic().hashCode()) >>> TOPIC_SKETCH_SHIFT;
+        topicSketch[bit >>> 6] |= 1L << bit;
+    }
+
+    synchronized void close() {
+        if (!closed) {
+            closed = true;
+            closeNanos = nanoClock.getAsLong();
+        }
+    }
+
+    /**
+     * @return the milliseconds from the start of the connection until it was closed, or until now if it is open
+     */
+    public synchronized long getDurationMillis() {
+        return Math.max((closed ? closeNanos : nanoClock.getAsLong()) - startNanos, 0) / 1_000_000;
+    }
+
+    /**
+     * @param inbound whether the packets were received from the client
+     */
+    public synchronized long getPackets(final @NotNull MessageType messageType, final boolean inbound) {
+        return packets[index(messageType, inbound)];
+    }
+
+    /**
+     * @return the packets by message type and direction, only message types and directions with packets are included
+     */
+    public synchronized @NotNull List<PacketCount> getPacketCounts() {
+        final var packetCounts = new ArrayList<PacketCount>();
+        for (final var messageType : MessageType.values()) {
+            final var inboundCount = packets[index(messageType, true)];
+            if (inboundCount > 0) {
+                packetCounts.add(new PacketCount(messageType, true, inboundCount));
+            }
+            final var outboundCount = packets[index(messageType, false)];
+            if (outboundCount > 0) {
+                packetCounts.add(new PacketCount(messageType, false, outboundCount));
+            }
+        }
+        return packetCounts;
+    }
+
+    /**
+     * @param inbound whether the PUBLISH packets were received from the client
+     */
+    public synchronized long getPayloadBytes(final boolean inbound) {
+        return payloadBytes[inbound ? 0 : 1];
+    }
+
+    /**
+     * @param qosNumber the QoS level of the PUBLISH packets
+     * @param inbound   whether the PUBLISH packets were received from the client
+     */
+    public synchronized long getPublishes(final int qosNumber, final boolean inbound) {
+        return qos[(inbound ? 0 : 3) + qosNumber];
+    }
+
+    /**
+     * @return the approximate number of distinct topics of the PUBLISH packets in both directions
+     */
+    public synchronized long getDistinctTopics() {
+        final var sketch = topicSketch;
+        if (sketch == null) {
+            return 0;
+        }
+        var zeros = 0;
+        for (final var word : sketch) {
+            zeros += Long.SIZE - Long.bitCount(word);
+        }
+        // the estimate saturates at about 7000 once every bit is set
+        return Math.round(TOPIC_SKETCH_BITS * Math.log((double) TOPIC_SKETCH_BITS / Math.max(zeros, 1)));
+    }
+
+    /**
+     * @return the error reason codes in the order they first occurred
+     */
+    public synchronized @NotNull List<ErrorCount> getErrors() {
+        final var copy = new ArrayList<ErrorCount>(errors.size());
+        for (final var error : errors) {
+            copy.add(new ErrorCount(error));
+        }
+        return copy;
+    }
+
+    private static int index(final @NotNull MessageType messageType, final boolean inbound) {
+        return messageType.ordinal() * 2 + (inbound ? 0 : 1);
+    }
+
+    /**
+     * Murmur3 finalizer, topics like "sensor/1" and "sensor/2" have nearly equal hash codes that must be spread over
+     * the whole sketch.
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * The number of packets of a message type and direction.
+     *
+     * @since 1.4.0
+     */
+    public static final class PacketCount {
+
+        private final @NotNull MessageType messageType;
+        private final boolean inbound;
+        private final long count;
+
+        PacketCount(final @NotNull MessageType messageType, final boolean inbound, final long count) {
+            this.messageType = messageType;
+            this.inbound = inbound;
+            this.count = count;
+        }
+
+        public @NotNull MessageType getMessageType() {
+            return messageType;
+        }
+
+        public boolean isInbound() {
+            return inbound;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * The number of packets of a message type and direction with an error reason code.
+     *
+     * @since 1.4.0
+     */
+    public static final class ErrorCount {
+
+        private final @NotNull MessageType messageType;
+        private final boolean inbound;
+        private final @NotNull String reasonCode;
+        private long count;
+
+        ErrorCount(final @NotNull MessageType messageType, final boolean inbound, final @NotNull String reasonCode) {
+            this.messageType = messageType;
+            this.inbound = inbound;
+            this.reasonCode = reasonCode;
+            count = 1;
+        }
+
+        ErrorCount(final @NotNull ErrorCount errorCount) {
+            messageType = errorCount.messageType;
+            inbound = errorCount.inbound;
+            reasonCode = errorCount.reasonCode;
+            count = errorCount.count;
+        }
+
+        public @NotNull MessageType getMessageType() {
+            return messageType;
+        }
+
+        public boolean isInbound() {
+            return inbound;
+        }
+
+        public @NotNull String getReasonCode() {
+            return reasonCode;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
@@ -17,10 +17,17 @@
 package com.hivemq.extensions.log.mqtt.message.initializer;
 
 import com.hivemq.extension.sdk.api.client.ClientContext;
+import com.hivemq.extension.sdk.api.client.parameter.ClientBasedInput;
 import com.hivemq.extension.sdk.api.client.parameter.InitializerInput;
 import com.hivemq.extension.sdk.api.services.Services;
 import com.hivemq.extension.sdk.api.services.intializer.ClientInitializer;
+import com.hivemq.extensions.log.mqtt.message.client.ClientSelector;
+import com.hivemq.extensions.log.mqtt.message.config.EventType;
 import com.hivemq.extensions.log.mqtt.message.config.ExtensionConfig;
+import com.hivemq.extensions.log.mqtt.message.config.LogPolicy;
+import com.hivemq.extensions.log.mqtt.message.flow.ConnectionFlows;
+import com.hivemq.extensions.log.mqtt.message.flow.FlowTracking;
+import com.hivemq.extensions.log.mqtt.message.interceptor.ClientSelectionConnectInboundInterceptor;
 import com.hivemq.extensions.log.mqtt.message.interceptor.ConnackOutboundInterceptorImpl;
 import com.hivemq.extensions.log.mqtt.message.interceptor.ConnectInboundInterceptorImpl;
 import com.hivemq.extensions.log.mqtt.message.interceptor.DisconnectInboundInterceptorImpl;
@@ -41,9 +48,16 @@ import com.hivemq.extensions.log.mqtt.message.interceptor.SubackOutboundIntercep
 import com.hivemq.extensions.log.mqtt.message.interceptor.SubscribeInboundInterceptorImpl;
 import com.hivemq.extensions.log.mqtt.message.interceptor.UnsubackOutboundInterceptorImpl;
 import com.hivemq.extensions.log.mqtt.message.interceptor.UnsubscribeInboundInterceptorImpl;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
 import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
-import com.hivemq.extensions.log.mqtt.message.logger.MessageLoggerFactory;
+import com.hivemq.extensions.log.mqtt.message.pipeline.RateLimitedMessageLogger;
+import com.hivemq.extensions.log.mqtt.message.pipeline.SessionSummaryMessageLogger;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 /**
  * Creates a {@link ClientInitializer} that is usable since HiveMQ 4.3 Enterprise Version or Community Version 2020.1.
@@ -53,14 +67,47 @@ import org.jetbrains.annotations.NotNull;
 public class ClientInitializerImpl implements ClientInitializer {
 
     private final @NotNull ExtensionConfig config;
+    private final @NotNull Supplier<LogPolicy> currentPolicy;
     private final @NotNull MessageLogger messageLogger;
+    private final @NotNull MessageLogger unfilteredMessageLogger;
+    private final @NotNull UnaryOperator<MessageLogger> filter;
+    private final @Nullable ClientSelector clientSelector;
+    private final @Nullable FlowTracking flowTracking;
 
-    public ClientInitializerImpl(final @NotNull ExtensionConfig config) {
+    /**
+     * @param config        the configuration the extension was started with
+     * @param currentPolicy the current policy, which decides the interceptors that are added to new connections
+     * @param messageLogger the logger for the events
+     */
+    public ClientInitializerImpl(
+            final @NotNull ExtensionConfig config,
+            final @NotNull Supplier<LogPolicy> currentPolicy,
+            final @NotNull MessageLogger messageLogger) {
+        this(config, currentPolicy, messageLogger, UnaryOperator.identity(), null);
+    }
+
+    /**
+     * @param config        the configuration the extension was started with
+     * @param currentPolicy the current policy, which decides the interceptors that are added to new connections
+     * @param messageLogger the logger for the events that passed the filter
+     * @param filter        wraps a logger with the filters of the events, which are applied before the rate limit of
+     *                      a connection, so the dropped events take none of its tokens
+     * @param flowTracking  the flows of the connections, or {@code null} if no flows are tracked
+     * @since 1.4.0
+     */
+    public ClientInitializerImpl(
+            final @NotNull ExtensionConfig config,
+            final @NotNull Supplier<LogPolicy> currentPolicy,
+            final @NotNull MessageLogger messageLogger,
+            final @NotNull UnaryOperator<MessageLogger> filter,
+            final @Nullable FlowTracking flowTracking) {
         this.config = config;
-        this.messageLogger = MessageLoggerFactory.createLogger(config.isVerbose(),
-                config.isPayload(),
-                config.isRedactPassword(),
-                config.getOutputFormat());
+        this.currentPolicy = currentPolicy;
+        this.messageLogger = filter.apply(messageLogger);
+        this.unfilteredMessageLogger = messageLogger;
+        this.filter = filter;
+        this.flowTracking = flowTracking;
+        this.clientSelector = ClientSelector.create(config);
         init();
     }
 
@@ -68,14 +115,27 @@ public class ClientInitializerImpl implements ClientInitializer {
      * Initialize any logging logic that can be done without a {@link ClientInitializer}.
      */
     private void init() {
-        if (config.isClientConnect()) {
+        if (clientSelector != null) {
+            final var logConnect = config.isClientConnect();
+            Services.interceptorRegistry()
+                    .setConnectInboundInterceptorProvider(ignored -> new ClientSelectionConnectInboundInterceptor(
+                            clientSelector,
+                            logConnect ? new ConnectInboundInterceptorImpl(messageLogger) : null));
+        } else if (config.isClientConnect()) {
             Services.interceptorRegistry()
                     .setConnectInboundInterceptorProvider(ignored -> new ConnectInboundInterceptorImpl(messageLogger));
         }
         if (config.isConnackSend()) {
             Services.interceptorRegistry()
                     .setConnackOutboundInterceptorProvider(
-                            ignored -> new ConnackOutboundInterceptorImpl(messageLogger));
+                            input -> isSelected(input) ? new ConnackOutboundInterceptorImpl(messageLogger) : null);
+        }
+        if (flowTracking != null) {
+            // the listener of a connection is created before its client initializer runs, so the flows are present,
+            // all clients are tracked as the selection by username is only known once the CONNECT is intercepted
+            Services.eventRegistry()
+                    .setClientLifecycleEventListener(
+                            input -> flowTracking.connectionStarted(input.getClientInformation().getClientId()));
         }
     }
 
@@ -83,57 +143,166 @@ public class ClientInitializerImpl implements ClientInitializer {
     public void initialize(
             final @NotNull InitializerInput initializerInput,
             final @NotNull ClientContext clientContext) {
-        if (config.isClientDisconnect()) {
-            clientContext.addDisconnectInboundInterceptor(new DisconnectInboundInterceptorImpl(messageLogger));
-            clientContext.addDisconnectOutboundInterceptor(new DisconnectOutboundInterceptorImpl(messageLogger));
+        // clients that are not selected get no interceptors, so their packets are not intercepted at all
+        if (!isSelected(initializerInput)) {
+            return;
+        }
+        final var policy = currentPolicy.get();
+        // the client id fields are encoded once per connection instead of once per logged packet
+        final var connection = new ConnectionContext(initializerInput.getClientInformation().getClientId());
+        final var connectionFlows = getConnectionFlows(initializerInput);
+        final var summarize = connectionFlows != null && config.isSessionSummary();
+        final var clientMessageLogger = createClientMessageLogger(connection, connectionFlows);
+        final var ackLatencyTracker = connectionFlows != null ? connectionFlows.getAckLatencyTracker() : null;
+        final var clientPings = connectionFlows != null ? connectionFlows.getClientPings() : null;
+        final var qos2FlowAggregator = connectionFlows != null && config.isQos2FlowAggregation() ?
+                connectionFlows.aggregateQos2Flows(clientMessageLogger,
+                        connection,
+                        TimeUnit.SECONDS.toNanos(config.getQos2FlowTimeout())) :
+                null;
+        if (policy.isEnabled(EventType.CLIENT_DISCONNECT) || summarize) {
+            clientContext.addDisconnectInboundInterceptor(new DisconnectInboundInterceptorImpl(
+                    clientMessageLogger,
+                    connection));
+            clientContext.addDisconnectOutboundInterceptor(new DisconnectOutboundInterceptorImpl(
+                    clientMessageLogger,
+                    connection));
         }
-        if (config.isSubscribeReceived()) {
-            clientContext.addSubscribeInboundInterceptor(new SubscribeInboundInterceptorImpl(messageLogger));
+        if (policy.isEnabled(EventType.SUBSCRIBE_RECEIVED) || summarize) {
+            clientContext.addSubscribeInboundInterceptor(new SubscribeInboundInterceptorImpl(clientMessageLogger));
         }
-        if (config.isSubackSend()) {
-            clientContext.addSubackOutboundInterceptor(new SubackOutboundInterceptorImpl(messageLogger));
+        if (policy.isEnabled(EventType.SUBACK_SEND) || summarize) {
+            clientContext.addSubackOutboundInterceptor(new SubackOutboundInterceptorImpl(clientMessageLogger));
         }
-        if (config.isPingRequestReceived()) {
-            clientContext.addPingReqInboundInterceptor(new PingreqInboundInterceptorImpl(messageLogger));
+        final var logPingreq = policy.isEnabled(EventType.PING_REQUEST_RECEIVED);
+        if (logPingreq || summarize || clientPings != null) {
+            clientContext.addPingReqInboundInterceptor(new PingreqInboundInterceptorImpl(
+                    logPingreq || summarize ? clientMessageLogger : null,
+                    clientPings));
         }
-        if (config.isPingResponseSend()) {
-            clientContext.addPingRespOutboundInterceptor(new PingrespOutboundInterceptorImpl(messageLogger));
+        final var logPingresp = policy.isEnabled(EventType.PING_RESPONSE_SEND);
+        if (logPingresp || summarize || clientPings != null) {
+            clientContext.addPingRespOutboundInterceptor(new PingrespOutboundInterceptorImpl(
+                    logPingresp || summarize ? clientMessageLogger : null,
+                    clientPings));
         }
-        if (config.isUnsubscribeReceived()) {
-            clientContext.addUnsubscribeInboundInterceptor(new UnsubscribeInboundInterceptorImpl(messageLogger));
+        if (policy.isEnabled(EventType.UNSUBSCRIBE_RECEIVED) || summarize) {
+            clientContext.addUnsubscribeInboundInterceptor(new UnsubscribeInboundInterceptorImpl(clientMessageLogger));
         }
-        if (config.isUnsubackSend()) {
-            clientContext.addUnsubackOutboundInterceptor(new UnsubackOutboundInterceptorImpl(messageLogger));
+        if (policy.isEnabled(EventType.UNSUBACK_SEND) || summarize) {
+            clientContext.addUnsubackOutboundInterceptor(new UnsubackOutboundInterceptorImpl(clientMessageLogger));
         }
-        if (config.isPublishReceived()) {
-            clientContext.addPublishInboundInterceptor(new PublishInboundInterceptorImpl(messageLogger));
+        final var logPublishReceived = policy.isEnabled(EventType.PUBLISH_RECEIVED);
+        if (logPublishReceived || summarize || connectionFlows != null) {
+            clientContext.addPublishInboundInterceptor(new PublishInboundInterceptorImpl(
+                    logPublishReceived || summarize ? clientMessageLogger : null,
+                    connection,
+                    connectionFlows));
         }
-        if (config.isPublishSend()) {
-            clientContext.addPublishOutboundInterceptor(new PublishOutboundInterceptorImpl(messageLogger));
+        final var logPublishSend = policy.isEnabled(EventType.PUBLISH_SEND);
+        if (logPublishSend || summarize || connectionFlows != null) {
+            clientContext.addPublishOutboundInterceptor(new PublishOutboundInterceptorImpl(
+                    logPublishSend || summarize ? clientMessageLogger : null,
+                    connection,
+                    connectionFlows));
         }
-        if (config.isPubackReceived()) {
-            clientContext.addPubackInboundInterceptor(new PubackInboundInterceptorImpl(messageLogger));
+        final var logPubackReceived = policy.isEnabled(EventType.PUBACK_RECEIVED);
+        if (logPubackReceived || summarize || ackLatencyTracker != null) {
+            clientContext.addPubackInboundInterceptor(new PubackInboundInterceptorImpl(
+                    logPubackReceived || summarize ? clientMessageLogger : null,
+                    connection,
+                    ackLatencyTracker));
         }
-        if (config.isPubackSend()) {
-            clientContext.addPubackOutboundInterceptor(new PubackOutboundInterceptorImpl(messageLogger));
+        final var logPubackSend = policy.isEnabled(EventType.PUBACK_SEND);
+        if (logPubackSend || summarize || ackLatencyTracker != null) {
+            clientContext.addPubackOutboundInterceptor(new PubackOutboundInterceptorImpl(
+                    logPubackSend || summarize ? clientMessageLogger : null,
+                    connection,
+                    ackLatencyTracker));
         }
-        if (config.isPubrecReceived()) {
-            clientContext.addPubrecInboundInterceptor(new PubrecInboundInterceptorImpl(messageLogger));
+        final var logPubrecReceived = policy.isEnabled(EventType.PUBREC_RECEIVED);
+        if (logPubrecReceived || summarize || qos2FlowAggregator != null) {
+            clientContext.addPubrecInboundInterceptor(new PubrecInboundInterceptorImpl(
+                    logPubrecReceived || summarize ? clientMessageLogger : null,
+                    connection,
+                    qos2FlowAggregator));
         }
-        if (config.isPubrecSend()) {
-            clientContext.addPubrecOutboundInterceptor(new PubrecOutboundInterceptorImpl(messageLogger));
+        final var logPubrecSend = policy.isEnabled(EventType.PUBREC_SEND);
+        if (logPubrecSend || summarize || qos2FlowAggregator != null) {
+            clientContext.addPubrecOutboundInterceptor(new PubrecOutboundInterceptorImpl(
+                    logPubrecSend || summarize ? clientMessageLogger : null,
+                    connection,
+                    qos2FlowAggregator));
         }
-        if (config.isPubrelReceived()) {
-            clientContext.addPubrelInboundInterceptor(new PubrelInboundInterceptorImpl(messageLogger));
+        final var logPubrelReceived = policy.isEnabled(EventType.PUBREL_RECEIVED);
+        if (logPubrelReceived || summarize || qos2FlowAggregator != null) {
+            clientContext.addPubrelInboundInterceptor(new PubrelInboundInterceptorImpl(
+                    logPubrelReceived || summarize ? clientMessageLogger : null,
+                    connection,
+                    qos2FlowAggregator));
         }
-        if (config.isPubrelSend()) {
-            clientContext.addPubrelOutboundInterceptor(new PubrelOutboundInterceptorImpl(messageLogger));
+        final var logPubrelSend = policy.isEnabled(EventType.PUBREL_SEND);
+        if (logPubrelSend || summarize || qos2FlowAggregator != null) {
+            clientContext.addPubrelOutboundInterceptor(new PubrelOutboundInterceptorImpl(
+                    logPubrelSend || summarize ? clientMessageLogger : null,
+                    connection,
+                    qos2FlowAggregator));
         }
-        if (config.isPubcompReceived()) {
-            clientContext.addPubcompInboundInterceptor(new PubcompInboundInterceptorImpl(messageLogger));
+        final var logPubcompReceived = policy.isEnabled(EventType.PUBCOMP_RECEIVED);
+        if (logPubcompReceived || summarize || qos2FlowAggregator != null) {
+            clientContext.addPubcompInboundInterceptor(new PubcompInboundInterceptorImpl(
+                    logPubcompReceived || summarize ? clientMessageLogger : null,
+                    connection,
+                    qos2FlowAggregator));
         }
-        if (config.isPubcompSend()) {
-            clientContext.addPubcompOutboundInterceptor(new PubcompOutboundInterceptorImpl(messageLogger));
+        final var logPubcompSend = policy.isEnabled(EventType.PUBCOMP_SEND);
+        if (logPubcompSend || summarize || qos2FlowAggregator != null) {
+            clientContext.addPubcompOutboundInterceptor(new PubcompOutboundInterceptorImpl(
+                    logPubcompSend || summarize ? clientMessageLogger : null,
+                    connection,
+                    qos2FlowAggregator));
         }
     }
+
+    /**
+     * Creates the logger for the events of a client, which is rate limited per connection if configured.
+     * <p>
+     * The rate limit applies after the filter, so only the logged events take its tokens. If the session is
+     * summarized, every event is counted before it is filtered, so the interceptors of all packets are added.
+     */
+    private @NotNull MessageLogger createClientMessageLogger(
+            final @NotNull ConnectionContext connection,
+            final @Nullable ConnectionFlows connectionFlows) {
+        final MessageLogger clientMessageLogger;
+        if (config.getRateLimit() <= 0) {
+            clientMessageLogger = messageLogger;
+        } else {
+            clientMessageLogger = filter.apply(new RateLimitedMessageLogger(unfilteredMessageLogger,
+                    connection.getClientId(),
+                    config.getRateLimit(),
+                    config.getRateLimitBurst()));
+        }
+        if (connectionFlows == null || !config.isSessionSummary()) {
+            return clientMessageLogger;
+        }
+        return new SessionSummaryMessageLogger(clientMessageLogger,
+                connectionFlows.summarizeSession(clientMessageLogger, connection));
+    }
+
+    /**
+     * @return the flows of the connection, or {@code null} if no flows are tracked
+     */
+    private @Nullable ConnectionFlows getConnectionFlows(final @NotNull InitializerInput initializerInput) {
+        if (flowTracking == null) {
+            return null;
+        }
+        return flowTracking.get(initializerInput.getClientInformation().getClientId());
+    }
+
+    /**
+     * @return whether the events of the client are logged according to the client selection rules
+     */
+    private boolean isSelected(final @NotNull ClientBasedInput input) {
+        return clientSelector == null || clientSelector.isSelected(input);
+    }
 }
@@ -17,18 +17,28 @@
 package com.hivemq.extensions.log.mqtt.message.initializer;
 
 import com.hivemq.extension.sdk.api.client.ClientContext;
+import com.hivemq.extension.sdk.api.client.parameter.ClientBasedInput;
 import com.hivemq.extension.sdk.api.client.parameter.InitializerInput;
 import com.hivemq.extension.sdk.api.services.Services;
 import com.hivemq.extension.sdk.api.services.intializer.ClientInitializer;
+import com.hivemq.extensions.log.mqtt.message.client.ClientSelector;
+import com.hivemq.extensions.log.mqtt.message.config.EventType;
 import com.hivemq.extensions.log.mqtt.message.config.ExtensionConfig;
+import com.hivemq.extensions.log.mqtt.message.config.LogPolicy;
+import com.hivemq.extensions.log.mqtt.message.interceptor.ClientSelectionConnectInboundInterceptor;
 import com.hivemq.extensions.log.mqtt.message.interceptor.ConnectDisconnectEventListener;
 import com.hivemq.extensions.log.mqtt.message.interceptor.ConnectInboundInterceptorImpl;
 import com.hivemq.extensions.log.mqtt.message.interceptor.PublishInboundInterceptorImpl;
 import com.hivemq.extensions.log.mqtt.message.interceptor.PublishOutboundInterceptorImpl;
 import com.hivemq.extensions.log.mqtt.message.interceptor.SubscribeInboundInterceptorImpl;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
 import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
-import com.hivemq.extensions.log.mqtt.message.logger.MessageLoggerFactory;
+import com.hivemq.extensions.log.mqtt.message.pipeline.RateLimitedMessageLogger;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 /**
  * Creates a {@link ClientInitializer} that is usable for any HiveMQ 4.2 Enterprise Version.
@@ -38,14 +48,43 @@ import org.jetbrains.annotations.NotNull;
 public class ClientInitializerImpl4_2 implements ClientInitializer {
 
     private final @NotNull ExtensionConfig config;
+    private final @NotNull Supplier<LogPolicy> currentPolicy;
     private final @NotNull MessageLogger messageLogger;
+    private final @NotNull MessageLogger unfilteredMessageLogger;
+    private final @NotNull UnaryOperator<MessageLogger> filter;
+    private final @Nullable ClientSelector clientSelector;
+
+    /**
+     * @param config        the configuration the extension was started with
+     * @param currentPolicy the current policy, which decides the interceptors that are added to new connections
+     * @param messageLogger the logger for the events
+     */
+    public ClientInitializerImpl4_2(
+            final @NotNull ExtensionConfig config,
+            final @NotNull Supplier<LogPolicy> currentPolicy,
+            final @NotNull MessageLogger messageLogger) {
+        this(config, currentPolicy, messageLogger, UnaryOperator.identity());
+    }
 
-    public ClientInitializerImpl4_2(final @NotNull ExtensionConfig config) {
+    /**
+     * @param config        the configuration the extension was started with
+     * @param currentPolicy the current policy, which decides the interceptors that are added to new connections
+     * @param messageLogger the logger for the events that passed the filter
+     * @param filter        wraps a logger with the filters of the events, which are applied before the rate limit of
+     *                      a connection, so the dropped events take none of its tokens
+     * @since 1.4.0
+     */
+    public ClientInitializerImpl4_2(
+            final @NotNull ExtensionConfig config,
+            final @NotNull Supplier<LogPolicy> currentPolicy,
+            final @NotNull MessageLogger messageLogger,
+            final @NotNull UnaryOperator<MessageLogger> filter) {
         this.config = config;
-        this.messageLogger = MessageLoggerFactory.createLogger(config.isVerbose(),
-                config.isPayload(),
-                config.isRedactPassword(),
-                config.getOutputFormat());
+        this.currentPolicy = currentPolicy;
+        this.messageLogger = filter.apply(messageLogger);
+        this.unfilteredMessageLogger = messageLogger;
+        this.filter = filter;
+        this.clientSelector = ClientSelector.create(config);
         init();
     }
 
@@ -53,13 +92,22 @@ public class ClientInitializerImpl4_2 implements ClientInitializer {
      * Initialize any logging logic that can be done without a {@link ClientInitializer}.
      */
     private void init() {
-        if (config.isClientConnect() && config.isClientDisconnect()) {
-            Services.eventRegistry()
-                    .setClientLifecycleEventListener(input -> new ConnectDisconnectEventListener(messageLogger, true));
-        } else if (config.isClientDisconnect()) {
+        if (config.isClientDisconnect()) {
+            final var logConnect = config.isClientConnect();
             Services.eventRegistry()
-                    .setClientLifecycleEventListener(input -> new ConnectDisconnectEventListener(messageLogger, false));
-        } else if (config.isClientConnect()) {
+                    .setClientLifecycleEventListener(input -> isSelected(input) ?
+                            new ConnectDisconnectEventListener(messageLogger,
+                                    new ConnectionContext(input.getClientInformation().getClientId()),
+                                    logConnect) :
+                            null);
+        }
+        final var interceptConnect = config.isClientConnect() && !config.isClientDisconnect();
+        if (clientSelector != null) {
+            Services.interceptorRegistry()
+                    .setConnectInboundInterceptorProvider(input -> new ClientSelectionConnectInboundInterceptor(
+                            clientSelector,
+                            interceptConnect ? new ConnectInboundInterceptorImpl(messageLogger) : null));
+        } else if (interceptConnect) {
             Services.interceptorRegistry()
                     .setConnectInboundInterceptorProvider(input -> new ConnectInboundInterceptorImpl(messageLogger));
         }
@@ -69,14 +117,47 @@ public class ClientInitializerImpl4_2 implements ClientInitializer {
     public void initialize(
             final @NotNull InitializerInput initializerInput,
             final @NotNull ClientContext clientContext) {
-        if (config.isSubscribeReceived()) {
-            clientContext.addSubscribeInboundInterceptor(new SubscribeInboundInterceptorImpl(messageLogger));
+        // clients that are not selected get no interceptors, so their packets are not intercepted at all
+        if (!isSelected(initializerInput)) {
+            return;
         }
-        if (config.isPublishReceived()) {
-            clientContext.addPublishInboundInterceptor(new PublishInboundInterceptorImpl(messageLogger));
+        final var policy = currentPolicy.get();
+        final var connection = new ConnectionContext(initializerInput.getClientInformation().getClientId());
+        final var clientMessageLogger = createClientMessageLogger(connection);
+        if (policy.isEnabled(EventType.SUBSCRIBE_RECEIVED)) {
+            clientContext.addSubscribeInboundInterceptor(new SubscribeInboundInterceptorImpl(clientMessageLogger));
         }
-        if (config.isPublishSend()) {
-            clientContext.addPublishOutboundInterceptor(new PublishOutboundInterceptorImpl(messageLogger));
+        if (policy.isEnabled(EventType.PUBLISH_RECEIVED)) {
+            clientContext.addPublishInboundInterceptor(new PublishInboundInterceptorImpl(
+                    clientMessageLogger,
+                    connection));
         }
+        if (policy.isEnabled(EventType.PUBLISH_SEND)) {
+            clientContext.addPublishOutboundInterceptor(new PublishOutboundInterceptorImpl(
+                    clientMessageLogger,
+                    connection));
+        }
+    }
+
+    /**
+     * Creates the logger for the events of a client, which is rate limited per connection if configured.
+     * <p>
+     * The rate limit applies after the filter, so only the logged events take its tokens.
+     */
+    private @NotNull MessageLogger createClientMessageLogger(final @NotNull ConnectionContext connection) {
+        if (config.getRateLimit() <= 0) {
+            return messageLogger;
+        }
+        return filter.apply(new RateLimitedMessageLogger(unfilteredMessageLogger,
+                connection.getClientId(),
+                config.getRateLimit(),
+                config.getRateLimitBurst()));
+    }
+
+    /**
+     * @return whether the events of the client are logged according to the client selection rules
+     */
+    private boolean isSelected(final @NotNull ClientBasedInput input) {
+        return clientSelector == null || clientSelector.isSelected(input);
     }
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.interceptor;
+
+import com.hivemq.extension.sdk.api.interceptor.connect.ConnectInboundInterceptor;
+import com.hivemq.extension.sdk.api.interceptor.connect.parameter.ConnectInboundInput;
+import com.hivemq.extension.sdk.api.interceptor.connect.parameter.ConnectInboundOutput;
+import com.hivemq.extensions.log.mqtt.message.client.ClientSelector;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Evaluates the client selection rules on CONNECT and only passes the CONNECT of selected clients on to the logging
+ * interceptor.
+ *
+ * @since 1.4.0
+ */
+public class ClientSelectionConnectInboundInterceptor implements ConnectInboundInterceptor {
+
+    private static final @NotNull Logger LOG = LoggerFactory.getLogger(ClientSelectionConnectInboundInterceptor.class);
+
+    private final @NotNull ClientSelector clientSelector;
+    private final @Nullable ConnectInboundInterceptor delegate;
+
+    /**
+     * @param clientSelector the client selection rules
+     * @param delegate       the interceptor that logs the CONNECT of selected clients, or null if it is not logged
+     */
+    public ClientSelectionConnectInboundInterceptor(
+            final @NotNull ClientSelector clientSelector,
+            final @Nullable ConnectInboundInterceptor delegate) {
+        this.clientSelector = clientSelector;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void onConnect(
+            final @NotNull ConnectInboundInput connectInboundInput,
+            final @NotNull ConnectInboundOutput connectInboundOutput) {
+        final boolean selected;
+        try {
+            selected = clientSelector.select(connectInboundInput,
+                    connectInboundInput.getConnectPacket().getUserName().orElse(null));
+        } catch (final Exception e) {
+            LOG.debug("Exception thrown at client selection: ", e);
+            return;
+        }
+        if (selected && delegate != null) {
+            delegate.onConnect(connectInboundInput, connectInboundOutput);
+        }
+    }
+}
@@ -24,6 +24,7 @@ import com.hivemq.extension.sdk.api.events.client.parameters.ConnectionLostInput
 import com.hivemq.extension.sdk.api.events.client.parameters.ConnectionStartInput;
 import com.hivemq.extension.sdk.api.events.client.parameters.DisconnectEventInput;
 import com.hivemq.extension.sdk.api.events.client.parameters.ServerInitiatedDisconnectInput;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
 import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
@@ -37,10 +38,15 @@ public class ConnectDisconnectEventListener implements ClientLifecycleEventListe
     private static final @NotNull Logger LOG = LoggerFactory.getLogger(ConnectDisconnectEventListener.class);
 
     private final @NotNull MessageLogger messageLogger;
+    private final @NotNull ConnectionContext connection;
     private final boolean logConnect;
 
-    public ConnectDisconnectEventListener(final @NotNull MessageLogger messageLogger, final boolean logConnect) {
+    public ConnectDisconnectEventListener(
+            final @NotNull MessageLogger messageLogger,
+            final @NotNull ConnectionContext connection,
+            final boolean logConnect) {
         this.messageLogger = messageLogger;
+        this.connection = connection;
         this.logConnect = logConnect;
     }
 
@@ -69,8 +75,7 @@ public class ConnectDisconnectEventListener implements ClientLifecycleEventListe
 
     @Override
     public void onAuthenticationFailedDisconnect(final @NotNull AuthenticationFailedInput authenticationFailedInput) {
-        messageLogger.logDisconnect(String.format("Sent DISCONNECT to client '%s' because authentication failed",
-                authenticationFailedInput.getClientInformation().getClientId()), authenticationFailedInput);
+        messageLogger.logDisconnect(authenticationFailedInput, connection, false);
     }
 
     @Override
@@ -81,18 +86,12 @@ public class ConnectDisconnectEventListener implements ClientLifecycleEventListe
     @Override
     public void onClientInitiatedDisconnect(
             final @NotNull ClientInitiatedDisconnectInput clientInitiatedDisconnectInput) {
-        messageLogger.logDisconnect(
-                String.format("Received DISCONNECT from client '%s'",
-                        clientInitiatedDisconnectInput.getClientInformation().getClientId()),
-                clientInitiatedDisconnectInput);
+        messageLogger.logDisconnect(clientInitiatedDisconnectInput, connection, true);
     }
 
     @Override
     public void onServerInitiatedDisconnect(
             final @NotNull ServerInitiatedDisconnectInput serverInitiatedDisconnectInput) {
-        messageLogger.logDisconnect(
-                String.format("Sent DISCONNECT to client '%s'",
-                        serverInitiatedDisconnectInput.getClientInformation().getClientId()),
-                serverInitiatedDisconnectInput);
+        messageLogger.logDisconnect(serverInitiatedDisconnectInput, connection, false);
     }
 }
@@ -19,6 +19,7 @@ package com.hivemq.extensions.log.mqtt.message.interceptor;
 import com.hivemq.extension.sdk.api.interceptor.disconnect.DisconnectInboundInterceptor;
 import com.hivemq.extension.sdk.api.interceptor.disconnect.parameter.DisconnectInboundInput;
 import com.hivemq.extension.sdk.api.interceptor.disconnect.parameter.DisconnectInboundOutput;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
 import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
@@ -32,9 +33,13 @@ public class DisconnectInboundInterceptorImpl implements DisconnectInboundInterc
     private static final @NotNull Logger LOG = LoggerFactory.getLogger(DisconnectInboundInterceptorImpl.class);
 
     private final @NotNull MessageLogger messageLogger;
+    private final @NotNull ConnectionContext connection;
 
-    public DisconnectInboundInterceptorImpl(final @NotNull MessageLogger messageLogger) {
+    public DisconnectInboundInterceptorImpl(
+            final @NotNull MessageLogger messageLogger,
+            final @NotNull ConnectionContext connection) {
         this.messageLogger = messageLogger;
+        this.connection = connection;
     }
 
     @Override
@@ -42,8 +47,7 @@ public class DisconnectInboundInterceptorImpl implements DisconnectInboundInterc
             final @NotNull DisconnectInboundInput disconnectInboundInput,
             final @NotNull DisconnectInboundOutput disconnectInboundOutput) {
         try {
-            final var clientId = disconnectInboundInput.getClientInformation().getClientId();
-            messageLogger.logDisconnect(disconnectInboundInput.getDisconnectPacket(), clientId, true);
+            messageLogger.logDisconnect(disconnectInboundInput.getDisconnectPacket(), connection, true);
         } catch (final Exception e) {
             LOG.debug("Exception thrown at inbound disconnect logging: ", e);
         }
@@ -19,6 +19,7 @@ package com.hivemq.extensions.log.mqtt.message.interceptor;
 import com.hivemq.extension.sdk.api.interceptor.disconnect.DisconnectOutboundInterceptor;
 import com.hivemq.extension.sdk.api.interceptor.disconnect.parameter.DisconnectOutboundInput;
 import com.hivemq.extension.sdk.api.interceptor.disconnect.parameter.DisconnectOutboundOutput;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
 import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
@@ -32,9 +33,13 @@ public class DisconnectOutboundInterceptorImpl implements DisconnectOutboundInte
     private static final @NotNull Logger LOG = LoggerFactory.getLogger(DisconnectOutboundInterceptorImpl.class);
 
     private final @NotNull MessageLogger messageLogger;
+    private final @NotNull ConnectionContext connection;
 
-    public DisconnectOutboundInterceptorImpl(final @NotNull MessageLogger messageLogger) {
+    public DisconnectOutboundInterceptorImpl(
+            final @NotNull MessageLogger messageLogger,
+            final @NotNull ConnectionContext connection) {
         this.messageLogger = messageLogger;
+        this.connection = connection;
     }
 
     @Override
@@ -42,8 +47,7 @@ public class DisconnectOutboundInterceptorImpl implements DisconnectOutboundInte
             final @NotNull DisconnectOutboundInput disconnectOutboundInput,
             final @NotNull DisconnectOutboundOutput disconnectOutboundOutput) {
         try {
-            final var clientId = disconnectOutboundInput.getClientInformation().getClientId();
-            messageLogger.logDisconnect(disconnectOutboundInput.getDisconnectPacket(), clientId, false);
+            messageLogger.logDisconnect(disconnectOutboundInput.getDisconnectPacket(), connection, false);
         } catch (final Exception e) {
             LOG.debug("Exception thrown at outbound disconnect logging: ", e);
         }
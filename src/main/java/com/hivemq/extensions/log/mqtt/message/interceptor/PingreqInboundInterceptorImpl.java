@@ -19,8 +19,10 @@ package com.hivemq.extensions.log.mqtt.message.interceptor;
 import com.hivemq.extension.sdk.api.interceptor.pingreq.PingReqInboundInterceptor;
 import com.hivemq.extension.sdk.api.interceptor.pingreq.parameter.PingReqInboundInput;
 import com.hivemq.extension.sdk.api.interceptor.pingreq.parameter.PingReqInboundOutput;
+import com.hivemq.extensions.log.mqtt.message.flow.PingAggregator;
 import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,10 +33,23 @@ public class PingreqInboundInterceptorImpl implements PingReqInboundInterceptor
 
     private static final @NotNull Logger LOG = LoggerFactory.getLogger(PingreqInboundInterceptorImpl.class);
 
-    private final @NotNull MessageLogger messageLogger;
+    private final @Nullable MessageLogger messageLogger;
+    private final @Nullable PingAggregator.ClientPings clientPings;
 
     public PingreqInboundInterceptorImpl(final @NotNull MessageLogger messageLogger) {
+        this(messageLogger, null);
+    }
+
+    /**
+     * @param messageLogger the logger of the packets, or {@code null} if the packets are only aggregated
+     * @param clientPings   the pings of the connection, or {@code null} if the pings are not aggregated
+     * @since 1.4.0
+     */
+    public PingreqInboundInterceptorImpl(
+            final @Nullable MessageLogger messageLogger,
+            final @Nullable PingAggregator.ClientPings clientPings) {
         this.messageLogger = messageLogger;
+        this.clientPings = clientPings;
     }
 
     @Override
@@ -42,7 +57,12 @@ public class PingreqInboundInterceptorImpl implements PingReqInboundInterceptor
             final @NotNull PingReqInboundInput pingReqInboundInput,
             final @NotNull PingReqInboundOutput pingReqInboundOutput) {
         try {
-            messageLogger.logPingreq(pingReqInboundInput);
+            if (clientPings != null) {
+                clientPings.pingreq();
+            }
+            if (messageLogger != null) {
+                messageLogger.logPingreq(pingReqInboundInput);
+            }
         } catch (final Exception e) {
             LOG.debug("Exception thrown at inbound ping request logging: ", e);
         }
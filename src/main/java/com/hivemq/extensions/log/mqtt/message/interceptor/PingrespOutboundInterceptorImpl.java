@@ -19,8 +19,10 @@ package com.hivemq.extensions.log.mqtt.message.interceptor;
 import com.hivemq.extension.sdk.api.interceptor.pingresp.PingRespOutboundInterceptor;
 import com.hivemq.extension.sdk.api.interceptor.pingresp.parameter.PingRespOutboundInput;
 import com.hivemq.extension.sdk.api.interceptor.pingresp.parameter.PingRespOutboundOutput;
+import com.hivemq.extensions.log.mqtt.message.flow.PingAggregator;
 import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,10 +33,23 @@ public class PingrespOutboundInterceptorImpl implements PingRespOutboundIntercep
 
     private static final @NotNull Logger LOG = LoggerFactory.getLogger(PingrespOutboundInterceptorImpl.class);
 
-    private final @NotNull MessageLogger messageLogger;
+    private final @Nullable MessageLogger messageLogger;
+    private final @Nullable PingAggregator.ClientPings clientPings;
 
     public PingrespOutboundInterceptorImpl(final @NotNull MessageLogger messageLogger) {
+        this(messageLogger, null);
+    }
+
+    /**
+     * @param messageLogger the logger of the packets, or {@code null} if the packets are only aggregated
+     * @param clientPings   the pings of the connection, or {@code null} if the pings are not aggregated
+     * @since 1.4.0
+     */
+    public PingrespOutboundInterceptorImpl(
+            final @Nullable MessageLogger messageLogger,
+            final @Nullable PingAggregator.ClientPings clientPings) {
         this.messageLogger = messageLogger;
+        this.clientPings = clientPings;
     }
 
     @Override
@@ -42,7 +57,12 @@ public class PingrespOutboundInterceptorImpl implements PingRespOutboundIntercep
             final @NotNull PingRespOutboundInput pingRespOutboundInput,
             final @NotNull PingRespOutboundOutput pingRespOutboundOutput) {
         try {
-            messageLogger.logPingresp(pingRespOutboundInput);
+            if (clientPings != null) {
+                clientPings.pingresp();
+            }
+            if (messageLogger != null) {
+                messageLogger.logPingresp(pingRespOutboundInput);
+            }
         } catch (final Exception e) {
             LOG.debug("Exception thrown at outbound ping response logging: ", e);
         }
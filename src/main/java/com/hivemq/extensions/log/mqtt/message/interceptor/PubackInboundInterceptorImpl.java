@@ -19,8 +19,11 @@ package com.hivemq.extensions.log.mqtt.message.interceptor;
 import com.hivemq.extension.sdk.api.interceptor.puback.PubackInboundInterceptor;
 import com.hivemq.extension.sdk.api.interceptor.puback.parameter.PubackInboundInput;
 import com.hivemq.extension.sdk.api.interceptor.puback.parameter.PubackInboundOutput;
+import com.hivemq.extensions.log.mqtt.message.flow.AckLatencyTracker;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
 import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,10 +34,29 @@ public class PubackInboundInterceptorImpl implements PubackInboundInterceptor {
 
     private static final @NotNull Logger log = LoggerFactory.getLogger(PubackInboundInterceptorImpl.class);
 
-    private final @NotNull MessageLogger messageLogger;
+    private final @Nullable MessageLogger messageLogger;
+    private final @NotNull ConnectionContext connection;
+    private final @Nullable AckLatencyTracker ackLatencyTracker;
 
-    public PubackInboundInterceptorImpl(final @NotNull MessageLogger messageLogger) {
+    public PubackInboundInterceptorImpl(
+            final @NotNull MessageLogger messageLogger,
+            final @NotNull ConnectionContext connection) {
+        this(messageLogger, connection, null);
+    }
+
+    /**
+     * @param messageLogger     the logger of the packets, or {@code null} if the packets are only tracked
+     * @param connection        the context of the connection
+     * @param ackLatencyTracker the ack latency tracker of the connection, or {@code null} if it is not tracked
+     * @since 1.4.0
+     */
+    public PubackInboundInterceptorImpl(
+            final @Nullable MessageLogger messageLogger,
+            final @NotNull ConnectionContext connection,
+            final @Nullable AckLatencyTracker ackLatencyTracker) {
         this.messageLogger = messageLogger;
+        this.connection = connection;
+        this.ackLatencyTracker = ackLatencyTracker;
     }
 
     @Override
@@ -42,8 +64,17 @@ public class PubackInboundInterceptorImpl implements PubackInboundInterceptor {
             final @NotNull PubackInboundInput pubackInboundInput,
             final @NotNull PubackInboundOutput pubackInboundOutput) {
         try {
-            final var clientId = pubackInboundInput.getClientInformation().getClientId();
-            messageLogger.logPuback(pubackInboundInput.getPubackPacket(), clientId, true);
+            final var pubackPacket = pubackInboundInput.getPubackPacket();
+            if (ackLatencyTracker == null) {
+                if (messageLogger != null) {
+                    messageLogger.logPuback(pubackPacket, connection, true);
+                }
+                return;
+            }
+            final var ackLatencyMicros = ackLatencyTracker.acknowledged(pubackPacket.getPacketIdentifier(), true);
+            if (messageLogger != null) {
+                messageLogger.logPuback(pubackPacket, connection, true, ackLatencyMicros);
+            }
         } catch (final Exception e) {
             log.debug("Exception thrown at inbound puback logging: ", e);
         }
@@ -19,8 +19,11 @@ package com.hivemq.extensions.log.mqtt.message.interceptor;
 import com.hivemq.extension.sdk.api.interceptor.puback.PubackOutboundInterceptor;
 import com.hivemq.extension.sdk.api.interceptor.puback.parameter.PubackOutboundInput;
 import com.hivemq.extension.sdk.api.interceptor.puback.parameter.PubackOutboundOutput;
+import com.hivemq.extensions.log.mqtt.message.flow.AckLatencyTracker;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
 import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,10 +34,29 @@ public class PubackOutboundInterceptorImpl implements PubackOutboundInterceptor
 
     private static final @NotNull Logger LOG = LoggerFactory.getLogger(PubackOutboundInterceptorImpl.class);
 
-    private final @NotNull MessageLogger messageLogger;
+    private final @Nullable MessageLogger messageLogger;
+    private final @NotNull ConnectionContext connection;
+    private final @Nullable AckLatencyTracker ackLatencyTracker;
 
-    public PubackOutboundInterceptorImpl(final @NotNull MessageLogger messageLogger) {
+    public PubackOutboundInterceptorImpl(
+            final @NotNull MessageLogger messageLogger,
+            final @NotNull ConnectionContext connection) {
+        this(messageLogger, connection, null);
+    }
+
+    /**
+     * @param messageLogger     the logger of the packets, or {@code null} if the packets are only tracked
+     * @param connection        the context of the connection
+     * @param ackLatencyTracker the ack latency tracker of the connection, or {@code null} if it is not tracked
+     * @since 1.4.0
+     */
+    public PubackOutboundInterceptorImpl(
+            final @Nullable MessageLogger messageLogger,
+            final @NotNull ConnectionContext connection,
+            final @Nullable AckLatencyTracker ackLatencyTracker) {
         this.messageLogger = messageLogger;
+        this.connection = connection;
+        this.ackLatencyTracker = ackLatencyTracker;
     }
 
     @Override
@@ -42,8 +64,17 @@ public class PubackOutboundInterceptorImpl implements PubackOutboundInterceptor
             final @NotNull PubackOutboundInput pubackOutboundInput,
             final @NotNull PubackOutboundOutput pubackOutboundOutput) {
         try {
-            final var clientId = pubackOutboundInput.getClientInformation().getClientId();
-            messageLogger.logPuback(pubackOutboundInput.getPubackPacket(), clientId, false);
+            final var pubackPacket = pubackOutboundInput.getPubackPacket();
+            if (ackLatencyTracker == null) {
+                if (messageLogger != null) {
+                    messageLogger.logPuback(pubackPacket, connection, false);
+                }
+                return;
+            }
+            final var ackLatencyMicros = ackLatencyTracker.acknowledged(pubackPacket.getPacketIdentifier(), false);
+            if (messageLogger != null) {
+                messageLogger.logPuback(pubackPacket, connection, false, ackLatencyMicros);
+            }
         } catch (final Exception e) {
             LOG.debug("Exception thrown at outbound puback logging: ", e);
         }
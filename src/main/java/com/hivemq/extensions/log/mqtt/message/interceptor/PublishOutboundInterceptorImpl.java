@@ -19,8 +19,11 @@ package com.hivemq.extensions.log.mqtt.message.interceptor;
 import com.hivemq.extension.sdk.api.interceptor.publish.PublishOutboundInterceptor;
 import com.hivemq.extension.sdk.api.interceptor.publish.parameter.PublishOutboundInput;
 import com.hivemq.extension.sdk.api.interceptor.publish.parameter.PublishOutboundOutput;
+import com.hivemq.extensions.log.mqtt.message.flow.ConnectionFlows;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
 import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,10 +34,29 @@ public class PublishOutboundInterceptorImpl implements PublishOutboundIntercepto
 
     private static final @NotNull Logger LOG = LoggerFactory.getLogger(PublishOutboundInterceptorImpl.class);
 
-    private final @NotNull MessageLogger messageLogger;
+    private final @Nullable MessageLogger messageLogger;
+    private final @NotNull ConnectionContext connection;
+    private final @Nullable ConnectionFlows connectionFlows;
 
-    public PublishOutboundInterceptorImpl(final @NotNull MessageLogger messageLogger) {
+    public PublishOutboundInterceptorImpl(
+            final @NotNull MessageLogger messageLogger,
+            final @NotNull ConnectionContext connection) {
+        this(messageLogger, connection, null);
+    }
+
+    /**
+     * @param messageLogger   the logger of the packets, or {@code null} if the packets are only tracked
+     * @param connection      the context of the connection
+     * @param connectionFlows the flows of the connection, or {@code null} if the packets are not tracked
+     * @since 1.4.0
+     */
+    public PublishOutboundInterceptorImpl(
+            final @Nullable MessageLogger messageLogger,
+            final @NotNull ConnectionContext connection,
+            final @Nullable ConnectionFlows connectionFlows) {
         this.messageLogger = messageLogger;
+        this.connection = connection;
+        this.connectionFlows = connectionFlows;
     }
 
     @Override
@@ -42,9 +64,13 @@ public class PublishOutboundInterceptorImpl implements PublishOutboundIntercepto
             final @NotNull PublishOutboundInput publishOutboundInput,
             final @NotNull PublishOutboundOutput publishOutboundOutput) {
         try {
-            final var clientID = publishOutboundInput.getClientInformation().getClientId();
-            messageLogger.logPublish(String.format("Sent PUBLISH to client '%s' on topic", clientID),
-                    publishOutboundInput.getPublishPacket());
+            final var publishPacket = publishOutboundInput.getPublishPacket();
+            if (connectionFlows != null) {
+                connectionFlows.published(publishPacket, false);
+            }
+            if (messageLogger != null) {
+                messageLogger.logPublish(publishPacket, connection, false);
+            }
         } catch (final Exception e) {
             LOG.debug("Exception thrown at outbound publish logging: ", e);
         }
@@ -19,8 +19,11 @@ package com.hivemq.extensions.log.mqtt.message.interceptor;
 import com.hivemq.extension.sdk.api.interceptor.pubrec.PubrecInboundInterceptor;
 import com.hivemq.extension.sdk.api.interceptor.pubrec.parameter.PubrecInboundInput;
 import com.hivemq.extension.sdk.api.interceptor.pubrec.parameter.PubrecInboundOutput;
+import com.hivemq.extensions.log.mqtt.message.flow.Qos2FlowAggregator;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
 import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,10 +34,30 @@ public class PubrecInboundInterceptorImpl implements PubrecInboundInterceptor {
 
     private static final @NotNull Logger LOG = LoggerFactory.getLogger(PubrecInboundInterceptorImpl.class);
 
-    private final @NotNull MessageLogger messageLogger;
+    private final @Nullable MessageLogger messageLogger;
+    private final @NotNull ConnectionContext connection;
+    private final @Nullable Qos2FlowAggregator qos2FlowAggregator;
 
-    public PubrecInboundInterceptorImpl(final @NotNull MessageLogger messageLogger) {
+    public PubrecInboundInterceptorImpl(
+            final @NotNull MessageLogger messageLogger,
+            final @NotNull ConnectionContext connection) {
+        this(messageLogger, connection, null);
+    }
+
+    /**
+     * @param messageLogger      the logger of the packets that are not aggregated, or {@code null} if they are not
+     *                           logged
+     * @param connection         the context of the connection
+     * @param qos2FlowAggregator the QoS 2 flows of the connection, or {@code null} if they are not aggregated
+     * @since 1.4.0
+     */
+    public PubrecInboundInterceptorImpl(
+            final @Nullable MessageLogger messageLogger,
+            final @NotNull ConnectionContext connection,
+            final @Nullable Qos2FlowAggregator qos2FlowAggregator) {
         this.messageLogger = messageLogger;
+        this.connection = connection;
+        this.qos2FlowAggregator = qos2FlowAggregator;
     }
 
     @Override
@@ -42,8 +65,13 @@ public class PubrecInboundInterceptorImpl implements PubrecInboundInterceptor {
             final @NotNull PubrecInboundInput pubrecInboundInput,
             final @NotNull PubrecInboundOutput pubrecInboundOutput) {
         try {
-            final var clientId = pubrecInboundInput.getClientInformation().getClientId();
-            messageLogger.logPubrec(pubrecInboundInput.getPubrecPacket(), clientId, true);
+            final var pubrecPacket = pubrecInboundInput.getPubrecPacket();
+            if (qos2FlowAggregator != null && qos2FlowAggregator.pubrec(pubrecPacket, true)) {
+                return;
+            }
+            if (messageLogger != null) {
+                messageLogger.logPubrec(pubrecPacket, connection, true);
+            }
         } catch (final Exception e) {
             LOG.debug("Exception thrown at inbound pubrec logging: ", e);
         }
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import com.hivemq.extensions.log.mqtt.message.sink.BinaryFormat;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+
+import static com.hivemq.extensions.log.mqtt.message.sink.BinaryFormat.MAX_VARINT_LENGTH;
+import static com.hivemq.extensions.log.mqtt.message.sink.BinaryFormat.WIRE_TYPE_BITS;
+import static com.hivemq.extensions.log.mqtt.message.sink.BinaryFormat.putVarint;
+import static com.hivemq.extensions.log.mqtt.message.sink.BinaryFormat.zigZag;
+import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.getBytes;
+import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.putUtf8;
+import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.utf8Length;
+
+/**
+ * Writes records of the {@link BinaryFormat binary log format} into a recycled byte array.
+ * <p>
+ * Like the {@link JsonEncoder}, every thread reuses its own encoder. Symbols are written with their UTF-8 bytes, the
+ * sink replaces them with the ids of its current segment.
+ *
+ * @since 1.4.0
+ */
+class BinaryEncoder {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    // buffers that grew beyond this size for a single large record are not retained
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private static final @NotNull ThreadLocal<BinaryEncoder> ENCODERS = ThreadLocal.withInitial(BinaryEncoder::new);
+
+    private byte @NotNull [] buffer = new byte[INITIAL_CAPACITY];
+    private @NotNull ByteBuffer view = ByteBuffer.wrap(buffer);
+    private int length;
+
+    /**
+     * @return the empty encoder of the current thread
+     */
+    static @NotNull BinaryEncoder get() {
+        final var encoder = ENCODERS.get();
+        encoder.reset();
+        return encoder;
+    }
+
+    void reset() {
+        if (buffer.length > MAX_RETAINED_CAPACITY) {
+            buffer = new byte[INITIAL_CAPACITY];
+            view = ByteBuffer.wrap(buffer);
+        }
+        length = 0;
+    }
+
+    /**
+     * Starts a record with the fields that every record has.
+     */
+    @NotNull BinaryEncoder beginRecord(
+            final long timestamp,
+            final @NotNull MessageType messageType,
+            final @NotNull Direction direction) {
+        ensureCapacity(Long.BYTES + 2);
+        for (var shift = 56; shift >= 0; shift -= 8) {
+            buffer[length++] = (byte) (timestamp >>> shift);
+        }
+        buffer[length++] = (byte) messageType.ordinal();
+        buffer[length++] = (byte) direction.ordinal();
+        return this;
+    }
+
+    /**
+     * Appends a string field, nothing is appended if the value is {@code null}.
+     */
+    @NotNull BinaryEncoder field(final @NotNull BinaryField field, final @Nullable String value) {
+        if (value == null) {
+            return this;
+        }
+        tag(field, BinaryFormat.STRING);
+        string(value);
+        return this;
+    }
+
+    /**
+     * Appends a string that is likely repeated in other records, like a client id, a topic or the name of a reason
+     * code, so it is stored only once per segment.
+     */
+    @NotNull BinaryEncoder symbol(final @NotNull BinaryField field, final @NotNull String value) {
+        tag(field, BinaryFormat.SYMBOL);
+        string(value);
+        return this;
+    }
+
+    @NotNull BinaryEncoder field(final @NotNull BinaryField field, final long value) {
+        tag(field, BinaryFormat.VARINT);
+        varint(zigZag(value));
+        return this;
+    }
+
+    @NotNull BinaryEncoder field(final @NotNull BinaryField field, final boolean value) {
+        tag(field, value ? BinaryFormat.TRUE : BinaryFormat.FALSE);
+        return this;
+    }
+
+    /**
+     * Appends the raw bytes between position and limit, the position of the buffer is not changed.
+     */
+    @NotNull BinaryEncoder bytes(final @NotNull BinaryField field, final @NotNull ByteBuffer value) {
+        tag(field, BinaryFormat.BYTES);
+        final var count = value.remaining();
+        varint(count);
+        ensureCapacity(count);
+        getBytes(value, value.position(), buffer, length, count);
+        length += count;
+        return this;
+    }
+
+    @NotNull BinaryEncoder beginObject(final @NotNull BinaryField field) {
+        tag(field, BinaryFormat.OBJECT);
+        return this;
+    }
+
+    @NotNull BinaryEncoder endObject() {
+        varint(BinaryFormat.END);
+        return this;
+    }
+
+    /**
+     * Starts an array, exactly {@code count} elements must follow.
+     */
+    @NotNull BinaryEncoder beginArray(final @NotNull BinaryField field, final int count) {
+        tag(field, BinaryFormat.ARRAY);
+        varint(count);
+        return this;
+    }
+
+    @NotNull BinaryEncoder symbolElement(final @NotNull String value) {
+        varint(BinaryFormat.SYMBOL);
+        string(value);
+        return this;
+    }
+
+    @NotNull BinaryEncoder numberElement(final long value) {
+        varint(BinaryFormat.VARINT);
+        varint(zigZag(value));
+        return this;
+    }
+
+    /**
+     * Starts an object element of an array, must be ended with {@link #endObject()}.
+     */
+    @NotNull BinaryEncoder beginObjectElement() {
+        varint(BinaryFormat.OBJECT);
+        return this;
+    }
+
+    private void tag(final @NotNull BinaryField field, final int wireType) {
+        varint((long) field.getId() << WIRE_TYPE_BITS | wireType);
+    }
+
+    private void varint(final long value) {
+        ensureCapacity(MAX_VARINT_LENGTH);
+        length = putVarint(buffer, length, value);
+    }
+
+    /**
+     * Appends the length and the UTF-8 encoding of the string.
+     */
+    private void string(final @NotNull String value) {
+        final var utf8Length = utf8Length(value);
+        varint(utf8Length);
+        ensureCapacity(utf8Length);
+        length = putUtf8(value, buffer, length);
+    }
+
+    private void ensureCapacity(final int additional) {
+        final var required = length + additional;
+        if (required > buffer.length) {
+            final var newBuffer = new byte[Math.max(required, buffer.length * 2)];
+            System.arraycopy(buffer, 0, newBuffer, 0, length);
+            buffer = newBuffer;
+            view = ByteBuffer.wrap(buffer);
+        }
+    }
+
+    /**
+     * @return a view of the encoded record, only valid until the encoder is used again
+     */
+    @NotNull ByteBuffer asByteBuffer() {
+        view.limit(length).position(0);
+        return view;
+    }
+}
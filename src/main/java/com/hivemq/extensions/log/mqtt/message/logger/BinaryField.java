@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The fields of the binary log format with their ids and the keys of the corresponding JSON fields, so the
+ * {@link BinaryLogDecoder} can restore the records of the {@link JsonMessageLogger}.
+ * <p>
+ * The ids are part of the format and must never be changed or reused.
+ *
+ * @since 1.4.0
+ */
+enum BinaryField {
+    MESSAGE(1, "message"),
+    CLIENT_ID(2, "clientId"),
+    REASON_CODE(3, "reasonCode"),
+    REASON_STRING(4, "reasonString"),
+    SERVER_REFERENCE(5, "serverReference"),
+    SESSION_EXPIRY_INTERVAL(6, "sessionExpiryInterval"),
+    USER_PROPERTIES(7, "userProperties"),
+    NAME(8, "name"),
+    VALUE(9, "value"),
+    PROTOCOL_VERSION(10, "protocolVersion"),
+    CLEAN_START(11, "cleanStart"),
+    KEEP_ALIVE(12, "keepAlive"),
+    MAXIMUM_PACKET_SIZE(13, "maximumPacketSize"),
+    RECEIVE_MAXIMUM(14, "receiveMaximum"),
+    TOPIC_ALIAS_MAXIMUM(15, "topicAliasMaximum"),
+    REQUEST_PROBLEM_INFORMATION(16, "requestProblemInformation"),
+    REQUEST_RESPONSE_INFORMATION(17, "requestResponseInformation"),
+    USERNAME(18, "username"),
+    PASSWORD(19, "password", "passwordBase64"),
+    AUTH_METHOD(20, "authMethod"),
+    AUTH_DATA(21, null, "authDataBase64"),
+    WILL(22, "will"),
+    TOPIC(23, "topic"),
+    QOS(24, "qos"),
+    RETAINED(25, "retained"),
+    WILL_DELAY(26, "willDelay"),
+    PAYLOAD(27, "payload", "payloadBase64"),
+    PAYLOAD_HEAD(28, "payloadHead", "payloadHeadBase64"),
+    PAYLOAD_TAIL(29, "payloadTail", "payloadTailBase64"),
+    PAYLOAD_SIZE(30, "payloadSize"),
+    PAYLOAD_HASH(31, "payloadHash"),
+    MESSAGE_EXPIRY_INTERVAL(32, "messageExpiryInterval"),
+    CORRELATION_DATA(33, "correlationData"),
+    RESPONSE_TOPIC(34, "responseTopic"),
+    CONTENT_TYPE(35, "contentType"),
+    PAYLOAD_FORMAT_INDICATOR(36, "payloadFormatIndicator"),
+    SESSION_PRESENT(37, "sessionPresent"),
+    ASSIGNED_CLIENT_ID(38, "assignedClientId"),
+    MAXIMUM_QOS(39, "maximumQoS"),
+    RESPONSE_INFORMATION(40, "responseInformation"),
+    SERVER_KEEP_ALIVE(41, "serverKeepAlive"),
+    SHARED_SUBSCRIPTIONS_AVAILABLE(42, "sharedSubscriptionsAvailable"),
+    WILDCARD_SUBSCRIPTION_AVAILABLE(43, "wildCardSubscriptionAvailable"),
+    RETAIN_AVAILABLE(44, "retainAvailable"),
+    SUBSCRIPTION_IDENTIFIERS_AVAILABLE(45, "subscriptionIdentifiersAvailable"),
+    DUPLICATE_DELIVERY(46, "duplicateDelivery"),
+    SUBSCRIPTION_IDENTIFIERS(47, "subscriptionIdentifiers"),
+    SUBSCRIPTIONS(48, "subscriptions"),
+    TOPIC_FILTER(49, "topicFilter"),
+    RETAIN_AS_PUBLISHED(50, "retainAsPublished"),
+    NO_LOCAL(51, "noLocal"),
+    RETAIN_HANDLING(52, "retainHandling"),
+    SUBSCRIPTION_IDENTIFIER(53, "subscriptionIdentifier"),
+    TOPIC_FILTERS(54, "topicFilters"),
+    REASON_CODES(55, "reasonCodes"),
+    ACK_LATENCY_MICROS(56, "ackLatencyMicros"),
+    PACKET_ID(57, "packetId"),
+    COMPLETE(58, "complete"),
+    PUBREC_REASON_CODE(59, "pubrecReasonCode"),
+    PUBREC_MICROS(60, "pubrecMicros"),
+    PUBREL_REASON_CODE(61, "pubrelReasonCode"),
+    PUBREL_MICROS(62, "pubrelMicros"),
+    PUBCOMP_REASON_CODE(63, "pubcompReasonCode"),
+    PUBCOMP_MICROS(64, "pubcompMicros"),
+    DURATION_MICROS(65, "durationMicros"),
+    DURATION_MILLIS(66, "durationMillis"),
+    PACKETS(67, "packets"),
+    MESSAGE_TYPE(68, "messageType"),
+    DIRECTION(69, "direction"),
+    COUNT(70, "count"),
+    PAYLOAD_BYTES_INBOUND(71, "payloadBytesInbound"),
+    QOS_INBOUND(72, "qosInbound"),
+    PAYLOAD_BYTES_OUTBOUND(73, "payloadBytesOutbound"),
+    QOS_OUTBOUND(74, "qosOutbound"),
+    DISTINCT_TOPICS(75, "distinctTopics"),
+    ERRORS(76, "errors"),
+    PINGREQS(77, "pingreqs"),
+    PINGRESPS(78, "pingresps"),
+    CLIENTS(79, "clients"),
+    OUTLIER_CLIENTS(80, "outlierClients"),
+    OUTLIERS(81, "outliers"),
+    INTERVAL_MILLIS(82, "intervalMillis"),
+    REPEATED_MESSAGE_TYPE(83, "repeatedMessageType"),
+    REPEATED_DIRECTION(84, "repeatedDirection"),
+    FIRST_MILLIS(85, "firstMillis"),
+    LAST_MILLIS(86, "lastMillis");
+
+    private static final @Nullable BinaryField @NotNull [] BY_ID;
+
+    static {
+        var maxId = 0;
+        for (final var field : values()) {
+            maxId = Math.max(maxId, field.id);
+        }
+        BY_ID = new BinaryField[maxId + 1];
+        for (final var field : values()) {
+            BY_ID[field.id] = field;
+        }
+    }
+
+    private final int id;
+    private final @Nullable String key;
+    private final @Nullable String base64Key;
+
+    BinaryField(final int id, final @NotNull String key) {
+        this(id, key, null);
+    }
+
+    /**
+     * @param key       the key of printable ASCII bytes, or {@code null} if the bytes are always Base64 encoded
+     * @param base64Key the key of Base64 encoded bytes
+     */
+    BinaryField(final int id, final @Nullable String key, final @Nullable String base64Key) {
+        this.id = id;
+        this.key = key;
+        this.base64Key = base64Key;
+    }
+
+    static @Nullable BinaryField byId(final int id) {
+        return id > 0 && id < BY_ID.length ? BY_ID[id] : null;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    @Nullable String getKey() {
+        return key;
+    }
+
+    @Nullable String getBase64Key() {
+        return base64Key;
+    }
+
+    /**
+     * @return whether the varint value is logged as hex string
+     */
+    boolean isHex() {
+        return this == PAYLOAD_HASH;
+    }
+}
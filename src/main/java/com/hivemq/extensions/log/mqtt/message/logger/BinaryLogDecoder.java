@@ -0,0 +1,331 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import com.hivemq.extensions.log.mqtt.message.sink.BinaryFormat;
+import com.hivemq.extensions.log.mqtt.message.sink.BinarySegmentLogSink;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import static com.hivemq.extensions.log.mqtt.message.sink.BinaryFormat.CRC_LENGTH;
+import static com.hivemq.extensions.log.mqtt.message.sink.BinaryFormat.WIRE_TYPE_BITS;
+import static com.hivemq.extensions.log.mqtt.message.sink.BinaryFormat.WIRE_TYPE_MASK;
+import static com.hivemq.extensions.log.mqtt.message.sink.BinaryFormat.unZigZag;
+import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.asHexString;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Converts segments of the {@link BinaryFormat binary log format} to the JSON records of the
+ * {@link JsonMessageLogger}, one record per line.
+ * <p>
+ * Usage: {@code java -cp hivemq-mqtt-message-log-extension-<version>.jar
+ * com.hivemq.extensions.log.mqtt.message.logger.BinaryLogDecoder <segment>...}
+ * <p>
+ * The records are written to standard output. A segment is decoded up to the first record with an invalid checksum or
+ * an unexpected end, the error is reported on standard error and the exit code is {@code 1}.
+ *
+ * @see BinarySegmentLogSink
+ * @since 1.4.0
+ */
+public final class BinaryLogDecoder {
+
+    private static final @NotNull MessageType @NotNull [] MESSAGE_TYPES = MessageType.values();
+    private static final @NotNull Direction @NotNull [] DIRECTIONS = Direction.values();
+
+    private final @NotNull OutputStream out;
+    private final @NotNull CRC32C crc = new CRC32C();
+    private final @NotNull List<String> dictionary = new ArrayList<>();
+    private byte @NotNull [] body = new byte[1024];
+    private int position;
+    private int limit;
+
+    BinaryLogDecoder(final @NotNull OutputStream out) {
+        this.out = out;
+    }
+
+    public static void main(final @NotNull String @NotNull [] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: java -cp <extension jar> " + BinaryLogDecoder.class.getName() + " <segment>...");
+            System.exit(2);
+        }
+        final var out = new BufferedOutputStream(System.out, 64 * 1024);
+        final var decoder = new BinaryLogDecoder(out);
+        var valid = true;
+        for (final var arg : args) {
+            valid &= decoder.decode(Paths.get(arg), System.err);
+        }
+        out.flush();
+        if (!valid) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Writes the JSON records of a segment.
+     *
+     * @return whether the segment was decoded completely
+     */
+    boolean decode(final @NotNull Path segment, final @NotNull PrintStream err) throws IOException {
+        try (final var in = new BufferedInputStream(Files.newInputStream(segment), 64 * 1024)) {
+            final var error = decode(in);
+            if (error != null) {
+                err.println(segment + ": " + error);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * @return the error that stopped decoding, or {@code null} if the segment was decoded completely
+     */
+    private @Nullable String decode(final @NotNull InputStream in) throws IOException {
+        final var magic = in.readNBytes(BinaryFormat.MAGIC.length);
+        if (!Arrays.equals(magic, BinaryFormat.MAGIC)) {
+            return "not a binary log segment";
+        }
+        final var version = in.read();
+        if (version != BinaryFormat.VERSION) {
+            return "unsupported version " + version;
+        }
+        dictionary.clear();
+        var timestamp = 0L;
+        for (var recordIndex = 0; ; recordIndex++) {
+            final var length = readLength(in);
+            if (length < 0) {
+                return length == -1 ? null : "truncated record " + recordIndex;
+            }
+            if (body.length < length + CRC_LENGTH) {
+                body = new byte[length + CRC_LENGTH];
+            }
+            if (in.readNBytes(body, 0, length + CRC_LENGTH) != length + CRC_LENGTH) {
+                return "truncated record " + recordIndex;
+            }
+            crc.reset();
+            crc.update(body, 0, length);
+            if ((int) crc.getValue() != ByteBuffer.wrap(body, length, CRC_LENGTH).getInt()) {
+                return "invalid checksum of record " + recordIndex;
+            }
+            position = 1;
+            limit = length;
+            try {
+                if (body[0] == BinaryFormat.DICTIONARY_RECORD) {
+                    final var id = (int) readVarint();
+                    if (id != dictionary.size()) {
+                        return "unexpected dictionary id " + id + " in record " + recordIndex;
+                    }
+                    dictionary.add(readString());
+                } else if (body[0] == BinaryFormat.EVENT_RECORD) {
+                    timestamp += unZigZag(readVarint());
+                    writeEvent(timestamp);
+                } else {
+                    return "unknown record type " + body[0] + " in record " + recordIndex;
+                }
+            } catch (final IllegalArgumentException | IndexOutOfBoundsException e) {
+                return "invalid record " + recordIndex + ": " + e.getMessage();
+            }
+        }
+    }
+
+    /**
+     * @return the length of the next record, {@code -1} at the end of the segment and {@code -2} if it is truncated
+     */
+    private static int readLength(final @NotNull InputStream in) throws IOException {
+        var value = 0L;
+        for (var shift = 0; shift < 35; shift += 7) {
+            final var b = in.read();
+            if (b < 0) {
+                return shift == 0 ? -1 : -2;
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value <= Integer.MAX_VALUE - CRC_LENGTH ? (int) value : -2;
+            }
+        }
+        return -2;
+    }
+
+    private void writeEvent(final long timestamp) throws IOException {
+        final var messageType = MESSAGE_TYPES[body[position++]];
+        final var direction = DIRECTIONS[body[position++]];
+        final var json = JsonEncoder.get().beginRecord(timestamp, messageType.name(), direction.name());
+        while (position < limit) {
+            final var tag = readVarint();
+            writeValue(json, field(tag), (int) (tag & WIRE_TYPE_MASK));
+        }
+        final var record = json.endRecord().asByteBuffer();
+        out.write(record.array(), record.arrayOffset() + record.position(), record.remaining());
+        out.write('\n');
+    }
+
+    private void writeValue(final @NotNull JsonEncoder json, final @NotNull BinaryField field, final int wireType) {
+        switch (wireType) {
+            case BinaryFormat.VARINT: {
+                final var value = unZigZag(readVarint());
+                if (field.isHex()) {
+                    json.field(key(field), asHexString(value));
+                } else {
+                    json.field(key(field), value);
+                }
+                return;
+            }
+            case BinaryFormat.FALSE:
+            case BinaryFormat.TRUE:
+                json.field(key(field), wireType == BinaryFormat.TRUE);
+                return;
+            case BinaryFormat.STRING:
+                json.field(key(field), readString());
+                return;
+            case BinaryFormat.SYMBOL:
+                json.field(key(field), readSymbol());
+                return;
+            case BinaryFormat.BYTES: {
+                final var length = readLength();
+                final var value = ByteBuffer.wrap(body, position, length);
+                position += length;
+                final var base64Key = field.getBase64Key();
+                if (base64Key == null) {
+                    throw new IllegalArgumentException("field " + field + " has no binary value");
+                }
+                if (field.getKey() == null) {
+                    json.base64Field(base64Key, value);
+                } else {
+                    json.binaryField(field.getKey(), base64Key, value);
+                }
+                return;
+            }
+            case BinaryFormat.OBJECT:
+                json.key(key(field));
+                writeObject(json);
+                return;
+            case BinaryFormat.ARRAY: {
+                final var count = readVarint();
+                json.key(key(field)).ascii('[');
+                for (var i = 0; i < count; i++) {
+                    if (i > 0) {
+                        json.ascii(',');
+                    }
+                    writeElement(json, (int) readVarint());
+                }
+                json.ascii(']');
+                return;
+            }
+            default:
+                throw new IllegalArgumentException("unknown wire type " + wireType);
+        }
+    }
+
+    private void writeElement(final @NotNull JsonEncoder json, final int wireType) {
+        switch (wireType) {
+            case BinaryFormat.VARINT:
+                json.number(unZigZag(readVarint()));
+                return;
+            case BinaryFormat.STRING:
+                json.ascii('"').escaped(readString()).ascii('"');
+                return;
+            case BinaryFormat.SYMBOL:
+                json.ascii('"').escaped(readSymbol()).ascii('"');
+                return;
+            case BinaryFormat.OBJECT:
+                writeObject(json);
+                return;
+            default:
+                throw new IllegalArgumentException("unexpected array element wire type " + wireType);
+        }
+    }
+
+    private void writeObject(final @NotNull JsonEncoder json) {
+        json.beginObject();
+        while (true) {
+            final var tag = readVarint();
+            if (tag == BinaryFormat.END) {
+                json.ascii('}');
+                return;
+            }
+            writeValue(json, field(tag), (int) (tag & WIRE_TYPE_MASK));
+        }
+    }
+
+    private static @NotNull BinaryField field(final long tag) {
+        final var field = BinaryField.byId((int) (tag >>> WIRE_TYPE_BITS));
+        if (field == null) {
+            throw new IllegalArgumentException("unknown field id " + (tag >>> WIRE_TYPE_BITS));
+        }
+        return field;
+    }
+
+    private static @NotNull String key(final @NotNull BinaryField field) {
+        final var key = field.getKey();
+        if (key == null) {
+            throw new IllegalArgumentException("field " + field + " has only a binary value");
+        }
+        return key;
+    }
+
+    private @NotNull String readSymbol() {
+        final var id = readVarint();
+        if (id >= dictionary.size()) {
+            throw new IllegalArgumentException("undefined symbol " + id);
+        }
+        return dictionary.get((int) id);
+    }
+
+    private @NotNull String readString() {
+        final var length = readLength();
+        final var value = new String(body, position, length, UTF_8);
+        position += length;
+        return value;
+    }
+
+    private int readLength() {
+        final var length = readVarint();
+        if (length > limit - position) {
+            throw new IllegalArgumentException("length " + length + " exceeds the record");
+        }
+        return (int) length;
+    }
+
+    private long readVarint() {
+        var value = 0L;
+        for (var shift = 0; shift < 64; shift += 7) {
+            if (position >= limit) {
+                throw new IllegalArgumentException("unexpected end of record");
+            }
+            final var b = body[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("invalid varint");
+    }
+}
@@ -0,0 +1,660 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import com.hivemq.extension.sdk.api.events.client.parameters.DisconnectEventInput;
+import com.hivemq.extension.sdk.api.interceptor.connack.parameter.ConnackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.pingreq.parameter.PingReqInboundInput;
+import com.hivemq.extension.sdk.api.interceptor.pingresp.parameter.PingRespOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.suback.parameter.SubackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.subscribe.parameter.SubscribeInboundInput;
+import com.hivemq.extension.sdk.api.interceptor.unsuback.parameter.UnsubackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.unsubscribe.parameter.UnsubscribeInboundInput;
+import com.hivemq.extension.sdk.api.packets.connect.ConnectPacket;
+import com.hivemq.extension.sdk.api.packets.connect.WillPublishPacket;
+import com.hivemq.extension.sdk.api.packets.disconnect.DisconnectPacket;
+import com.hivemq.extension.sdk.api.packets.general.UserProperties;
+import com.hivemq.extension.sdk.api.packets.puback.PubackPacket;
+import com.hivemq.extension.sdk.api.packets.pubcomp.PubcompPacket;
+import com.hivemq.extension.sdk.api.packets.publish.PublishPacket;
+import com.hivemq.extension.sdk.api.packets.pubrec.PubrecPacket;
+import com.hivemq.extension.sdk.api.packets.pubrel.PubrelPacket;
+import com.hivemq.extensions.log.mqtt.message.config.LogPolicy;
+import com.hivemq.extensions.log.mqtt.message.flow.PingDigest;
+import com.hivemq.extensions.log.mqtt.message.flow.Qos2Flow;
+import com.hivemq.extensions.log.mqtt.message.flow.SessionSummary;
+import com.hivemq.extensions.log.mqtt.message.sink.BinaryFormat;
+import com.hivemq.extensions.log.mqtt.message.sink.LogSink;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.hivemq.extensions.log.mqtt.message.util.HashUtil.xxHash64;
+import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.getStringFromByteBuffer;
+
+/**
+ * Binary formatter for MQTT message logging. Writes the same fields as the {@link JsonMessageLogger} in the
+ * {@link BinaryFormat binary log format}, which the {@link BinaryLogDecoder} converts back to JSON.
+ * <p>
+ * Client ids, topics and the names of reason codes are written as symbols that are stored once per segment, payloads
+ * and other binary data are written as raw bytes.
+ *
+ * @since 1.4.0
+ */
+class BinaryMessageLogger implements MessageLogger {
+
+    private final @NotNull Supplier<LogPolicy> currentPolicy;
+    private final @NotNull LogSink sink;
+
+    /**
+     * @param currentPolicy the supplier of the current policy
+     * @param sink          the sink the records are written to, must accept the binary format
+     */
+    BinaryMessageLogger(final @NotNull Supplier<LogPolicy> currentPolicy, final @NotNull LogSink sink) {
+        this.currentPolicy = currentPolicy;
+        this.sink = sink;
+    }
+
+    @Override
+    public void logDisconnect(
+            final @NotNull DisconnectEventInput disconnectEventInput,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var policy = currentPolicy.get();
+        final var record = beginClientRecord(MessageType.DISCONNECT, direction(inbound), connection.getClientId());
+        if (disconnectEventInput.getReasonCode().isPresent()) {
+            record.symbol(BinaryField.REASON_CODE, disconnectEventInput.getReasonCode().get().name());
+        }
+        if (policy.isVerbose()) {
+            if (disconnectEventInput.getReasonString().isPresent()) {
+                record.field(BinaryField.REASON_STRING, disconnectEventInput.getReasonString().get());
+            }
+            if (disconnectEventInput.getUserProperties().isPresent()) {
+                appendUserProperties(record, disconnectEventInput.getUserProperties().get());
+            }
+        }
+        write(record);
+    }
+
+    @Override
+    public void logDisconnect(
+            final @NotNull DisconnectPacket disconnectPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var policy = currentPolicy.get();
+        final var record = beginClientRecord(MessageType.DISCONNECT, direction(inbound), connection.getClientId());
+        record.symbol(BinaryField.REASON_CODE, disconnectPacket.getReasonCode().name());
+        if (policy.isVerbose()) {
+            if (disconnectPacket.getReasonString().isPresent()) {
+                record.field(BinaryField.REASON_STRING, disconnectPacket.getReasonString().get());
+            }
+            if (disconnectPacket.getServerReference().isPresent()) {
+                record.field(BinaryField.SERVER_REFERENCE, disconnectPacket.getServerReference().get());
+            }
+            if (disconnectPacket.getSessionExpiryInterval().isPresent()) {
+                record.field(BinaryField.SESSION_EXPIRY_INTERVAL, disconnectPacket.getSessionExpiryInterval().get());
+            }
+            appendUserProperties(record, disconnectPacket.getUserProperties());
+        }
+        write(record);
+    }
+
+    @Override
+    public void logConnect(final @NotNull ConnectPacket connectPacket) {
+        final var policy = currentPolicy.get();
+        final var record = beginClientRecord(MessageType.CONNECT, Direction.INBOUND, connectPacket.getClientId());
+        record.symbol(BinaryField.PROTOCOL_VERSION, connectPacket.getMqttVersion().name());
+        record.field(BinaryField.CLEAN_START, connectPacket.getCleanStart());
+        record.field(BinaryField.SESSION_EXPIRY_INTERVAL, connectPacket.getSessionExpiryInterval());
+        if (policy.isVerbose()) {
+            record.field(BinaryField.KEEP_ALIVE, connectPacket.getKeepAlive());
+            record.field(BinaryField.MAXIMUM_PACKET_SIZE, connectPacket.getMaximumPacketSize());
+            record.field(BinaryField.RECEIVE_MAXIMUM, connectPacket.getReceiveMaximum());
+            record.field(BinaryField.TOPIC_ALIAS_MAXIMUM, connectPacket.getTopicAliasMaximum());
+            record.field(BinaryField.REQUEST_PROBLEM_INFORMATION, connectPacket.getRequestProblemInformation());
+            record.field(BinaryField.REQUEST_RESPONSE_INFORMATION, connectPacket.getRequestResponseInformation());
+            if (connectPacket.getUserName().isPresent()) {
+                record.field(BinaryField.USERNAME, connectPacket.getUserName().get());
+            }
+            if (policy.isRedactPassword()) {
+                record.field(BinaryField.PASSWORD, "<redacted>");
+            } else if (connectPacket.getPassword().isPresent()) {
+                record.bytes(BinaryField.PASSWORD, connectPacket.getPassword().get());
+            }
+            if (connectPacket.getAuthenticationMethod().isPresent()) {
+                record.field(BinaryField.AUTH_METHOD, connectPacket.getAuthenticationMethod().get());
+            }
+            if (connectPacket.getAuthenticationData().isPresent()) {
+                record.bytes(BinaryField.AUTH_DATA, connectPacket.getAuthenticationData().get());
+            }
+            appendUserProperties(record, connectPacket.getUserProperties());
+            if (connectPacket.getWillPublish().isPresent()) {
+                appendWill(record,
+                        connectPacket.getWillPublish().get(),
+                        policy.isPayload() ? policy.getPayloadLimits().getWill() : null);
+            }
+        }
+        write(record);
+    }
+
+    @Override
+    public void logConnack(final @NotNull ConnackOutboundInput connackOutboundInput) {
+        final var policy = currentPolicy.get();
+        final var connackPacket = connackOutboundInput.getConnackPacket();
+        final var record = beginClientRecord(MessageType.CONNACK,
+                Direction.OUTBOUND,
+                connackOutboundInput.getClientInformation().getClientId());
+        record.symbol(BinaryField.REASON_CODE, connackPacket.getReasonCode().name());
+        record.field(BinaryField.SESSION_PRESENT, connackPacket.getSessionPresent());
+        if (policy.isVerbose()) {
+            if (connackPacket.getSessionExpiryInterval().isPresent()) {
+                record.field(BinaryField.SESSION_EXPIRY_INTERVAL, connackPacket.getSessionExpiryInterval().get());
+            }
+            if (connackPacket.getAssignedClientIdentifier().isPresent()) {
+                record.field(BinaryField.ASSIGNED_CLIENT_ID, connackPacket.getAssignedClientIdentifier().get());
+            }
+            if (connackPacket.getMaximumQoS().isPresent()) {
+                record.field(BinaryField.MAXIMUM_QOS, connackPacket.getMaximumQoS().get().getQosNumber());
+            }
+            record.field(BinaryField.MAXIMUM_PACKET_SIZE, connackPacket.getMaximumPacketSize());
+            record.field(BinaryField.RECEIVE_MAXIMUM, connackPacket.getReceiveMaximum());
+            record.field(BinaryField.TOPIC_ALIAS_MAXIMUM, connackPacket.getTopicAliasMaximum());
+            if (connackPacket.getReasonString().isPresent()) {
+                record.field(BinaryField.REASON_STRING, connackPacket.getReasonString().get());
+            }
+            if (connackPacket.getResponseInformation().isPresent()) {
+                record.field(BinaryField.RESPONSE_INFORMATION, connackPacket.getResponseInformation().get());
+            }
+            if (connackPacket.getServerKeepAlive().isPresent()) {
+                record.field(BinaryField.SERVER_KEEP_ALIVE, connackPacket.getServerKeepAlive().get());
+            }
+            if (connackPacket.getServerReference().isPresent()) {
+                record.field(BinaryField.SERVER_REFERENCE, connackPacket.getServerReference().get());
+            }
+            record.field(BinaryField.SHARED_SUBSCRIPTIONS_AVAILABLE, connackPacket.getSharedSubscriptionsAvailable());
+            record.field(BinaryField.WILDCARD_SUBSCRIPTION_AVAILABLE,
+                    connackPacket.getWildCardSubscriptionAvailable());
+            record.field(BinaryField.RETAIN_AVAILABLE, connackPacket.getRetainAvailable());
+            record.field(BinaryField.SUBSCRIPTION_IDENTIFIERS_AVAILABLE,
+                    connackPacket.getSubscriptionIdentifiersAvailable());
+            if (connackPacket.getAuthenticationMethod().isPresent()) {
+                record.field(BinaryField.AUTH_METHOD, connackPacket.getAuthenticationMethod().get());
+            }
+            if (connackPacket.getAuthenticationData().isPresent()) {
+                record.bytes(BinaryField.AUTH_DATA, connackPacket.getAuthenticationData().get());
+            }
+            appendUserProperties(record, connackPacket.getUserProperties());
+        }
+        write(record);
+    }
+
+    @Override
+    public void logPublish(
+            final @NotNull PublishPacket publishPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var policy = currentPolicy.get();
+        final var record = beginClientRecord(MessageType.PUBLISH, direction(inbound), connection.getClientId());
+        record.symbol(BinaryField.TOPIC, publishPacket.getTopic());
+        if (policy.isPayload() && publishPacket.getPayload().isPresent()) {
+            appendPayload(record, publishPacket.getPayload().get(), policy.getPayloadLimits().getPublish(inbound));
+        }
+        record.field(BinaryField.QOS, publishPacket.getQos().getQosNumber());
+        record.field(BinaryField.RETAINED, publishPacket.getRetain());
+        if (policy.isVerbose()) {
+            if (publishPacket.getMessageExpiryInterval().isPresent()) {
+                record.field(BinaryField.MESSAGE_EXPIRY_INTERVAL, publishPacket.getMessageExpiryInterval().get());
+            }
+            record.field(BinaryField.DUPLICATE_DELIVERY, publishPacket.getDupFlag());
+            if (publishPacket.getCorrelationData().isPresent()) {
+                record.field(BinaryField.CORRELATION_DATA,
+                        getStringFromByteBuffer(publishPacket.getCorrelationData().get()));
+            }
+            if (publishPacket.getResponseTopic().isPresent()) {
+                record.symbol(BinaryField.RESPONSE_TOPIC, publishPacket.getResponseTopic().get());
+            }
+            if (publishPacket.getContentType().isPresent()) {
+                record.field(BinaryField.CONTENT_TYPE, publishPacket.getContentType().get());
+            }
+            if (publishPacket.getPayloadFormatIndicator().isPresent()) {
+                record.symbol(BinaryField.PAYLOAD_FORMAT_INDICATOR,
+                        publishPacket.getPayloadFormatIndicator().get().name());
+            }
+            final var subscriptionIdentifiers = publishPacket.getSubscriptionIdentifiers();
+            if (!subscriptionIdentifiers.isEmpty()) {
+                record.beginArray(BinaryField.SUBSCRIPTION_IDENTIFIERS, subscriptionIdentifiers.size());
+                for (final var subscriptionIdentifier : subscriptionIdentifiers) {
+                    record.numberElement(subscriptionIdentifier);
+                }
+            }
+            appendUserProperties(record, publishPacket.getUserProperties());
+        }
+        write(record);
+    }
+
+    @Override
+    public void logSubscribe(final @NotNull SubscribeInboundInput subscribeInboundInput) {
+        final var policy = currentPolicy.get();
+        final var subscribePacket = subscribeInboundInput.getSubscribePacket();
+        final var record = beginClientRecord(MessageType.SUBSCRIBE,
+                Direction.INBOUND,
+                subscribeInboundInput.getClientInformation().getClientId());
+        final var subscriptions = subscribePacket.getSubscriptions();
+        record.beginArray(BinaryField.SUBSCRIPTIONS, subscriptions.size());
+        for (final var subscription : subscriptions) {
+            record.beginObjectElement();
+            record.symbol(BinaryField.TOPIC_FILTER, subscription.getTopicFilter());
+            record.field(BinaryField.QOS, subscription.getQos().getQosNumber());
+            if (policy.isVerbose()) {
+                record.field(BinaryField.RETAIN_AS_PUBLISHED, subscription.getRetainAsPublished());
+                record.field(BinaryField.NO_LOCAL, subscription.getNoLocal());
+                record.symbol(BinaryField.RETAIN_HANDLING, subscription.getRetainHandling().name());
+            }
+            record.endObject();
+        }
+        if (policy.isVerbose()) {
+            if (subscribePacket.getSubscriptionIdentifier().isPresent()) {
+                record.field(BinaryField.SUBSCRIPTION_IDENTIFIER, subscribePacket.getSubscriptionIdentifier().get());
+            }
+            appendUserProperties(record, subscribePacket.getUserProperties());
+        }
+        write(record);
+    }
+
+    @Override
+    public void logUnsubscribe(final @NotNull UnsubscribeInboundInput unsubscribeInboundInput) {
+        final var policy = currentPolicy.get();
+        final var unsubscribePacket = unsubscribeInboundInput.getUnsubscribePacket();
+        final var record = beginClientRecord(MessageType.UNSUBSCRIBE,
+                Direction.INBOUND,
+                unsubscribeInboundInput.getClientInformation().getClientId());
+        final var topicFilters = unsubscribePacket.getTopicFilters();
+        record.beginArray(BinaryField.TOPIC_FILTERS, topicFilters.size());
+        for (final var topicFilter : topicFilters) {
+            record.symbolElement(topicFilter);
+        }
+        if (policy.isVerbose()) {
+            appendUserProperties(record, unsubscribePacket.getUserProperties());
+        }
+        write(record);
+    }
+
+    @Override
+    public void logSuback(final @NotNull SubackOutboundInput subackOutboundInput) {
+        final var policy = currentPolicy.get();
+        final var subackPacket = subackOutboundInput.getSubackPacket();
+        final var record = beginSubackRecord(MessageType.SUBACK,
+                subackOutboundInput.getClientInformation().getClientId(),
+                subackPacket.getReasonCodes());
+        if (policy.isVerbose()) {
+            if (subackPacket.getReasonString().isPresent()) {
+                record.field(BinaryField.REASON_STRING, subackPacket.getReasonString().get());
+            }
+            appendUserProperties(record, subackPacket.getUserProperties());
+        }
+        write(record);
+    }
+
+    @Override
+    public void logUnsuback(final @NotNull UnsubackOutboundInput unsubackOutboundInput) {
+        final var policy = currentPolicy.get();
+        final var unsubackPacket = unsubackOutboundInput.getUnsubackPacket();
+        final var record = beginSubackRecord(MessageType.UNSUBACK,
+                unsubackOutboundInput.getClientInformation().getClientId(),
+                unsubackPacket.getReasonCodes());
+        if (policy.isVerbose()) {
+            if (unsubackPacket.getReasonString().isPresent()) {
+                record.field(BinaryField.REASON_STRING, unsubackPacket.getReasonString().get());
+            }
+            appendUserProperties(record, unsubackPacket.getUserProperties());
+        }
+        write(record);
+    }
+
+    private static @NotNull BinaryEncoder beginSubackRecord(
+            final @NotNull MessageType messageType,
+            final @NotNull String clientId,
+            final @NotNull List<? extends Enum<?>> reasonCodes) {
+        final var record = beginClientRecord(messageType, Direction.OUTBOUND, clientId);
+        record.beginArray(BinaryField.REASON_CODES, reasonCodes.size());
+        for (final var reasonCode : reasonCodes) {
+            record.symbolElement(reasonCode.name());
+        }
+        return record;
+    }
+
+    @Override
+    public void logPingreq(final @NotNull PingReqInboundInput pingReqInboundInput) {
+        write(beginClientRecord(MessageType.PINGREQ,
+                Direction.INBOUND,
+                pingReqInboundInput.getClientInformation().getClientId()));
+    }
+
+    @Override
+    public void logPingresp(final @NotNull PingRespOutboundInput pingRespOutboundInput) {
+        write(beginClientRecord(MessageType.PINGRESP,
+                Direction.OUTBOUND,
+                pingRespOutboundInput.getClientInformation().getClientId()));
+    }
+
+    @Override
+    public void logPuback(
+            final @NotNull PubackPacket pubackPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        logPuback(pubackPacket, connection, inbound, -1);
+    }
+
+    @Override
+    public void logPuback(
+            final @NotNull PubackPacket pubackPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound,
+            final long ackLatencyMicros) {
+        final var policy = currentPolicy.get();
+        final var record = beginPubRecord(MessageType.PUBACK, connection, inbound, pubackPacket.getReasonCode());
+        if (ackLatencyMicros >= 0) {
+            record.field(BinaryField.ACK_LATENCY_MICROS, ackLatencyMicros);
+        }
+        if (policy.isVerbose()) {
+            if (pubackPacket.getReasonString().isPresent()) {
+                record.field(BinaryField.REASON_STRING, pubackPacket.getReasonString().get());
+            }
+            appendUserProperties(record, pubackPacket.getUserProperties());
+        }
+        write(record);
+    }
+
+    @Override
+    public void logPubrec(
+            final @NotNull PubrecPacket pubrecPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var policy = currentPolicy.get();
+        final var record = beginPubRecord(MessageType.PUBREC, connection, inbound, pubrecPacket.getReasonCode());
+        if (policy.isVerbose()) {
+            if (pubrecPacket.getReasonString().isPresent()) {
+                record.field(BinaryField.REASON_STRING, pubrecPacket.getReasonString().get());
+            }
+            appendUserProperties(record, pubrecPacket.getUserProperties());
+        }
+        write(record);
+    }
+
+    @Override
+    public void logPubrel(
+            final @NotNull PubrelPacket pubrelPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var policy = currentPolicy.get();
+        final var record = beginPubRecord(MessageType.PUBREL, connection, inbound, pubrelPacket.getReasonCode());
+        if (policy.isVerbose()) {
+            if (pubrelPacket.getReasonString().isPresent()) {
+                record.field(BinaryField.REASON_STRING, pubrelPacket.getReasonString().get());
+            }
+            appendUserProperties(record, pubrelPacket.getUserProperties());
+        }
+        write(record);
+    }
+
+    @Override
+    public void logPubcomp(
+            final @NotNull PubcompPacket pubcompPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var policy = currentPolicy.get();
+        final var record = beginPubRecord(MessageType.PUBCOMP, connection, inbound, pubcompPacket.getReasonCode());
+        if (policy.isVerbose()) {
+            if (pubcompPacket.getReasonString().isPresent()) {
+                record.field(BinaryField.REASON_STRING, pubcompPacket.getReasonString().get());
+            }
+            appendUserProperties(record, pubcompPacket.getUserProperties());
+        }
+        write(record);
+    }
+
+    @Override
+    public void logQos2Flow(final @NotNull Qos2Flow qos2Flow, final @NotNull ConnectionContext connection) {
+        final var record =
+                beginClientRecord(MessageType.QOS2_FLOW, direction(qos2Flow.isInbound()), connection.getClientId());
+        record.field(BinaryField.TOPIC, qos2Flow.getTopic());
+        record.field(BinaryField.PACKET_ID, qos2Flow.getPacketId());
+        record.field(BinaryField.COMPLETE, qos2Flow.isComplete());
+        final var pubrecReasonCode = qos2Flow.getPubrecReasonCode();
+        if (pubrecReasonCode != null) {
+            record.symbol(BinaryField.PUBREC_REASON_CODE, pubrecReasonCode.name());
+            record.field(BinaryField.PUBREC_MICROS, qos2Flow.getPubrecMicros());
+        }
+        final var pubrelReasonCode = qos2Flow.getPubrelReasonCode();
+        if (pubrelReasonCode != null) {
+            record.symbol(BinaryField.PUBREL_REASON_CODE, pubrelReasonCode.name());
+            record.field(BinaryField.PUBREL_MICROS, qos2Flow.getPubrelMicros());
+        }
+        final var pubcompReasonCode = qos2Flow.getPubcompReasonCode();
+        if (pubcompReasonCode != null) {
+            record.symbol(BinaryField.PUBCOMP_REASON_CODE, pubcompReasonCode.name());
+            record.field(BinaryField.PUBCOMP_MICROS, qos2Flow.getPubcompMicros());
+        }
+        record.field(BinaryField.DURATION_MICROS, qos2Flow.getDurationMicros());
+        write(record);
+    }
+
+    @Override
+    public void logSessionSummary(
+            final @NotNull SessionSummary sessionSummary,
+            final @NotNull ConnectionContext connection) {
+        final var record = beginClientRecord(MessageType.SESSION_SUMMARY, Direction.EVENT, connection.getClientId());
+        record.field(BinaryField.DURATION_MILLIS, sessionSummary.getDurationMillis());
+        final var packetCounts = sessionSummary.getPacketCounts();
+        record.beginArray(BinaryField.PACKETS, packetCounts.size());
+        for (final var packetCount : packetCounts) {
+            record.beginObjectElement();
+            record.symbol(BinaryField.MESSAGE_TYPE, packetCount.getMessageType().name());
+            record.symbol(BinaryField.DIRECTION, direction(packetCount.isInbound()).name());
+            record.field(BinaryField.COUNT, packetCount.getCount());
+            record.endObject();
+        }
+        if (sessionSummary.getPackets(MessageType.PUBLISH, true) > 0) {
+            record.field(BinaryField.PAYLOAD_BYTES_INBOUND, sessionSummary.getPayloadBytes(true));
+            appendQos(record, BinaryField.QOS_INBOUND, sessionSummary, true);
+        }
+        if (sessionSummary.getPackets(MessageType.PUBLISH, false) > 0) {
+            record.field(BinaryField.PAYLOAD_BYTES_OUTBOUND, sessionSummary.getPayloadBytes(false));
+            appendQos(record, BinaryField.QOS_OUTBOUND, sessionSummary, false);
+        }
+        record.field(BinaryField.DISTINCT_TOPICS, sessionSummary.getDistinctTopics());
+        final var errors = sessionSummary.getErrors();
+        if (!errors.isEmpty()) {
+            record.beginArray(BinaryField.ERRORS, errors.size());
+            for (final var error : errors) {
+                record.beginObjectElement();
+                record.symbol(BinaryField.MESSAGE_TYPE, error.getMessageType().name());
+                record.symbol(BinaryField.DIRECTION, direction(error.isInbound()).name());
+                record.symbol(BinaryField.REASON_CODE, error.getReasonCode());
+                record.field(BinaryField.COUNT, error.getCount());
+                record.endObject();
+            }
+        }
+        write(record);
+    }
+
+    @Override
+    public void logPingDigest(final @NotNull PingDigest pingDigest) {
+        final var record = BinaryEncoder.get()
+                .beginRecord(EventClock.currentTimeMillis(), MessageType.PING_DIGEST, Direction.EVENT);
+        record.field(BinaryField.DURATION_MILLIS, pingDigest.getDurationMillis());
+        record.field(BinaryField.PINGREQS, pingDigest.getPingreqs());
+        record.field(BinaryField.PINGRESPS, pingDigest.getPingresps());
+        record.field(BinaryField.CLIENTS, pingDigest.getClients());
+        record.field(BinaryField.OUTLIER_CLIENTS, pingDigest.getOutlierClients());
+        final var outliers = pingDigest.getOutliers();
+        if (!outliers.isEmpty()) {
+            record.beginArray(BinaryField.OUTLIERS, outliers.size());
+            for (final var outlier : outliers) {
+                record.beginObjectElement();
+                record.symbol(BinaryField.CLIENT_ID, outlier.getClientId());
+                record.field(BinaryField.KEEP_ALIVE, outlier.getKeepAlive());
+                record.field(BinaryField.INTERVAL_MILLIS, outlier.getIntervalMillis());
+                record.endObject();
+            }
+        }
+        write(record);
+    }
+
+    @Override
+    public void logRepeated(final @NotNull RepeatedEvent repeatedEvent) {
+        final var record = BinaryEncoder.get()
+                .beginRecord(EventClock.currentTimeMillis(), MessageType.REPEATED, Direction.EVENT);
+        record.symbol(BinaryField.REPEATED_MESSAGE_TYPE, repeatedEvent.getMessageType().name());
+        record.symbol(BinaryField.REPEATED_DIRECTION, repeatedEvent.getDirection().name());
+        record.symbol(BinaryField.CLIENT_ID, repeatedEvent.getClientId());
+        if (repeatedEvent.getTopic() != null) {
+            record.symbol(BinaryField.TOPIC, repeatedEvent.getTopic());
+        }
+        if (repeatedEvent.getReasonCode() != null) {
+            record.symbol(BinaryField.REASON_CODE, repeatedEvent.getReasonCode());
+        }
+        record.field(BinaryField.COUNT, repeatedEvent.getCount());
+        record.field(BinaryField.FIRST_MILLIS, repeatedEvent.getFirstMillis());
+        record.field(BinaryField.LAST_MILLIS, repeatedEvent.getLastMillis());
+        write(record);
+    }
+
+    @Override
+    public void logSuppressed(final @NotNull SuppressedEvents suppressedEvents) {
+        final var record =
+                beginClientRecord(MessageType.SUPPRESSED, Direction.EVENT, suppressedEvents.getClientId());
+        record.field(BinaryField.COUNT, suppressedEvents.getCount());
+        write(record);
+    }
+
+    private static void appendQos(
+            final @NotNull BinaryEncoder record,
+            final @NotNull BinaryField field,
+            final @NotNull SessionSummary sessionSummary,
+            final boolean inbound) {
+        record.beginArray(field, 3);
+        for (int qos = 0; qos < 3; qos++) {
+            record.numberElement(sessionSummary.getPublishes(qos, inbound));
+        }
+    }
+
+    private static @NotNull BinaryEncoder beginPubRecord(
+            final @NotNull MessageType messageType,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound,
+            final @NotNull Enum<?> reasonCode) {
+        final var record = beginClientRecord(messageType, direction(inbound), connection.getClientId());
+        record.symbol(BinaryField.REASON_CODE, reasonCode.name());
+        return record;
+    }
+
+    private static @NotNull BinaryEncoder beginClientRecord(
+            final @NotNull MessageType messageType,
+            final @NotNull Direction direction,
+            final @NotNull String clientId) {
+        final var record = BinaryEncoder.get().beginRecord(EventClock.currentTimeMillis(), messageType, direction);
+        record.symbol(BinaryField.CLIENT_ID, clientId);
+        return record;
+    }
+
+    /**
+     * Writes a finished record.
+     */
+    private void write(final @NotNull BinaryEncoder record) {
+        sink.write(record.asByteBuffer());
+    }
+
+    private static @NotNull Direction direction(final boolean inbound) {
+        return inbound ? Direction.INBOUND : Direction.OUTBOUND;
+    }
+
+    private static void appendUserProperties(
+            final @NotNull BinaryEncoder record,
+            final @NotNull UserProperties userProperties) {
+        final var list = userProperties.asList();
+        if (list.isEmpty()) {
+            return;
+        }
+        record.beginArray(BinaryField.USER_PROPERTIES, list.size());
+        for (final var userProperty : list) {
+            record.beginObjectElement();
+            record.field(BinaryField.NAME, userProperty.getName());
+            record.field(BinaryField.VALUE, userProperty.getValue());
+            record.endObject();
+        }
+    }
+
+    /**
+     * Appends the payload, or its head, tail, size and hash if it is larger than the limit.
+     */
+    private static void appendPayload(
+            final @NotNull BinaryEncoder record,
+            final @NotNull ByteBuffer payload,
+            final @NotNull PayloadLimit limit) {
+        if (!limit.truncates(payload)) {
+            record.bytes(BinaryField.PAYLOAD, payload);
+            return;
+        }
+        record.bytes(BinaryField.PAYLOAD_HEAD, limit.head(payload));
+        final var tail = limit.tail(payload);
+        if (tail.hasRemaining()) {
+            record.bytes(BinaryField.PAYLOAD_TAIL, tail);
+        }
+        record.field(BinaryField.PAYLOAD_SIZE, payload.remaining());
+        record.field(BinaryField.PAYLOAD_HASH, xxHash64(payload));
+    }
+
+    /**
+     * @param payloadLimit the limit of the payload, or null if the payload is not included
+     */
+    private static void appendWill(
+            final @NotNull BinaryEncoder record,
+            final @NotNull WillPublishPacket willPublishPacket,
+            final @Nullable PayloadLimit payloadLimit) {
+        record.beginObject(BinaryField.WILL);
+        record.symbol(BinaryField.TOPIC, willPublishPacket.getTopic());
+        record.field(BinaryField.QOS, willPublishPacket.getQos().getQosNumber());
+        record.field(BinaryField.RETAINED, willPublishPacket.getRetain());
+        record.field(BinaryField.WILL_DELAY, willPublishPacket.getWillDelay());
+        if (payloadLimit != null && willPublishPacket.getPayload().isPresent()) {
+            appendPayload(record, willPublishPacket.getPayload().get(), payloadLimit);
+        }
+        if (willPublishPacket.getMessageExpiryInterval().isPresent()) {
+            record.field(BinaryField.MESSAGE_EXPIRY_INTERVAL, willPublishPacket.getMessageExpiryInterval().get());
+        }
+        if (willPublishPacket.getCorrelationData().isPresent()) {
+            record.field(BinaryField.CORRELATION_DATA,
+                    getStringFromByteBuffer(willPublishPacket.getCorrelationData().get()));
+        }
+        if (willPublishPacket.getResponseTopic().isPresent()) {
+            record.symbol(BinaryField.RESPONSE_TOPIC, willPublishPacket.getResponseTopic().get());
+        }
+        if (willPublishPacket.getContentType().isPresent()) {
+            record.field(BinaryField.CONTENT_TYPE, willPublishPacket.getContentType().get());
+        }
+        if (willPublishPacket.getPayloadFormatIndicator().isPresent()) {
+            record.symbol(BinaryField.PAYLOAD_FORMAT_INDICATOR,
+                    willPublishPacket.getPayloadFormatIndicator().get().name());
+        }
+        appendUserProperties(record, willPublishPacket.getUserProperties());
+        record.endObject();
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+
+import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.getBytes;
+import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.putUtf8;
+import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.utf8Length;
+
+/**
+ * Writes records as CBOR (RFC 8949) into a recycled byte array.
+ * <p>
+ * Like the {@link JsonEncoder}, every thread reuses its own encoder. Maps and arrays are written with indefinite
+ * length, so the number of fields does not have to be known in advance. Strings are written as UTF-8 without
+ * escaping and binary data as byte strings.
+ *
+ * @since 1.4.0
+ */
+class CborEncoder {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    // buffers that grew beyond this size for a single large record are not retained
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private static final int UNSIGNED_INTEGER = 0;
+    private static final int NEGATIVE_INTEGER = 1 << 5;
+    private static final int BYTE_STRING = 2 << 5;
+    private static final int TEXT_STRING = 3 << 5;
+    private static final byte INDEFINITE_ARRAY = (byte) 0x9F;
+    private static final byte INDEFINITE_MAP = (byte) 0xBF;
+    private static final byte FALSE = (byte) 0xF4;
+    private static final byte TRUE = (byte) 0xF5;
+    private static final byte BREAK = (byte) 0xFF;
+
+    private static final @NotNull ThreadLocal<CborEncoder> ENCODERS = ThreadLocal.withInitial(CborEncoder::new);
+
+    private byte @NotNull [] buffer = new byte[INITIAL_CAPACITY];
+    private @NotNull ByteBuffer view = ByteBuffer.wrap(buffer);
+    private int length;
+
+    /**
+     * @return the empty encoder of the current thread
+     */
+    static @NotNull CborEncoder get() {
+        final var encoder = ENCODERS.get();
+        encoder.reset();
+        return encoder;
+    }
+
+    void reset() {
+        if (buffer.length > MAX_RETAINED_CAPACITY) {
+            buffer = new byte[INITIAL_CAPACITY];
+            view = ByteBuffer.wrap(buffer);
+        }
+        length = 0;
+    }
+
+    /**
+     * Starts a record with the fields that every record has, the timestamp is the time of the current event, see
+     * {@link EventClock}.
+     */
+    @NotNull CborEncoder beginRecord(
+            final @NotNull TimestampFormat timestampFormat,
+            final @NotNull String messageType,
+            final @NotNull String direction) {
+        beginMap();
+        text("timestamp");
+        if (timestampFormat == TimestampFormat.EPOCH_MILLIS) {
+            number(EventClock.currentTimeMillis());
+        } else if (timestampFormat == TimestampFormat.EPOCH_MICROS) {
+            number(EventClock.currentTimeMicros());
+        } else {
+            head(TEXT_STRING, TimestampFormatter.ISO_8601_LENGTH);
+            ensureCapacity(TimestampFormatter.ISO_8601_LENGTH);
+            System.arraycopy(TimestampFormatter.get().iso8601(EventClock.currentTimeMicros()),
+                    0,
+                    buffer,
+                    length,
+                    TimestampFormatter.ISO_8601_LENGTH);
+            length += TimestampFormatter.ISO_8601_LENGTH;
+        }
+        field("messageType", messageType);
+        field("direction", direction);
+        return this;
+    }
+
+    @NotNull CborEncoder endRecord() {
+        return end();
+    }
+
+    /**
+     * Appends a text string field, nothing is appended if the value is {@code null}.
+     */
+    @NotNull CborEncoder field(final @NotNull String key, final @Nullable String value) {
+        if (value == null) {
+            return this;
+        }
+        text(key);
+        text(value);
+        return this;
+    }
+
+    @NotNull CborEncoder field(final @NotNull String key, final long value) {
+        text(key);
+        number(value);
+        return this;
+    }
+
+    @NotNull CborEncoder field(final @NotNull String key, final boolean value) {
+        text(key);
+        ensureCapacity(1);
+        buffer[length++] = value ? TRUE : FALSE;
+        return this;
+    }
+
+    /**
+     * Appends a key and value that were encoded in advance, like the client id of a {@link ConnectionContext}.
+     */
+    @NotNull CborEncoder field(final byte @NotNull [] encodedField) {
+        ensureCapacity(encodedField.length);
+        System.arraycopy(encodedField, 0, buffer, length, encodedField.length);
+        length += encodedField.length;
+        return this;
+    }
+
+    /**
+     * Appends the bytes between position and limit as byte string field, the position of the buffer is not changed.
+     */
+    @NotNull CborEncoder bytesField(final @NotNull String key, final @NotNull ByteBuffer value) {
+        text(key);
+        final var count = value.remaining();
+        head(BYTE_STRING, count);
+        ensureCapacity(count);
+        getBytes(value, value.position(), buffer, length, count);
+        length += count;
+        return this;
+    }
+
+    /**
+     * Appends the key of a field whose value is appended next.
+     */
+    @NotNull CborEncoder key(final @NotNull String key) {
+        return text(key);
+    }
+
+    /**
+     * Starts a map of indefinite length, must be ended with {@link #end()}.
+     */
+    @NotNull CborEncoder beginMap() {
+        ensureCapacity(1);
+        buffer[length++] = INDEFINITE_MAP;
+        return this;
+    }
+
+    /**
+     * Starts an array of indefinite length, must be ended with {@link #end()}.
+     */
+    @NotNull CborEncoder beginArray() {
+        ensureCapacity(1);
+        buffer[length++] = INDEFINITE_ARRAY;
+        return this;
+    }
+
+    @NotNull CborEncoder end() {
+        ensureCapacity(1);
+        buffer[length++] = BREAK;
+        return this;
+    }
+
+    @NotNull CborEncoder text(final @NotNull String value) {
+        final var utf8Length = utf8Length(value);
+        head(TEXT_STRING, utf8Length);
+        ensureCapacity(utf8Length);
+        length = putUtf8(value, buffer, length);
+        return this;
+    }
+
+    @NotNull CborEncoder number(final long value) {
+        if (value >= 0) {
+            head(UNSIGNED_INTEGER, value);
+        } else {
+            // -1 - value, which does not overflow for Long.MIN_VALUE
+            head(NEGATIVE_INTEGER, ~value);
+        }
+        return this;
+    }
+
+    /**
+     * Appends the initial byte of a data item with its argument in the shortest form.
+     */
+    private void head(final int majorType, final long argument) {
+        ensureCapacity(1 + Long.BYTES);
+        if (argument >= 0 && argument < 24) {
+            buffer[length++] = (byte) (majorType | argument);
+        } else if (argument >= 0 && argument <= 0xFF) {
+            buffer[length++] = (byte) (majorType | 24);
+            buffer[length++] = (byte) argument;
+        } else if (argument >= 0 && argument <= 0xFFFF) {
+            buffer[length++] = (byte) (majorType | 25);
+            putBigEndian(argument, 2);
+        } else if (argument >= 0 && argument <= 0xFFFF_FFFFL) {
+            buffer[length++] = (byte) (majorType | 26);
+            putBigEndian(argument, 4);
+        } else {
+            // arguments of 64 bits are unsigned, so negative values are the upper half of the range
+            buffer[length++] = (byte) (majorType | 27);
+            putBigEndian(argument, 8);
+        }
+    }
+
+    private void putBigEndian(final long value, final int bytes) {
+        for (var shift = (bytes - 1) * 8; shift >= 0; shift -= 8) {
+            buffer[length++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void ensureCapacity(final int additional) {
+        final var required = length + additional;
+        if (required > buffer.length) {
+            final var newBuffer = new byte[Math.max(required, buffer.length * 2)];
+            System.arraycopy(buffer, 0, newBuffer, 0, length);
+            buffer = newBuffer;
+            view = ByteBuffer.wrap(buffer);
+        }
+    }
+
+    /**
+     * @return a view of the encoded record, only valid until the encoder is used again
+     */
+    @NotNull ByteBuffer asByteBuffer() {
+        view.limit(length).position(0);
+        return view;
+    }
+}
@@ -0,0 +1,685 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import com.hivemq.extension.sdk.api.events.client.parameters.DisconnectEventInput;
+import com.hivemq.extension.sdk.api.interceptor.connack.parameter.ConnackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.pingreq.parameter.PingReqInboundInput;
+import com.hivemq.extension.sdk.api.interceptor.pingresp.parameter.PingRespOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.suback.parameter.SubackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.subscribe.parameter.SubscribeInboundInput;
+import com.hivemq.extension.sdk.api.interceptor.unsuback.parameter.UnsubackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.unsubscribe.parameter.UnsubscribeInboundInput;
+import com.hivemq.extension.sdk.api.packets.connect.ConnectPacket;
+import com.hivemq.extension.sdk.api.packets.connect.WillPublishPacket;
+import com.hivemq.extension.sdk.api.packets.disconnect.DisconnectPacket;
+import com.hivemq.extension.sdk.api.packets.general.UserProperties;
+import com.hivemq.extension.sdk.api.packets.puback.PubackPacket;
+import com.hivemq.extension.sdk.api.packets.pubcomp.PubcompPacket;
+import com.hivemq.extension.sdk.api.packets.publish.PublishPacket;
+import com.hivemq.extension.sdk.api.packets.pubrec.PubrecPacket;
+import com.hivemq.extension.sdk.api.packets.pubrel.PubrelPacket;
+import com.hivemq.extensions.log.mqtt.message.config.LogPolicy;
+import com.hivemq.extensions.log.mqtt.message.flow.PingDigest;
+import com.hivemq.extensions.log.mqtt.message.flow.Qos2Flow;
+import com.hivemq.extensions.log.mqtt.message.flow.SessionSummary;
+import com.hivemq.extensions.log.mqtt.message.sink.LogSink;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.hivemq.extensions.log.mqtt.message.util.HashUtil.xxHash64;
+import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.asHexString;
+import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.getStringFromByteBuffer;
+
+/**
+ * CBOR formatter for MQTT message logging. Produces the fields of the {@link JsonMessageLogger} as CBOR maps, but
+ * writes binary data as byte strings instead of Base64 encoded strings, so the keys of binary fields have no
+ * {@code Base64} suffix.
+ * <p>
+ * The records are written by the {@link CborEncoder} of the logging thread and handed to a {@link LogSink} that writes
+ * them as CBOR sequence (RFC 8742), without separator.
+ *
+ * @since 1.4.0
+ */
+class CborMessageLogger implements MessageLogger {
+
+    private final @NotNull Supplier<LogPolicy> currentPolicy;
+    private final @NotNull TimestampFormat timestampFormat;
+    private final @NotNull LogSink sink;
+
+    /**
+     * @param currentPolicy the supplier of the current policy
+     * @param sink          the sink the records are written to, must not separate the records
+     */
+    CborMessageLogger(final @NotNull Supplier<LogPolicy> currentPolicy, final @NotNull LogSink sink) {
+        this(currentPolicy, TimestampFormat.EPOCH_MILLIS, sink);
+    }
+
+    /**
+     * @param currentPolicy   the supplier of the current policy
+     * @param timestampFormat the format of the timestamps
+     * @param sink            the sink the records are written to, must not separate the records
+     */
+    CborMessageLogger(
+            final @NotNull Supplier<LogPolicy> currentPolicy,
+            final @NotNull TimestampFormat timestampFormat,
+            final @NotNull LogSink sink) {
+        this.currentPolicy = currentPolicy;
+        this.timestampFormat = timestampFormat;
+        this.sink = sink;
+    }
+
+    @Override
+    public void logDisconnect(
+            final @NotNull DisconnectEventInput disconnectEventInput,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var policy = currentPolicy.get();
+        final var cbor = CborEncoder.get().beginRecord(timestampFormat, "DISCONNECT", direction(inbound));
+        cbor.field(connection.getCborClientIdField());
+        if (disconnectEventInput.getReasonCode().isPresent()) {
+            cbor.field("reasonCode", disconnectEventInput.getReasonCode().get().name());
+        }
+        if (policy.isVerbose()) {
+            if (disconnectEventInput.getReasonString().isPresent()) {
+                cbor.field("reasonString", disconnectEventInput.getReasonString().get());
+            }
+            if (disconnectEventInput.getUserProperties().isPresent()) {
+                appendUserProperties(cbor, disconnectEventInput.getUserProperties().get());
+            }
+        }
+        write(cbor.endRecord());
+    }
+
+    @Override
+    public void logDisconnect(
+            final @NotNull DisconnectPacket disconnectPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var policy = currentPolicy.get();
+        final var cbor = CborEncoder.get().beginRecord(timestampFormat, "DISCONNECT", direction(inbound));
+        cbor.field(connection.getCborClientIdField());
+        cbor.field("reasonCode", disconnectPacket.getReasonCode().name());
+        if (policy.isVerbose()) {
+            if (disconnectPacket.getReasonString().isPresent()) {
+                cbor.field("reasonString", disconnectPacket.getReasonString().get());
+            }
+            if (disconnectPacket.getServerReference().isPresent()) {
+                cbor.field("serverReference", disconnectPacket.getServerReference().get());
+            }
+            if (disconnectPacket.getSessionExpiryInterval().isPresent()) {
+                cbor.field("sessionExpiryInterval", disconnectPacket.getSessionExpiryInterval().get());
+            }
+            appendUserProperties(cbor, disconnectPacket.getUserProperties());
+        }
+        write(cbor.endRecord());
+    }
+
+    @Override
+    public void logConnect(final @NotNull ConnectPacket connectPacket) {
+        final var policy = currentPolicy.get();
+        final var cbor = CborEncoder.get().beginRecord(timestampFormat, "CONNECT", "INBOUND");
+        cbor.field("clientId", connectPacket.getClientId());
+        cbor.field("protocolVersion", connectPacket.getMqttVersion().name());
+        cbor.field("cleanStart", connectPacket.getCleanStart());
+        cbor.field("sessionExpiryInterval", connectPacket.getSessionExpiryInterval());
+        if (policy.isVerbose()) {
+            cbor.field("keepAlive", connectPacket.getKeepAlive());
+            cbor.field("maximumPacketSize", connectPacket.getMaximumPacketSize());
+            cbor.field("receiveMaximum", connectPacket.getReceiveMaximum());
+            cbor.field("topicAliasMaximum", connectPacket.getTopicAliasMaximum());
+            cbor.field("requestProblemInformation", connectPacket.getRequestProblemInformation());
+            cbor.field("requestResponseInformation", connectPacket.getRequestResponseInformation());
+            if (connectPacket.getUserName().isPresent()) {
+                cbor.field("username", connectPacket.getUserName().get());
+            }
+            // password handling
+            if (policy.isRedactPassword()) {
+                cbor.field("password", "<redacted>");
+            } else if (connectPacket.getPassword().isPresent()) {
+                cbor.bytesField("password", connectPacket.getPassword().get());
+            }
+            if (connectPacket.getAuthenticationMethod().isPresent()) {
+                cbor.field("authMethod", connectPacket.getAuthenticationMethod().get());
+            }
+            if (connectPacket.getAuthenticationData().isPresent()) {
+                cbor.bytesField("authData", connectPacket.getAuthenticationData().get());
+            }
+            appendUserProperties(cbor, connectPacket.getUserProperties());
+            // will message
+            if (connectPacket.getWillPublish().isPresent()) {
+                appendWill(cbor,
+                        connectPacket.getWillPublish().get(),
+                        policy.isPayload() ? policy.getPayloadLimits().getWill() : null);
+            }
+        }
+        write(cbor.endRecord());
+    }
+
+    @Override
+    public void logConnack(final @NotNull ConnackOutboundInput connackOutboundInput) {
+        final var policy = currentPolicy.get();
+        final var clientId = connackOutboundInput.getClientInformation().getClientId();
+        final var connackPacket = connackOutboundInput.getConnackPacket();
+        final var cbor = CborEncoder.get().beginRecord(timestampFormat, "CONNACK", "OUTBOUND");
+        cbor.field("clientId", clientId);
+        cbor.field("reasonCode", connackPacket.getReasonCode().name());
+        cbor.field("sessionPresent", connackPacket.getSessionPresent());
+        if (policy.isVerbose()) {
+            if (connackPacket.getSessionExpiryInterval().isPresent()) {
+                cbor.field("sessionExpiryInterval", connackPacket.getSessionExpiryInterval().get());
+            }
+            if (connackPacket.getAssignedClientIdentifier().isPresent()) {
+                cbor.field("assignedClientId", connackPacket.getAssignedClientIdentifier().get());
+            }
+            if (connackPacket.getMaximumQoS().isPresent()) {
+                cbor.field("maximumQoS", connackPacket.getMaximumQoS().get().getQosNumber());
+            }
+            cbor.field("maximumPacketSize", connackPacket.getMaximumPacketSize());
+            cbor.field("receiveMaximum", connackPacket.getReceiveMaximum());
+            cbor.field("topicAliasMaximum", connackPacket.getTopicAliasMaximum());
+            if (connackPacket.getReasonString().isPresent()) {
+                cbor.field("reasonString", connackPacket.getReasonString().get());
+            }
+            if (connackPacket.getResponseInformation().isPresent()) {
+                cbor.field("responseInformation", connackPacket.getResponseInformation().get());
+            }
+            if (connackPacket.getServerKeepAlive().isPresent()) {
+                cbor.field("serverKeepAlive", connackPacket.getServerKeepAlive().get());
+            }
+            if (connackPacket.getServerReference().isPresent()) {
+                cbor.field("serverReference", connackPacket.getServerReference().get());
+            }
+            cbor.field("sharedSubscriptionsAvailable", connackPacket.getSharedSubscriptionsAvailable());
+            cbor.field("wildCardSubscriptionAvailable", connackPacket.getWildCardSubscriptionAvailable());
+            cbor.field("retainAvailable", connackPacket.getRetainAvailable());
+            cbor.field("subscriptionIdentifiersAvailable", connackPacket.getSubscriptionIdentifiersAvailable());
+            if (connackPacket.getAuthenticationMethod().isPresent()) {
+                cbor.field("authMethod", connackPacket.getAuthenticationMethod().get());
+            }
+            if (connackPacket.getAuthenticationData().isPresent()) {
+                cbor.bytesField("authData", connackPacket.getAuthenticationData().get());
+            }
+            appendUserProperties(cbor, connackPacket.getUserProperties());
+        }
+        write(cbor.endRecord());
+    }
+
+    @Override
+    public void logPublish(
+            final @NotNull PublishPacket publishPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var policy = currentPolicy.get();
+        final var cbor = CborEncoder.get().beginRecord(timestampFormat, "PUBLISH", direction(inbound));
+        cbor.field(connection.getCborClientIdField());
+        cbor.field("topic", publishPacket.getTopic());
+        if (policy.isPayload() && publishPacket.getPayload().isPresent()) {
+            appendPayload(cbor, publishPacket.getPayload().get(), policy.getPayloadLimits().getPublish(inbound));
+        }
+        cbor.field("qos", publishPacket.getQos().getQosNumber());
+        cbor.field("retained", publishPacket.getRetain());
+        if (policy.isVerbose()) {
+            if (publishPacket.getMessageExpiryInterval().isPresent()) {
+                cbor.field("messageExpiryInterval", publishPacket.getMessageExpiryInterval().get());
+            }
+            cbor.field("duplicateDelivery", publishPacket.getDupFlag());
+            if (publishPacket.getCorrelationData().isPresent()) {
+                cbor.field("correlationData", getStringFromByteBuffer(publishPacket.getCorrelationData().get()));
+            }
+            if (publishPacket.getResponseTopic().isPresent()) {
+                cbor.field("responseTopic", publishPacket.getResponseTopic().get());
+            }
+            if (publishPacket.getContentType().isPresent()) {
+                cbor.field("contentType", publishPacket.getContentType().get());
+            }
+            if (publishPacket.getPayloadFormatIndicator().isPresent()) {
+                cbor.field("payloadFormatIndicator", publishPacket.getPayloadFormatIndicator().get().name());
+            }
+            if (!publishPacket.getSubscriptionIdentifiers().isEmpty()) {
+                appendArray(cbor, "subscriptionIdentifiers", publishPacket.getSubscriptionIdentifiers());
+            }
+            appendUserProperties(cbor, publishPacket.getUserProperties());
+        }
+        write(cbor.endRecord());
+    }
+
+    @Override
+    public void logSubscribe(final @NotNull SubscribeInboundInput subscribeInboundInput) {
+        final var policy = currentPolicy.get();
+        final var clientId = subscribeInboundInput.getClientInformation().getClientId();
+        final var subscribePacket = subscribeInboundInput.getSubscribePacket();
+        final var cbor = CborEncoder.get().beginRecord(timestampFormat, "SUBSCRIBE", "INBOUND");
+        cbor.field("clientId", clientId);
+        // subscriptions array
+        cbor.key("subscriptions").beginArray();
+        for (final var sub : subscribePacket.getSubscriptions()) {
+            cbor.beginMap();
+            cbor.field("topicFilter", sub.getTopicFilter());
+            cbor.field("qos", sub.getQos().getQosNumber());
+            if (policy.isVerbose()) {
+                cbor.field("retainAsPublished", sub.getRetainAsPublished());
+                cbor.field("noLocal", sub.getNoLocal());
+                cbor.field("retainHandling", sub.getRetainHandling().name());
+            }
+            cbor.end();
+        }
+        cbor.end();
+        if (policy.isVerbose()) {
+            if (subscribePacket.getSubscriptionIdentifier().isPresent()) {
+                cbor.field("subscriptionIdentifier", subscribePacket.getSubscriptionIdentifier().get());
+            }
+            appendUserProperties(cbor, subscribePacket.getUserProperties());
+        }
+        write(cbor.endRecord());
+    }
+
+    @Override
+    public void logUnsubscribe(final @NotNull UnsubscribeInboundInput unsubscribeInboundInput) {
+        final var policy = currentPolicy.get();
+        final var clientId = unsubscribeInboundInput.getClientInformation().getClientId();
+        final var unsubscribePacket = unsubscribeInboundInput.getUnsubscribePacket();
+        final var cbor = CborEncoder.get().beginRecord(timestampFormat, "UNSUBSCRIBE", "INBOUND");
+        cbor.field("clientId", clientId);
+        // topic filters array
+        cbor.key("topicFilters").beginArray();
+        for (final var topicFilter : unsubscribePacket.getTopicFilters()) {
+            cbor.text(topicFilter);
+        }
+        cbor.end();
+        if (policy.isVerbose()) {
+            appendUserProperties(cbor, unsubscribePacket.getUserProperties());
+        }
+        write(cbor.endRecord());
+    }
+
+    @Override
+    public void logSuback(final @NotNull SubackOutboundInput subackOutboundInput) {
+        final var policy = currentPolicy.get();
+        final var subackPacket = subackOutboundInput.getSubackPacket();
+        final var cbor = beginSubackRecord("SUBACK",
+                subackOutboundInput.getClientInformation().getClientId(),
+                subackPacket.getReasonCodes());
+        if (policy.isVerbose()) {
+            if (subackPacket.getReasonString().isPresent()) {
+                cbor.field("reasonString", subackPacket.getReasonString().get());
+            }
+            appendUserProperties(cbor, subackPacket.getUserProperties());
+        }
+        write(cbor.endRecord());
+    }
+
+    @Override
+    public void logUnsuback(final @NotNull UnsubackOutboundInput unsubackOutboundInput) {
+        final var policy = currentPolicy.get();
+        final var unsubackPacket = unsubackOutboundInput.getUnsubackPacket();
+        final var cbor = beginSubackRecord("UNSUBACK",
+                unsubackOutboundInput.getClientInformation().getClientId(),
+                unsubackPacket.getReasonCodes());
+        if (policy.isVerbose()) {
+            if (unsubackPacket.getReasonString().isPresent()) {
+                cbor.field("reasonString", unsubackPacket.getReasonString().get());
+            }
+            appendUserProperties(cbor, unsubackPacket.getUserProperties());
+        }
+        write(cbor.endRecord());
+    }
+
+    private @NotNull CborEncoder beginSubackRecord(
+            final @NotNull String messageType,
+            final @NotNull String clientId,
+            final @NotNull List<? extends Enum<?>> reasonCodes) {
+        final var cbor = CborEncoder.get().beginRecord(timestampFormat, messageType, "OUTBOUND");
+        cbor.field("clientId", clientId);
+        // reason codes array
+        cbor.key("reasonCodes").beginArray();
+        for (final var reasonCode : reasonCodes) {
+            cbor.text(reasonCode.name());
+        }
+        return cbor.end();
+    }
+
+    @Override
+    public void logPingreq(final @NotNull PingReqInboundInput pingReqInboundInput) {
+        final var clientId = pingReqInboundInput.getClientInformation().getClientId();
+        final var cbor = CborEncoder.get().beginRecord(timestampFormat, "PINGREQ", "INBOUND");
+        cbor.field("clientId", clientId);
+        write(cbor.endRecord());
+    }
+
+    @Override
+    public void logPingresp(final @NotNull PingRespOutboundInput pingRespOutboundInput) {
+        final var clientId = pingRespOutboundInput.getClientInformation().getClientId();
+        final var cbor = CborEncoder.get().beginRecord(timestampFormat, "PINGRESP", "OUTBOUND");
+        cbor.field("clientId", clientId);
+        write(cbor.endRecord());
+    }
+
+    @Override
+    public void logPuback(
+            final @NotNull PubackPacket pubackPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        logPuback(pubackPacket, connection, inbound, -1);
+    }
+
+    @Override
+    public void logPuback(
+            final @NotNull PubackPacket pubackPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound,
+            final long ackLatencyMicros) {
+        final var policy = currentPolicy.get();
+        final var cbor = beginPubRecord("PUBACK", connection, inbound, pubackPacket.getReasonCode().name());
+        if (ackLatencyMicros >= 0) {
+            cbor.field("ackLatencyMicros", ackLatencyMicros);
+        }
+        if (policy.isVerbose()) {
+            if (pubackPacket.getReasonString().isPresent()) {
+                cbor.field("reasonString", pubackPacket.getReasonString().get());
+            }
+            appendUserProperties(cbor, pubackPacket.getUserProperties());
+        }
+        write(cbor.endRecord());
+    }
+
+    @Override
+    public void logPubrec(
+            final @NotNull PubrecPacket pubrecPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var policy = currentPolicy.get();
+        final var cbor = beginPubRecord("PUBREC", connection, inbound, pubrecPacket.getReasonCode().name());
+        if (policy.isVerbose()) {
+            if (pubrecPacket.getReasonString().isPresent()) {
+                cbor.field("reasonString", pubrecPacket.getReasonString().get());
+            }
+            appendUserProperties(cbor, pubrecPacket.getUserProperties());
+        }
+        write(cbor.endRecord());
+    }
+
+    @Override
+    public void logPubrel(
+            final @NotNull PubrelPacket pubrelPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var policy = currentPolicy.get();
+        final var cbor = beginPubRecord("PUBREL", connection, inbound, pubrelPacket.getReasonCode().name());
+        if (policy.isVerbose()) {
+            if (pubrelPacket.getReasonString().isPresent()) {
+                cbor.field("reasonString", pubrelPacket.getReasonString().get());
+            }
+            appendUserProperties(cbor, pubrelPacket.getUserProperties());
+        }
+        write(cbor.endRecord());
+    }
+
+    @Override
+    public void logPubcomp(
+            final @NotNull PubcompPacket pubcompPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var policy = currentPolicy.get();
+        final var cbor = beginPubRecord("PUBCOMP", connection, inbound, pubcompPacket.getReasonCode().name());
+        if (policy.isVerbose()) {
+            if (pubcompPacket.getReasonString().isPresent()) {
+                cbor.field("reasonString", pubcompPacket.getReasonString().get());
+            }
+            appendUserProperties(cbor, pubcompPacket.getUserProperties());
+        }
+        write(cbor.endRecord());
+    }
+
+    @Override
+    public void logQos2Flow(final @NotNull Qos2Flow qos2Flow, final @NotNull ConnectionContext connection) {
+        final var cbor = CborEncoder.get().beginRecord(timestampFormat, "QOS2_FLOW", direction(qos2Flow.isInbound()));
+        cbor.field(connection.getCborClientIdField());
+        cbor.field("topic", qos2Flow.getTopic());
+        cbor.field("packetId", qos2Flow.getPacketId());
+        cbor.field("complete", qos2Flow.isComplete());
+        final var pubrecReasonCode = qos2Flow.getPubrecReasonCode();
+        if (pubrecReasonCode != null) {
+            cbor.field("pubrecReasonCode", pubrecReasonCode.name());
+            cbor.field("pubrecMicros", qos2Flow.getPubrecMicros());
+        }
+        final var pubrelReasonCode = qos2Flow.getPubrelReasonCode();
+        if (pubrelReasonCode != null) {
+            cbor.field("pubrelReasonCode", pubrelReasonCode.name());
+            cbor.field("pubrelMicros", qos2Flow.getPubrelMicros());
+        }
+        final var pubcompReasonCode = qos2Flow.getPubcompReasonCode();
+        if (pubcompReasonCode != null) {
+            cbor.field("pubcompReasonCode", pubcompReasonCode.name());
+            cbor.field("pubcompMicros", qos2Flow.getPubcompMicros());
+        }
+        cbor.field("durationMicros", qos2Flow.getDurationMicros());
+        write(cbor.endRecord());
+    }
+
+    @Override
+    public void logSessionSummary(
+            final @NotNull SessionSummary sessionSummary,
+            final @NotNull ConnectionContext connection) {
+        final var cbor = CborEncoder.get().beginRecord(timestampFormat, "SESSION_SUMMARY", "EVENT");
+        cbor.field(connection.getCborClientIdField());
+        cbor.field("durationMillis", sessionSummary.getDurationMillis());
+        // packets array
+        cbor.key("packets").beginArray();
+        for (final var packetCount : sessionSummary.getPacketCounts()) {
+            cbor.beginMap();
+            cbor.field("messageType", packetCount.getMessageType().name());
+            cbor.field("direction", direction(packetCount.isInbound()));
+            cbor.field("count", packetCount.getCount());
+            cbor.end();
+        }
+        cbor.end();
+        appendPublishSummary(cbor, sessionSummary, true);
+        appendPublishSummary(cbor, sessionSummary, false);
+        cbor.field("distinctTopics", sessionSummary.getDistinctTopics());
+        final var errors = sessionSummary.getErrors();
+        if (!errors.isEmpty()) {
+            cbor.key("errors").beginArray();
+            for (final var error : errors) {
+                cbor.beginMap();
+                cbor.field("messageType", error.getMessageType().name());
+                cbor.field("direction", direction(error.isInbound()));
+                cbor.field("reasonCode", error.getReasonCode());
+                cbor.field("count", error.getCount());
+                cbor.end();
+            }
+            cbor.end();
+        }
+        write(cbor.endRecord());
+    }
+
+    @Override
+    public void logPingDigest(final @NotNull PingDigest pingDigest) {
+        final var cbor = CborEncoder.get().beginRecord(timestampFormat, "PING_DIGEST", "EVENT");
+        cbor.field("durationMillis", pingDigest.getDurationMillis());
+        cbor.field("pingreqs", pingDigest.getPingreqs());
+        cbor.field("pingresps", pingDigest.getPingresps());
+        cbor.field("clients", pingDigest.getClients());
+        cbor.field("outlierClients", pingDigest.getOutlierClients());
+        final var outliers = pingDigest.getOutliers();
+        if (!outliers.isEmpty()) {
+            cbor.key("outliers").beginArray();
+            for (final var outlier : outliers) {
+                cbor.beginMap();
+                cbor.field("clientId", outlier.getClientId());
+                cbor.field("keepAlive", outlier.getKeepAlive());
+                cbor.field("intervalMillis", outlier.getIntervalMillis());
+                cbor.end();
+            }
+            cbor.end();
+        }
+        write(cbor.endRecord());
+    }
+
+    @Override
+    public void logRepeated(final @NotNull RepeatedEvent repeatedEvent) {
+        final var cbor = CborEncoder.get().beginRecord(timestampFormat, "REPEATED", "EVENT");
+        cbor.field("repeatedMessageType", repeatedEvent.getMessageType().name());
+        cbor.field("repeatedDirection", repeatedEvent.getDirection().name());
+        cbor.field("clientId", repeatedEvent.getClientId());
+        if (repeatedEvent.getTopic() != null) {
+            cbor.field("topic", repeatedEvent.getTopic());
+        }
+        if (repeatedEvent.getReasonCode() != null) {
+            cbor.field("reasonCode", repeatedEvent.getReasonCode());
+        }
+        cbor.field("count", repeatedEvent.getCount());
+        cbor.field("firstMillis", repeatedEvent.getFirstMillis());
+        cbor.field("lastMillis", repeatedEvent.getLastMillis());
+        write(cbor.endRecord());
+    }
+
+    @Override
+    public void logSuppressed(final @NotNull SuppressedEvents suppressedEvents) {
+        final var cbor = CborEncoder.get().beginRecord(timestampFormat, "SUPPRESSED", "EVENT");
+        cbor.field("clientId", suppressedEvents.getClientId());
+        cbor.field("count", suppressedEvents.getCount());
+        write(cbor.endRecord());
+    }
+
+    private static void appendPublishSummary(
+            final @NotNull CborEncoder cbor,
+            final @NotNull SessionSummary sessionSummary,
+            final boolean inbound) {
+        if (sessionSummary.getPackets(MessageType.PUBLISH, inbound) == 0) {
+            return;
+        }
+        cbor.field(inbound ? "payloadBytesInbound" : "payloadBytesOutbound", sessionSummary.getPayloadBytes(inbound));
+        cbor.key(inbound ? "qosInbound" : "qosOutbound").beginArray();
+        for (int qos = 0; qos < 3; qos++) {
+            cbor.number(sessionSummary.getPublishes(qos, inbound));
+        }
+        cbor.end();
+    }
+
+    private @NotNull CborEncoder beginPubRecord(
+            final @NotNull String messageType,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound,
+            final @NotNull String reasonCode) {
+        final var cbor = CborEncoder.get().beginRecord(timestampFormat, messageType, direction(inbound));
+        cbor.field(connection.getCborClientIdField());
+        cbor.field("reasonCode", reasonCode);
+        return cbor;
+    }
+
+    /**
+     * Writes a finished record.
+     */
+    private void write(final @NotNull CborEncoder cbor) {
+        sink.write(cbor.asByteBuffer());
+    }
+
+    private static @NotNull String direction(final boolean inbound) {
+        return inbound ? "INBOUND" : "OUTBOUND";
+    }
+
+    private static void appendUserProperties(
+            final @NotNull CborEncoder cbor,
+            final @NotNull UserProperties userProperties) {
+        final var list = userProperties.asList();
+        if (list.isEmpty()) {
+            return;
+        }
+        cbor.key("userProperties").beginArray();
+        for (final var userProperty : list) {
+            cbor.beginMap();
+            cbor.field("name", userProperty.getName());
+            cbor.field("value", userProperty.getValue());
+            cbor.end();
+        }
+        cbor.end();
+    }
+
+    @SuppressWarnings("SameParameterValue")
+    private static void appendArray(
+            final @NotNull CborEncoder cbor,
+            final @NotNull String key,
+            final @NotNull List<Integer> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        cbor.key(key).beginArray();
+        for (final var value : values) {
+            cbor.number(value);
+        }
+        cbor.end();
+    }
+
+    /**
+     * Appends the payload, or its head, tail, size and hash if it is larger than the limit.
+     */
+    private static void appendPayload(
+            final @NotNull CborEncoder cbor,
+            final @NotNull ByteBuffer payload,
+            final @NotNull PayloadLimit limit) {
+        if (!limit.truncates(payload)) {
+            cbor.bytesField("payload", payload);
+            return;
+        }
+        cbor.bytesField("payloadHead", limit.head(payload));
+        final var tail = limit.tail(payload);
+        if (tail.hasRemaining()) {
+            cbor.bytesField("payloadTail", tail);
+        }
+        cbor.field("payloadSize", payload.remaining());
+        cbor.field("payloadHash", asHexString(xxHash64(payload)));
+    }
+
+    /**
+     * @param payloadLimit the limit of the payload, or null if the payload is not included
+     */
+    private static void appendWill(
+            final @NotNull CborEncoder cbor,
+            final @NotNull WillPublishPacket willPublishPacket,
+            final @Nullable PayloadLimit payloadLimit) {
+        cbor.key("will").beginMap();
+        cbor.field("topic", willPublishPacket.getTopic());
+        cbor.field("qos", willPublishPacket.getQos().getQosNumber());
+        cbor.field("retained", willPublishPacket.getRetain());
+        cbor.field("willDelay", willPublishPacket.getWillDelay());
+        if (payloadLimit != null && willPublishPacket.getPayload().isPresent()) {
+            appendPayload(cbor, willPublishPacket.getPayload().get(), payloadLimit);
+        }
+        if (willPublishPacket.getMessageExpiryInterval().isPresent()) {
+            cbor.field("messageExpiryInterval", willPublishPacket.getMessageExpiryInterval().get());
+        }
+        if (willPublishPacket.getCorrelationData().isPresent()) {
+            cbor.field("correlationData", getStringFromByteBuffer(willPublishPacket.getCorrelationData().get()));
+        }
+        if (willPublishPacket.getResponseTopic().isPresent()) {
+            cbor.field("responseTopic", willPublishPacket.getResponseTopic().get());
+        }
+        if (willPublishPacket.getContentType().isPresent()) {
+            cbor.field("contentType", willPublishPacket.getContentType().get());
+        }
+        if (willPublishPacket.getPayloadFormatIndicator().isPresent()) {
+            cbor.field("payloadFormatIndicator", willPublishPacket.getPayloadFormatIndicator().get().name());
+        }
+        appendUserProperties(cbor, willPublishPacket.getUserProperties());
+        cbor.end();
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The fields of a connection that are the same for all of its events.
+ * <p>
+ * A context is created once when the client is initialized and passed with every event of the connection, so the
+ * client id is escaped and encoded for the JSON and CBOR output formats only once per connection instead of once per
+ * event. The formatters copy the encoded fields into their records.
+ *
+ * @since 1.4.0
+ */
+public final class ConnectionContext {
+
+    private final @NotNull String clientId;
+    // "clientId":"<escaped client id>"
+    private final byte @NotNull [] jsonClientIdField;
+    // the text string "clientId" followed by the client id as text string
+    private final byte @NotNull [] cborClientIdField;
+
+    public ConnectionContext(final @NotNull String clientId) {
+        this.clientId = clientId;
+        final var json = new JsonEncoder().beginObject().field("clientId", clientId).asByteBuffer();
+        // the field is the first of an object, so the opening brace is the only byte before it
+        jsonClientIdField = Arrays.copyOfRange(json.array(), 1, json.limit());
+        final var cbor = new CborEncoder().field("clientId", clientId).asByteBuffer();
+        cborClientIdField = Arrays.copyOf(cbor.array(), cbor.limit());
+    }
+
+    public @NotNull String getClientId() {
+        return clientId;
+    }
+
+    byte @NotNull [] getJsonClientIdField() {
+        return jsonClientIdField;
+    }
+
+    byte @NotNull [] getCborClientIdField() {
+        return cborClientIdField;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return clientId;
+    }
+}
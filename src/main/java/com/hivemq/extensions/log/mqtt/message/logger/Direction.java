@@ -0,0 +1,40 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+/**
+ * The direction of a logged MQTT message as seen from the broker.
+ *
+ * @since 1.4.0
+ */
+public enum Direction {
+
+    /**
+     * The message was received from a client.
+     */
+    INBOUND,
+
+    /**
+     * The message was sent to a client.
+     */
+    OUTBOUND,
+
+    /**
+     * The message was reported by a client lifecycle event instead of an interceptor.
+     */
+    EVENT
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import java.time.Instant;
+
+/**
+ * Provides the time of the MQTT event that is currently being logged.
+ * <p>
+ * When a message is logged on the thread that intercepted it, this is simply the current time. Threads that log
+ * previously captured events implement {@link CapturedTime} so the logged timestamp still reflects when the event
+ * happened and not when it was formatted.
+ *
+ * @since 1.4.0
+ */
+public final class EventClock {
+
+    private EventClock() {
+    }
+
+    /**
+     * @return the time of the current event in milliseconds since the epoch
+     */
+    public static long currentTimeMillis() {
+        final var thread = Thread.currentThread();
+        if (thread instanceof CapturedTime) {
+            return Math.floorDiv(((CapturedTime) thread).getCapturedTimeMicros(), 1_000L);
+        }
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * @return the time of the current event in microseconds since the epoch
+     */
+    public static long currentTimeMicros() {
+        final var thread = Thread.currentThread();
+        if (thread instanceof CapturedTime) {
+            return ((CapturedTime) thread).getCapturedTimeMicros();
+        }
+        return systemTimeMicros();
+    }
+
+    /**
+     * @return the current time in microseconds since the epoch, as precise as the system clock allows
+     */
+    public static long systemTimeMicros() {
+        final var now = Instant.now();
+        return now.getEpochSecond() * 1_000_000L + now.getNano() / 1_000;
+    }
+
+    /**
+     * Implemented by threads that replay captured events.
+     */
+    public interface CapturedTime {
+
+        /**
+         * @return the capture time of the event the thread is currently logging in microseconds since the epoch
+         */
+        long getCapturedTimeMicros();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+
+/**
+ * The SLF4J loggers of the logged events, one per {@link MessageType} and {@link Direction}.
+ * <p>
+ * The loggers are children of {@link MessageLogger#LOG} named after the type and direction of the event, e.g.
+ * {@code com.hivemq.extensions.log.mqtt.message.logger.MessageLogger.publish.inbound}. The logging configuration of
+ * HiveMQ can route every type to its own appender or change its level, while a configuration of
+ * {@link MessageLogger#LOG} still applies to all of them.
+ *
+ * @since 1.4.0
+ */
+public final class EventLoggers {
+
+    private static final @NotNull Logger @NotNull [] @NotNull [] LOGGERS = createLoggers();
+
+    private EventLoggers() {
+    }
+
+    /**
+     * @return the logger of the events of the type and direction
+     */
+    public static @NotNull Logger get(final @NotNull MessageType type, final @NotNull Direction direction) {
+        return LOGGERS[type.ordinal()][direction.ordinal()];
+    }
+
+    /**
+     * @return the logger of the events of the type that are received from or sent to a client
+     */
+    public static @NotNull Logger get(final @NotNull MessageType type, final boolean inbound) {
+        return get(type, inbound ? Direction.INBOUND : Direction.OUTBOUND);
+    }
+
+    static @NotNull String name(final @NotNull MessageType type, final @NotNull Direction direction) {
+        return MessageLogger.LOG.getName() + '.' + type.name().toLowerCase(Locale.ROOT) + '.' +
+                direction.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static @NotNull Logger @NotNull [] @NotNull [] createLoggers() {
+        final var types = MessageType.values();
+        final var directions = Direction.values();
+        final var loggers = new Logger[types.length][directions.length];
+        for (final var type : types) {
+            for (final var direction : directions) {
+                loggers[type.ordinal()][direction.ordinal()] = LoggerFactory.getLogger(name(type, direction));
+            }
+        }
+        return loggers;
+    }
+}
@@ -0,0 +1,506 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import com.hivemq.extensions.log.mqtt.message.util.StringUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+
+import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.CHUNK_SIZE;
+import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.getBytes;
+import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.isAsciiPrintable;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes JSON records as UTF-8 into a recycled byte array.
+ * <p>
+ * Every thread reuses its own encoder, see {@link #get()}, so encoding a record does not allocate once the buffer has
+ * grown to the size of the records. Strings are copied in bulk up to the next character that must be escaped,
+ * control characters are escaped with a lookup table. Binary payloads are read in bulk, see {@link StringUtil}.
+ *
+ * @since 1.4.0
+ */
+class JsonEncoder {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    // buffers that grew beyond this size for a single large record are not retained
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private static final byte @NotNull [] HEX_DIGITS =
+            {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+    private static final byte @NotNull [] BASE64_DIGITS =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes(UTF_8);
+    private static final byte @NotNull [] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes(UTF_8);
+    private static final byte @NotNull [] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte @NotNull [] FALSE = {'f', 'a', 'l', 's', 'e'};
+
+    private static final @NotNull ThreadLocal<JsonEncoder> ENCODERS = ThreadLocal.withInitial(JsonEncoder::new);
+
+    private byte @NotNull [] buffer = new byte[INITIAL_CAPACITY];
+    private @NotNull ByteBuffer view = ByteBuffer.wrap(buffer);
+    private int length;
+    // whether the next key is the first of a nested object and is not preceded by a separator
+    private boolean objectStart;
+    // payloads of read-only and direct buffers are processed in chunks of this array
+    private final byte @NotNull [] chunk = new byte[CHUNK_SIZE];
+
+    /**
+     * @return the empty encoder of the current thread
+     */
+    static @NotNull JsonEncoder get() {
+        final var encoder = ENCODERS.get();
+        encoder.reset();
+        return encoder;
+    }
+
+    void reset() {
+        if (buffer.length > MAX_RETAINED_CAPACITY) {
+            buffer = new byte[INITIAL_CAPACITY];
+            view = ByteBuffer.wrap(buffer);
+        }
+        length = 0;
+        objectStart = false;
+    }
+
+    /**
+     * Starts a record with the fields that every record has and the given timestamp, which is written as number.
+     */
+    @NotNull JsonEncoder beginRecord(
+            final long timestamp,
+            final @NotNull String messageType,
+            final @NotNull String direction) {
+        ascii("{\"timestamp\":");
+        number(timestamp);
+        field("messageType", messageType);
+        field("direction", direction);
+        return this;
+    }
+
+    /**
+     * Starts a record with the fields that every record has, the timestamp is the time of the current event, see
+     * {@link EventClock}.
+     */
+    @NotNull JsonEncoder beginRecord(
+            final @NotNull TimestampFormat timestampFormat,
+            final @NotNull String messageType,
+            final @NotNull String direction) {
+        ascii("{\"timestamp\":");
+        if (timestampFormat == TimestampFormat.EPOCH_MILLIS) {
+            number(EventClock.currentTimeMillis());
+        } else if (timestampFormat == TimestampFormat.EPOCH_MICROS) {
+            number(EventClock.currentTimeMicros());
+        } else {
+            final var iso8601 = TimestampFormatter.get().iso8601(EventClock.currentTimeMicros());
+            ensureCapacity(TimestampFormatter.ISO_8601_LENGTH + 2);
+            ascii('"');
+            copy(iso8601, 0, TimestampFormatter.ISO_8601_LENGTH);
+            ascii('"');
+        }
+        field("messageType", messageType);
+        field("direction", direction);
+        return this;
+    }
+
+    @NotNull JsonEncoder endRecord() {
+        ascii('}');
+        return this;
+    }
+
+    /**
+     * Appends a string field, nothing is appended if the value is {@code null}.
+     */
+    @NotNull JsonEncoder field(final @NotNull String key, final @Nullable String value) {
+        if (value == null) {
+            return this;
+        }
+        key(key);
+        ascii('"');
+        escaped(value);
+        ascii('"');
+        return this;
+    }
+
+    @NotNull JsonEncoder field(final @NotNull String key, final long value) {
+        key(key);
+        number(value);
+        return this;
+    }
+
+    @NotNull JsonEncoder field(final @NotNull String key, final boolean value) {
+        key(key);
+        bool(value);
+        return this;
+    }
+
+    /**
+     * Appends a field that was encoded in advance, like the client id of a {@link ConnectionContext}.
+     */
+    @NotNull JsonEncoder field(final byte @NotNull [] encodedField) {
+        if (objectStart) {
+            objectStart = false;
+        } else {
+            ascii(',');
+        }
+        ensureCapacity(encodedField.length);
+        copy(encodedField, 0, encodedField.length);
+        return this;
+    }
+
+    /**
+     * Appends the bytes as string field if they are printable ASCII, otherwise as Base64 encoded field.
+     */
+    @NotNull JsonEncoder binaryField(
+            final @NotNull String asciiKey,
+            final @NotNull String base64Key,
+            final @NotNull ByteBuffer value) {
+        final var mark = length;
+        final var markObjectStart = objectStart;
+        key(asciiKey);
+        ascii('"');
+        if (printable(value)) {
+            ascii('"');
+            return this;
+        }
+        length = mark;
+        objectStart = markObjectStart;
+        return base64Field(base64Key, value);
+    }
+
+    @NotNull JsonEncoder base64Field(final @NotNull String key, final @NotNull ByteBuffer value) {
+        key(key);
+        ascii('"');
+        base64(value);
+        ascii('"');
+        return this;
+    }
+
+    /**
+     * Starts a nested object, its first key is appended without separator.
+     */
+    @NotNull JsonEncoder beginObject() {
+        ascii('{');
+        objectStart = true;
+        return this;
+    }
+
+    /**
+     * Appends {@code ,"key":}, or {@code "key":} for the first key of a nested object.
+     */
+    @NotNull JsonEncoder key(final @NotNull String key) {
+        if (objectStart) {
+            objectStart = false;
+        } else {
+            ascii(',');
+        }
+        ascii('"');
+        ascii(key);
+        ascii('"');
+        ascii(':');
+        return this;
+    }
+
+    /**
+     * Appends a string that only contains ASCII characters which must not be escaped.
+     */
+    @SuppressWarnings("deprecation")
+    @NotNull JsonEncoder ascii(final @NotNull String value) {
+        final var valueLength = value.length();
+        ensureCapacity(valueLength);
+        // copies the low byte of every char, which is the UTF-8 encoding for ASCII
+        value.getBytes(0, valueLength, buffer, length);
+        length += valueLength;
+        return this;
+    }
+
+    @NotNull JsonEncoder ascii(final char value) {
+        ensureCapacity(1);
+        buffer[length++] = (byte) value;
+        return this;
+    }
+
+    @NotNull JsonEncoder bool(final boolean value) {
+        final var bytes = value ? TRUE : FALSE;
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+        return this;
+    }
+
+    @NotNull JsonEncoder number(final long value) {
+        if (value == Long.MIN_VALUE) {
+            ensureCapacity(MIN_LONG.length);
+            System.arraycopy(MIN_LONG, 0, buffer, length, MIN_LONG.length);
+            length += MIN_LONG.length;
+            return this;
+        }
+        ensureCapacity(20);
+        var remaining = value;
+        if (remaining < 0) {
+            buffer[length++] = '-';
+            remaining = -remaining;
+        }
+        var digits = 1;
+        for (var bound = 10L; digits < 19 && remaining >= bound; bound *= 10) {
+            digits++;
+        }
+        var index = length + digits;
+        length = index;
+        do {
+            buffer[--index] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        return this;
+    }
+
+    /**
+     * Appends the JSON escaped UTF-8 encoding of the string. Runs of characters that need no escaping are copied in
+     * bulk.
+     */
+    @NotNull JsonEncoder escaped(final @NotNull String value) {
+        final var valueLength = value.length();
+        var start = 0;
+        for (var i = 0; i < valueLength; i++) {
+            final var c = value.charAt(i);
+            if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                continue;
+            }
+            copyAscii(value, start, i);
+            i = escapeOrEncode(value, i);
+            start = i + 1;
+        }
+        copyAscii(value, start, valueLength);
+        return this;
+    }
+
+    @SuppressWarnings("deprecation")
+    private void copyAscii(final @NotNull String value, final int start, final int end) {
+        final var count = end - start;
+        if (count <= 0) {
+            return;
+        }
+        ensureCapacity(count);
+        value.getBytes(start, end, buffer, length);
+        length += count;
+    }
+
+    /**
+     * @return the index of the last consumed character
+     */
+    private int escapeOrEncode(final @NotNull String value, final int index) {
+        ensureCapacity(6);
+        final var c = value.charAt(index);
+        if (c < 0x80) {
+            escape(c);
+            return index;
+        }
+        if (c < 0x800) {
+            buffer[length++] = (byte) (0xC0 | (c >> 6));
+            buffer[length++] = (byte) (0x80 | (c & 0x3F));
+            return index;
+        }
+        if (Character.isHighSurrogate(c) && index + 1 < value.length() &&
+                Character.isLowSurrogate(value.charAt(index + 1))) {
+            final var codePoint = Character.toCodePoint(c, value.charAt(index + 1));
+            buffer[length++] = (byte) (0xF0 | (codePoint >> 18));
+            buffer[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            buffer[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[length++] = (byte) (0x80 | (codePoint & 0x3F));
+            return index + 1;
+        }
+        if (Character.isSurrogate(c)) {
+            // unpaired surrogate, replaced like the JDK UTF-8 encoder does
+            buffer[length++] = '?';
+            return index;
+        }
+        buffer[length++] = (byte) (0xE0 | (c >> 12));
+        buffer[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        buffer[length++] = (byte) (0x80 | (c & 0x3F));
+        return index;
+    }
+
+    /**
+     * Escapes an ASCII character, the capacity must already be ensured.
+     */
+    private void escape(final int c) {
+        switch (c) {
+            case '"' :
+                buffer[length++] = '\\';
+                buffer[length++] = '"';
+                break;
+            case '\\' :
+                buffer[length++] = '\\';
+                buffer[length++] = '\\';
+                break;
+            case '\n' :
+                buffer[length++] = '\\';
+                buffer[length++] = 'n';
+                break;
+            case '\r' :
+                buffer[length++] = '\\';
+                buffer[length++] = 'r';
+                break;
+            case '\t' :
+                buffer[length++] = '\\';
+                buffer[length++] = 't';
+                break;
+            case '\b' :
+                buffer[length++] = '\\';
+                buffer[length++] = 'b';
+                break;
+            case '\f' :
+                buffer[length++] = '\\';
+                buffer[length++] = 'f';
+                break;
+            default :
+                if (c < 0x20) {
+                    // control character - Unicode escape
+                    buffer[length++] = '\\';
+                    buffer[length++] = 'u';
+                    buffer[length++] = '0';
+                    buffer[length++] = '0';
+                    buffer[length++] = HEX_DIGITS[c >> 4];
+                    buffer[length++] = HEX_DIGITS[c & 0xF];
+                } else {
+                    buffer[length++] = (byte) c;
+                }
+                break;
+        }
+    }
+
+    /**
+     * Appends the bytes as JSON string content if all of them are printable ASCII characters.
+     *
+     * @return {@code false} if a byte is not printable, the appended content must be discarded then
+     */
+    private boolean printable(final @NotNull ByteBuffer value) {
+        final var position = value.position();
+        final var limit = value.limit();
+        if (value.hasArray()) {
+            final var offset = value.arrayOffset();
+            return printable(value.array(), offset + position, offset + limit);
+        }
+        for (var i = position; i < limit; i += CHUNK_SIZE) {
+            final var count = Math.min(CHUNK_SIZE, limit - i);
+            getBytes(value, i, chunk, 0, count);
+            if (!printable(chunk, 0, count)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean printable(final byte @NotNull [] bytes, final int from, final int to) {
+        if (!isAsciiPrintable(bytes, from, to)) {
+            return false;
+        }
+        // at most two bytes per byte for the escaped quote and backslash
+        ensureCapacity((to - from) * 2);
+        var start = from;
+        for (var i = from; i < to; i++) {
+            final var b = bytes[i];
+            if (b == '"' || b == '\\') {
+                copy(bytes, start, i);
+                buffer[length++] = '\\';
+                start = i;
+            }
+        }
+        copy(bytes, start, to);
+        return true;
+    }
+
+    private void base64(final @NotNull ByteBuffer value) {
+        final var position = value.position();
+        final var limit = value.limit();
+        ensureCapacity((limit - position + 2) / 3 * 4);
+        if (value.hasArray()) {
+            final var offset = value.arrayOffset();
+            base64(value.array(), offset + position, offset + limit);
+            return;
+        }
+        // all chunks but the last are a multiple of 3 bytes long, so only the last one is padded
+        for (var i = position; i < limit; i += CHUNK_SIZE) {
+            final var count = Math.min(CHUNK_SIZE, limit - i);
+            getBytes(value, i, chunk, 0, count);
+            base64(chunk, 0, count);
+        }
+    }
+
+    /**
+     * Encodes the bytes as Base64, the capacity must already be ensured.
+     */
+    private void base64(final byte @NotNull [] bytes, final int from, final int to) {
+        var i = from;
+        for (final var end = from + (to - from) / 3 * 3; i < end; i += 3) {
+            final var bits = (bytes[i] & 0xFF) << 16 | (bytes[i + 1] & 0xFF) << 8 | (bytes[i + 2] & 0xFF);
+            buffer[length++] = BASE64_DIGITS[(bits >>> 18) & 0x3F];
+            buffer[length++] = BASE64_DIGITS[(bits >>> 12) & 0x3F];
+            buffer[length++] = BASE64_DIGITS[(bits >>> 6) & 0x3F];
+            buffer[length++] = BASE64_DIGITS[bits & 0x3F];
+        }
+        final var rest = to - i;
+        if (rest == 1) {
+            final var bits = (bytes[i] & 0xFF) << 16;
+            buffer[length++] = BASE64_DIGITS[(bits >>> 18) & 0x3F];
+            buffer[length++] = BASE64_DIGITS[(bits >>> 12) & 0x3F];
+            buffer[length++] = '=';
+            buffer[length++] = '=';
+        } else if (rest == 2) {
+            final var bits = (bytes[i] & 0xFF) << 16 | (bytes[i + 1] & 0xFF) << 8;
+            buffer[length++] = BASE64_DIGITS[(bits >>> 18) & 0x3F];
+            buffer[length++] = BASE64_DIGITS[(bits >>> 12) & 0x3F];
+            buffer[length++] = BASE64_DIGITS[(bits >>> 6) & 0x3F];
+            buffer[length++] = '=';
+        }
+    }
+
+    private void copy(final byte @NotNull [] bytes, final int from, final int to) {
+        System.arraycopy(bytes, from, buffer, length, to - from);
+        length += to - from;
+    }
+
+    private void ensureCapacity(final int additional) {
+        final var required = length + additional;
+        if (required > buffer.length) {
+            final var newBuffer = new byte[Math.max(required, buffer.length * 2)];
+            System.arraycopy(buffer, 0, newBuffer, 0, length);
+            buffer = newBuffer;
+            view = ByteBuffer.wrap(buffer);
+        }
+    }
+
+    int length() {
+        return length;
+    }
+
+    /**
+     * @return a view of the encoded record, only valid until the encoder is used again
+     */
+    @NotNull ByteBuffer asByteBuffer() {
+        view.limit(length).position(0);
+        return view;
+    }
+
+    /**
+     * @return the encoded record as string
+     */
+    @Override
+    public @NotNull String toString() {
+        return new String(buffer, 0, length, UTF_8);
+    }
+}
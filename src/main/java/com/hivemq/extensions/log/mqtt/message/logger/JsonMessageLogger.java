@@ -33,611 +33,739 @@ import com.hivemq.extension.sdk.api.packets.pubcomp.PubcompPacket;
 import com.hivemq.extension.sdk.api.packets.publish.PublishPacket;
 import com.hivemq.extension.sdk.api.packets.pubrec.PubrecPacket;
 import com.hivemq.extension.sdk.api.packets.pubrel.PubrelPacket;
-import org.apache.commons.lang3.StringUtils;
+import com.hivemq.extensions.log.mqtt.message.config.LogPolicy;
+import com.hivemq.extensions.log.mqtt.message.flow.PingDigest;
+import com.hivemq.extensions.log.mqtt.message.flow.Qos2Flow;
+import com.hivemq.extensions.log.mqtt.message.flow.SessionSummary;
+import com.hivemq.extensions.log.mqtt.message.sink.LogSink;
+import com.hivemq.extensions.log.mqtt.message.sink.Slf4jLogSink;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
 
 import java.nio.ByteBuffer;
-import java.util.Base64;
 import java.util.List;
+import java.util.function.Supplier;
 
-import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.getBytes;
+import static com.hivemq.extensions.log.mqtt.message.util.HashUtil.xxHash64;
+import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.asHexString;
 import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.getStringFromByteBuffer;
 
 /**
  * JSON formatter for MQTT message logging. Produces structured JSON output suitable for machine parsing and log
  * aggregation.
+ * <p>
+ * The records are written by the {@link JsonEncoder} of the logging thread, so formatting a record does not allocate
+ * intermediate builders or strings. The encoded UTF-8 bytes are handed to a {@link LogSink}.
  *
  * @since 1.3.0
  */
 class JsonMessageLogger implements MessageLogger {
 
-    final boolean verbose;
-    final boolean payload;
-    final boolean redactPassword;
+    private final @NotNull Supplier<LogPolicy> currentPolicy;
+    private final @NotNull TimestampFormat timestampFormat;
+    // null if the records are logged by the logger of their event type
+    private final @Nullable LogSink sink;
 
     /**
-     * Creates a JsonMessageLogger with the specified configuration.
+     * Creates a JsonMessageLogger with the specified configuration that logs via the {@link EventLoggers}.
      *
      * @param verbose        whether to include verbose details
      * @param payload        whether to include message payloads
      * @param redactPassword whether to redact passwords
      */
     JsonMessageLogger(final boolean verbose, final boolean payload, final boolean redactPassword) {
-        this.verbose = verbose;
-        this.payload = payload;
-        this.redactPassword = redactPassword;
+        this(verbose, payload, redactPassword, null);
+    }
+
+    /**
+     * Creates a JsonMessageLogger with the specified configuration.
+     *
+     * @param verbose        whether to include verbose details
+     * @param payload        whether to include message payloads
+     * @param redactPassword whether to redact passwords
+     * @param sink           the sink the records are written to, or null to log via the {@link EventLoggers}
+     */
+    JsonMessageLogger(
+            final boolean verbose,
+            final boolean payload,
+            final boolean redactPassword,
+            final @Nullable LogSink sink) {
+        this(verbose, payload, redactPassword, PayloadLimits.UNLIMITED, sink);
+    }
+
+    /**
+     * Creates a JsonMessageLogger with the specified configuration.
+     *
+     * @param verbose        whether to include verbose details
+     * @param payload        whether to include message payloads
+     * @param redactPassword whether to redact passwords
+     * @param payloadLimits  how much of the payloads is included
+     * @param sink           the sink the records are written to, or null to log via the {@link EventLoggers}
+     */
+    JsonMessageLogger(
+            final boolean verbose,
+            final boolean payload,
+            final boolean redactPassword,
+            final @NotNull PayloadLimits payloadLimits,
+            final @Nullable LogSink sink) {
+        this(MessageLoggerFactory.fixedPolicy(verbose, payload, redactPassword, payloadLimits), sink);
+    }
+
+    /**
+     * Creates a JsonMessageLogger that reads the current policy for every event.
+     *
+     * @param currentPolicy the supplier of the current policy
+     * @param sink          the sink the records are written to, or null to log via the {@link EventLoggers}
+     */
+    JsonMessageLogger(final @NotNull Supplier<LogPolicy> currentPolicy, final @Nullable LogSink sink) {
+        this(currentPolicy, TimestampFormat.EPOCH_MILLIS, sink);
+    }
+
+    /**
+     * Creates a JsonMessageLogger that reads the current policy for every event.
+     *
+     * @param currentPolicy   the supplier of the current policy
+     * @param timestampFormat the format of the timestamps
+     * @param sink            the sink the records are written to, or null to log via the {@link EventLoggers}
+     */
+    JsonMessageLogger(
+            final @NotNull Supplier<LogPolicy> currentPolicy,
+            final @NotNull TimestampFormat timestampFormat,
+            final @Nullable LogSink sink) {
+        this.currentPolicy = currentPolicy;
+        this.timestampFormat = timestampFormat;
+        this.sink = sink;
     }
 
     @Override
-    public void logDisconnect(final @NotNull String message, final @NotNull DisconnectEventInput disconnectEventInput) {
-        final var sb = new StringBuilder(512);
-        sb.append("{\"timestamp\":").append(System.currentTimeMillis());
-        appendJsonField(sb, "messageType", "DISCONNECT");
-        appendJsonField(sb, "direction", "EVENT");
-        appendJsonField(sb, "message", message);
+    public void logDisconnect(
+            final @NotNull DisconnectEventInput disconnectEventInput,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var policy = currentPolicy.get();
+        final var json = JsonEncoder.get().beginRecord(timestampFormat, "DISCONNECT", direction(inbound));
+        json.field(connection.getJsonClientIdField());
         if (disconnectEventInput.getReasonCode().isPresent()) {
-            appendJsonField(sb, "reasonCode", disconnectEventInput.getReasonCode().get().name());
+            json.field("reasonCode", disconnectEventInput.getReasonCode().get().name());
         }
-        if (verbose) {
+        if (policy.isVerbose()) {
             if (disconnectEventInput.getReasonString().isPresent()) {
-                appendJsonField(sb, "reasonString", disconnectEventInput.getReasonString().get());
+                json.field("reasonString", disconnectEventInput.getReasonString().get());
             }
             if (disconnectEventInput.getUserProperties().isPresent()) {
-                appendUserPropertiesJson(sb, disconnectEventInput.getUserProperties().get());
+                appendUserProperties(json, disconnectEventInput.getUserProperties().get());
             }
         }
-        sb.append("}");
-        LOG.info(sb.toString());
+        write(json.endRecord(), EventLoggers.get(MessageType.DISCONNECT, inbound));
     }
 
     @Override
     public void logDisconnect(
             final @NotNull DisconnectPacket disconnectPacket,
-            final @NotNull String clientId,
+            final @NotNull ConnectionContext connection,
             final boolean inbound) {
-        final var sb = new StringBuilder(512);
-        sb.append("{\"timestamp\":").append(System.currentTimeMillis());
-        appendJsonField(sb, "messageType", "DISCONNECT");
-        appendJsonField(sb, "direction", inbound ? "INBOUND" : "OUTBOUND");
-        appendJsonField(sb, "clientId", clientId);
-        appendJsonField(sb, "reasonCode", disconnectPacket.getReasonCode().name());
-        if (verbose) {
+        final var policy = currentPolicy.get();
+        final var json = JsonEncoder.get().beginRecord(timestampFormat, "DISCONNECT", direction(inbound));
+        json.field(connection.getJsonClientIdField());
+        json.field("reasonCode", disconnectPacket.getReasonCode().name());
+        if (policy.isVerbose()) {
             if (disconnectPacket.getReasonString().isPresent()) {
-                appendJsonField(sb, "reasonString", disconnectPacket.getReasonString().get());
+                json.field("reasonString", disconnectPacket.getReasonString().get());
             }
             if (disconnectPacket.getServerReference().isPresent()) {
-                appendJsonField(sb, "serverReference", disconnectPacket.getServerReference().get());
+                json.field("serverReference", disconnectPacket.getServerReference().get());
             }
             if (disconnectPacket.getSessionExpiryInterval().isPresent()) {
-                appendJsonField(sb, "sessionExpiryInterval", disconnectPacket.getSessionExpiryInterval().get());
+                json.field("sessionExpiryInterval", disconnectPacket.getSessionExpiryInterval().get());
             }
-            appendUserPropertiesJson(sb, disconnectPacket.getUserProperties());
+            appendUserProperties(json, disconnectPacket.getUserProperties());
         }
-        sb.append("}");
-        LOG.info(sb.toString());
+        write(json.endRecord(), EventLoggers.get(MessageType.DISCONNECT, inbound));
     }
 
     @Override
     public void logConnect(final @NotNull ConnectPacket connectPacket) {
-        final var sb = new StringBuilder(1024);
-        sb.append("{\"timestamp\":").append(System.currentTimeMillis());
-        appendJsonField(sb, "messageType", "CONNECT");
-        appendJsonField(sb, "direction", "INBOUND");
-        appendJsonField(sb, "clientId", connectPacket.getClientId());
-        appendJsonField(sb, "protocolVersion", connectPacket.getMqttVersion().name());
-        appendJsonField(sb, "cleanStart", connectPacket.getCleanStart());
-        appendJsonField(sb, "sessionExpiryInterval", connectPacket.getSessionExpiryInterval());
-        if (verbose) {
-            appendJsonField(sb, "keepAlive", connectPacket.getKeepAlive());
-            appendJsonField(sb, "maximumPacketSize", connectPacket.getMaximumPacketSize());
-            appendJsonField(sb, "receiveMaximum", connectPacket.getReceiveMaximum());
-            appendJsonField(sb, "topicAliasMaximum", connectPacket.getTopicAliasMaximum());
-            appendJsonField(sb, "requestProblemInformation", connectPacket.getRequestProblemInformation());
-            appendJsonField(sb, "requestResponseInformation", connectPacket.getRequestResponseInformation());
+        final var policy = currentPolicy.get();
+        final var json = JsonEncoder.get().beginRecord(timestampFormat, "CONNECT", "INBOUND");
+        json.field("clientId", connectPacket.getClientId());
+        json.field("protocolVersion", connectPacket.getMqttVersion().name());
+        json.field("cleanStart", connectPacket.getCleanStart());
+        json.field("sessionExpiryInterval", connectPacket.getSessionExpiryInterval());
+        if (policy.isVerbose()) {
+            json.field("keepAlive", connectPacket.getKeepAlive());
+            json.field("maximumPacketSize", connectPacket.getMaximumPacketSize());
+            json.field("receiveMaximum", connectPacket.getReceiveMaximum());
+            json.field("topicAliasMaximum", connectPacket.getTopicAliasMaximum());
+            json.field("requestProblemInformation", connectPacket.getRequestProblemInformation());
+            json.field("requestResponseInformation", connectPacket.getRequestResponseInformation());
             if (connectPacket.getUserName().isPresent()) {
-                appendJsonField(sb, "username", connectPacket.getUserName().get());
+                json.field("username", connectPacket.getUserName().get());
             }
             // password handling
-            if (redactPassword) {
-                appendJsonField(sb, "password", "<redacted>");
+            if (policy.isRedactPassword()) {
+                json.field("password", "<redacted>");
             } else if (connectPacket.getPassword().isPresent()) {
-                final var passwordBuffer = connectPacket.getPassword().get();
-                appendOptionalBinary(passwordBuffer, sb, "password", "passwordBase64");
+                json.binaryField("password", "passwordBase64", connectPacket.getPassword().get());
             }
             if (connectPacket.getAuthenticationMethod().isPresent()) {
-                appendJsonField(sb, "authMethod", connectPacket.getAuthenticationMethod().get());
+                json.field("authMethod", connectPacket.getAuthenticationMethod().get());
             }
             if (connectPacket.getAuthenticationData().isPresent()) {
-                appendJsonField(sb,
-                        "authDataBase64",
-                        Base64.getEncoder().encodeToString(getBytes(connectPacket.getAuthenticationData().get())));
+                json.base64Field("authDataBase64", connectPacket.getAuthenticationData().get());
             }
-            appendUserPropertiesJson(sb, connectPacket.getUserProperties());
+            appendUserProperties(json, connectPacket.getUserProperties());
             // will message
             if (connectPacket.getWillPublish().isPresent()) {
-                appendWillJson(sb, connectPacket.getWillPublish().get(), payload);
+                appendWill(json,
+                        connectPacket.getWillPublish().get(),
+                        policy.isPayload() ? policy.getPayloadLimits().getWill() : null);
             }
         }
-        sb.append("}");
-        LOG.info(sb.toString());
+        write(json.endRecord(), EventLoggers.get(MessageType.CONNECT, Direction.INBOUND));
     }
 
     @Override
     public void logConnack(final @NotNull ConnackOutboundInput connackOutboundInput) {
-        final var sb = new StringBuilder(1024);
+        final var policy = currentPolicy.get();
         final var clientId = connackOutboundInput.getClientInformation().getClientId();
         final var connackPacket = connackOutboundInput.getConnackPacket();
-        sb.append("{\"timestamp\":").append(System.currentTimeMillis());
-        appendJsonField(sb, "messageType", "CONNACK");
-        appendJsonField(sb, "direction", "OUTBOUND");
-        appendJsonField(sb, "clientId", clientId);
-        appendJsonField(sb, "reasonCode", connackPacket.getReasonCode().name());
-        appendJsonField(sb, "sessionPresent", connackPacket.getSessionPresent());
-        if (verbose) {
+        final var json = JsonEncoder.get().beginRecord(timestampFormat, "CONNACK", "OUTBOUND");
+        json.field("clientId", clientId);
+        json.field("reasonCode", connackPacket.getReasonCode().name());
+        json.field("sessionPresent", connackPacket.getSessionPresent());
+        if (policy.isVerbose()) {
             if (connackPacket.getSessionExpiryInterval().isPresent()) {
-                appendJsonField(sb, "sessionExpiryInterval", connackPacket.getSessionExpiryInterval().get());
+                json.field("sessionExpiryInterval", connackPacket.getSessionExpiryInterval().get());
             }
             if (connackPacket.getAssignedClientIdentifier().isPresent()) {
-                appendJsonField(sb, "assignedClientId", connackPacket.getAssignedClientIdentifier().get());
+                json.field("assignedClientId", connackPacket.getAssignedClientIdentifier().get());
             }
             if (connackPacket.getMaximumQoS().isPresent()) {
-                appendJsonField(sb, "maximumQoS", connackPacket.getMaximumQoS().get().getQosNumber());
+                json.field("maximumQoS", connackPacket.getMaximumQoS().get().getQosNumber());
             }
-            appendJsonField(sb, "maximumPacketSize", connackPacket.getMaximumPacketSize());
-            appendJsonField(sb, "receiveMaximum", connackPacket.getReceiveMaximum());
-            appendJsonField(sb, "topicAliasMaximum", connackPacket.getTopicAliasMaximum());
+            json.field("maximumPacketSize", connackPacket.getMaximumPacketSize());
+            json.field("receiveMaximum", connackPacket.getReceiveMaximum());
+            json.field("topicAliasMaximum", connackPacket.getTopicAliasMaximum());
             if (connackPacket.getReasonString().isPresent()) {
-                appendJsonField(sb, "reasonString", connackPacket.getReasonString().get());
+                json.field("reasonString", connackPacket.getReasonString().get());
             }
             if (connackPacket.getResponseInformation().isPresent()) {
-                appendJsonField(sb, "responseInformation", connackPacket.getResponseInformation().get());
+                json.field("responseInformation", connackPacket.getResponseInformation().get());
             }
             if (connackPacket.getServerKeepAlive().isPresent()) {
-                appendJsonField(sb, "serverKeepAlive", connackPacket.getServerKeepAlive().get());
+                json.field("serverKeepAlive", connackPacket.getServerKeepAlive().get());
             }
             if (connackPacket.getServerReference().isPresent()) {
-                appendJsonField(sb, "serverReference", connackPacket.getServerReference().get());
-            }
-            appendJsonField(sb, "sharedSubscriptionsAvailable", connackPacket.getSharedSubscriptionsAvailable());
-            appendJsonField(sb, "wildCardSubscriptionAvailable", connackPacket.getWildCardSubscriptionAvailable());
-            appendJsonField(sb, "retainAvailable", connackPacket.getRetainAvailable());
-            appendJsonField(sb,
-                    "subscriptionIdentifiersAvailable",
-                    connackPacket.getSubscriptionIdentifiersAvailable());
+                json.field("serverReference", connackPacket.getServerReference().get());
+            }
+            json.field("sharedSubscriptionsAvailable", connackPacket.getSharedSubscriptionsAvailable());
+            json.field("wildCardSubscriptionAvailable", connackPacket.getWildCardSubscriptionAvailable());
+            json.field("retainAvailable", connackPacket.getRetainAvailable());
+            json.field("subscriptionIdentifiersAvailable", connackPacket.getSubscriptionIdentifiersAvailable());
             if (connackPacket.getAuthenticationMethod().isPresent()) {
-                appendJsonField(sb, "authMethod", connackPacket.getAuthenticationMethod().get());
+                json.field("authMethod", connackPacket.getAuthenticationMethod().get());
             }
             if (connackPacket.getAuthenticationData().isPresent()) {
-                appendJsonField(sb,
-                        "authDataBase64",
-                        Base64.getEncoder().encodeToString(getBytes(connackPacket.getAuthenticationData().get())));
+                json.base64Field("authDataBase64", connackPacket.getAuthenticationData().get());
             }
-            appendUserPropertiesJson(sb, connackPacket.getUserProperties());
+            appendUserProperties(json, connackPacket.getUserProperties());
         }
-        sb.append("}");
-        LOG.info(sb.toString());
+        write(json.endRecord(), EventLoggers.get(MessageType.CONNACK, Direction.OUTBOUND));
     }
 
     @Override
-    public void logPublish(final @NotNull String prefix, final @NotNull PublishPacket publishPacket) {
-        final var sb = new StringBuilder(1024);
-        sb.append("{\"timestamp\":").append(System.currentTimeMillis());
-        appendJsonField(sb, "messageType", "PUBLISH");
-        // extract direction from prefix
-        final var direction = prefix.contains("Received") ? "INBOUND" : "OUTBOUND";
-        appendJsonField(sb, "direction", direction);
-        appendJsonField(sb, "topic", publishPacket.getTopic());
-        if (payload && publishPacket.getPayload().isPresent()) {
-            final var payloadBuffer = publishPacket.getPayload().get();
-            appendOptionalBinary(payloadBuffer, sb, "payload", "payloadBase64");
-        }
-        appendJsonField(sb, "qos", publishPacket.getQos().getQosNumber());
-        appendJsonField(sb, "retained", publishPacket.getRetain());
-        if (verbose) {
+    public void logPublish(
+            final @NotNull PublishPacket publishPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var policy = currentPolicy.get();
+        final var json = JsonEncoder.get().beginRecord(timestampFormat, "PUBLISH", direction(inbound));
+        json.field(connection.getJsonClientIdField());
+        json.field("topic", publishPacket.getTopic());
+        if (policy.isPayload() && publishPacket.getPayload().isPresent()) {
+            appendPayload(json, publishPacket.getPayload().get(), policy.getPayloadLimits().getPublish(inbound));
+        }
+        json.field("qos", publishPacket.getQos().getQosNumber());
+        json.field("retained", publishPacket.getRetain());
+        if (policy.isVerbose()) {
             if (publishPacket.getMessageExpiryInterval().isPresent()) {
-                appendJsonField(sb, "messageExpiryInterval", publishPacket.getMessageExpiryInterval().get());
+                json.field("messageExpiryInterval", publishPacket.getMessageExpiryInterval().get());
             }
-            appendJsonField(sb, "duplicateDelivery", publishPacket.getDupFlag());
+            json.field("duplicateDelivery", publishPacket.getDupFlag());
             if (publishPacket.getCorrelationData().isPresent()) {
-                appendJsonField(sb,
-                        "correlationData",
-                        getStringFromByteBuffer(publishPacket.getCorrelationData().get()));
+                json.field("correlationData", getStringFromByteBuffer(publishPacket.getCorrelationData().get()));
             }
             if (publishPacket.getResponseTopic().isPresent()) {
-                appendJsonField(sb, "responseTopic", publishPacket.getResponseTopic().get());
+                json.field("responseTopic", publishPacket.getResponseTopic().get());
             }
             if (publishPacket.getContentType().isPresent()) {
-                appendJsonField(sb, "contentType", publishPacket.getContentType().get());
+                json.field("contentType", publishPacket.getContentType().get());
             }
             if (publishPacket.getPayloadFormatIndicator().isPresent()) {
-                appendJsonField(sb, "payloadFormatIndicator", publishPacket.getPayloadFormatIndicator().get().name());
+                json.field("payloadFormatIndicator", publishPacket.getPayloadFormatIndicator().get().name());
             }
             if (!publishPacket.getSubscriptionIdentifiers().isEmpty()) {
-                appendJsonArray(sb, "subscriptionIdentifiers", publishPacket.getSubscriptionIdentifiers());
+                appendArray(json, "subscriptionIdentifiers", publishPacket.getSubscriptionIdentifiers());
             }
-            appendUserPropertiesJson(sb, publishPacket.getUserProperties());
+            appendUserProperties(json, publishPacket.getUserProperties());
         }
-        sb.append("}");
-        LOG.info(sb.toString());
+        write(json.endRecord(), EventLoggers.get(MessageType.PUBLISH, inbound));
     }
 
     @Override
     public void logSubscribe(final @NotNull SubscribeInboundInput subscribeInboundInput) {
-        final var sb = new StringBuilder(1024);
+        final var policy = currentPolicy.get();
         final var clientId = subscribeInboundInput.getClientInformation().getClientId();
         final var subscribePacket = subscribeInboundInput.getSubscribePacket();
-        sb.append("{\"timestamp\":").append(System.currentTimeMillis());
-        appendJsonField(sb, "messageType", "SUBSCRIBE");
-        appendJsonField(sb, "direction", "INBOUND");
-        appendJsonField(sb, "clientId", clientId);
+        final var json = JsonEncoder.get().beginRecord(timestampFormat, "SUBSCRIBE", "INBOUND");
+        json.field("clientId", clientId);
         // subscriptions array
-        sb.append(",\"subscriptions\":[");
+        json.key("subscriptions").ascii('[');
         final var subscriptions = subscribePacket.getSubscriptions();
         for (int i = 0; i < subscriptions.size(); i++) {
             if (i > 0) {
-                sb.append(",");
+                json.ascii(',');
             }
             final var sub = subscriptions.get(i);
-            sb.append("{");
-            sb.append("\"topicFilter\":\"");
-            appendJsonEscaped(sb, sub.getTopicFilter());
-            sb.append("\",\"qos\":").append(sub.getQos().getQosNumber());
-            if (verbose) {
-                sb.append(",\"retainAsPublished\":").append(sub.getRetainAsPublished());
-                sb.append(",\"noLocal\":").append(sub.getNoLocal());
-                sb.append(",\"retainHandling\":\"").append(sub.getRetainHandling().name()).append("\"");
-            }
-            sb.append("}");
-        }
-        sb.append("]");
-        if (verbose) {
+            json.ascii("{\"topicFilter\":\"").escaped(sub.getTopicFilter()).ascii('"');
+            json.field("qos", sub.getQos().getQosNumber());
+            if (policy.isVerbose()) {
+                json.field("retainAsPublished", sub.getRetainAsPublished());
+                json.field("noLocal", sub.getNoLocal());
+                json.field("retainHandling", sub.getRetainHandling().name());
+            }
+            json.ascii('}');
+        }
+        json.ascii(']');
+        if (policy.isVerbose()) {
             if (subscribePacket.getSubscriptionIdentifier().isPresent()) {
-                appendJsonField(sb, "subscriptionIdentifier", subscribePacket.getSubscriptionIdentifier().get());
+                json.field("subscriptionIdentifier", subscribePacket.getSubscriptionIdentifier().get());
             }
-            appendUserPropertiesJson(sb, subscribePacket.getUserProperties());
+            appendUserProperties(json, subscribePacket.getUserProperties());
         }
-        sb.append("}");
-        LOG.info(sb.toString());
+        write(json.endRecord(), EventLoggers.get(MessageType.SUBSCRIBE, Direction.INBOUND));
     }
 
     @Override
     public void logUnsubscribe(final @NotNull UnsubscribeInboundInput unsubscribeInboundInput) {
-        final var sb = new StringBuilder(512);
+        final var policy = currentPolicy.get();
         final var clientId = unsubscribeInboundInput.getClientInformation().getClientId();
         final var unsubscribePacket = unsubscribeInboundInput.getUnsubscribePacket();
-        sb.append("{\"timestamp\":").append(System.currentTimeMillis());
-        appendJsonField(sb, "messageType", "UNSUBSCRIBE");
-        appendJsonField(sb, "direction", "INBOUND");
-        appendJsonField(sb, "clientId", clientId);
+        final var json = JsonEncoder.get().beginRecord(timestampFormat, "UNSUBSCRIBE", "INBOUND");
+        json.field("clientId", clientId);
         // topic filters array
-        sb.append(",\"topicFilters\":[");
+        json.key("topicFilters").ascii('[');
         final var topicFilters = unsubscribePacket.getTopicFilters();
         for (int i = 0; i < topicFilters.size(); i++) {
             if (i > 0) {
-                sb.append(",");
+                json.ascii(',');
             }
-            sb.append("\"");
-            appendJsonEscaped(sb, topicFilters.get(i));
-            sb.append("\"");
+            json.ascii('"').escaped(topicFilters.get(i)).ascii('"');
         }
-        sb.append("]");
-        if (verbose) {
-            appendUserPropertiesJson(sb, unsubscribePacket.getUserProperties());
+        json.ascii(']');
+        if (policy.isVerbose()) {
+            appendUserProperties(json, unsubscribePacket.getUserProperties());
         }
-        sb.append("}");
-        LOG.info(sb.toString());
+        write(json.endRecord(), EventLoggers.get(MessageType.UNSUBSCRIBE, Direction.INBOUND));
     }
 
     @Override
     public void logSuback(final @NotNull SubackOutboundInput subackOutboundInput) {
+        final var policy = currentPolicy.get();
         final var subackPacket = subackOutboundInput.getSubackPacket();
-        logSubackJson("SUBACK",
+        final var json = beginSubackRecord("SUBACK",
                 subackOutboundInput.getClientInformation().getClientId(),
-                subackPacket.getReasonCodes(),
-                subackPacket.getReasonString().orElse(null),
-                subackPacket.getUserProperties());
+                subackPacket.getReasonCodes());
+        if (policy.isVerbose()) {
+            if (subackPacket.getReasonString().isPresent()) {
+                json.field("reasonString", subackPacket.getReasonString().get());
+            }
+            appendUserProperties(json, subackPacket.getUserProperties());
+        }
+        write(json.endRecord(), EventLoggers.get(MessageType.SUBACK, Direction.OUTBOUND));
     }
 
     @Override
     public void logUnsuback(final @NotNull UnsubackOutboundInput unsubackOutboundInput) {
+        final var policy = currentPolicy.get();
         final var unsubackPacket = unsubackOutboundInput.getUnsubackPacket();
-        logSubackJson("UNSUBACK",
+        final var json = beginSubackRecord("UNSUBACK",
                 unsubackOutboundInput.getClientInformation().getClientId(),
-                unsubackPacket.getReasonCodes(),
-                unsubackPacket.getReasonString().orElse(null),
-                unsubackPacket.getUserProperties());
+                unsubackPacket.getReasonCodes());
+        if (policy.isVerbose()) {
+            if (unsubackPacket.getReasonString().isPresent()) {
+                json.field("reasonString", unsubackPacket.getReasonString().get());
+            }
+            appendUserProperties(json, unsubackPacket.getUserProperties());
+        }
+        write(json.endRecord(), EventLoggers.get(MessageType.UNSUBACK, Direction.OUTBOUND));
     }
 
-    private void logSubackJson(
+    private @NotNull JsonEncoder beginSubackRecord(
             final @NotNull String messageType,
             final @NotNull String clientId,
-            final @NotNull List<? extends Enum<?>> reasonCodes,
-            final @Nullable String reasonString,
-            final @NotNull UserProperties userProperties) {
-        final var sb = new StringBuilder(512);
-        sb.append("{\"timestamp\":").append(System.currentTimeMillis());
-        appendJsonField(sb, "messageType", messageType);
-        appendJsonField(sb, "direction", "OUTBOUND");
-        appendJsonField(sb, "clientId", clientId);
+            final @NotNull List<? extends Enum<?>> reasonCodes) {
+        final var json = JsonEncoder.get().beginRecord(timestampFormat, messageType, "OUTBOUND");
+        json.field("clientId", clientId);
         // reason codes array
-        sb.append(",\"reasonCodes\":[");
+        json.key("reasonCodes").ascii('[');
         for (int i = 0; i < reasonCodes.size(); i++) {
             if (i > 0) {
-                sb.append(",");
+                json.ascii(',');
             }
-            sb.append("\"").append(reasonCodes.get(i).name()).append("\"");
+            json.ascii('"').ascii(reasonCodes.get(i).name()).ascii('"');
         }
-        sb.append("]");
-        if (verbose) {
-            if (reasonString != null) {
-                appendJsonField(sb, "reasonString", reasonString);
-            }
-            appendUserPropertiesJson(sb, userProperties);
-        }
-        sb.append("}");
-        LOG.info(sb.toString());
+        return json.ascii(']');
     }
 
     @Override
     public void logPingreq(final @NotNull PingReqInboundInput pingReqInboundInput) {
-        final var sb = new StringBuilder(256);
         final var clientId = pingReqInboundInput.getClientInformation().getClientId();
-        sb.append("{\"timestamp\":").append(System.currentTimeMillis());
-        appendJsonField(sb, "messageType", "PINGREQ");
-        appendJsonField(sb, "direction", "INBOUND");
-        appendJsonField(sb, "clientId", clientId);
-        sb.append("}");
-        LOG.info(sb.toString());
+        final var json = JsonEncoder.get().beginRecord(timestampFormat, "PINGREQ", "INBOUND");
+        json.field("clientId", clientId);
+        write(json.endRecord(), EventLoggers.get(MessageType.PINGREQ, Direction.INBOUND));
     }
 
     @Override
     public void logPingresp(final @NotNull PingRespOutboundInput pingRespOutboundInput) {
-        final var sb = new StringBuilder(256);
         final var clientId = pingRespOutboundInput.getClientInformation().getClientId();
-        sb.append("{\"timestamp\":").append(System.currentTimeMillis());
-        appendJsonField(sb, "messageType", "PINGRESP");
-        appendJsonField(sb, "direction", "OUTBOUND");
-        appendJsonField(sb, "clientId", clientId);
-        sb.append("}");
-        LOG.info(sb.toString());
+        final var json = JsonEncoder.get().beginRecord(timestampFormat, "PINGRESP", "OUTBOUND");
+        json.field("clientId", clientId);
+        write(json.endRecord(), EventLoggers.get(MessageType.PINGRESP, Direction.OUTBOUND));
     }
 
     @Override
     public void logPuback(
             final @NotNull PubackPacket pubackPacket,
-            final @NotNull String clientId,
+            final @NotNull ConnectionContext connection,
             final boolean inbound) {
-        logPubJson("PUBACK",
-                clientId,
-                inbound,
-                pubackPacket.getReasonCode().name(),
-                pubackPacket.getReasonString().orElse(null),
-                pubackPacket.getUserProperties());
+        logPuback(pubackPacket, connection, inbound, -1);
+    }
+
+    @Override
+    public void logPuback(
+            final @NotNull PubackPacket pubackPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound,
+            final long ackLatencyMicros) {
+        final var policy = currentPolicy.get();
+        final var json = beginPubRecord("PUBACK", connection, inbound, pubackPacket.getReasonCode().name());
+        if (ackLatencyMicros >= 0) {
+            json.field("ackLatencyMicros", ackLatencyMicros);
+        }
+        if (policy.isVerbose()) {
+            if (pubackPacket.getReasonString().isPresent()) {
+                json.field("reasonString", pubackPacket.getReasonString().get());
+            }
+            appendUserProperties(json, pubackPacket.getUserProperties());
+        }
+        write(json.endRecord(), EventLoggers.get(MessageType.PUBACK, inbound));
     }
 
     @Override
     public void logPubrec(
             final @NotNull PubrecPacket pubrecPacket,
-            final @NotNull String clientId,
+            final @NotNull ConnectionContext connection,
             final boolean inbound) {
-        logPubJson("PUBREC",
-                clientId,
-                inbound,
-                pubrecPacket.getReasonCode().name(),
-                pubrecPacket.getReasonString().orElse(null),
-                pubrecPacket.getUserProperties());
+        final var policy = currentPolicy.get();
+        final var json = beginPubRecord("PUBREC", connection, inbound, pubrecPacket.getReasonCode().name());
+        if (policy.isVerbose()) {
+            if (pubrecPacket.getReasonString().isPresent()) {
+                json.field("reasonString", pubrecPacket.getReasonString().get());
+            }
+            appendUserProperties(json, pubrecPacket.getUserProperties());
+        }
+        write(json.endRecord(), EventLoggers.get(MessageType.PUBREC, inbound));
     }
 
     @Override
     public void logPubrel(
             final @NotNull PubrelPacket pubrelPacket,
-            final @NotNull String clientId,
+            final @NotNull ConnectionContext connection,
             final boolean inbound) {
-        logPubJson("PUBREL",
-                clientId,
-                inbound,
-                pubrelPacket.getReasonCode().name(),
-                pubrelPacket.getReasonString().orElse(null),
-                pubrelPacket.getUserProperties());
+        final var policy = currentPolicy.get();
+        final var json = beginPubRecord("PUBREL", connection, inbound, pubrelPacket.getReasonCode().name());
+        if (policy.isVerbose()) {
+            if (pubrelPacket.getReasonString().isPresent()) {
+                json.field("reasonString", pubrelPacket.getReasonString().get());
+            }
+            appendUserProperties(json, pubrelPacket.getUserProperties());
+        }
+        write(json.endRecord(), EventLoggers.get(MessageType.PUBREL, inbound));
     }
 
     @Override
     public void logPubcomp(
             final @NotNull PubcompPacket pubcompPacket,
-            final @NotNull String clientId,
+            final @NotNull ConnectionContext connection,
             final boolean inbound) {
-        logPubJson("PUBCOMP",
-                clientId,
-                inbound,
-                pubcompPacket.getReasonCode().name(),
-                pubcompPacket.getReasonString().orElse(null),
-                pubcompPacket.getUserProperties());
+        final var policy = currentPolicy.get();
+        final var json = beginPubRecord("PUBCOMP", connection, inbound, pubcompPacket.getReasonCode().name());
+        if (policy.isVerbose()) {
+            if (pubcompPacket.getReasonString().isPresent()) {
+                json.field("reasonString", pubcompPacket.getReasonString().get());
+            }
+            appendUserProperties(json, pubcompPacket.getUserProperties());
+        }
+        write(json.endRecord(), EventLoggers.get(MessageType.PUBCOMP, inbound));
     }
 
-    private void logPubJson(
-            final @NotNull String messageType,
-            final @NotNull String clientId,
-            final boolean inbound,
-            final @NotNull String reasonCode,
-            final @Nullable String reasonString,
-            final @NotNull UserProperties userProperties) {
-        final var sb = new StringBuilder(512);
-        sb.append("{\"timestamp\":").append(System.currentTimeMillis());
-        appendJsonField(sb, "messageType", messageType);
-        appendJsonField(sb, "direction", inbound ? "INBOUND" : "OUTBOUND");
-        appendJsonField(sb, "clientId", clientId);
-        appendJsonField(sb, "reasonCode", reasonCode);
-        if (verbose) {
-            if (reasonString != null) {
-                appendJsonField(sb, "reasonString", reasonString);
-            }
-            appendUserPropertiesJson(sb, userProperties);
+    @Override
+    public void logQos2Flow(final @NotNull Qos2Flow qos2Flow, final @NotNull ConnectionContext connection) {
+        final var json = JsonEncoder.get().beginRecord(timestampFormat, "QOS2_FLOW", direction(qos2Flow.isInbound()));
+        json.field(connection.getJsonClientIdField());
+        json.field("topic", qos2Flow.getTopic());
+        json.field("packetId", qos2Flow.getPacketId());
+        json.field("complete", qos2Flow.isComplete());
+        final var pubrecReasonCode = qos2Flow.getPubrecReasonCode();
+        if (pubrecReasonCode != null) {
+            json.field("pubrecReasonCode", pubrecReasonCode.name());
+            json.field("pubrecMicros", qos2Flow.getPubrecMicros());
+        }
+        final var pubrelReasonCode = qos2Flow.getPubrelReasonCode();
+        if (pubrelReasonCode != null) {
+            json.field("pubrelReasonCode", pubrelReasonCode.name());
+            json.field("pubrelMicros", qos2Flow.getPubrelMicros());
+        }
+        final var pubcompReasonCode = qos2Flow.getPubcompReasonCode();
+        if (pubcompReasonCode != null) {
+            json.field("pubcompReasonCode", pubcompReasonCode.name());
+            json.field("pubcompMicros", qos2Flow.getPubcompMicros());
         }
-        sb.append("}");
-        LOG.info(sb.toString());
+        json.field("durationMicros", qos2Flow.getDurationMicros());
+        write(json.endRecord(), EventLoggers.get(MessageType.QOS2_FLOW, qos2Flow.isInbound()));
     }
 
-    private static void appendJsonField(
-            final @NotNull StringBuilder sb,
-            final @NotNull String key,
-            final @Nullable String value) {
-        if (value == null) {
+    @Override
+    public void logSessionSummary(
+            final @NotNull SessionSummary sessionSummary,
+            final @NotNull ConnectionContext connection) {
+        final var json = JsonEncoder.get().beginRecord(timestampFormat, "SESSION_SUMMARY", "EVENT");
+        json.field(connection.getJsonClientIdField());
+        json.field("durationMillis", sessionSummary.getDurationMillis());
+        // packets array
+        json.key("packets").ascii('[');
+        final var packetCounts = sessionSummary.getPacketCounts();
+        for (int i = 0; i < packetCounts.size(); i++) {
+            if (i > 0) {
+                json.ascii(',');
+            }
+            final var packetCount = packetCounts.get(i);
+            json.beginObject();
+            json.field("messageType", packetCount.getMessageType().name());
+            json.field("direction", direction(packetCount.isInbound()));
+            json.field("count", packetCount.getCount());
+            json.ascii('}');
+        }
+        json.ascii(']');
+        appendPublishSummary(json, sessionSummary, true);
+        appendPublishSummary(json, sessionSummary, false);
+        json.field("distinctTopics", sessionSummary.getDistinctTopics());
+        final var errors = sessionSummary.getErrors();
+        if (!errors.isEmpty()) {
+            json.key("errors").ascii('[');
+            for (int i = 0; i < errors.size(); i++) {
+                if (i > 0) {
+                    json.ascii(',');
+                }
+                final var error = errors.get(i);
+                json.beginObject();
+                json.field("messageType", error.getMessageType().name());
+                json.field("direction", direction(error.isInbound()));
+                json.field("reasonCode", error.getReasonCode());
+                json.field("count", error.getCount());
+                json.ascii('}');
+            }
+            json.ascii(']');
+        }
+        write(json.endRecord(), EventLoggers.get(MessageType.SESSION_SUMMARY, Direction.EVENT));
+    }
+
+    @Override
+    public void logPingDigest(final @NotNull PingDigest pingDigest) {
+        final var json = JsonEncoder.get().beginRecord(timestampFormat, "PING_DIGEST", "EVENT");
+        json.field("durationMillis", pingDigest.getDurationMillis());
+        json.field("pingreqs", pingDigest.getPingreqs());
+        json.field("pingresps", pingDigest.getPingresps());
+        json.field("clients", pingDigest.getClients());
+        json.field("outlierClients", pingDigest.getOutlierClients());
+        final var outliers = pingDigest.getOutliers();
+        if (!outliers.isEmpty()) {
+            json.key("outliers").ascii('[');
+            for (int i = 0; i < outliers.size(); i++) {
+                if (i > 0) {
+                    json.ascii(',');
+                }
+                final var outlier = outliers.get(i);
+                json.beginObject();
+                json.field("clientId", outlier.getClientId());
+                json.field("keepAlive", outlier.getKeepAlive());
+                json.field("intervalMillis", outlier.getIntervalMillis());
+                json.ascii('}');
+            }
+            json.ascii(']');
+        }
+        write(json.endRecord(), EventLoggers.get(MessageType.PING_DIGEST, Direction.EVENT));
+    }
+
+    @Override
+    public void logRepeated(final @NotNull RepeatedEvent repeatedEvent) {
+        final var json = JsonEncoder.get().beginRecord(timestampFormat, "REPEATED", "EVENT");
+        json.field("repeatedMessageType", repeatedEvent.getMessageType().name());
+        json.field("repeatedDirection", repeatedEvent.getDirection().name());
+        json.field("clientId", repeatedEvent.getClientId());
+        if (repeatedEvent.getTopic() != null) {
+            json.field("topic", repeatedEvent.getTopic());
+        }
+        if (repeatedEvent.getReasonCode() != null) {
+            json.field("reasonCode", repeatedEvent.getReasonCode());
+        }
+        json.field("count", repeatedEvent.getCount());
+        json.field("firstMillis", repeatedEvent.getFirstMillis());
+        json.field("lastMillis", repeatedEvent.getLastMillis());
+        write(json.endRecord(), EventLoggers.get(repeatedEvent.getMessageType(), repeatedEvent.getDirection()));
+    }
+
+    @Override
+    public void logSuppressed(final @NotNull SuppressedEvents suppressedEvents) {
+        final var json = JsonEncoder.get().beginRecord(timestampFormat, "SUPPRESSED", "EVENT");
+        json.field("clientId", suppressedEvents.getClientId());
+        json.field("count", suppressedEvents.getCount());
+        write(json.endRecord(), EventLoggers.get(MessageType.SUPPRESSED, Direction.EVENT));
+    }
+
+    private static void appendPublishSummary(
+            final @NotNull JsonEncoder json,
+            final @NotNull SessionSummary sessionSummary,
+            final boolean inbound) {
+        if (sessionSummary.getPackets(MessageType.PUBLISH, inbound) == 0) {
             return;
         }
-        sb.append(",\"").append(key).append("\":\"");
-        appendJsonEscaped(sb, value);
-        sb.append("\"");
+        json.field(inbound ? "payloadBytesInbound" : "payloadBytesOutbound", sessionSummary.getPayloadBytes(inbound));
+        json.key(inbound ? "qosInbound" : "qosOutbound").ascii('[');
+        for (int qos = 0; qos < 3; qos++) {
+            if (qos > 0) {
+                json.ascii(',');
+            }
+            json.number(sessionSummary.getPublishes(qos, inbound));
+        }
+        json.ascii(']');
     }
 
-    private static void appendJsonField(final @NotNull StringBuilder sb, final @NotNull String key, final long value) {
-        sb.append(",\"").append(key).append("\":").append(value);
+    private @NotNull JsonEncoder beginPubRecord(
+            final @NotNull String messageType,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound,
+            final @NotNull String reasonCode) {
+        final var json = JsonEncoder.get().beginRecord(timestampFormat, messageType, direction(inbound));
+        json.field(connection.getJsonClientIdField());
+        json.field("reasonCode", reasonCode);
+        return json;
     }
 
-    private static void appendJsonField(final @NotNull StringBuilder sb, final @NotNull String key, final int value) {
-        sb.append(",\"").append(key).append("\":").append(value);
+    /**
+     * Writes a finished record to the sink, or logs it with the logger of its event type if there is no sink.
+     */
+    void write(final @NotNull JsonEncoder json, final @NotNull Logger logger) {
+        if (sink != null) {
+            sink.write(json.asByteBuffer());
+        } else {
+            Slf4jLogSink.write(logger, json.asByteBuffer());
+        }
     }
 
-    private static void appendJsonField(
-            final @NotNull StringBuilder sb,
-            final @NotNull String key,
-            final boolean value) {
-        sb.append(",\"").append(key).append("\":").append(value);
-    }
-
-    private static void appendJsonEscaped(final @NotNull StringBuilder sb, final @NotNull String str) {
-        for (int i = 0; i < str.length(); i++) {
-            final var c = str.charAt(i);
-            switch (c) {
-                case '"' :
-                    sb.append("\\\"");
-                    break;
-                case '\\' :
-                    sb.append("\\\\");
-                    break;
-                case '\n' :
-                    sb.append("\\n");
-                    break;
-                case '\r' :
-                    sb.append("\\r");
-                    break;
-                case '\t' :
-                    sb.append("\\t");
-                    break;
-                case '\b' :
-                    sb.append("\\b");
-                    break;
-                case '\f' :
-                    sb.append("\\f");
-                    break;
-                default :
-                    if (c < 32) {
-                        // control character - Unicode escape
-                        sb.append(String.format("\\u%04x", (int) c));
-                    } else {
-                        sb.append(c);
-                    }
-                    break;
-            }
-        }
-    }
-
-    private static void appendUserPropertiesJson(
-            final @NotNull StringBuilder sb,
+    private static @NotNull String direction(final boolean inbound) {
+        return inbound ? "INBOUND" : "OUTBOUND";
+    }
+
+    private static void appendUserProperties(
+            final @NotNull JsonEncoder json,
             final @NotNull UserProperties userProperties) {
         final var list = userProperties.asList();
         if (list.isEmpty()) {
             return;
         }
-        sb.append(",\"userProperties\":[");
+        json.key("userProperties").ascii('[');
         for (int i = 0; i < list.size(); i++) {
             if (i > 0) {
-                sb.append(",");
+                json.ascii(',');
             }
-            sb.append("{\"name\":\"");
-            appendJsonEscaped(sb, list.get(i).getName());
-            sb.append("\",\"value\":\"");
-            appendJsonEscaped(sb, list.get(i).getValue());
-            sb.append("\"}");
+            json.ascii("{\"name\":\"").escaped(list.get(i).getName());
+            json.ascii("\",\"value\":\"").escaped(list.get(i).getValue());
+            json.ascii("\"}");
         }
-        sb.append("]");
+        json.ascii(']');
     }
 
     @SuppressWarnings("SameParameterValue")
-    private static void appendJsonArray(
-            final @NotNull StringBuilder sb,
+    private static void appendArray(
+            final @NotNull JsonEncoder json,
             final @NotNull String key,
             final @NotNull List<Integer> values) {
         if (values.isEmpty()) {
             return;
         }
-        sb.append(",\"").append(key).append("\":[");
+        json.key(key).ascii('[');
         for (int i = 0; i < values.size(); i++) {
             if (i > 0) {
-                sb.append(",");
+                json.ascii(',');
             }
-            sb.append(values.get(i));
+            json.number(values.get(i));
         }
-        sb.append("]");
+        json.ascii(']');
     }
 
-    private static void appendWillJson(
-            final @NotNull StringBuilder sb,
+    /**
+     * Appends the payload, or its head, tail, size and hash if it is larger than the limit.
+     */
+    private static void appendPayload(
+            final @NotNull JsonEncoder json,
+            final @NotNull ByteBuffer payload,
+            final @NotNull PayloadLimit limit) {
+        if (!limit.truncates(payload)) {
+            json.binaryField("payload", "payloadBase64", payload);
+            return;
+        }
+        json.binaryField("payloadHead", "payloadHeadBase64", limit.head(payload));
+        final var tail = limit.tail(payload);
+        if (tail.hasRemaining()) {
+            json.binaryField("payloadTail", "payloadTailBase64", tail);
+        }
+        json.field("payloadSize", payload.remaining());
+        json.field("payloadHash", asHexString(xxHash64(payload)));
+    }
+
+    /**
+     * @param payloadLimit the limit of the payload, or null if the payload is not included
+     */
+    private static void appendWill(
+            final @NotNull JsonEncoder json,
             final @NotNull WillPublishPacket willPublishPacket,
-            final boolean includePayload) {
-        sb.append(",\"will\":{");
-        sb.append("\"topic\":\"");
-        appendJsonEscaped(sb, willPublishPacket.getTopic());
-        sb.append("\",\"qos\":").append(willPublishPacket.getQos().getQosNumber());
-        sb.append(",\"retained\":").append(willPublishPacket.getRetain());
-        sb.append(",\"willDelay\":").append(willPublishPacket.getWillDelay());
-        if (includePayload && willPublishPacket.getPayload().isPresent()) {
-            final var payloadBuffer = willPublishPacket.getPayload().get();
-            appendOptionalBinary(payloadBuffer, sb, "payload", "payloadBase64");
+            final @Nullable PayloadLimit payloadLimit) {
+        json.key("will").ascii("{\"topic\":\"").escaped(willPublishPacket.getTopic()).ascii('"');
+        json.field("qos", willPublishPacket.getQos().getQosNumber());
+        json.field("retained", willPublishPacket.getRetain());
+        json.field("willDelay", willPublishPacket.getWillDelay());
+        if (payloadLimit != null && willPublishPacket.getPayload().isPresent()) {
+            appendPayload(json, willPublishPacket.getPayload().get(), payloadLimit);
         }
         if (willPublishPacket.getMessageExpiryInterval().isPresent()) {
-            sb.append(",\"messageExpiryInterval\":").append(willPublishPacket.getMessageExpiryInterval().get());
+            json.field("messageExpiryInterval", willPublishPacket.getMessageExpiryInterval().get());
         }
         if (willPublishPacket.getCorrelationData().isPresent()) {
-            final var stringFromByteBuffer = getStringFromByteBuffer(willPublishPacket.getCorrelationData().get());
-            if (stringFromByteBuffer != null) {
-                sb.append(",\"correlationData\":\"");
-                appendJsonEscaped(sb, stringFromByteBuffer);
-                sb.append("\"");
-            }
+            json.field("correlationData", getStringFromByteBuffer(willPublishPacket.getCorrelationData().get()));
         }
         if (willPublishPacket.getResponseTopic().isPresent()) {
-            sb.append(",\"responseTopic\":\"");
-            appendJsonEscaped(sb, willPublishPacket.getResponseTopic().get());
-            sb.append("\"");
+            json.field("responseTopic", willPublishPacket.getResponseTopic().get());
         }
         if (willPublishPacket.getContentType().isPresent()) {
-            sb.append(",\"contentType\":\"");
-            appendJsonEscaped(sb, willPublishPacket.getContentType().get());
-            sb.append("\"");
+            json.field("contentType", willPublishPacket.getContentType().get());
         }
         if (willPublishPacket.getPayloadFormatIndicator().isPresent()) {
-            sb.append(",\"payloadFormatIndicator\":\"");
-            sb.append(willPublishPacket.getPayloadFormatIndicator().get().name());
-            sb.append("\"");
-        }
-        final var userProps = willPublishPacket.getUserProperties();
-        if (!userProps.asList().isEmpty()) {
-            appendUserPropertiesJson(sb, userProps);
-        }
-        sb.append("}");
-    }
-
-    private static void appendOptionalBinary(
-            final @NotNull ByteBuffer buffer,
-            final @NotNull StringBuilder sb,
-            final @NotNull String asciiKey,
-            final @NotNull String base64Key) {
-        final var bufferString = getStringFromByteBuffer(buffer);
-        if (StringUtils.isAsciiPrintable(bufferString)) {
-            appendJsonField(sb, asciiKey, bufferString);
-        } else {
-            appendJsonField(sb, base64Key, Base64.getEncoder().encodeToString(getBytes(buffer)));
+            json.field("payloadFormatIndicator", willPublishPacket.getPayloadFormatIndicator().get().name());
         }
+        appendUserProperties(json, willPublishPacket.getUserProperties());
+        json.ascii('}');
     }
 }
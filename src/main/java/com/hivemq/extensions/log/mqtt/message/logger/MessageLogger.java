@@ -31,6 +31,9 @@ import com.hivemq.extension.sdk.api.packets.pubcomp.PubcompPacket;
 import com.hivemq.extension.sdk.api.packets.publish.PublishPacket;
 import com.hivemq.extension.sdk.api.packets.pubrec.PubrecPacket;
 import com.hivemq.extension.sdk.api.packets.pubrel.PubrelPacket;
+import com.hivemq.extensions.log.mqtt.message.flow.PingDigest;
+import com.hivemq.extensions.log.mqtt.message.flow.Qos2Flow;
+import com.hivemq.extensions.log.mqtt.message.flow.SessionSummary;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,15 +47,25 @@ public interface MessageLogger {
 
     @NotNull Logger LOG = LoggerFactory.getLogger(MessageLogger.class);
 
-    void logDisconnect(@NotNull String message, @NotNull DisconnectEventInput disconnectEventInput);
+    /**
+     * Logs a DISCONNECT of the client lifecycle, which is received from the client if it initiated the disconnect or
+     * sent to the client otherwise.
+     */
+    void logDisconnect(
+            @NotNull DisconnectEventInput disconnectEventInput,
+            @NotNull ConnectionContext connection,
+            boolean inbound);
 
-    void logDisconnect(@NotNull DisconnectPacket disconnectPacket, @NotNull String clientId, boolean inbound);
+    void logDisconnect(
+            @NotNull DisconnectPacket disconnectPacket,
+            @NotNull ConnectionContext connection,
+            boolean inbound);
 
     void logConnect(@NotNull ConnectPacket connectPacket);
 
     void logConnack(@NotNull ConnackOutboundInput connackOutboundInput);
 
-    void logPublish(@NotNull String prefix, @NotNull PublishPacket publishPacket);
+    void logPublish(@NotNull PublishPacket publishPacket, @NotNull ConnectionContext connection, boolean inbound);
 
     void logSubscribe(@NotNull SubscribeInboundInput subscribeInboundInput);
 
@@ -66,11 +79,60 @@ public interface MessageLogger {
 
     void logPingresp(@NotNull PingRespOutboundInput pingRespOutboundInput);
 
-    void logPuback(@NotNull PubackPacket pubackPacket, @NotNull String clientId, boolean inbound);
-
-    void logPubrec(@NotNull PubrecPacket pubrecPacket, @NotNull String clientId, boolean inbound);
-
-    void logPubrel(@NotNull PubrelPacket pubrelPacket, @NotNull String clientId, boolean inbound);
-
-    void logPubcomp(@NotNull PubcompPacket pubcompPacket, @NotNull String clientId, boolean inbound);
+    void logPuback(@NotNull PubackPacket pubackPacket, @NotNull ConnectionContext connection, boolean inbound);
+
+    /**
+     * Logs a PUBACK together with the time since the QoS 1 PUBLISH it acknowledges was sent or received.
+     *
+     * @param ackLatencyMicros the microseconds since the PUBLISH, negative if the PUBLISH is not known
+     * @since 1.4.0
+     */
+    default void logPuback(
+            final @NotNull PubackPacket pubackPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound,
+            final long ackLatencyMicros) {
+        logPuback(pubackPacket, connection, inbound);
+    }
+
+    void logPubrec(@NotNull PubrecPacket pubrecPacket, @NotNull ConnectionContext connection, boolean inbound);
+
+    void logPubrel(@NotNull PubrelPacket pubrelPacket, @NotNull ConnectionContext connection, boolean inbound);
+
+    void logPubcomp(@NotNull PubcompPacket pubcompPacket, @NotNull ConnectionContext connection, boolean inbound);
+
+    /**
+     * Logs the PUBLISH, PUBREC, PUBREL and PUBCOMP packets of a QoS 2 delivery as a single record.
+     *
+     * @since 1.4.0
+     */
+    void logQos2Flow(@NotNull Qos2Flow qos2Flow, @NotNull ConnectionContext connection);
+
+    /**
+     * Logs the packet counters of a connection as a single record when the connection is closed.
+     *
+     * @since 1.4.0
+     */
+    void logSessionSummary(@NotNull SessionSummary sessionSummary, @NotNull ConnectionContext connection);
+
+    /**
+     * Logs the pings of all connections within a digest interval as a single record.
+     *
+     * @since 1.4.0
+     */
+    void logPingDigest(@NotNull PingDigest pingDigest);
+
+    /**
+     * Logs the suppressed repetitions of an event as a single record.
+     *
+     * @since 1.4.0
+     */
+    void logRepeated(@NotNull RepeatedEvent repeatedEvent);
+
+    /**
+     * Logs the number of events of a client that were suppressed by the rate limit as a single record.
+     *
+     * @since 1.4.0
+     */
+    void logSuppressed(@NotNull SuppressedEvents suppressedEvents);
 }
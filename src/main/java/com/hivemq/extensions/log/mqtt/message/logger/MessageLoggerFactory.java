@@ -16,7 +16,13 @@
 
 package com.hivemq.extensions.log.mqtt.message.logger;
 
+import com.hivemq.extensions.log.mqtt.message.config.LogPolicy;
+import com.hivemq.extensions.log.mqtt.message.sink.LogSink;
+import com.hivemq.extensions.log.mqtt.message.topic.TopicFilter;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Supplier;
 
 /**
  * Factory for creating MessageLogger instances based on the desired format.
@@ -39,10 +45,95 @@ public class MessageLoggerFactory {
             final boolean payload,
             final boolean redactPassword,
             final @NotNull OutputFormat format) {
+        return createLogger(verbose, payload, redactPassword, format, null);
+    }
+
+    /**
+     * Creates an MessageLogger instance for the specified format that writes its records to the given sink.
+     *
+     * @param  format the desired output format
+     * @param  sink   the sink for the encoded records, or null to log via the {@link EventLoggers}, only used by the
+     *                JSON format
+     * @return        a MessageLogger implementation
+     */
+    public static @NotNull MessageLogger createLogger(
+            final boolean verbose,
+            final boolean payload,
+            final boolean redactPassword,
+            final @NotNull OutputFormat format,
+            final @Nullable LogSink sink) {
+        return createLogger(format,
+                fixedPolicy(verbose, payload, redactPassword, PayloadLimits.UNLIMITED),
+                sink);
+    }
+
+    /**
+     * Creates an MessageLogger instance for the specified format that reads the current {@link LogPolicy} for every
+     * event and writes its records to the given sink.
+     *
+     * @param  format        the desired output format
+     * @param  currentPolicy the supplier of the current policy, read once per event
+     * @param  sink          the sink for the encoded records, or null to log via the {@link EventLoggers}, not used
+     *                       by the plain text format and required by the CBOR and binary formats
+     * @return               a MessageLogger implementation
+     * @throws IllegalArgumentException if the CBOR or binary format is requested without a sink
+     */
+    public static @NotNull MessageLogger createLogger(
+            final @NotNull OutputFormat format,
+            final @NotNull Supplier<LogPolicy> currentPolicy,
+            final @Nullable LogSink sink) {
+        return createLogger(format, null, currentPolicy, sink);
+    }
+
+    /**
+     * Creates an MessageLogger instance for the specified format and timestamp format that reads the current
+     * {@link LogPolicy} for every event and writes its records to the given sink.
+     *
+     * @param  format          the desired output format
+     * @param  timestampFormat the format of the event timestamps, or null for the default of the output format, which
+     *                         is epoch milliseconds for JSON and CBOR and no timestamp for plain text, the binary
+     *                         format always uses epoch milliseconds
+     * @param  currentPolicy   the supplier of the current policy, read once per event
+     * @param  sink            the sink for the encoded records, or null to log via the {@link EventLoggers}, not
+     *                         used by the plain text format and required by the CBOR and binary formats
+     * @return                 a MessageLogger implementation
+     * @throws IllegalArgumentException if the CBOR or binary format is requested without a sink
+     */
+    public static @NotNull MessageLogger createLogger(
+            final @NotNull OutputFormat format,
+            final @Nullable TimestampFormat timestampFormat,
+            final @NotNull Supplier<LogPolicy> currentPolicy,
+            final @Nullable LogSink sink) {
+        final var recordTimestampFormat = timestampFormat != null ? timestampFormat : TimestampFormat.EPOCH_MILLIS;
         if (format == OutputFormat.JSON) {
-            return new JsonMessageLogger(verbose, payload, redactPassword);
+            return new JsonMessageLogger(currentPolicy, recordTimestampFormat, sink);
+        } else if (format == OutputFormat.CBOR) {
+            if (sink == null) {
+                throw new IllegalArgumentException("The cbor output format requires a sink");
+            }
+            return new CborMessageLogger(currentPolicy, recordTimestampFormat, sink);
+        } else if (format == OutputFormat.BINARY) {
+            if (sink == null) {
+                throw new IllegalArgumentException("The binary output format requires a sink");
+            }
+            return new BinaryMessageLogger(currentPolicy, sink);
+        } else if (timestampFormat != null) {
+            return new TimestampMdcMessageLogger(new PlainTextMessageLogger(currentPolicy), timestampFormat);
         } else {
-            return new PlainTextMessageLogger(verbose, payload, redactPassword);
+            return new PlainTextMessageLogger(currentPolicy);
         }
     }
+
+    /**
+     * @return a supplier of a policy with all event types enabled that never changes
+     */
+    static @NotNull Supplier<LogPolicy> fixedPolicy(
+            final boolean verbose,
+            final boolean payload,
+            final boolean redactPassword,
+            final @NotNull PayloadLimits payloadLimits) {
+        final var policy =
+                new LogPolicy(LogPolicy.ALL_EVENTS, verbose, payload, redactPassword, payloadLimits, TopicFilter.ALL);
+        return () -> policy;
+    }
 }
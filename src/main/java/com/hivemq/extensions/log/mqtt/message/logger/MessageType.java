@@ -0,0 +1,44 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+/**
+ * The MQTT message types the extension logs.
+ *
+ * @since 1.4.0
+ */
+public enum MessageType {
+    CONNECT,
+    CONNACK,
+    DISCONNECT,
+    PUBLISH,
+    SUBSCRIBE,
+    SUBACK,
+    UNSUBSCRIBE,
+    UNSUBACK,
+    PINGREQ,
+    PINGRESP,
+    PUBACK,
+    PUBREC,
+    PUBREL,
+    PUBCOMP,
+    QOS2_FLOW,
+    SESSION_SUMMARY,
+    PING_DIGEST,
+    REPEATED,
+    SUPPRESSED
+}
@@ -31,5 +31,19 @@ public enum OutputFormat {
     /**
      * JSON format (structured, machine-parsable format).
      */
-    JSON
+    JSON,
+
+    /**
+     * CBOR format with the fields of the JSON format and binary data as byte strings, see {@link CborMessageLogger}.
+     *
+     * @since 1.4.0
+     */
+    CBOR,
+
+    /**
+     * Compact binary format with per-segment dictionaries, see {@link BinaryLogDecoder}.
+     *
+     * @since 1.4.0
+     */
+    BINARY
 }
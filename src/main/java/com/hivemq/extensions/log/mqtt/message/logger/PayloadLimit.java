@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Limits how much of a payload is logged. Larger payloads are logged with their first and last bytes, their size and
+ * their hash, so the cost of formatting them does not depend on the payload size.
+ *
+ * @since 1.4.0
+ */
+public class PayloadLimit {
+
+    public static final @NotNull PayloadLimit UNLIMITED = new PayloadLimit(0, 0);
+
+    private final int headBytes;
+    private final int tailBytes;
+
+    /**
+     * @param headBytes the number of leading bytes that are logged, or {@code 0} to log payloads in full
+     * @param tailBytes the number of trailing bytes that are additionally logged
+     */
+    public PayloadLimit(final int headBytes, final int tailBytes) {
+        this.headBytes = headBytes;
+        this.tailBytes = headBytes > 0 ? tailBytes : 0;
+    }
+
+    /**
+     * @return whether the payload is larger than the logged bytes
+     */
+    boolean truncates(final @NotNull ByteBuffer payload) {
+        return headBytes > 0 && payload.remaining() > headBytes + tailBytes;
+    }
+
+    /**
+     * @return a view of the leading bytes of a payload that {@link #truncates(ByteBuffer) is truncated}
+     */
+    @NotNull ByteBuffer head(final @NotNull ByteBuffer payload) {
+        final var head = payload.duplicate();
+        head.limit(head.position() + headBytes);
+        return head;
+    }
+
+    /**
+     * @return a view of the trailing bytes of a payload that {@link #truncates(ByteBuffer) is truncated}
+     */
+    @NotNull ByteBuffer tail(final @NotNull ByteBuffer payload) {
+        final var tail = payload.duplicate();
+        tail.position(tail.limit() - tailBytes);
+        return tail;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The {@link PayloadLimit}s of the event types that contain a payload.
+ *
+ * @since 1.4.0
+ */
+public class PayloadLimits {
+
+    public static final @NotNull PayloadLimits UNLIMITED =
+            new PayloadLimits(PayloadLimit.UNLIMITED, PayloadLimit.UNLIMITED, PayloadLimit.UNLIMITED);
+
+    private final @NotNull PayloadLimit publishReceived;
+    private final @NotNull PayloadLimit publishSend;
+    private final @NotNull PayloadLimit will;
+
+    public PayloadLimits(
+            final @NotNull PayloadLimit publishReceived,
+            final @NotNull PayloadLimit publishSend,
+            final @NotNull PayloadLimit will) {
+        this.publishReceived = publishReceived;
+        this.publishSend = publishSend;
+        this.will = will;
+    }
+
+    @NotNull PayloadLimit getPublish(final boolean inbound) {
+        return inbound ? publishReceived : publishSend;
+    }
+
+    @NotNull PayloadLimit getWill() {
+        return will;
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.hivemq.extensions.log.mqtt.message.logger;
 
+import com.hivemq.extension.sdk.api.events.client.parameters.AuthenticationFailedInput;
 import com.hivemq.extension.sdk.api.events.client.parameters.DisconnectEventInput;
 import com.hivemq.extension.sdk.api.interceptor.connack.parameter.ConnackOutboundInput;
 import com.hivemq.extension.sdk.api.interceptor.pingreq.parameter.PingReqInboundInput;
@@ -34,12 +35,21 @@ import com.hivemq.extension.sdk.api.packets.publish.PublishPacket;
 import com.hivemq.extension.sdk.api.packets.pubrec.PubrecPacket;
 import com.hivemq.extension.sdk.api.packets.pubrel.PubrelPacket;
 import com.hivemq.extension.sdk.api.packets.subscribe.Subscription;
-import org.apache.commons.lang3.StringUtils;
+import com.hivemq.extensions.log.mqtt.message.config.LogPolicy;
+import com.hivemq.extensions.log.mqtt.message.flow.PingDigest;
+import com.hivemq.extensions.log.mqtt.message.flow.Qos2Flow;
+import com.hivemq.extensions.log.mqtt.message.flow.SessionSummary;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.nio.ByteBuffer;
+import java.time.Instant;
 import java.util.Base64;
+import java.util.function.Supplier;
 
+import static com.hivemq.extensions.log.mqtt.message.util.HashUtil.xxHash64;
+import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.asHexString;
+import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.getAsciiPrintableString;
 import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.getHexStringFromByteBuffer;
 import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.getStringFromByteBuffer;
 
@@ -50,9 +60,7 @@ import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.getStringFr
  */
 class PlainTextMessageLogger implements MessageLogger {
 
-    final boolean verbose;
-    final boolean payload;
-    final boolean redactPassword;
+    private final @NotNull Supplier<LogPolicy> currentPolicy;
 
     /**
      * Creates a PlainTextMessageLogger with the specified configuration.
@@ -62,21 +70,58 @@ class PlainTextMessageLogger implements MessageLogger {
      * @param redactPassword whether to redact passwords
      */
     PlainTextMessageLogger(final boolean verbose, final boolean payload, final boolean redactPassword) {
-        this.verbose = verbose;
-        this.payload = payload;
-        this.redactPassword = redactPassword;
+        this(verbose, payload, redactPassword, PayloadLimits.UNLIMITED);
+    }
+
+    /**
+     * Creates a PlainTextMessageLogger with the specified configuration.
+     *
+     * @param verbose        whether to include verbose details
+     * @param payload        whether to include message payloads
+     * @param redactPassword whether to redact passwords
+     * @param payloadLimits  how much of the payloads is included
+     */
+    PlainTextMessageLogger(
+            final boolean verbose,
+            final boolean payload,
+            final boolean redactPassword,
+            final @NotNull PayloadLimits payloadLimits) {
+        this(MessageLoggerFactory.fixedPolicy(verbose, payload, redactPassword, payloadLimits));
+    }
+
+    /**
+     * Creates a PlainTextMessageLogger that reads the current policy for every event.
+     *
+     * @param currentPolicy the supplier of the current policy
+     */
+    PlainTextMessageLogger(final @NotNull Supplier<LogPolicy> currentPolicy) {
+        this.currentPolicy = currentPolicy;
     }
 
     @Override
-    public void logDisconnect(final @NotNull String message, final @NotNull DisconnectEventInput disconnectEventInput) {
-        if (!verbose) {
-            LOG.info("{}: Reason Code: '{}'", message, disconnectEventInput.getReasonCode().orElse(null));
+    public void logDisconnect(
+            final @NotNull DisconnectEventInput disconnectEventInput,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var logger = EventLoggers.get(MessageType.DISCONNECT, inbound);
+        final var policy = currentPolicy.get();
+        final var event = inbound ? "Received DISCONNECT from client" : "Sent DISCONNECT to client";
+        final var cause =
+                disconnectEventInput instanceof AuthenticationFailedInput ? " because authentication failed" : "";
+        if (!policy.isVerbose()) {
+            logger.info("{} '{}'{}: Reason Code: '{}'",
+                    event,
+                    connection.getClientId(),
+                    cause,
+                    disconnectEventInput.getReasonCode().orElse(null));
             return;
         }
         final var userPropertiesAsString =
                 getUserPropertiesAsString(disconnectEventInput.getUserProperties().orElse(null));
-        LOG.info("{}: Reason Code: '{}', Reason String: '{}', {}",
-                message,
+        logger.info("{} '{}'{}: Reason Code: '{}', Reason String: '{}', {}",
+                event,
+                connection.getClientId(),
+                cause,
                 disconnectEventInput.getReasonCode().orElse(null),
                 disconnectEventInput.getReasonString().orElse(null),
                 userPropertiesAsString);
@@ -85,14 +130,18 @@ class PlainTextMessageLogger implements MessageLogger {
     @Override
     public void logDisconnect(
             final @NotNull DisconnectPacket disconnectPacket,
-            final @NotNull String clientId,
+            final @NotNull ConnectionContext connection,
             final boolean inbound) {
+        final var logger = EventLoggers.get(MessageType.DISCONNECT, inbound);
+        final var policy = currentPolicy.get();
         final var reasonCode = disconnectPacket.getReasonCode();
-        if (!verbose) {
+        if (!policy.isVerbose()) {
             if (inbound) {
-                LOG.info("Received DISCONNECT from client '{}': Reason Code: '{}'", clientId, reasonCode);
+                logger.info("Received DISCONNECT from client '{}': Reason Code: '{}'",
+                        connection.getClientId(),
+                        reasonCode);
             } else {
-                LOG.info("Sent DISCONNECT to client '{}': Reason Code: '{}'", clientId, reasonCode);
+                logger.info("Sent DISCONNECT to client '{}': Reason Code: '{}'", connection.getClientId(), reasonCode);
             }
             return;
         }
@@ -101,18 +150,18 @@ class PlainTextMessageLogger implements MessageLogger {
         final var serverReference = disconnectPacket.getServerReference().orElse(null);
         final var sessionExpiry = disconnectPacket.getSessionExpiryInterval().orElse(null);
         if (inbound) {
-            LOG.info(
+            logger.info(
                     "Received DISCONNECT from client '{}': Reason Code: '{}', Reason String: '{}', Server Reference: '{}', Session Expiry: '{}', {}",
-                    clientId,
+                    connection.getClientId(),
                     reasonCode,
                     reasonString,
                     serverReference,
                     sessionExpiry,
                     userPropertiesAsString);
         } else {
-            LOG.info(
+            logger.info(
                     "Sent DISCONNECT to client '{}': Reason Code: '{}', Reason String: '{}', Server Reference: '{}', Session Expiry: '{}', {}",
-                    clientId,
+                    connection.getClientId(),
                     reasonCode,
                     reasonString,
                     serverReference,
@@ -123,8 +172,10 @@ class PlainTextMessageLogger implements MessageLogger {
 
     @Override
     public void logConnect(final @NotNull ConnectPacket connectPacket) {
-        if (!verbose) {
-            LOG.info(
+        final var logger = EventLoggers.get(MessageType.CONNECT, Direction.INBOUND);
+        final var policy = currentPolicy.get();
+        if (!policy.isVerbose()) {
+            logger.info(
                     "Received CONNECT from client '{}': Protocol version: '{}', Clean Start: '{}', Session Expiry Interval: '{}'",
                     connectPacket.getClientId(),
                     connectPacket.getMqttVersion().name(),
@@ -133,17 +184,19 @@ class PlainTextMessageLogger implements MessageLogger {
             return;
         }
         final var userPropertiesAsString = getUserPropertiesAsString(connectPacket.getUserProperties());
-        final var passwordAsString = getStringFromByteBuffer(connectPacket.getPassword().orElse(null));
+        final var password = connectPacket.getPassword().orElse(null);
         final String passwordProperty;
 
-        if (redactPassword) {
+        if (policy.isRedactPassword()) {
             passwordProperty = "Password: <redacted>";
+        } else if (password == null) {
+            passwordProperty = "Password: 'null'";
         } else {
-            if (StringUtils.isAsciiPrintable(passwordAsString) || passwordAsString == null) {
+            final var passwordAsString = getAsciiPrintableString(password);
+            if (passwordAsString != null) {
                 passwordProperty = "Password: '" + passwordAsString + "'";
             } else {
-                passwordProperty = "Password (Hex): '" +
-                        getHexStringFromByteBuffer(connectPacket.getPassword().orElse(null)) + "'";
+                passwordProperty = "Password (Hex): '" + getHexStringFromByteBuffer(password) + "'";
             }
         }
         final String authDataAsString;
@@ -155,11 +208,11 @@ class PlainTextMessageLogger implements MessageLogger {
         }
         final String willString;
         if (connectPacket.getWillPublish().isPresent()) {
-            willString = getWillAsString(connectPacket.getWillPublish().get());
+            willString = getWillAsString(policy, connectPacket.getWillPublish().get());
         } else {
             willString = "";
         }
-        LOG.info(
+        logger.info(
                 "Received CONNECT from client '{}': Protocol version: '{}', Clean Start: '{}', Session Expiry Interval: '{}'," +
                         " Keep Alive: '{}', Maximum Packet Size: '{}', Receive Maximum: '{}', Topic Alias Maximum: '{}'," +
                         " Request Problem Information: '{}', Request Response Information: '{}'," +
@@ -184,10 +237,12 @@ class PlainTextMessageLogger implements MessageLogger {
 
     @Override
     public void logConnack(final @NotNull ConnackOutboundInput connackOutboundInput) {
+        final var logger = EventLoggers.get(MessageType.CONNACK, Direction.OUTBOUND);
+        final var policy = currentPolicy.get();
         final var clientId = connackOutboundInput.getClientInformation().getClientId();
         final var connackPacket = connackOutboundInput.getConnackPacket();
-        if (!verbose) {
-            LOG.info("Sent CONNACK to client '{}': Reason Code: '{}', Session Present: '{}'",
+        if (!policy.isVerbose()) {
+            logger.info("Sent CONNACK to client '{}': Reason Code: '{}', Session Present: '{}'",
                     clientId,
                     connackPacket.getReasonCode(),
                     connackPacket.getSessionPresent());
@@ -201,7 +256,7 @@ class PlainTextMessageLogger implements MessageLogger {
         } else {
             authDataAsString = null;
         }
-        LOG.info(
+        logger.info(
                 "Sent CONNACK to client '{}': Reason Code: '{}', Session Present: '{}', Session Expiry Interval: '{}'," +
                         " Assigned ClientId '{}', Maximum QoS: '{}', Maximum Packet Size: '{}', Receive Maximum: '{}'," +
                         " Topic Alias Maximum: '{}', Reason String: '{}', Response Information: '{}', Server Keep Alive: '{}'," +
@@ -231,18 +286,36 @@ class PlainTextMessageLogger implements MessageLogger {
     }
 
     @Override
-    public void logPublish(final @NotNull String prefix, final @NotNull PublishPacket publishPacket) {
+    public void logPublish(
+            final @NotNull PublishPacket publishPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var logger = EventLoggers.get(MessageType.PUBLISH, inbound);
+        final var policy = currentPolicy.get();
         final var topic = publishPacket.getTopic();
-        final var publishString = getPublishAsString(publishPacket);
-        LOG.info("{} '{}': {}", prefix, topic, publishString);
+        final var payloadLimit = policy.getPayloadLimits().getPublish(inbound);
+        final var publishString = getPublishAsString(policy, publishPacket, payloadLimit);
+        if (inbound) {
+            logger.info("Received PUBLISH from client '{}' for topic '{}': {}",
+                    connection.getClientId(),
+                    topic,
+                    publishString);
+        } else {
+            logger.info("Sent PUBLISH to client '{}' on topic '{}': {}",
+                    connection.getClientId(),
+                    topic,
+                    publishString);
+        }
     }
 
     @Override
     public void logSubscribe(final @NotNull SubscribeInboundInput subscribeInboundInput) {
+        final var logger = EventLoggers.get(MessageType.SUBSCRIBE, Direction.INBOUND);
+        final var policy = currentPolicy.get();
         final var topics = new StringBuilder();
         final var clientId = subscribeInboundInput.getClientInformation().getClientId();
         final var subscribePacket = subscribeInboundInput.getSubscribePacket();
-        if (!verbose) {
+        if (!policy.isVerbose()) {
             topics.append("Topics: {");
             for (final Subscription sub : subscribePacket.getSubscriptions()) {
                 topics.append(" [Topic: '")
@@ -254,7 +327,7 @@ class PlainTextMessageLogger implements MessageLogger {
             // delete last comma
             topics.deleteCharAt(topics.length() - 1);
             topics.append(" }");
-            LOG.info("Received SUBSCRIBE from client '{}': {}", clientId, topics);
+            logger.info("Received SUBSCRIBE from client '{}': {}", clientId, topics);
             return;
         }
         topics.append("Topics: {");
@@ -276,7 +349,7 @@ class PlainTextMessageLogger implements MessageLogger {
         topics.append(" }");
         final var subscriptionIdentifier = subscribePacket.getSubscriptionIdentifier().orElse(null);
         final var userPropertiesAsString = getUserPropertiesAsString(subscribePacket.getUserProperties());
-        LOG.info("Received SUBSCRIBE from client '{}': {}, Subscription Identifier: '{}', {}",
+        logger.info("Received SUBSCRIBE from client '{}': {}, Subscription Identifier: '{}', {}",
                 clientId,
                 topics,
                 subscriptionIdentifier,
@@ -285,6 +358,8 @@ class PlainTextMessageLogger implements MessageLogger {
 
     @Override
     public void logUnsubscribe(final @NotNull UnsubscribeInboundInput unsubscribeInboundInput) {
+        final var logger = EventLoggers.get(MessageType.UNSUBSCRIBE, Direction.INBOUND);
+        final var policy = currentPolicy.get();
         final var topics = new StringBuilder();
         final var clientId = unsubscribeInboundInput.getClientInformation().getClientId();
         final var unsubscribePacket = unsubscribeInboundInput.getUnsubscribePacket();
@@ -295,16 +370,18 @@ class PlainTextMessageLogger implements MessageLogger {
         // delete last comma
         topics.deleteCharAt(topics.length() - 1);
         topics.append(" }");
-        if (!verbose) {
-            LOG.info("Received UNSUBSCRIBE from client '{}': {}", clientId, topics);
+        if (!policy.isVerbose()) {
+            logger.info("Received UNSUBSCRIBE from client '{}': {}", clientId, topics);
             return;
         }
         final var userPropertiesAsString = getUserPropertiesAsString(unsubscribePacket.getUserProperties());
-        LOG.info("Received UNSUBSCRIBE from client '{}': {}, {}", clientId, topics, userPropertiesAsString);
+        logger.info("Received UNSUBSCRIBE from client '{}': {}, {}", clientId, topics, userPropertiesAsString);
     }
 
     @Override
     public void logSuback(final @NotNull SubackOutboundInput subackOutboundInput) {
+        final var logger = EventLoggers.get(MessageType.SUBACK, Direction.OUTBOUND);
+        final var policy = currentPolicy.get();
         final var suback = new StringBuilder();
         final var clientId = subackOutboundInput.getClientInformation().getClientId();
         final var subackPacket = subackOutboundInput.getSubackPacket();
@@ -315,13 +392,13 @@ class PlainTextMessageLogger implements MessageLogger {
         // delete last comma
         suback.deleteCharAt(suback.length() - 1);
         suback.append(" }");
-        if (!verbose) {
-            LOG.info("Sent SUBACK to client '{}': {}", clientId, suback);
+        if (!policy.isVerbose()) {
+            logger.info("Sent SUBACK to client '{}': {}", clientId, suback);
             return;
         }
         final var userPropertiesAsString = getUserPropertiesAsString(subackPacket.getUserProperties());
         final var reasonString = subackPacket.getReasonString().orElse(null);
-        LOG.info("Sent SUBACK to client '{}': {}, Reason String: '{}', {}",
+        logger.info("Sent SUBACK to client '{}': {}, Reason String: '{}', {}",
                 clientId,
                 suback,
                 reasonString,
@@ -330,6 +407,8 @@ class PlainTextMessageLogger implements MessageLogger {
 
     @Override
     public void logUnsuback(final @NotNull UnsubackOutboundInput unsubackOutboundInput) {
+        final var logger = EventLoggers.get(MessageType.UNSUBACK, Direction.OUTBOUND);
+        final var policy = currentPolicy.get();
         final var unsuback = new StringBuilder();
         final var clientId = unsubackOutboundInput.getClientInformation().getClientId();
         final var unsubackPacket = unsubackOutboundInput.getUnsubackPacket();
@@ -340,13 +419,13 @@ class PlainTextMessageLogger implements MessageLogger {
         // delete last comma
         unsuback.deleteCharAt(unsuback.length() - 1);
         unsuback.append(" }");
-        if (!verbose) {
-            LOG.info("Sent UNSUBACK to client '{}': {}", clientId, unsuback);
+        if (!policy.isVerbose()) {
+            logger.info("Sent UNSUBACK to client '{}': {}", clientId, unsuback);
             return;
         }
         final var userPropertiesAsString = getUserPropertiesAsString(unsubackPacket.getUserProperties());
         final var reasonString = unsubackPacket.getReasonString().orElse(null);
-        LOG.info("Sent UNSUBACK to client '{}': {}, Reason String: '{}', {}",
+        logger.info("Sent UNSUBACK to client '{}': {}, Reason String: '{}', {}",
                 clientId,
                 unsuback,
                 reasonString,
@@ -355,72 +434,113 @@ class PlainTextMessageLogger implements MessageLogger {
 
     @Override
     public void logPingreq(final @NotNull PingReqInboundInput pingReqInboundInput) {
+        final var logger = EventLoggers.get(MessageType.PINGREQ, Direction.INBOUND);
         final var clientId = pingReqInboundInput.getClientInformation().getClientId();
-        LOG.info("Received PING REQUEST from client '{}'", clientId);
+        logger.info("Received PING REQUEST from client '{}'", clientId);
     }
 
     @Override
     public void logPingresp(final @NotNull PingRespOutboundInput pingRespOutboundInput) {
+        final var logger = EventLoggers.get(MessageType.PINGRESP, Direction.OUTBOUND);
         final var clientId = pingRespOutboundInput.getClientInformation().getClientId();
-        LOG.info("Sent PING RESPONSE to client '{}'", clientId);
+        logger.info("Sent PING RESPONSE to client '{}'", clientId);
     }
 
     @Override
     public void logPuback(
             final @NotNull PubackPacket pubackPacket,
-            final @NotNull String clientId,
+            final @NotNull ConnectionContext connection,
             final boolean inbound) {
+        final var logger = EventLoggers.get(MessageType.PUBACK, inbound);
+        final var policy = currentPolicy.get();
         final var reasonCode = pubackPacket.getReasonCode();
-        if (!verbose) {
+        if (!policy.isVerbose()) {
             if (inbound) {
-                LOG.info("Received PUBACK from client '{}': Reason Code: '{}'", clientId, reasonCode);
+                logger.info("Received PUBACK from client '{}': Reason Code: '{}'",
+                        connection.getClientId(),
+                        reasonCode);
             } else {
-                LOG.info("Sent PUBACK to client '{}': Reason Code: '{}'", clientId, reasonCode);
+                logger.info("Sent PUBACK to client '{}': Reason Code: '{}'", connection.getClientId(), reasonCode);
             }
             return;
         }
         final var userPropertiesAsString = getUserPropertiesAsString(pubackPacket.getUserProperties());
         final var reasonString = pubackPacket.getReasonString().orElse(null);
         if (inbound) {
-            LOG.info("Received PUBACK from client '{}': Reason Code: '{}', Reason String: '{}', {}",
-                    clientId,
+            logger.info("Received PUBACK from client '{}': Reason Code: '{}', Reason String: '{}', {}",
+                    connection.getClientId(),
                     reasonCode,
                     reasonString,
                     userPropertiesAsString);
         } else {
-            LOG.info("Sent PUBACK to client '{}': Reason Code: '{}', Reason String: '{}', {}",
-                    clientId,
+            logger.info("Sent PUBACK to client '{}': Reason Code: '{}', Reason String: '{}', {}",
+                    connection.getClientId(),
                     reasonCode,
                     reasonString,
                     userPropertiesAsString);
         }
     }
 
+    @Override
+    public void logPuback(
+            final @NotNull PubackPacket pubackPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound,
+            final long ackLatencyMicros) {
+        if (ackLatencyMicros < 0) {
+            logPuback(pubackPacket, connection, inbound);
+            return;
+        }
+        final var logger = EventLoggers.get(MessageType.PUBACK, inbound);
+        final var policy = currentPolicy.get();
+        final var packet = inbound ? "Received PUBACK from" : "Sent PUBACK to";
+        final var reasonCode = pubackPacket.getReasonCode();
+        if (!policy.isVerbose()) {
+            logger.info("{} client '{}': Reason Code: '{}', Ack Latency: '{}us'",
+                    packet,
+                    connection.getClientId(),
+                    reasonCode,
+                    ackLatencyMicros);
+            return;
+        }
+        logger.info("{} client '{}': Reason Code: '{}', Ack Latency: '{}us', Reason String: '{}', {}",
+                packet,
+                connection.getClientId(),
+                reasonCode,
+                ackLatencyMicros,
+                pubackPacket.getReasonString().orElse(null),
+                getUserPropertiesAsString(pubackPacket.getUserProperties()));
+    }
+
     @Override
     public void logPubrec(
             final @NotNull PubrecPacket pubrecPacket,
-            final @NotNull String clientId,
+            final @NotNull ConnectionContext connection,
             final boolean inbound) {
+        final var logger = EventLoggers.get(MessageType.PUBREC, inbound);
+        final var policy = currentPolicy.get();
         final var reasonCode = pubrecPacket.getReasonCode();
-        if (!verbose) {
+        if (!policy.isVerbose()) {
             if (inbound) {
-                LOG.info("Received PUBREC from client '{}': Reason Code: '{}'", clientId, reasonCode);
+                logger.info("Received PUBREC from client '{}': Reason Code: '{}'",
+                        connection.getClientId(),
+                        reasonCode);
             } else {
-                LOG.info("Sent PUBREC to client '{}': Reason Code: '{}'", clientId, reasonCode);
+                logger.info("Sent PUBREC to client '{}': Reason Code: '{}'", connection.getClientId(), reasonCode);
             }
             return;
         }
         final var userPropertiesAsString = getUserPropertiesAsString(pubrecPacket.getUserProperties());
         final var reasonString = pubrecPacket.getReasonString().orElse(null);
         if (inbound) {
-            LOG.info("Received PUBREC from client '{}': Reason Code: '{}', Reason String: '{}', {}",
-                    clientId,
+            logger.info("Received PUBREC from client '{}': Reason Code: '{}', Reason String: '{}', {}",
+                    connection.getClientId(),
                     reasonCode,
                     reasonString,
                     userPropertiesAsString);
         } else {
-            LOG.info("Sent PUBREC to client '{}': Reason Code: '{}', Reason String: '{}', {}",
-                    clientId,
+            logger.info("Sent PUBREC to client '{}': Reason Code: '{}', Reason String: '{}', {}",
+                    connection.getClientId(),
                     reasonCode,
                     reasonString,
                     userPropertiesAsString);
@@ -430,28 +550,32 @@ class PlainTextMessageLogger implements MessageLogger {
     @Override
     public void logPubrel(
             final @NotNull PubrelPacket pubrelPacket,
-            final @NotNull String clientId,
+            final @NotNull ConnectionContext connection,
             final boolean inbound) {
+        final var logger = EventLoggers.get(MessageType.PUBREL, inbound);
+        final var policy = currentPolicy.get();
         final var reasonCode = pubrelPacket.getReasonCode();
-        if (!verbose) {
+        if (!policy.isVerbose()) {
             if (inbound) {
-                LOG.info("Received PUBREL from client '{}': Reason Code: '{}'", clientId, reasonCode);
+                logger.info("Received PUBREL from client '{}': Reason Code: '{}'",
+                        connection.getClientId(),
+                        reasonCode);
             } else {
-                LOG.info("Sent PUBREL to client '{}': Reason Code: '{}'", clientId, reasonCode);
+                logger.info("Sent PUBREL to client '{}': Reason Code: '{}'", connection.getClientId(), reasonCode);
             }
             return;
         }
         final var userPropertiesAsString = getUserPropertiesAsString(pubrelPacket.getUserProperties());
         final var reasonString = pubrelPacket.getReasonString().orElse(null);
         if (inbound) {
-            LOG.info("Received PUBREL from client '{}': Reason Code: '{}', Reason String: '{}', {}",
-                    clientId,
+            logger.info("Received PUBREL from client '{}': Reason Code: '{}', Reason String: '{}', {}",
+                    connection.getClientId(),
                     reasonCode,
                     reasonString,
                     userPropertiesAsString);
         } else {
-            LOG.info("Sent PUBREL to client '{}': Reason Code: '{}', Reason String: '{}', {}",
-                    clientId,
+            logger.info("Sent PUBREL to client '{}': Reason Code: '{}', Reason String: '{}', {}",
+                    connection.getClientId(),
                     reasonCode,
                     reasonString,
                     userPropertiesAsString);
@@ -461,59 +585,203 @@ class PlainTextMessageLogger implements MessageLogger {
     @Override
     public void logPubcomp(
             final @NotNull PubcompPacket pubcompPacket,
-            final @NotNull String clientId,
+            final @NotNull ConnectionContext connection,
             final boolean inbound) {
+        final var logger = EventLoggers.get(MessageType.PUBCOMP, inbound);
+        final var policy = currentPolicy.get();
         final var reasonCode = pubcompPacket.getReasonCode();
-        if (!verbose) {
+        if (!policy.isVerbose()) {
             if (inbound) {
-                LOG.info("Received PUBCOMP from client '{}': Reason Code: '{}'", clientId, reasonCode);
+                logger.info("Received PUBCOMP from client '{}': Reason Code: '{}'",
+                        connection.getClientId(),
+                        reasonCode);
             } else {
-                LOG.info("Sent PUBCOMP to client '{}': Reason Code: '{}'", clientId, reasonCode);
+                logger.info("Sent PUBCOMP to client '{}': Reason Code: '{}'", connection.getClientId(), reasonCode);
             }
             return;
         }
         final var userPropertiesAsString = getUserPropertiesAsString(pubcompPacket.getUserProperties());
         final var reasonString = pubcompPacket.getReasonString().orElse(null);
         if (inbound) {
-            LOG.info("Received PUBCOMP from client '{}': Reason Code: '{}', Reason String: '{}', {}",
-                    clientId,
+            logger.info("Received PUBCOMP from client '{}': Reason Code: '{}', Reason String: '{}', {}",
+                    connection.getClientId(),
                     reasonCode,
                     reasonString,
                     userPropertiesAsString);
         } else {
-            LOG.info("Sent PUBCOMP to client '{}': Reason Code: '{}', Reason String: '{}', {}",
-                    clientId,
+            logger.info("Sent PUBCOMP to client '{}': Reason Code: '{}', Reason String: '{}', {}",
+                    connection.getClientId(),
                     reasonCode,
                     reasonString,
                     userPropertiesAsString);
         }
     }
 
-    private @NotNull String getWillAsString(final @NotNull WillPublishPacket willPublishPacket) {
+    @Override
+    public void logQos2Flow(final @NotNull Qos2Flow qos2Flow, final @NotNull ConnectionContext connection) {
+        final var logger = EventLoggers.get(MessageType.QOS2_FLOW, qos2Flow.isInbound());
+        final var flow = qos2Flow.isComplete() ? "QoS 2 flow" : "incomplete QoS 2 flow";
+        final var steps = new StringBuilder();
+        appendStep(steps, "PUBREC", qos2Flow.getPubrecReasonCode(), qos2Flow.getPubrecMicros());
+        appendStep(steps, "PUBREL", qos2Flow.getPubrelReasonCode(), qos2Flow.getPubrelMicros());
+        appendStep(steps, "PUBCOMP", qos2Flow.getPubcompReasonCode(), qos2Flow.getPubcompMicros());
+        if (qos2Flow.isInbound()) {
+            logger.info("Received {} from client '{}' for topic '{}': Packet Id: '{}', {}Duration: '{}us'",
+                    flow,
+                    connection.getClientId(),
+                    qos2Flow.getTopic(),
+                    qos2Flow.getPacketId(),
+                    steps,
+                    qos2Flow.getDurationMicros());
+        } else {
+            logger.info("Sent {} to client '{}' on topic '{}': Packet Id: '{}', {}Duration: '{}us'",
+                    flow,
+                    connection.getClientId(),
+                    qos2Flow.getTopic(),
+                    qos2Flow.getPacketId(),
+                    steps,
+                    qos2Flow.getDurationMicros());
+        }
+    }
+
+    @Override
+    public void logSessionSummary(
+            final @NotNull SessionSummary sessionSummary,
+            final @NotNull ConnectionContext connection) {
+        final var logger = EventLoggers.get(MessageType.SESSION_SUMMARY, Direction.EVENT);
+        final var received = new StringBuilder();
+        final var sent = new StringBuilder();
+        for (final var packetCount : sessionSummary.getPacketCounts()) {
+            final var inbound = packetCount.isInbound();
+            final var packets = inbound ? received : sent;
+            if (packets.length() > 0) {
+                packets.append(", ");
+            }
+            packets.append(packetCount.getMessageType()).append(": '").append(packetCount.getCount()).append('\'');
+            if (packetCount.getMessageType() == MessageType.PUBLISH) {
+                packets.append(" (Payload Bytes: '").append(sessionSummary.getPayloadBytes(inbound)).append('\'');
+                for (int qos = 0; qos < 3; qos++) {
+                    packets.append(", QoS ").append(qos).append(": '");
+                    packets.append(sessionSummary.getPublishes(qos, inbound)).append('\'');
+                }
+                packets.append(')');
+            }
+        }
+        final var errors = new StringBuilder();
+        for (final var error : sessionSummary.getErrors()) {
+            errors.append(errors.length() == 0 ? ", Errors: [" : ", ");
+            errors.append(error.isInbound() ? "Received " : "Sent ").append(error.getMessageType());
+            errors.append(" '").append(error.getReasonCode()).append("': '").append(error.getCount()).append('\'');
+        }
+        if (errors.length() > 0) {
+            errors.append(']');
+        }
+        logger.info("Session summary of client '{}': Duration: '{}ms', Received: [{}], Sent: [{}], " +
+                        "Distinct Topics: '{}'{}",
+                connection.getClientId(),
+                sessionSummary.getDurationMillis(),
+                received,
+                sent,
+                sessionSummary.getDistinctTopics(),
+                errors);
+    }
+
+    @Override
+    public void logPingDigest(final @NotNull PingDigest pingDigest) {
+        final var logger = EventLoggers.get(MessageType.PING_DIGEST, Direction.EVENT);
+        final var outliers = new StringBuilder();
+        for (final var outlier : pingDigest.getOutliers()) {
+            outliers.append(outliers.length() == 0 ? ", Outliers: [" : ", ");
+            outliers.append("Client '").append(outlier.getClientId()).append("': Keep Alive: '");
+            outliers.append(outlier.getKeepAlive()).append("s', Interval: '");
+            outliers.append(outlier.getIntervalMillis()).append("ms'");
+        }
+        if (outliers.length() > 0) {
+            outliers.append(']');
+        }
+        logger.info("Ping digest: Duration: '{}ms', PINGREQ: '{}', PINGRESP: '{}', Clients: '{}', " +
+                        "Outlier Clients: '{}'{}",
+                pingDigest.getDurationMillis(),
+                pingDigest.getPingreqs(),
+                pingDigest.getPingresps(),
+                pingDigest.getClients(),
+                pingDigest.getOutlierClients(),
+                outliers);
+    }
+
+    @Override
+    public void logRepeated(final @NotNull RepeatedEvent repeatedEvent) {
+        final var logger = EventLoggers.get(repeatedEvent.getMessageType(), repeatedEvent.getDirection());
+        final var inbound = repeatedEvent.getDirection() == Direction.INBOUND;
+        final var event = new StringBuilder();
+        event.append(inbound ? "Received " : "Sent ");
+        event.append(repeatedEvent.getMessageType());
+        event.append(inbound ? " from client '" : " to client '");
+        event.append(repeatedEvent.getClientId()).append('\'');
+        if (repeatedEvent.getTopic() != null) {
+            event.append(inbound ? " for topic '" : " on topic '").append(repeatedEvent.getTopic()).append('\'');
+        }
+        if (repeatedEvent.getReasonCode() != null) {
+            event.append(" with reason code '").append(repeatedEvent.getReasonCode()).append('\'');
+        }
+        logger.info("{} repeated '{}' times between '{}' and '{}'",
+                event,
+                repeatedEvent.getCount(),
+                Instant.ofEpochMilli(repeatedEvent.getFirstMillis()),
+                Instant.ofEpochMilli(repeatedEvent.getLastMillis()));
+    }
+
+    @Override
+    public void logSuppressed(final @NotNull SuppressedEvents suppressedEvents) {
+        final var logger = EventLoggers.get(MessageType.SUPPRESSED, Direction.EVENT);
+        logger.info("Suppressed '{}' events of client '{}' that exceeded the rate limit",
+                suppressedEvents.getCount(),
+                suppressedEvents.getClientId());
+    }
+
+    private static void appendStep(
+            final @NotNull StringBuilder steps,
+            final @NotNull String packet,
+            final @Nullable Enum<?> reasonCode,
+            final long micros) {
+        if (reasonCode != null) {
+            steps.append(packet).append(": '").append(reasonCode).append("' after '").append(micros).append("us', ");
+        }
+    }
+
+    private @NotNull String getWillAsString(
+            final @NotNull LogPolicy policy,
+            final @NotNull WillPublishPacket willPublishPacket) {
         final var topic = willPublishPacket.getTopic();
-        final var publishAsString = getPublishAsString(willPublishPacket);
+        final var publishAsString = getPublishAsString(policy, willPublishPacket, policy.getPayloadLimits().getWill());
         final var willPublishAsString = publishAsString + ", Will Delay: '" + willPublishPacket.getWillDelay() + "'";
         return String.format(", Will: { Topic: '%s', %s }", topic, willPublishAsString);
     }
 
-    private @NotNull String getPublishAsString(final @NotNull PublishPacket publishPacket) {
+    private @NotNull String getPublishAsString(
+            final @NotNull LogPolicy policy,
+            final @NotNull PublishPacket publishPacket,
+            final @NotNull PayloadLimit payloadLimit) {
         final var qos = publishPacket.getQos().getQosNumber();
         final var retained = publishPacket.getRetain();
         final String payloadProperty;
-        if (payload && publishPacket.getPayload().isPresent()) {
-            final var payloadAsString = getStringFromByteBuffer(publishPacket.getPayload().get());
-            if (StringUtils.isAsciiPrintable(payloadAsString)) {
-                payloadProperty = "Payload: '" + payloadAsString + "'";
+        if (policy.isPayload() && publishPacket.getPayload().isPresent()) {
+            final var payloadBuffer = publishPacket.getPayload().get();
+            if (payloadLimit.truncates(payloadBuffer)) {
+                final var tail = payloadLimit.tail(payloadBuffer);
+                payloadProperty = getPayloadAsString("Payload Head", payloadLimit.head(payloadBuffer)) +
+                        (tail.hasRemaining() ? ", " + getPayloadAsString("Payload Tail", tail) : "") +
+                        ", Payload Size: '" + payloadBuffer.remaining() + "', Payload Hash: '" +
+                        asHexString(xxHash64(payloadBuffer)) + "'";
             } else {
-                payloadProperty =
-                        "Payload (Hex): '" + getHexStringFromByteBuffer(publishPacket.getPayload().get()) + "'";
+                payloadProperty = getPayloadAsString("Payload", payloadBuffer);
             }
         } else {
             payloadProperty = null;
         }
-        if (!verbose && !payload) {
+        if (!policy.isVerbose() && !policy.isPayload()) {
             return String.format("QoS: '%s', Retained: '%s'", qos, retained);
-        } else if (!verbose) {
+        } else if (!policy.isVerbose()) {
             return String.format("%s, QoS: '%s', Retained: '%s'", payloadProperty, qos, retained);
         }
         final var contentType = publishPacket.getContentType();
@@ -524,7 +792,7 @@ class PlainTextMessageLogger implements MessageLogger {
         final var payloadFormatIndicator = publishPacket.getPayloadFormatIndicator();
         final var subscriptionIdentifiers = publishPacket.getSubscriptionIdentifiers();
         final var userPropertiesAsString = getUserPropertiesAsString(publishPacket.getUserProperties());
-        if (!payload) {
+        if (!policy.isPayload()) {
             return String.format(
                     "QoS: '%s'," + " Retained: '%s'," + " Message Expiry Interval: '%s'," +
                             " Duplicate Delivery: '%s'," + " Correlation Data: '%s'," + " Response Topic: '%s'," +
@@ -559,6 +827,14 @@ class PlainTextMessageLogger implements MessageLogger {
                 userPropertiesAsString);
     }
 
+    private static @NotNull String getPayloadAsString(final @NotNull String name, final @NotNull ByteBuffer payload) {
+        final var payloadAsString = getAsciiPrintableString(payload);
+        if (payloadAsString != null) {
+            return name + ": '" + payloadAsString + "'";
+        }
+        return name + " (Hex): '" + getHexStringFromByteBuffer(payload) + "'";
+    }
+
     private static @NotNull String getUserPropertiesAsString(final @Nullable UserProperties userProperties) {
         if (userProperties == null) {
             return "User Properties: 'null'";
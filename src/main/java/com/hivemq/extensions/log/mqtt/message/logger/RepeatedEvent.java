@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The repetitions of an event that were suppressed by the deduplication of the pipeline, which are logged as a
+ * single record after the first occurrence of the event.
+ *
+ * @since 1.4.0
+ */
+public final class RepeatedEvent {
+
+    private final @NotNull MessageType messageType;
+    private final @NotNull Direction direction;
+    private final @NotNull String clientId;
+    private final @Nullable String topic;
+    private final @Nullable String reasonCode;
+    private final long count;
+    private final long firstMillis;
+    private final long lastMillis;
+
+    public RepeatedEvent(
+            final @NotNull MessageType messageType,
+            final @NotNull Direction direction,
+            final @NotNull String clientId,
+            final @Nullable String topic,
+            final @Nullable String reasonCode,
+            final long count,
+            final long firstMillis,
+            final long lastMillis) {
+        this.messageType = messageType;
+        this.direction = direction;
+        this.clientId = clientId;
+        this.topic = topic;
+        this.reasonCode = reasonCode;
+        this.count = count;
+        this.firstMillis = firstMillis;
+        this.lastMillis = lastMillis;
+    }
+
+    public @NotNull MessageType getMessageType() {
+        return messageType;
+    }
+
+    public @NotNull Direction getDirection() {
+        return direction;
+    }
+
+    public @NotNull String getClientId() {
+        return clientId;
+    }
+
+    public @Nullable String getTopic() {
+        return topic;
+    }
+
+    public @Nullable String getReasonCode() {
+        return reasonCode;
+    }
+
+    /**
+     * @return the number of suppressed repetitions, not counting the first occurrence that was logged
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the time of the first suppressed repetition in milliseconds since the epoch
+     */
+    public long getFirstMillis() {
+        return firstMillis;
+    }
+
+    /**
+     * @return the time of the last suppressed repetition in milliseconds since the epoch
+     */
+    public long getLastMillis() {
+        return lastMillis;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The events of a client that were suppressed by the rate limit of the pipeline, which are logged as a single record
+ * at most once per report interval and when the client disconnects.
+ *
+ * @since 1.4.0
+ */
+public final class SuppressedEvents {
+
+    private final @NotNull String clientId;
+    private final long count;
+
+    public SuppressedEvents(final @NotNull String clientId, final long count) {
+        this.clientId = clientId;
+        this.count = count;
+    }
+
+    public @NotNull String getClientId() {
+        return clientId;
+    }
+
+    /**
+     * @return the number of events that were suppressed since the last record
+     */
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+/**
+ * Enumeration of the formats of the timestamps of the logged events.
+ *
+ * @since 1.4.0
+ */
+public enum TimestampFormat {
+
+    /**
+     * Milliseconds since the epoch as number.
+     */
+    EPOCH_MILLIS,
+
+    /**
+     * Microseconds since the epoch as number.
+     */
+    EPOCH_MICROS,
+
+    /**
+     * ISO-8601 date and time in UTC with microseconds as string, for example {@code 2024-05-17T08:30:12.345678Z}.
+     */
+    ISO_8601
+}
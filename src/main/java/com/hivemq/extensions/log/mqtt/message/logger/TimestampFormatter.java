@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Formats event timestamps as ISO-8601 into a recycled byte array.
+ * <p>
+ * Every thread reuses its own formatter, see {@link #get()}. Consecutive events mostly fall into the same second, so
+ * the date and time up to the seconds is only formatted when the second changes and otherwise only the six digits of
+ * the microseconds are rewritten.
+ *
+ * @since 1.4.0
+ */
+final class TimestampFormatter {
+
+    /**
+     * Length of {@code yyyy-MM-ddTHH:mm:ss.SSSSSSZ}.
+     */
+    static final int ISO_8601_LENGTH = 27;
+
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+    private static final @NotNull ThreadLocal<TimestampFormatter> FORMATTERS =
+            ThreadLocal.withInitial(TimestampFormatter::new);
+
+    private final byte @NotNull [] iso8601 = new byte[ISO_8601_LENGTH];
+    private long cachedSecond = Long.MIN_VALUE;
+
+    TimestampFormatter() {
+        iso8601[4] = '-';
+        iso8601[7] = '-';
+        iso8601[10] = 'T';
+        iso8601[13] = ':';
+        iso8601[16] = ':';
+        iso8601[19] = '.';
+        iso8601[26] = 'Z';
+    }
+
+    /**
+     * @return the formatter of the current thread
+     */
+    static @NotNull TimestampFormatter get() {
+        return FORMATTERS.get();
+    }
+
+    /**
+     * Formats the timestamp as ISO-8601 in UTC with microseconds, years beyond 9999 are not supported.
+     *
+     * @return the {@link #ISO_8601_LENGTH} ASCII characters, only valid until the formatter is used again
+     */
+    byte @NotNull [] iso8601(final long epochMicros) {
+        final var second = Math.floorDiv(epochMicros, MICROS_PER_SECOND);
+        if (second != cachedSecond) {
+            final var time = LocalDateTime.ofEpochSecond(second, 0, ZoneOffset.UTC);
+            digits(time.getYear(), 0, 4);
+            digits(time.getMonthValue(), 5, 2);
+            digits(time.getDayOfMonth(), 8, 2);
+            digits(time.getHour(), 11, 2);
+            digits(time.getMinute(), 14, 2);
+            digits(time.getSecond(), 17, 2);
+            cachedSecond = second;
+        }
+        digits((int) Math.floorMod(epochMicros, MICROS_PER_SECOND), 20, 6);
+        return iso8601;
+    }
+
+    /**
+     * @return the timestamp in the given format as string
+     */
+    @NotNull String format(final @NotNull TimestampFormat format, final long epochMicros) {
+        switch (format) {
+            case EPOCH_MICROS:
+                return Long.toString(epochMicros);
+            case ISO_8601:
+                return new String(iso8601(epochMicros), 0, ISO_8601_LENGTH, US_ASCII);
+            default:
+                return Long.toString(Math.floorDiv(epochMicros, 1_000L));
+        }
+    }
+
+    private void digits(int value, final int offset, final int count) {
+        for (var i = offset + count - 1; i >= offset; i--) {
+            iso8601[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
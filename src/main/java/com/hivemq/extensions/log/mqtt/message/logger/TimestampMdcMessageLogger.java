@@ -0,0 +1,301 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import com.hivemq.extension.sdk.api.events.client.parameters.DisconnectEventInput;
+import com.hivemq.extension.sdk.api.interceptor.connack.parameter.ConnackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.pingreq.parameter.PingReqInboundInput;
+import com.hivemq.extension.sdk.api.interceptor.pingresp.parameter.PingRespOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.suback.parameter.SubackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.subscribe.parameter.SubscribeInboundInput;
+import com.hivemq.extension.sdk.api.interceptor.unsuback.parameter.UnsubackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.unsubscribe.parameter.UnsubscribeInboundInput;
+import com.hivemq.extension.sdk.api.packets.connect.ConnectPacket;
+import com.hivemq.extension.sdk.api.packets.disconnect.DisconnectPacket;
+import com.hivemq.extension.sdk.api.packets.puback.PubackPacket;
+import com.hivemq.extension.sdk.api.packets.pubcomp.PubcompPacket;
+import com.hivemq.extension.sdk.api.packets.publish.PublishPacket;
+import com.hivemq.extension.sdk.api.packets.pubrec.PubrecPacket;
+import com.hivemq.extension.sdk.api.packets.pubrel.PubrelPacket;
+import com.hivemq.extensions.log.mqtt.message.flow.PingDigest;
+import com.hivemq.extensions.log.mqtt.message.flow.Qos2Flow;
+import com.hivemq.extensions.log.mqtt.message.flow.SessionSummary;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.MDC;
+
+/**
+ * A {@link MessageLogger} that provides the time of the current event in the {@link MDC} while the delegate logs it.
+ * <p>
+ * The plain text format has no timestamp field, so its records get the event time via the {@link #MDC_KEY} that can
+ * be added to the pattern of the log appender with {@code %X{eventTimestamp}}. The timestamp is the capture time of the
+ * event, which differs from the logging time of the appender if the event is logged asynchronously.
+ *
+ * @since 1.4.0
+ */
+class TimestampMdcMessageLogger implements MessageLogger {
+
+    static final @NotNull String MDC_KEY = "eventTimestamp";
+
+    private final @NotNull MessageLogger delegate;
+    private final @NotNull TimestampFormat timestampFormat;
+
+    TimestampMdcMessageLogger(final @NotNull MessageLogger delegate, final @NotNull TimestampFormat timestampFormat) {
+        this.delegate = delegate;
+        this.timestampFormat = timestampFormat;
+    }
+
+    @Override
+    public void logDisconnect(
+            final @NotNull DisconnectEventInput disconnectEventInput,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        MDC.put(MDC_KEY, timestamp());
+        try {
+            delegate.logDisconnect(disconnectEventInput, connection, inbound);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    @Override
+    public void logDisconnect(
+            final @NotNull DisconnectPacket disconnectPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        MDC.put(MDC_KEY, timestamp());
+        try {
+            delegate.logDisconnect(disconnectPacket, connection, inbound);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    @Override
+    public void logConnect(final @NotNull ConnectPacket connectPacket) {
+        MDC.put(MDC_KEY, timestamp());
+        try {
+            delegate.logConnect(connectPacket);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    @Override
+    public void logConnack(final @NotNull ConnackOutboundInput connackOutboundInput) {
+        MDC.put(MDC_KEY, timestamp());
+        try {
+            delegate.logConnack(connackOutboundInput);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    @Override
+    public void logPublish(
+            final @NotNull PublishPacket publishPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        MDC.put(MDC_KEY, timestamp());
+        try {
+            delegate.logPublish(publishPacket, connection, inbound);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    @Override
+    public void logSubscribe(final @NotNull SubscribeInboundInput subscribeInboundInput) {
+        MDC.put(MDC_KEY, timestamp());
+        try {
+            delegate.logSubscribe(subscribeInboundInput);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    @Override
+    public void logSuback(final @NotNull SubackOutboundInput subackOutboundInput) {
+        MDC.put(MDC_KEY, timestamp());
+        try {
+            delegate.logSuback(subackOutboundInput);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    @Override
+    public void logUnsubscribe(final @NotNull UnsubscribeInboundInput unsubscribeInboundInput) {
+        MDC.put(MDC_KEY, timestamp());
+        try {
+            delegate.logUnsubscribe(unsubscribeInboundInput);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    @Override
+    public void logUnsuback(final @NotNull UnsubackOutboundInput unsubackOutboundInput) {
+        MDC.put(MDC_KEY, timestamp());
+        try {
+            delegate.logUnsuback(unsubackOutboundInput);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    @Override
+    public void logPingreq(final @NotNull PingReqInboundInput pingReqInboundInput) {
+        MDC.put(MDC_KEY, timestamp());
+        try {
+            delegate.logPingreq(pingReqInboundInput);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    @Override
+    public void logPingresp(final @NotNull PingRespOutboundInput pingRespOutboundInput) {
+        MDC.put(MDC_KEY, timestamp());
+        try {
+            delegate.logPingresp(pingRespOutboundInput);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    @Override
+    public void logPuback(
+            final @NotNull PubackPacket pubackPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        MDC.put(MDC_KEY, timestamp());
+        try {
+            delegate.logPuback(pubackPacket, connection, inbound);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    @Override
+    public void logPuback(
+            final @NotNull PubackPacket pubackPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound,
+            final long ackLatencyMicros) {
+        MDC.put(MDC_KEY, timestamp());
+        try {
+            delegate.logPuback(pubackPacket, connection, inbound, ackLatencyMicros);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    @Override
+    public void logPubrec(
+            final @NotNull PubrecPacket pubrecPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        MDC.put(MDC_KEY, timestamp());
+        try {
+            delegate.logPubrec(pubrecPacket, connection, inbound);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    @Override
+    public void logPubrel(
+            final @NotNull PubrelPacket pubrelPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        MDC.put(MDC_KEY, timestamp());
+        try {
+            delegate.logPubrel(pubrelPacket, connection, inbound);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    @Override
+    public void logPubcomp(
+            final @NotNull PubcompPacket pubcompPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        MDC.put(MDC_KEY, timestamp());
+        try {
+            delegate.logPubcomp(pubcompPacket, connection, inbound);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    @Override
+    public void logQos2Flow(final @NotNull Qos2Flow qos2Flow, final @NotNull ConnectionContext connection) {
+        MDC.put(MDC_KEY, timestamp());
+        try {
+            delegate.logQos2Flow(qos2Flow, connection);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    @Override
+    public void logSessionSummary(
+            final @NotNull SessionSummary sessionSummary,
+            final @NotNull ConnectionContext connection) {
+        MDC.put(MDC_KEY, timestamp());
+        try {
+            delegate.logSessionSummary(sessionSummary, connection);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    @Override
+    public void logPingDigest(final @NotNull PingDigest pingDigest) {
+        MDC.put(MDC_KEY, timestamp());
+        try {
+            delegate.logPingDigest(pingDigest);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    @Override
+    public void logRepeated(final @NotNull RepeatedEvent repeatedEvent) {
+        MDC.put(MDC_KEY, timestamp());
+        try {
+            delegate.logRepeated(repeatedEvent);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    @Override
+    public void logSuppressed(final @NotNull SuppressedEvents suppressedEvents) {
+        MDC.put(MDC_KEY, timestamp());
+        try {
+            delegate.logSuppressed(suppressedEvents);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    private @NotNull String timestamp() {
+        return TimestampFormatter.get().format(timestampFormat, EventClock.currentTimeMicros());
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.metrics;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.hivemq.extensions.log.mqtt.message.logger.Direction;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * The metrics of the extension, registered in the metric registry of HiveMQ.
+ * <p>
+ * For every {@link MessageType} and {@link Direction} that is logged there is a meter of the logged events, a meter of
+ * the events that failed with an exception and a timer of the time it took to format and write them. Meters and
+ * counters are striped internally and the timers use a {@link StripedHistogramReservoir}, so recording a value does
+ * not contend with other threads.
+ *
+ * @since 1.4.0
+ */
+public class MessageLogMetrics {
+
+    public static final @NotNull String PREFIX = "com.hivemq.extensions.mqtt-message-log";
+
+    /**
+     * Topic prefixes beyond this number share the ack latency timer {@link #OTHER_TOPICS}.
+     */
+    static final int MAX_ACK_LATENCY_TOPIC_PREFIXES = 1000;
+    /**
+     * The topic prefix of the shared ack latency timer, which is not a valid topic level of a PUBLISH.
+     */
+    static final @NotNull String OTHER_TOPICS = "#";
+
+    private final @NotNull MetricRegistry metricRegistry;
+    private final @Nullable Meter @NotNull [] @NotNull [] logged;
+    private final @Nullable Meter @NotNull [] @NotNull [] failed;
+    private final @Nullable Timer @NotNull [] @NotNull [] formatTime;
+    private final @NotNull Counter bytes;
+    // the ack latency timers of the PUBLISH packets sent and received per topic prefix
+    private final @NotNull ConcurrentHashMap<String, Timer> sentAckLatency = new ConcurrentHashMap<>();
+    private final @NotNull ConcurrentHashMap<String, Timer> receivedAckLatency = new ConcurrentHashMap<>();
+
+    public MessageLogMetrics(final @NotNull MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+        final var types = MessageType.values();
+        final var directions = Direction.values();
+        logged = new Meter[types.length][directions.length];
+        failed = new Meter[types.length][directions.length];
+        formatTime = new Timer[types.length][directions.length];
+        for (final var type : types) {
+            for (final var direction : directions) {
+                if (!isLogged(type, direction)) {
+                    continue;
+                }
+                final var name = MetricRegistry.name(PREFIX,
+                        type.name().toLowerCase(Locale.ROOT),
+                        direction.name().toLowerCase(Locale.ROOT));
+                logged[type.ordinal()][direction.ordinal()] = metricRegistry.meter(name + ".logged");
+                failed[type.ordinal()][direction.ordinal()] = metricRegistry.meter(name + ".failed");
+                formatTime[type.ordinal()][direction.ordinal()] =
+                        metricRegistry.register(name + ".format-time", new Timer(new StripedHistogramReservoir()));
+            }
+        }
+        bytes = metricRegistry.counter(MetricRegistry.name(PREFIX, "bytes"));
+    }
+
+    /**
+     * @return {@code true} if events of the type can be logged with the direction
+     */
+    static boolean isLogged(final @NotNull MessageType type, final @NotNull Direction direction) {
+        switch (type) {
+            case DISCONNECT:
+            case PUBLISH:
+            case PUBACK:
+            case PUBREC:
+            case PUBREL:
+            case PUBCOMP:
+            case QOS2_FLOW:
+                return direction != Direction.EVENT;
+            case SESSION_SUMMARY:
+            case PING_DIGEST:
+            case REPEATED:
+            case SUPPRESSED:
+                return direction == Direction.EVENT;
+            case CONNECT:
+            case SUBSCRIBE:
+            case UNSUBSCRIBE:
+            case PINGREQ:
+                return direction == Direction.INBOUND;
+            default:
+                return direction == Direction.OUTBOUND;
+        }
+    }
+
+    /**
+     * Records an event that was logged.
+     *
+     * @param nanos the time it took to format and write the event
+     */
+    public void logged(final @NotNull MessageType type, final @NotNull Direction direction, final long nanos) {
+        final var meter = logged[type.ordinal()][direction.ordinal()];
+        final var timer = formatTime[type.ordinal()][direction.ordinal()];
+        if (meter != null && timer != null) {
+            meter.mark();
+            timer.update(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Records an event that could not be logged because of an exception.
+     */
+    public void failed(final @NotNull MessageType type, final @NotNull Direction direction) {
+        final var meter = failed[type.ordinal()][direction.ordinal()];
+        if (meter != null) {
+            meter.mark();
+        }
+    }
+
+    /**
+     * Records the bytes of a record that was written to an output sink.
+     */
+    public void written(final int recordBytes) {
+        bytes.inc(recordBytes);
+    }
+
+    /**
+     * Records the time between a QoS 1 PUBLISH and its PUBACK in the timer of the topic prefix.
+     *
+     * @param inbound whether the PUBLISH was received from the client, which means HiveMQ sent the PUBACK
+     */
+    public void acknowledged(final boolean inbound, final @NotNull String topicPrefix, final long nanos) {
+        final var timers = inbound ? receivedAckLatency : sentAckLatency;
+        var timer = timers.get(topicPrefix);
+        if (timer == null) {
+            final var prefix = timers.size() < MAX_ACK_LATENCY_TOPIC_PREFIXES ? topicPrefix : OTHER_TOPICS;
+            timer = timers.computeIfAbsent(prefix,
+                    p -> metricRegistry.register(MetricRegistry.name(PREFIX,
+                            "ack-latency",
+                            inbound ? "inbound" : "outbound",
+                            p), new Timer(new StripedHistogramReservoir())));
+        }
+        timer.update(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registers a gauge of the events of a lane that were dropped because the asynchronous logging buffer was full.
+     */
+    public void registerDropped(final @NotNull String lane, final @NotNull LongSupplier droppedCount) {
+        metricRegistry.register(MetricRegistry.name(PREFIX, "async", lane, "dropped"),
+                (Gauge<Long>) droppedCount::getAsLong);
+    }
+
+    /**
+     * Removes all metrics of the extension from the registry.
+     */
+    public void remove() {
+        metricRegistry.removeMatching((name, metric) -> name.startsWith(PREFIX + "."));
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.metrics;
+
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A {@link Reservoir} that counts the values in log-linear buckets of {@link LongAdder}s, so concurrent updates do not
+ * contend on a lock or a shared counter.
+ * <p>
+ * Every power of two is divided into {@value #SUB_BUCKETS} buckets, so a quantile is accurate to about 6%. Values
+ * larger than {@code 2^}{@value #MAX_EXPONENT} are counted in the last bucket. The reservoir is cumulative, the
+ * snapshots contain all values since its creation.
+ *
+ * @since 1.4.0
+ */
+public class StripedHistogramReservoir implements Reservoir {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+    // the number of values of a snapshot, the same as the default reservoir of a Timer
+    private static final int SNAPSHOT_VALUES = 1028;
+
+    private final @NotNull LongAdder @NotNull [] buckets = new LongAdder[BUCKETS];
+    private final @NotNull LongAdder sum = new LongAdder();
+    private final @NotNull LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final @NotNull LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    public StripedHistogramReservoir() {
+        for (var i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public int size() {
+        var size = 0L;
+        for (final var bucket : buckets) {
+            size += bucket.sum();
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void update(final long value) {
+        final var positive = Math.max(value, 0);
+        buckets[index(positive)].increment();
+        sum.add(positive);
+        min.accumulate(positive);
+        max.accumulate(positive);
+    }
+
+    @Override
+    public @NotNull Snapshot getSnapshot() {
+        final var counts = new long[BUCKETS];
+        var count = 0L;
+        for (var i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        return new BucketSnapshot(counts, count, sum.sum(), min.get(), max.get());
+    }
+
+    static int index(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final var exponent = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_EXPONENT);
+        if (exponent == MAX_EXPONENT && value >= 1L << (MAX_EXPONENT + 1)) {
+            return BUCKETS - 1;
+        }
+        final var subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowerBound(final int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final var exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final var subBucket = index % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    /**
+     * @return the value in the middle of a bucket
+     */
+    static long midpoint(final int index) {
+        final var lower = lowerBound(index);
+        final var upper = index + 1 < BUCKETS ? lowerBound(index + 1) : lower * 2;
+        return lower + (upper - lower - 1) / 2;
+    }
+
+    private static class BucketSnapshot extends Snapshot {
+
+        private final long @NotNull [] counts;
+        private final long count;
+        private final long sum;
+        private final long min;
+        private final long max;
+
+        BucketSnapshot(
+                final long @NotNull [] counts,
+                final long count,
+                final long sum,
+                final long min,
+                final long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.min = count == 0 ? 0 : min;
+            this.max = count == 0 ? 0 : max;
+        }
+
+        @Override
+        public double getValue(final double quantile) {
+            if (quantile < 0 || quantile > 1 || Double.isNaN(quantile)) {
+                throw new IllegalArgumentException(quantile + " is not in [0..1]");
+            }
+            if (count == 0) {
+                return 0;
+            }
+            final var rank = (long) Math.ceil(quantile * count);
+            if (rank >= count) {
+                return max;
+            }
+            var seen = 0L;
+            for (var i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && counts[i] > 0) {
+                    return Math.max(min, Math.min(max, midpoint(i)));
+                }
+            }
+            return max;
+        }
+
+        /**
+         * @return at most {@value #SNAPSHOT_VALUES} values that are distributed like the recorded values
+         */
+        @Override
+        public long @NotNull [] getValues() {
+            final var size = size();
+            final var values = new long[size];
+            for (var i = 0; i < size; i++) {
+                values[i] = (long) getValue((i + 0.5) / size);
+            }
+            return values;
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(count, SNAPSHOT_VALUES);
+        }
+
+        @Override
+        public long getMax() {
+            return max;
+        }
+
+        @Override
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        @Override
+        public long getMin() {
+            return min;
+        }
+
+        @Override
+        public double getStdDev() {
+            if (count <= 1) {
+                return 0;
+            }
+            final var mean = getMean();
+            var squares = 0.0;
+            for (var i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    final var deviation = midpoint(i) - mean;
+                    squares += deviation * deviation * counts[i];
+                }
+            }
+            return Math.sqrt(squares / (count - 1));
+        }
+
+        @Override
+        public void dump(final @NotNull OutputStream output) {
+            try (final var out = new PrintWriter(new OutputStreamWriter(output, UTF_8))) {
+                for (final var value : getValues()) {
+                    out.printf("%d%n", value);
+                }
+            }
+        }
+    }
+}
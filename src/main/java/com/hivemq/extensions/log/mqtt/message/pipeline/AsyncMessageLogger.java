@@ -0,0 +1,631 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.pipeline;
+
+import com.hivemq.extension.sdk.api.events.client.parameters.DisconnectEventInput;
+import com.hivemq.extension.sdk.api.interceptor.connack.parameter.ConnackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.pingreq.parameter.PingReqInboundInput;
+import com.hivemq.extension.sdk.api.interceptor.pingresp.parameter.PingRespOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.suback.parameter.SubackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.subscribe.parameter.SubscribeInboundInput;
+import com.hivemq.extension.sdk.api.interceptor.unsuback.parameter.UnsubackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.unsubscribe.parameter.UnsubscribeInboundInput;
+import com.hivemq.extension.sdk.api.packets.connect.ConnectPacket;
+import com.hivemq.extension.sdk.api.packets.disconnect.DisconnectPacket;
+import com.hivemq.extension.sdk.api.packets.puback.PubackPacket;
+import com.hivemq.extension.sdk.api.packets.pubcomp.PubcompPacket;
+import com.hivemq.extension.sdk.api.packets.publish.PublishPacket;
+import com.hivemq.extension.sdk.api.packets.pubrec.PubrecPacket;
+import com.hivemq.extension.sdk.api.packets.pubrel.PubrelPacket;
+import com.hivemq.extensions.log.mqtt.message.flow.PingDigest;
+import com.hivemq.extensions.log.mqtt.message.flow.Qos2Flow;
+import com.hivemq.extensions.log.mqtt.message.flow.SessionSummary;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
+import com.hivemq.extensions.log.mqtt.message.logger.Direction;
+import com.hivemq.extensions.log.mqtt.message.logger.EventClock;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageType;
+import com.hivemq.extensions.log.mqtt.message.logger.RepeatedEvent;
+import com.hivemq.extensions.log.mqtt.message.logger.SuppressedEvents;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+import static com.hivemq.extensions.log.mqtt.message.ExtensionConstants.EXTENSION_NAME;
+
+/**
+ * A {@link MessageLogger} that decouples logging from the broker threads that call the interceptors.
+ * <p>
+ * The calling thread only captures the event into a pre-allocated slot of a lock-free {@link RingBuffer}. Dedicated
+ * consumer threads take the events from there and hand them to the delegate, which formats and writes them. The
+ * events are filtered by the policy before they are captured, so rejected events never take a slot. Each consumer
+ * thread owns one ring buffer per {@link Lane} and every broker thread always publishes to the same consumer. The consumer takes the events of its lanes in the order they were
+ * captured, so events captured by one thread keep their order.
+ * <p>
+ * If the lane of a PUBLISH or PING event is full, the {@link OverflowPolicy} decides which event is dropped instead of
+ * stalling the broker. Events of the control lane are never dropped, if their lane is full they are logged on the
+ * calling thread. Dropped events are counted per lane and reported periodically.
+ *
+ * @since 1.4.0
+ */
+public class AsyncMessageLogger implements MessageLogger {
+
+    private static final @NotNull Logger LOG = LoggerFactory.getLogger(AsyncMessageLogger.class);
+
+    private static final long DROP_REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    // a consumer that is never idle checks whether the drops are due every that many events
+    private static final int DROP_REPORT_EVENTS = 1024;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int SPIN_TRIES = 64;
+    private static final int YIELD_TRIES = 128;
+
+    private static final @NotNull Lane @NotNull [] LANES = Lane.values();
+
+    private final @NotNull MessageLogger delegate;
+    private final @NotNull OverflowPolicy overflowPolicy;
+    private final long overflowTimeoutNanos;
+    private final int sampleRate;
+    private final @NotNull LongSupplier nanoClock;
+    private final @NotNull EventConsumer @NotNull [] consumers;
+    private final @NotNull LongAdder @NotNull [] dropped = new LongAdder[LANES.length];
+    private volatile boolean running;
+
+    /**
+     * @param delegate        the logger that formats and writes the captured events
+     * @param bufferSize      the number of pre-allocated event slots per consumer thread and lane
+     * @param consumerThreads the number of consumer threads
+     */
+    public AsyncMessageLogger(final @NotNull MessageLogger delegate, final int bufferSize, final int consumerThreads) {
+        this(delegate, bufferSize, consumerThreads, OverflowPolicy.DROP_NEWEST, 0, 1);
+    }
+
+    /**
+     * @param delegate              the logger that formats and writes the captured events
+     * @param bufferSize            the number of pre-allocated event slots per consumer thread and lane
+     * @param consumerThreads       the number of consumer threads
+     * @param overflowPolicy        what happens to PUBLISH and PING events if their lane is full
+     * @param overflowTimeoutMillis how long a broker thread waits for a free slot with the block policy
+     * @param sampleRate            the n of the sample policy, every n-th event is buffered
+     */
+    public AsyncMessageLogger(
+            final @NotNull MessageLogger delegate,
+            final int bufferSize,
+            final int consumerThreads,
+            final @NotNull OverflowPolicy overflowPolicy,
+            final long overflowTimeoutMillis,
+            final int sampleRate) {
+        this(delegate, bufferSize, consumerThreads, overflowPolicy, overflowTimeoutMillis, sampleRate, System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock the clock of the periodic drop reports
+     */
+    @VisibleForTesting
+    AsyncMessageLogger(
+            final @NotNull MessageLogger delegate,
+            final int bufferSize,
+            final int consumerThreads,
+            final @NotNull OverflowPolicy overflowPolicy,
+            final long overflowTimeoutMillis,
+            final int sampleRate,
+            final @NotNull LongSupplier nanoClock) {
+        this.delegate = delegate;
+        this.nanoClock = nanoClock;
+        this.overflowPolicy = overflowPolicy;
+        this.overflowTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, overflowTimeoutMillis));
+        this.sampleRate = Math.max(1, sampleRate);
+        for (var i = 0; i < dropped.length; i++) {
+            dropped[i] = new LongAdder();
+        }
+        this.consumers = new EventConsumer[Math.max(1, consumerThreads)];
+        for (var i = 0; i < consumers.length; i++) {
+            consumers[i] = new EventConsumer(i, bufferSize);
+        }
+    }
+
+    /**
+     * Starts the consumer threads. Events that are logged before this method is called are logged synchronously.
+     */
+    public void start() {
+        running = true;
+        for (final var consumer : consumers) {
+            consumer.start();
+        }
+        LOG.info("{}: Started asynchronous logging with {} consumer thread(s), {} event slots per thread and lane " +
+                        "and overflow policy {}",
+                EXTENSION_NAME,
+                consumers.length,
+                consumers[0].lanes[0].ringBuffer.capacity(),
+                overflowPolicy.name().toLowerCase(Locale.ROOT).replace('_', '-'));
+    }
+
+    /**
+     * Stops the consumer threads after they logged all events that are already captured. Events that are logged
+     * afterward are logged synchronously.
+     */
+    public void stop() {
+        running = false;
+        for (final var consumer : consumers) {
+            LockSupport.unpark(consumer);
+        }
+        for (final var consumer : consumers) {
+            try {
+                consumer.join(SHUTDOWN_TIMEOUT_MILLIS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the number of events that were dropped because their lane was full
+     */
+    public long getDroppedCount() {
+        var count = 0L;
+        for (final var lane : LANES) {
+            count += getDroppedCount(lane);
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of events of the lane that were dropped because it was full
+     */
+    public long getDroppedCount(final @NotNull Lane lane) {
+        return dropped[lane.ordinal()].sum();
+    }
+
+    @Override
+    public void logDisconnect(
+            final @NotNull DisconnectEventInput disconnectEventInput,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        capture(MessageType.DISCONNECT, direction(inbound), connection, disconnectEventInput);
+    }
+
+    @Override
+    public void logDisconnect(
+            final @NotNull DisconnectPacket disconnectPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        capture(MessageType.DISCONNECT, direction(inbound), connection, disconnectPacket);
+    }
+
+    @Override
+    public void logConnect(final @NotNull ConnectPacket connectPacket) {
+        capture(MessageType.CONNECT, Direction.INBOUND, null, connectPacket);
+    }
+
+    @Override
+    public void logConnack(final @NotNull ConnackOutboundInput connackOutboundInput) {
+        capture(MessageType.CONNACK, Direction.OUTBOUND, null, connackOutboundInput);
+    }
+
+    @Override
+    public void logPublish(
+            final @NotNull PublishPacket publishPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        capture(MessageType.PUBLISH, direction(inbound), connection, publishPacket);
+    }
+
+    @Override
+    public void logSubscribe(final @NotNull SubscribeInboundInput subscribeInboundInput) {
+        capture(MessageType.SUBSCRIBE, Direction.INBOUND, null, subscribeInboundInput);
+    }
+
+    @Override
+    public void logSuback(final @NotNull SubackOutboundInput subackOutboundInput) {
+        capture(MessageType.SUBACK, Direction.OUTBOUND, null, subackOutboundInput);
+    }
+
+    @Override
+    public void logUnsubscribe(final @NotNull UnsubscribeInboundInput unsubscribeInboundInput) {
+        capture(MessageType.UNSUBSCRIBE, Direction.INBOUND, null, unsubscribeInboundInput);
+    }
+
+    @Override
+    public void logUnsuback(final @NotNull UnsubackOutboundInput unsubackOutboundInput) {
+        capture(MessageType.UNSUBACK, Direction.OUTBOUND, null, unsubackOutboundInput);
+    }
+
+    @Override
+    public void logPingreq(final @NotNull PingReqInboundInput pingReqInboundInput) {
+        capture(MessageType.PINGREQ, Direction.INBOUND, null, pingReqInboundInput);
+    }
+
+    @Override
+    public void logPingresp(final @NotNull PingRespOutboundInput pingRespOutboundInput) {
+        capture(MessageType.PINGRESP, Direction.OUTBOUND, null, pingRespOutboundInput);
+    }
+
+    @Override
+    public void logPuback(
+            final @NotNull PubackPacket pubackPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        capture(MessageType.PUBACK, direction(inbound), connection, pubackPacket);
+    }
+
+    @Override
+    public void logPuback(
+            final @NotNull PubackPacket pubackPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound,
+            final long ackLatencyMicros) {
+        capture(MessageType.PUBACK, direction(inbound), connection, pubackPacket, ackLatencyMicros);
+    }
+
+    @Override
+    public void logPubrec(
+            final @NotNull PubrecPacket pubrecPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        capture(MessageType.PUBREC, direction(inbound), connection, pubrecPacket);
+    }
+
+    @Override
+    public void logPubrel(
+            final @NotNull PubrelPacket pubrelPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        capture(MessageType.PUBREL, direction(inbound), connection, pubrelPacket);
+    }
+
+    @Override
+    public void logPubcomp(
+            final @NotNull PubcompPacket pubcompPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        capture(MessageType.PUBCOMP, direction(inbound), connection, pubcompPacket);
+    }
+
+    @Override
+    public void logQos2Flow(final @NotNull Qos2Flow qos2Flow, final @NotNull ConnectionContext connection) {
+        capture(MessageType.QOS2_FLOW, direction(qos2Flow.isInbound()), connection, qos2Flow);
+    }
+
+    @Override
+    public void logSessionSummary(
+            final @NotNull SessionSummary sessionSummary,
+            final @NotNull ConnectionContext connection) {
+        capture(MessageType.SESSION_SUMMARY, Direction.EVENT, connection, sessionSummary);
+    }
+
+    @Override
+    public void logPingDigest(final @NotNull PingDigest pingDigest) {
+        capture(MessageType.PING_DIGEST, Direction.EVENT, null, pingDigest);
+    }
+
+    @Override
+    public void logRepeated(final @NotNull RepeatedEvent repeatedEvent) {
+        capture(MessageType.REPEATED, Direction.EVENT, null, repeatedEvent);
+    }
+
+    @Override
+    public void logSuppressed(final @NotNull SuppressedEvents suppressedEvents) {
+        capture(MessageType.SUPPRESSED, Direction.EVENT, null, suppressedEvents);
+    }
+
+    private void capture(
+            final @NotNull MessageType messageType,
+            final @NotNull Direction direction,
+            final @Nullable ConnectionContext connection,
+            final @NotNull Object data) {
+        capture(messageType, direction, connection, data, -1);
+    }
+
+    private void capture(
+            final @NotNull MessageType messageType,
+            final @NotNull Direction direction,
+            final @Nullable ConnectionContext connection,
+            final @NotNull Object data,
+            final long ackLatencyMicros) {
+        if (!running) {
+            dispatch(messageType, direction, connection, data, ackLatencyMicros);
+            return;
+        }
+        final var consumer = consumerForCurrentThread();
+        final var lane = Lane.of(messageType, data);
+        final var laneBuffer = consumer.lanes[lane.ordinal()];
+        final var ringBuffer = laneBuffer.ringBuffer;
+        final var sequence = lane == Lane.CONTROL ? ringBuffer.tryClaim() : claim(lane, laneBuffer);
+        if (sequence < 0) {
+            if (lane == Lane.CONTROL) {
+                dispatch(messageType, direction, connection, data, ackLatencyMicros);
+            } else {
+                dropped[lane.ordinal()].increment();
+            }
+            return;
+        }
+        ringBuffer.get(sequence).set(messageType, direction, connection, data, ackLatencyMicros);
+        ringBuffer.publish(sequence);
+    }
+
+    private long claim(final @NotNull Lane lane, final @NotNull LaneBuffer laneBuffer) {
+        final var ringBuffer = laneBuffer.ringBuffer;
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                while (true) {
+                    final var sequence = ringBuffer.tryClaim();
+                    if (sequence >= 0) {
+                        return sequence;
+                    }
+                    // another producer may claim the freed slot first, then the next oldest event is dropped
+                    if (!ringBuffer.tryDropOldest()) {
+                        return -1;
+                    }
+                    dropped[lane.ordinal()].increment();
+                }
+            case BLOCK: {
+                final var sequence = ringBuffer.tryClaim();
+                return sequence >= 0 ? sequence : awaitClaim(ringBuffer);
+            }
+            case SAMPLE:
+                if (ringBuffer.size() >= ringBuffer.capacity() / 2 &&
+                        laneBuffer.sampled.getAndIncrement() % sampleRate != 0) {
+                    return -1;
+                }
+                return ringBuffer.tryClaim();
+            default:
+                return ringBuffer.tryClaim();
+        }
+    }
+
+    private long awaitClaim(final @NotNull RingBuffer ringBuffer) {
+        final var deadline = System.nanoTime() + overflowTimeoutNanos;
+        var idleCount = 0;
+        while (running && System.nanoTime() - deadline < 0) {
+            idle(idleCount++);
+            final var sequence = ringBuffer.tryClaim();
+            if (sequence >= 0) {
+                return sequence;
+            }
+        }
+        return -1;
+    }
+
+    private @NotNull EventConsumer consumerForCurrentThread() {
+        if (consumers.length == 1) {
+            return consumers[0];
+        }
+        return consumers[(int) (Thread.currentThread().getId() % consumers.length)];
+    }
+
+    private void dispatch(
+            final @NotNull MessageType messageType,
+            final @NotNull Direction direction,
+            final @Nullable ConnectionContext connection,
+            final @NotNull Object data,
+            final long ackLatencyMicros) {
+        final var inbound = direction == Direction.INBOUND;
+        switch (messageType) {
+            case CONNECT:
+                delegate.logConnect((ConnectPacket) data);
+                break;
+            case CONNACK:
+                delegate.logConnack((ConnackOutboundInput) data);
+                break;
+            case DISCONNECT:
+                if (data instanceof DisconnectEventInput) {
+                    //noinspection DataFlowIssue
+                    delegate.logDisconnect((DisconnectEventInput) data, connection, inbound);
+                } else {
+                    //noinspection DataFlowIssue
+                    delegate.logDisconnect((DisconnectPacket) data, connection, inbound);
+                }
+                break;
+            case PUBLISH:
+                //noinspection DataFlowIssue
+                delegate.logPublish((PublishPacket) data, connection, inbound);
+                break;
+            case SUBSCRIBE:
+                delegate.logSubscribe((SubscribeInboundInput) data);
+                break;
+            case SUBACK:
+                delegate.logSuback((SubackOutboundInput) data);
+                break;
+            case UNSUBSCRIBE:
+                delegate.logUnsubscribe((UnsubscribeInboundInput) data);
+                break;
+            case UNSUBACK:
+                delegate.logUnsuback((UnsubackOutboundInput) data);
+                break;
+            case PINGREQ:
+                delegate.logPingreq((PingReqInboundInput) data);
+                break;
+            case PINGRESP:
+                delegate.logPingresp((PingRespOutboundInput) data);
+                break;
+            case PUBACK:
+                if (ackLatencyMicros >= 0) {
+                    //noinspection DataFlowIssue
+                    delegate.logPuback((PubackPacket) data, connection, inbound, ackLatencyMicros);
+                } else {
+                    //noinspection DataFlowIssue
+                    delegate.logPuback((PubackPacket) data, connection, inbound);
+                }
+                break;
+            case PUBREC:
+                //noinspection DataFlowIssue
+                delegate.logPubrec((PubrecPacket) data, connection, inbound);
+                break;
+            case PUBREL:
+                //noinspection DataFlowIssue
+                delegate.logPubrel((PubrelPacket) data, connection, inbound);
+                break;
+            case PUBCOMP:
+                //noinspection DataFlowIssue
+                delegate.logPubcomp((PubcompPacket) data, connection, inbound);
+                break;
+            case QOS2_FLOW:
+                //noinspection DataFlowIssue
+                delegate.logQos2Flow((Qos2Flow) data, connection);
+                break;
+            case SESSION_SUMMARY:
+                //noinspection DataFlowIssue
+                delegate.logSessionSummary((SessionSummary) data, connection);
+                break;
+            case PING_DIGEST:
+                delegate.logPingDigest((PingDigest) data);
+                break;
+            case REPEATED:
+                delegate.logRepeated((RepeatedEvent) data);
+                break;
+            case SUPPRESSED:
+                delegate.logSuppressed((SuppressedEvents) data);
+                break;
+        }
+    }
+
+    private static @NotNull Direction direction(final boolean inbound) {
+        return inbound ? Direction.INBOUND : Direction.OUTBOUND;
+    }
+
+    private static void idle(final int idleCount) {
+        if (idleCount < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (idleCount < YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(MAX_PARK_NANOS);
+        }
+    }
+
+    private static class LaneBuffer {
+
+        final @NotNull RingBuffer ringBuffer;
+        final @NotNull AtomicLong sampled = new AtomicLong();
+
+        LaneBuffer(final int bufferSize) {
+            ringBuffer = new RingBuffer(bufferSize);
+        }
+    }
+
+    private class EventConsumer extends Thread implements EventClock.CapturedTime {
+
+        private final int index;
+        private final @NotNull LaneBuffer @NotNull [] lanes = new LaneBuffer[LANES.length];
+        private long capturedTimeMicros;
+        private final long @NotNull [] reportedDrops = new long[LANES.length];
+        private long lastDropReport = nanoClock.getAsLong();
+
+        EventConsumer(final int index, final int bufferSize) {
+            super("hivemq-mqtt-message-log-" + index);
+            setDaemon(true);
+            this.index = index;
+            for (var i = 0; i < lanes.length; i++) {
+                lanes[i] = new LaneBuffer(bufferSize);
+            }
+        }
+
+        @Override
+        public void run() {
+            var idleCount = 0;
+            var processed = 0;
+            while (true) {
+                final var laneBuffer = nextLane();
+                if (laneBuffer == null) {
+                    if (!running) {
+                        break;
+                    }
+                    reportDrops();
+                    idle(idleCount++);
+                    continue;
+                }
+                idleCount = 0;
+                final var ringBuffer = laneBuffer.ringBuffer;
+                final var sequence = ringBuffer.tryTake();
+                // a producer may have dropped the event in between, then the lanes are compared again
+                if (sequence >= 0) {
+                    process(ringBuffer.get(sequence));
+                    ringBuffer.release(sequence);
+                    // events are dropped while the consumer is overloaded, so it may not become idle for a long time
+                    if (++processed % DROP_REPORT_EVENTS == 0) {
+                        reportDrops();
+                    }
+                }
+            }
+            reportDrops();
+        }
+
+        /**
+         * @return the lane with the event that was captured first or {@code null} if all lanes are empty
+         */
+        private @Nullable LaneBuffer nextLane() {
+            LaneBuffer next = null;
+            LogEvent nextEvent = null;
+            for (final var laneBuffer : lanes) {
+                final var event = laneBuffer.ringBuffer.peek();
+                if (event != null && (nextEvent == null || event.captureNanos - nextEvent.captureNanos < 0)) {
+                    next = laneBuffer;
+                    nextEvent = event;
+                }
+            }
+            return next;
+        }
+
+        @Override
+        public long getCapturedTimeMicros() {
+            return capturedTimeMicros;
+        }
+
+        private void process(final @NotNull LogEvent event) {
+            capturedTimeMicros = event.timestamp;
+            try {
+                //noinspection DataFlowIssue
+                dispatch(event.messageType, event.direction, event.connection, event.data, event.ackLatencyMicros);
+            } catch (final Exception e) {
+                LOG.debug("Exception thrown at asynchronous {} logging: ", event.messageType, e);
+            }
+        }
+
+        private void reportDrops() {
+            // the drop counter is shared, so only the first consumer reports it
+            if (index != 0) {
+                return;
+            }
+            final var now = nanoClock.getAsLong();
+            if (running && now - lastDropReport < DROP_REPORT_INTERVAL_NANOS) {
+                return;
+            }
+            lastDropReport = now;
+            for (final var lane : LANES) {
+                final var drops = dropped[lane.ordinal()].sum();
+                if (drops != reportedDrops[lane.ordinal()]) {
+                    LOG.warn("{}: Dropped {} MQTT events of the {} lane because the asynchronous logging buffer was " +
+                                    "full, consider increasing async-buffer-size",
+                            EXTENSION_NAME,
+                            drops - reportedDrops[lane.ordinal()],
+                            lane.name().toLowerCase(Locale.ROOT));
+                    reportedDrops[lane.ordinal()] = drops;
+                }
+            }
+        }
+    }
+}
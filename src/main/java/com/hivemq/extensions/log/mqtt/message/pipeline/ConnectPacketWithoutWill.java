@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.pipeline;
+
+import com.hivemq.extension.sdk.api.packets.connect.ConnectPacket;
+import com.hivemq.extension.sdk.api.packets.connect.WillPublishPacket;
+import com.hivemq.extension.sdk.api.packets.general.MqttVersion;
+import com.hivemq.extension.sdk.api.packets.general.UserProperties;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+/**
+ * A view of a {@link ConnectPacket} without its will, used to log a CONNECT whose will topic is not logged.
+ *
+ * @since 1.4.0
+ */
+class ConnectPacketWithoutWill implements ConnectPacket {
+
+    private final @NotNull ConnectPacket delegate;
+
+    ConnectPacketWithoutWill(final @NotNull ConnectPacket delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public @NotNull MqttVersion getMqttVersion() {
+        return delegate.getMqttVersion();
+    }
+
+    @Override
+    public @NotNull String getClientId() {
+        return delegate.getClientId();
+    }
+
+    @Override
+    public boolean getCleanStart() {
+        return delegate.getCleanStart();
+    }
+
+    @Override
+    public @NotNull Optional<WillPublishPacket> getWillPublish() {
+        return Optional.empty();
+    }
+
+    @Override
+    public long getSessionExpiryInterval() {
+        return delegate.getSessionExpiryInterval();
+    }
+
+    @Override
+    public int getKeepAlive() {
+        return delegate.getKeepAlive();
+    }
+
+    @Override
+    public int getReceiveMaximum() {
+        return delegate.getReceiveMaximum();
+    }
+
+    @Override
+    public long getMaximumPacketSize() {
+        return delegate.getMaximumPacketSize();
+    }
+
+    @Override
+    public int getTopicAliasMaximum() {
+        return delegate.getTopicAliasMaximum();
+    }
+
+    @Override
+    public boolean getRequestResponseInformation() {
+        return delegate.getRequestResponseInformation();
+    }
+
+    @Override
+    public boolean getRequestProblemInformation() {
+        return delegate.getRequestProblemInformation();
+    }
+
+    @Override
+    public @NotNull Optional<String> getAuthenticationMethod() {
+        return delegate.getAuthenticationMethod();
+    }
+
+    @Override
+    public @NotNull Optional<ByteBuffer> getAuthenticationData() {
+        return delegate.getAuthenticationData();
+    }
+
+    @Override
+    public @NotNull UserProperties getUserProperties() {
+        return delegate.getUserProperties();
+    }
+
+    @Override
+    public @NotNull Optional<String> getUserName() {
+        return delegate.getUserName();
+    }
+
+    @Override
+    public @NotNull Optional<ByteBuffer> getPassword() {
+        return delegate.getPassword();
+    }
+}
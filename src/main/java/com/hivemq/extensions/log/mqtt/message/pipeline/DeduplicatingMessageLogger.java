@@ -0,0 +1,511 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.pipeline;
+
+import com.hivemq.extension.sdk.api.events.client.parameters.AuthenticationFailedInput;
+import com.hivemq.extension.sdk.api.events.client.parameters.DisconnectEventInput;
+import com.hivemq.extension.sdk.api.interceptor.connack.parameter.ConnackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.pingreq.parameter.PingReqInboundInput;
+import com.hivemq.extension.sdk.api.interceptor.pingresp.parameter.PingRespOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.suback.parameter.SubackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.subscribe.parameter.SubscribeInboundInput;
+import com.hivemq.extension.sdk.api.interceptor.unsuback.parameter.UnsubackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.unsubscribe.parameter.UnsubscribeInboundInput;
+import com.hivemq.extension.sdk.api.packets.connect.ConnectPacket;
+import com.hivemq.extension.sdk.api.packets.disconnect.DisconnectPacket;
+import com.hivemq.extension.sdk.api.packets.puback.PubackPacket;
+import com.hivemq.extension.sdk.api.packets.pubcomp.PubcompPacket;
+import com.hivemq.extension.sdk.api.packets.publish.PublishPacket;
+import com.hivemq.extension.sdk.api.packets.pubrec.PubrecPacket;
+import com.hivemq.extension.sdk.api.packets.pubrel.PubrelPacket;
+import com.hivemq.extensions.log.mqtt.message.config.LogPolicy;
+import com.hivemq.extensions.log.mqtt.message.flow.PingDigest;
+import com.hivemq.extensions.log.mqtt.message.flow.Qos2Flow;
+import com.hivemq.extensions.log.mqtt.message.flow.SessionSummary;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
+import com.hivemq.extensions.log.mqtt.message.logger.Direction;
+import com.hivemq.extensions.log.mqtt.message.logger.EventClock;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageType;
+import com.hivemq.extensions.log.mqtt.message.logger.RepeatedEvent;
+import com.hivemq.extensions.log.mqtt.message.logger.SuppressedEvents;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static com.hivemq.extensions.log.mqtt.message.util.HashUtil.xxHash64;
+
+/**
+ * A {@link MessageLogger} that suppresses the repetitions of an event within a time window, like the "last message
+ * repeated" of syslog.
+ * <p>
+ * Every event is reduced to a fingerprint of its client, message type, direction, reason codes and topics, the
+ * timestamp, packet identifiers and verbose details are not part of it. The payload of a PUBLISH is only part of it if
+ * payloads are logged. The first occurrence of a fingerprint is logged and starts the window, the repetitions within
+ * the window are only counted without being formatted. When the window ended, or the slot of the fingerprint is taken
+ * by another event, a single {@link RepeatedEvent} with the count and the time of the first and last repetition is
+ * logged.
+ * <p>
+ * The fingerprints are kept in a fixed-size table with one slot per fingerprint hash, split into stripes with their
+ * own lock. Different events with the same slot take the slot from each other, so they are logged as usual. QoS 2
+ * flows, session summaries and ping digests are aggregates and never suppressed.
+ *
+ * @since 1.4.0
+ */
+public class DeduplicatingMessageLogger implements MessageLogger {
+
+    private static final int STRIPE_BITS = 4;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+
+    private final @NotNull MessageLogger delegate;
+    private final @NotNull Supplier<LogPolicy> currentPolicy;
+    private final long windowMillis;
+    private final @NotNull LongSupplier clock;
+    private final @NotNull Stripe @NotNull [] stripes = new Stripe[STRIPES];
+
+    /**
+     * @param windowMillis the milliseconds after the first occurrence of an event in which its repetitions are
+     *                     suppressed
+     * @param tableSize    the number of fingerprints that are tracked at the same time, rounded up to a power of two
+     */
+    public DeduplicatingMessageLogger(
+            final @NotNull MessageLogger delegate,
+            final @NotNull Supplier<LogPolicy> currentPolicy,
+            final long windowMillis,
+            final int tableSize) {
+        this(delegate, currentPolicy, windowMillis, tableSize, EventClock::currentTimeMillis);
+    }
+
+    @VisibleForTesting
+    DeduplicatingMessageLogger(
+            final @NotNull MessageLogger delegate,
+            final @NotNull Supplier<LogPolicy> currentPolicy,
+            final long windowMillis,
+            final int tableSize,
+            final @NotNull LongSupplier clock) {
+        this.delegate = delegate;
+        this.currentPolicy = currentPolicy;
+        this.windowMillis = windowMillis;
+        this.clock = clock;
+        final var slots = Math.max(Integer.highestOneBit(Math.max(tableSize, STRIPES) - 1) << 1, STRIPES) / STRIPES;
+        for (var i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(slots);
+        }
+    }
+
+    @Override
+    public void logDisconnect(
+            final @NotNull DisconnectEventInput disconnectEventInput,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var clientId = connection.getClientId();
+        final var direction = inbound ? Direction.INBOUND : Direction.OUTBOUND;
+        final var reasonCode = disconnectEventInput.getReasonCode().orElse(null);
+        var fingerprint = begin(MessageType.DISCONNECT, direction, clientId);
+        // a failed authentication is logged with its own text
+        fingerprint = mix(fingerprint, disconnectEventInput instanceof AuthenticationFailedInput ? 1 : 0);
+        if (reasonCode != null) {
+            fingerprint = mix(fingerprint, reasonCode.ordinal());
+        }
+        if (!isRepeated(fingerprint,
+                MessageType.DISCONNECT,
+                direction,
+                clientId,
+                null,
+                reasonCode != null ? reasonCode.name() : null)) {
+            delegate.logDisconnect(disconnectEventInput, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logDisconnect(
+            final @NotNull DisconnectPacket disconnectPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        if (!isRepeated(MessageType.DISCONNECT, inbound, connection.getClientId(), disconnectPacket.getReasonCode())) {
+            delegate.logDisconnect(disconnectPacket, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logConnect(final @NotNull ConnectPacket connectPacket) {
+        final var clientId = connectPacket.getClientId();
+        final var fingerprint = begin(MessageType.CONNECT, Direction.INBOUND, clientId);
+        if (!isRepeated(fingerprint, MessageType.CONNECT, Direction.INBOUND, clientId, null, null)) {
+            delegate.logConnect(connectPacket);
+        }
+    }
+
+    @Override
+    public void logConnack(final @NotNull ConnackOutboundInput connackOutboundInput) {
+        final var clientId = connackOutboundInput.getClientInformation().getClientId();
+        if (!isRepeated(MessageType.CONNACK,
+                false,
+                clientId,
+                connackOutboundInput.getConnackPacket().getReasonCode())) {
+            delegate.logConnack(connackOutboundInput);
+        }
+    }
+
+    @Override
+    public void logPublish(
+            final @NotNull PublishPacket publishPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var policy = currentPolicy.get();
+        final var topic = publishPacket.getTopic();
+        final var clientId = connection.getClientId();
+        final var direction = inbound ? Direction.INBOUND : Direction.OUTBOUND;
+        var fingerprint = begin(MessageType.PUBLISH, direction, clientId);
+        fingerprint = mix(fingerprint, topic.hashCode());
+        fingerprint = mix(fingerprint, publishPacket.getQos().ordinal());
+        fingerprint = mix(fingerprint, publishPacket.getRetain() ? 1 : 0);
+        if (policy.isPayload() && publishPacket.getPayload().isPresent()) {
+            fingerprint = mix(fingerprint, xxHash64(publishPacket.getPayload().get()));
+        }
+        if (!isRepeated(fingerprint, MessageType.PUBLISH, direction, clientId, topic, null)) {
+            delegate.logPublish(publishPacket, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logSubscribe(final @NotNull SubscribeInboundInput subscribeInboundInput) {
+        final var clientId = subscribeInboundInput.getClientInformation().getClientId();
+        var fingerprint = begin(MessageType.SUBSCRIBE, Direction.INBOUND, clientId);
+        for (final var subscription : subscribeInboundInput.getSubscribePacket().getSubscriptions()) {
+            fingerprint = mix(fingerprint, subscription.getTopicFilter().hashCode());
+            fingerprint = mix(fingerprint, subscription.getQos().ordinal());
+        }
+        if (!isRepeated(fingerprint, MessageType.SUBSCRIBE, Direction.INBOUND, clientId, null, null)) {
+            delegate.logSubscribe(subscribeInboundInput);
+        }
+    }
+
+    @Override
+    public void logSuback(final @NotNull SubackOutboundInput subackOutboundInput) {
+        final var clientId = subackOutboundInput.getClientInformation().getClientId();
+        var fingerprint = begin(MessageType.SUBACK, Direction.OUTBOUND, clientId);
+        for (final var reasonCode : subackOutboundInput.getSubackPacket().getReasonCodes()) {
+            fingerprint = mix(fingerprint, reasonCode.ordinal());
+        }
+        if (!isRepeated(fingerprint, MessageType.SUBACK, Direction.OUTBOUND, clientId, null, null)) {
+            delegate.logSuback(subackOutboundInput);
+        }
+    }
+
+    @Override
+    public void logUnsubscribe(final @NotNull UnsubscribeInboundInput unsubscribeInboundInput) {
+        final var clientId = unsubscribeInboundInput.getClientInformation().getClientId();
+        var fingerprint = begin(MessageType.UNSUBSCRIBE, Direction.INBOUND, clientId);
+        for (final var topicFilter : unsubscribeInboundInput.getUnsubscribePacket().getTopicFilters()) {
+            fingerprint = mix(fingerprint, topicFilter.hashCode());
+        }
+        if (!isRepeated(fingerprint, MessageType.UNSUBSCRIBE, Direction.INBOUND, clientId, null, null)) {
+            delegate.logUnsubscribe(unsubscribeInboundInput);
+        }
+    }
+
+    @Override
+    public void logUnsuback(final @NotNull UnsubackOutboundInput unsubackOutboundInput) {
+        final var clientId = unsubackOutboundInput.getClientInformation().getClientId();
+        var fingerprint = begin(MessageType.UNSUBACK, Direction.OUTBOUND, clientId);
+        for (final var reasonCode : unsubackOutboundInput.getUnsubackPacket().getReasonCodes()) {
+            fingerprint = mix(fingerprint, reasonCode.ordinal());
+        }
+        if (!isRepeated(fingerprint, MessageType.UNSUBACK, Direction.OUTBOUND, clientId, null, null)) {
+            delegate.logUnsuback(unsubackOutboundInput);
+        }
+    }
+
+    @Override
+    public void logPingreq(final @NotNull PingReqInboundInput pingReqInboundInput) {
+        if (!isRepeated(MessageType.PINGREQ, true, pingReqInboundInput.getClientInformation().getClientId(), null)) {
+            delegate.logPingreq(pingReqInboundInput);
+        }
+    }
+
+    @Override
+    public void logPingresp(final @NotNull PingRespOutboundInput pingRespOutboundInput) {
+        if (!isRepeated(MessageType.PINGRESP,
+                false,
+                pingRespOutboundInput.getClientInformation().getClientId(),
+                null)) {
+            delegate.logPingresp(pingRespOutboundInput);
+        }
+    }
+
+    @Override
+    public void logPuback(
+            final @NotNull PubackPacket pubackPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        if (!isRepeated(MessageType.PUBACK, inbound, connection.getClientId(), pubackPacket.getReasonCode())) {
+            delegate.logPuback(pubackPacket, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logPuback(
+            final @NotNull PubackPacket pubackPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound,
+            final long ackLatencyMicros) {
+        if (!isRepeated(MessageType.PUBACK, inbound, connection.getClientId(), pubackPacket.getReasonCode())) {
+            delegate.logPuback(pubackPacket, connection, inbound, ackLatencyMicros);
+        }
+    }
+
+    @Override
+    public void logPubrec(
+            final @NotNull PubrecPacket pubrecPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        if (!isRepeated(MessageType.PUBREC, inbound, connection.getClientId(), pubrecPacket.getReasonCode())) {
+            delegate.logPubrec(pubrecPacket, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logPubrel(
+            final @NotNull PubrelPacket pubrelPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        if (!isRepeated(MessageType.PUBREL, inbound, connection.getClientId(), pubrelPacket.getReasonCode())) {
+            delegate.logPubrel(pubrelPacket, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logPubcomp(
+            final @NotNull PubcompPacket pubcompPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        if (!isRepeated(MessageType.PUBCOMP, inbound, connection.getClientId(), pubcompPacket.getReasonCode())) {
+            delegate.logPubcomp(pubcompPacket, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logQos2Flow(final @NotNull Qos2Flow qos2Flow, final @NotNull ConnectionContext connection) {
+        delegate.logQos2Flow(qos2Flow, connection);
+    }
+
+    @Override
+    public void logSessionSummary(
+            final @NotNull SessionSummary sessionSummary,
+            final @NotNull ConnectionContext connection) {
+        delegate.logSessionSummary(sessionSummary, connection);
+    }
+
+    @Override
+    public void logPingDigest(final @NotNull PingDigest pingDigest) {
+        delegate.logPingDigest(pingDigest);
+    }
+
+    @Override
+    public void logRepeated(final @NotNull RepeatedEvent repeatedEvent) {
+        delegate.logRepeated(repeatedEvent);
+    }
+
+    @Override
+    public void logSuppressed(final @NotNull SuppressedEvents suppressedEvents) {
+        delegate.logSuppressed(suppressedEvents);
+    }
+
+    /**
+     * Logs the repetitions of the events whose window ended.
+     */
+    public void expire() {
+        logEnded(clock.getAsLong() - windowMillis);
+    }
+
+    /**
+     * Logs the repetitions of all events, e.g. before the extension is stopped.
+     */
+    public void flush() {
+        logEnded(Long.MAX_VALUE);
+    }
+
+    private void logEnded(final long startedBefore) {
+        final var ended = new ArrayList<RepeatedEvent>();
+        for (final var stripe : stripes) {
+            synchronized (stripe) {
+                stripe.end(startedBefore, ended);
+            }
+        }
+        for (final var repeatedEvent : ended) {
+            delegate.logRepeated(repeatedEvent);
+        }
+    }
+
+    private boolean isRepeated(
+            final @NotNull MessageType messageType,
+            final boolean inbound,
+            final @NotNull String clientId,
+            final @Nullable Enum<?> reasonCode) {
+        final var direction = inbound ? Direction.INBOUND : Direction.OUTBOUND;
+        var fingerprint = begin(messageType, direction, clientId);
+        if (reasonCode != null) {
+            fingerprint = mix(fingerprint, reasonCode.ordinal());
+        }
+        return isRepeated(fingerprint,
+                messageType,
+                direction,
+                clientId,
+                null,
+                reasonCode != null ? reasonCode.name() : null);
+    }
+
+    /**
+     * Counts the event if it is a repetition within the window, otherwise it takes the slot of its fingerprint and
+     * the repetitions of the previous event of the slot are logged.
+     *
+     * @return whether the event is suppressed
+     */
+    private boolean isRepeated(
+            final long fingerprint,
+            final @NotNull MessageType messageType,
+            final @NotNull Direction direction,
+            final @NotNull String clientId,
+            final @Nullable String topic,
+            final @Nullable String reasonCode) {
+        final var hash = finish(fingerprint);
+        final var stripe = stripes[(int) (hash >>> (Long.SIZE - STRIPE_BITS))];
+        final var now = clock.getAsLong();
+        final RepeatedEvent ended;
+        synchronized (stripe) {
+            final var slot = (int) hash & (stripe.slots.length - 1);
+            var entry = stripe.slots[slot];
+            if (entry == null) {
+                entry = new Entry();
+                stripe.slots[slot] = entry;
+            } else if (entry.fingerprint == hash && now - entry.startMillis < windowMillis) {
+                if (entry.count++ == 0) {
+                    entry.firstMillis = now;
+                }
+                entry.lastMillis = now;
+                return true;
+            }
+            ended = entry.end();
+            entry.start(hash, now, messageType, direction, clientId, topic, reasonCode);
+        }
+        if (ended != null) {
+            delegate.logRepeated(ended);
+        }
+        return false;
+    }
+
+    private static long begin(
+            final @NotNull MessageType messageType,
+            final @NotNull Direction direction,
+            final @NotNull String clientId) {
+        return mix(mix(messageType.ordinal(), direction.ordinal()), clientId.hashCode());
+    }
+
+    private static long mix(final long fingerprint, final long value) {
+        final var mixed = (fingerprint ^ value) * 0x9E3779B97F4A7C15L;
+        return mixed ^ (mixed >>> 32);
+    }
+
+    /**
+     * Murmur3 finalizer, so the stripe and slot bits depend on all fields.
+     */
+    private static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static final class Stripe {
+
+        private final @Nullable Entry @NotNull [] slots;
+
+        Stripe(final int slots) {
+            this.slots = new Entry[slots];
+        }
+
+        void end(final long startedBefore, final @NotNull List<RepeatedEvent> ended) {
+            for (final var entry : slots) {
+                if (entry != null && entry.fingerprint != 0 && entry.startMillis - startedBefore <= 0) {
+                    final var repeatedEvent = entry.end();
+                    if (repeatedEvent != null) {
+                        ended.add(repeatedEvent);
+                    }
+                    entry.fingerprint = 0;
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private long fingerprint;
+        private long startMillis;
+        private long count;
+        private long firstMillis;
+        private long lastMillis;
+        private @Nullable MessageType messageType;
+        private @Nullable Direction direction;
+        private @Nullable String clientId;
+        private @Nullable String topic;
+        private @Nullable String reasonCode;
+
+        void start(
+                final long fingerprint,
+                final long startMillis,
+                final @NotNull MessageType messageType,
+                final @NotNull Direction direction,
+                final @NotNull String clientId,
+                final @Nullable String topic,
+                final @Nullable String reasonCode) {
+            this.fingerprint = fingerprint;
+            this.startMillis = startMillis;
+            this.count = 0;
+            this.messageType = messageType;
+            this.direction = direction;
+            this.clientId = clientId;
+            this.topic = topic;
+            this.reasonCode = reasonCode;
+        }
+
+        /**
+         * @return the repetitions since the start, or {@code null} if there were none
+         */
+        @Nullable RepeatedEvent end() {
+            if (count == 0 || messageType == null || direction == null || clientId == null) {
+                return null;
+            }
+            final var repeatedEvent = new RepeatedEvent(messageType,
+                    direction,
+                    clientId,
+                    topic,
+                    reasonCode,
+                    count,
+                    firstMillis,
+                    lastMillis);
+            count = 0;
+            return repeatedEvent;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.pipeline;
+
+import com.hivemq.extension.sdk.api.packets.puback.PubackPacket;
+import com.hivemq.extension.sdk.api.packets.pubcomp.PubcompPacket;
+import com.hivemq.extension.sdk.api.packets.pubcomp.PubcompReasonCode;
+import com.hivemq.extension.sdk.api.packets.publish.AckReasonCode;
+import com.hivemq.extension.sdk.api.packets.pubrec.PubrecPacket;
+import com.hivemq.extension.sdk.api.packets.pubrel.PubrelPacket;
+import com.hivemq.extension.sdk.api.packets.pubrel.PubrelReasonCode;
+import com.hivemq.extensions.log.mqtt.message.flow.Qos2Flow;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageType;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The lanes of the {@link AsyncMessageLogger}. Every lane has its own buffer, so a flood of PUBLISH or PING events
+ * never takes the room of the events that are needed to follow the lifecycle of a client.
+ *
+ * @since 1.4.0
+ */
+public enum Lane {
+
+    /**
+     * Connects, disconnects, subscriptions and every acknowledgement with an error reason code, never dropped.
+     */
+    CONTROL,
+
+    /**
+     * PUBLISH packets and their successful acknowledgements.
+     */
+    PUBLISH,
+
+    /**
+     * PINGREQ and PINGRESP packets.
+     */
+    PING;
+
+    static @NotNull Lane of(final @NotNull MessageType messageType, final @NotNull Object data) {
+        switch (messageType) {
+            case PUBLISH:
+                return PUBLISH;
+            case PINGREQ:
+            case PINGRESP:
+                return PING;
+            case PUBACK:
+                return isSuccess(((PubackPacket) data).getReasonCode()) ? PUBLISH : CONTROL;
+            case PUBREC:
+                return isSuccess(((PubrecPacket) data).getReasonCode()) ? PUBLISH : CONTROL;
+            case PUBREL:
+                return ((PubrelPacket) data).getReasonCode() == PubrelReasonCode.SUCCESS ? PUBLISH : CONTROL;
+            case PUBCOMP:
+                return ((PubcompPacket) data).getReasonCode() == PubcompReasonCode.SUCCESS ? PUBLISH : CONTROL;
+            case QOS2_FLOW:
+                return ((Qos2Flow) data).isSuccessful() ? PUBLISH : CONTROL;
+            default:
+                return CONTROL;
+        }
+    }
+
+    private static boolean isSuccess(final @NotNull AckReasonCode reasonCode) {
+        return reasonCode == AckReasonCode.SUCCESS || reasonCode == AckReasonCode.NO_MATCHING_SUBSCRIBERS;
+    }
+}
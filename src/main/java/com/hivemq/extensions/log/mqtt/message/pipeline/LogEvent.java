@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.pipeline;
+
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
+import com.hivemq.extensions.log.mqtt.message.logger.Direction;
+import com.hivemq.extensions.log.mqtt.message.logger.EventClock;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A pre-allocated slot of the {@link RingBuffer} that holds a captured MQTT event until it is logged.
+ * <p>
+ * The SDK inputs and packets handed to interceptors are immutable, so capturing an event only stores references and
+ * never copies packet data on the broker thread.
+ *
+ * @since 1.4.0
+ */
+class LogEvent {
+
+    @NotNull MessageType messageType = MessageType.CONNECT;
+    @NotNull Direction direction = Direction.INBOUND;
+    @Nullable ConnectionContext connection;
+    @Nullable Object data;
+    // microseconds since the epoch
+    long timestamp;
+    // orders the events of the lanes of a consumer, the events of a thread are captured with ascending values
+    long captureNanos;
+    // microseconds since the acknowledged PUBLISH of a PUBACK, negative if not known
+    long ackLatencyMicros;
+
+    void set(
+            final @NotNull MessageType messageType,
+            final @NotNull Direction direction,
+            final @Nullable ConnectionContext connection,
+            final @NotNull Object data,
+            final long ackLatencyMicros) {
+        this.messageType = messageType;
+        this.direction = direction;
+        this.connection = connection;
+        this.data = data;
+        this.timestamp = EventClock.systemTimeMicros();
+        this.captureNanos = System.nanoTime();
+        this.ackLatencyMicros = ackLatencyMicros;
+    }
+
+    void clear() {
+        connection = null;
+        data = null;
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.pipeline;
+
+import com.hivemq.extension.sdk.api.events.client.parameters.DisconnectEventInput;
+import com.hivemq.extension.sdk.api.interceptor.connack.parameter.ConnackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.pingreq.parameter.PingReqInboundInput;
+import com.hivemq.extension.sdk.api.interceptor.pingresp.parameter.PingRespOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.suback.parameter.SubackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.subscribe.parameter.SubscribeInboundInput;
+import com.hivemq.extension.sdk.api.interceptor.unsuback.parameter.UnsubackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.unsubscribe.parameter.UnsubscribeInboundInput;
+import com.hivemq.extension.sdk.api.packets.connect.ConnectPacket;
+import com.hivemq.extension.sdk.api.packets.disconnect.DisconnectPacket;
+import com.hivemq.extension.sdk.api.packets.puback.PubackPacket;
+import com.hivemq.extension.sdk.api.packets.pubcomp.PubcompPacket;
+import com.hivemq.extension.sdk.api.packets.publish.PublishPacket;
+import com.hivemq.extension.sdk.api.packets.pubrec.PubrecPacket;
+import com.hivemq.extension.sdk.api.packets.pubrel.PubrelPacket;
+import com.hivemq.extensions.log.mqtt.message.flow.PingDigest;
+import com.hivemq.extensions.log.mqtt.message.flow.Qos2Flow;
+import com.hivemq.extensions.log.mqtt.message.flow.SessionSummary;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
+import com.hivemq.extensions.log.mqtt.message.logger.Direction;
+import com.hivemq.extensions.log.mqtt.message.logger.EventLoggers;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageType;
+import com.hivemq.extensions.log.mqtt.message.logger.RepeatedEvent;
+import com.hivemq.extensions.log.mqtt.message.logger.SuppressedEvents;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link MessageLogger} that drops the events whose logger of the {@link EventLoggers} is not enabled for info.
+ * <p>
+ * The level is checked for every event, so a change of the logging configuration of HiveMQ takes effect immediately.
+ * It is only used if the records are written via SLF4J and placed before the events are rate limited, captured or
+ * formatted, so a disabled type costs a single level check.
+ *
+ * @since 1.4.0
+ */
+public class LogLevelFilteringMessageLogger implements MessageLogger {
+
+    private final @NotNull MessageLogger delegate;
+
+    public LogLevelFilteringMessageLogger(final @NotNull MessageLogger delegate) {
+        this.delegate = delegate;
+    }
+
+    private static boolean isEnabled(final @NotNull MessageType type, final @NotNull Direction direction) {
+        return EventLoggers.get(type, direction).isInfoEnabled();
+    }
+
+    private static boolean isEnabled(final @NotNull MessageType type, final boolean inbound) {
+        return EventLoggers.get(type, inbound).isInfoEnabled();
+    }
+
+    @Override
+    public void logDisconnect(
+            final @NotNull DisconnectEventInput disconnectEventInput,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        if (isEnabled(MessageType.DISCONNECT, inbound)) {
+            delegate.logDisconnect(disconnectEventInput, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logDisconnect(
+            final @NotNull DisconnectPacket disconnectPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        if (isEnabled(MessageType.DISCONNECT, inbound)) {
+            delegate.logDisconnect(disconnectPacket, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logConnect(final @NotNull ConnectPacket connectPacket) {
+        if (isEnabled(MessageType.CONNECT, Direction.INBOUND)) {
+            delegate.logConnect(connectPacket);
+        }
+    }
+
+    @Override
+    public void logConnack(final @NotNull ConnackOutboundInput connackOutboundInput) {
+        if (isEnabled(MessageType.CONNACK, Direction.OUTBOUND)) {
+            delegate.logConnack(connackOutboundInput);
+        }
+    }
+
+    @Override
+    public void logPublish(
+            final @NotNull PublishPacket publishPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        if (isEnabled(MessageType.PUBLISH, inbound)) {
+            delegate.logPublish(publishPacket, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logSubscribe(final @NotNull SubscribeInboundInput subscribeInboundInput) {
+        if (isEnabled(MessageType.SUBSCRIBE, Direction.INBOUND)) {
+            delegate.logSubscribe(subscribeInboundInput);
+        }
+    }
+
+    @Override
+    public void logSuback(final @NotNull SubackOutboundInput subackOutboundInput) {
+        if (isEnabled(MessageType.SUBACK, Direction.OUTBOUND)) {
+            delegate.logSuback(subackOutboundInput);
+        }
+    }
+
+    @Override
+    public void logUnsubscribe(final @NotNull UnsubscribeInboundInput unsubscribeInboundInput) {
+        if (isEnabled(MessageType.UNSUBSCRIBE, Direction.INBOUND)) {
+            delegate.logUnsubscribe(unsubscribeInboundInput);
+        }
+    }
+
+    @Override
+    public void logUnsuback(final @NotNull UnsubackOutboundInput unsubackOutboundInput) {
+        if (isEnabled(MessageType.UNSUBACK, Direction.OUTBOUND)) {
+            delegate.logUnsuback(unsubackOutboundInput);
+        }
+    }
+
+    @Override
+    public void logPingreq(final @NotNull PingReqInboundInput pingReqInboundInput) {
+        if (isEnabled(MessageType.PINGREQ, Direction.INBOUND)) {
+            delegate.logPingreq(pingReqInboundInput);
+        }
+    }
+
+    @Override
+    public void logPingresp(final @NotNull PingRespOutboundInput pingRespOutboundInput) {
+        if (isEnabled(MessageType.PINGRESP, Direction.OUTBOUND)) {
+            delegate.logPingresp(pingRespOutboundInput);
+        }
+    }
+
+    @Override
+    public void logPuback(
+            final @NotNull PubackPacket pubackPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        if (isEnabled(MessageType.PUBACK, inbound)) {
+            delegate.logPuback(pubackPacket, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logPuback(
+            final @NotNull PubackPacket pubackPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound,
+            final long ackLatencyMicros) {
+        if (isEnabled(MessageType.PUBACK, inbound)) {
+            delegate.logPuback(pubackPacket, connection, inbound, ackLatencyMicros);
+        }
+    }
+
+    @Override
+    public void logPubrec(
+            final @NotNull PubrecPacket pubrecPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        if (isEnabled(MessageType.PUBREC, inbound)) {
+            delegate.logPubrec(pubrecPacket, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logPubrel(
+            final @NotNull PubrelPacket pubrelPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        if (isEnabled(MessageType.PUBREL, inbound)) {
+            delegate.logPubrel(pubrelPacket, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logPubcomp(
+            final @NotNull PubcompPacket pubcompPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        if (isEnabled(MessageType.PUBCOMP, inbound)) {
+            delegate.logPubcomp(pubcompPacket, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logQos2Flow(final @NotNull Qos2Flow qos2Flow, final @NotNull ConnectionContext connection) {
+        if (isEnabled(MessageType.QOS2_FLOW, qos2Flow.isInbound())) {
+            delegate.logQos2Flow(qos2Flow, connection);
+        }
+    }
+
+    @Override
+    public void logSessionSummary(
+            final @NotNull SessionSummary sessionSummary,
+            final @NotNull ConnectionContext connection) {
+        if (isEnabled(MessageType.SESSION_SUMMARY, Direction.EVENT)) {
+            delegate.logSessionSummary(sessionSummary, connection);
+        }
+    }
+
+    @Override
+    public void logPingDigest(final @NotNull PingDigest pingDigest) {
+        if (isEnabled(MessageType.PING_DIGEST, Direction.EVENT)) {
+            delegate.logPingDigest(pingDigest);
+        }
+    }
+
+    @Override
+    public void logRepeated(final @NotNull RepeatedEvent repeatedEvent) {
+        // the repetitions are logged by the logger of the repeated event
+        if (isEnabled(repeatedEvent.getMessageType(), repeatedEvent.getDirection())) {
+            delegate.logRepeated(repeatedEvent);
+        }
+    }
+
+    @Override
+    public void logSuppressed(final @NotNull SuppressedEvents suppressedEvents) {
+        if (isEnabled(MessageType.SUPPRESSED, Direction.EVENT)) {
+            delegate.logSuppressed(suppressedEvents);
+        }
+    }
+}
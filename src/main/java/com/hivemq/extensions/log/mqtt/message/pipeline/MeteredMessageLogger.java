@@ -0,0 +1,364 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.pipeline;
+
+import com.hivemq.extension.sdk.api.events.client.parameters.DisconnectEventInput;
+import com.hivemq.extension.sdk.api.interceptor.connack.parameter.ConnackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.pingreq.parameter.PingReqInboundInput;
+import com.hivemq.extension.sdk.api.interceptor.pingresp.parameter.PingRespOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.suback.parameter.SubackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.subscribe.parameter.SubscribeInboundInput;
+import com.hivemq.extension.sdk.api.interceptor.unsuback.parameter.UnsubackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.unsubscribe.parameter.UnsubscribeInboundInput;
+import com.hivemq.extension.sdk.api.packets.connect.ConnectPacket;
+import com.hivemq.extension.sdk.api.packets.disconnect.DisconnectPacket;
+import com.hivemq.extension.sdk.api.packets.puback.PubackPacket;
+import com.hivemq.extension.sdk.api.packets.pubcomp.PubcompPacket;
+import com.hivemq.extension.sdk.api.packets.publish.PublishPacket;
+import com.hivemq.extension.sdk.api.packets.pubrec.PubrecPacket;
+import com.hivemq.extension.sdk.api.packets.pubrel.PubrelPacket;
+import com.hivemq.extensions.log.mqtt.message.flow.PingDigest;
+import com.hivemq.extensions.log.mqtt.message.flow.Qos2Flow;
+import com.hivemq.extensions.log.mqtt.message.flow.SessionSummary;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
+import com.hivemq.extensions.log.mqtt.message.logger.Direction;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageType;
+import com.hivemq.extensions.log.mqtt.message.logger.RepeatedEvent;
+import com.hivemq.extensions.log.mqtt.message.logger.SuppressedEvents;
+import com.hivemq.extensions.log.mqtt.message.metrics.MessageLogMetrics;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link MessageLogger} that records the {@link MessageLogMetrics} of the events it hands to the delegate.
+ * <p>
+ * It wraps the logger that formats and writes the events, so the recorded time is the formatting time only and events
+ * that are filtered or dropped before are not counted as logged. Exceptions of the delegate are counted as failed and
+ * rethrown to the caller.
+ *
+ * @since 1.4.0
+ */
+public class MeteredMessageLogger implements MessageLogger {
+
+    private final @NotNull MessageLogger delegate;
+    private final @NotNull MessageLogMetrics metrics;
+
+    public MeteredMessageLogger(final @NotNull MessageLogger delegate, final @NotNull MessageLogMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void logDisconnect(
+            final @NotNull DisconnectEventInput disconnectEventInput,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var direction = direction(inbound);
+        final var start = System.nanoTime();
+        try {
+            delegate.logDisconnect(disconnectEventInput, connection, inbound);
+        } catch (final RuntimeException e) {
+            metrics.failed(MessageType.DISCONNECT, direction);
+            throw e;
+        }
+        metrics.logged(MessageType.DISCONNECT, direction, System.nanoTime() - start);
+    }
+
+    @Override
+    public void logDisconnect(
+            final @NotNull DisconnectPacket disconnectPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var direction = direction(inbound);
+        final var start = System.nanoTime();
+        try {
+            delegate.logDisconnect(disconnectPacket, connection, inbound);
+        } catch (final RuntimeException e) {
+            metrics.failed(MessageType.DISCONNECT, direction);
+            throw e;
+        }
+        metrics.logged(MessageType.DISCONNECT, direction, System.nanoTime() - start);
+    }
+
+    @Override
+    public void logConnect(final @NotNull ConnectPacket connectPacket) {
+        final var direction = Direction.INBOUND;
+        final var start = System.nanoTime();
+        try {
+            delegate.logConnect(connectPacket);
+        } catch (final RuntimeException e) {
+            metrics.failed(MessageType.CONNECT, direction);
+            throw e;
+        }
+        metrics.logged(MessageType.CONNECT, direction, System.nanoTime() - start);
+    }
+
+    @Override
+    public void logConnack(final @NotNull ConnackOutboundInput connackOutboundInput) {
+        final var direction = Direction.OUTBOUND;
+        final var start = System.nanoTime();
+        try {
+            delegate.logConnack(connackOutboundInput);
+        } catch (final RuntimeException e) {
+            metrics.failed(MessageType.CONNACK, direction);
+            throw e;
+        }
+        metrics.logged(MessageType.CONNACK, direction, System.nanoTime() - start);
+    }
+
+    @Override
+    public void logPublish(
+            final @NotNull PublishPacket publishPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var direction = direction(inbound);
+        final var start = System.nanoTime();
+        try {
+            delegate.logPublish(publishPacket, connection, inbound);
+        } catch (final RuntimeException e) {
+            metrics.failed(MessageType.PUBLISH, direction);
+            throw e;
+        }
+        metrics.logged(MessageType.PUBLISH, direction, System.nanoTime() - start);
+    }
+
+    @Override
+    public void logSubscribe(final @NotNull SubscribeInboundInput subscribeInboundInput) {
+        final var direction = Direction.INBOUND;
+        final var start = System.nanoTime();
+        try {
+            delegate.logSubscribe(subscribeInboundInput);
+        } catch (final RuntimeException e) {
+            metrics.failed(MessageType.SUBSCRIBE, direction);
+            throw e;
+        }
+        metrics.logged(MessageType.SUBSCRIBE, direction, System.nanoTime() - start);
+    }
+
+    @Override
+    public void logSuback(final @NotNull SubackOutboundInput subackOutboundInput) {
+        final var direction = Direction.OUTBOUND;
+        final var start = System.nanoTime();
+        try {
+            delegate.logSuback(subackOutboundInput);
+        } catch (final RuntimeException e) {
+            metrics.failed(MessageType.SUBACK, direction);
+            throw e;
+        }
+        metrics.logged(MessageType.SUBACK, direction, System.nanoTime() - start);
+    }
+
+    @Override
+    public void logUnsubscribe(final @NotNull UnsubscribeInboundInput unsubscribeInboundInput) {
+        final var direction = Direction.INBOUND;
+        final var start = System.nanoTime();
+        try {
+            delegate.logUnsubscribe(unsubscribeInboundInput);
+        } catch (final RuntimeException e) {
+            metrics.failed(MessageType.UNSUBSCRIBE, direction);
+            throw e;
+        }
+        metrics.logged(MessageType.UNSUBSCRIBE, direction, System.nanoTime() - start);
+    }
+
+    @Override
+    public void logUnsuback(final @NotNull UnsubackOutboundInput unsubackOutboundInput) {
+        final var direction = Direction.OUTBOUND;
+        final var start = System.nanoTime();
+        try {
+            delegate.logUnsuback(unsubackOutboundInput);
+        } catch (final RuntimeException e) {
+            metrics.failed(MessageType.UNSUBACK, direction);
+            throw e;
+        }
+        metrics.logged(MessageType.UNSUBACK, direction, System.nanoTime() - start);
+    }
+
+    @Override
+    public void logPingreq(final @NotNull PingReqInboundInput pingReqInboundInput) {
+        final var direction = Direction.INBOUND;
+        final var start = System.nanoTime();
+        try {
+            delegate.logPingreq(pingReqInboundInput);
+        } catch (final RuntimeException e) {
+            metrics.failed(MessageType.PINGREQ, direction);
+            throw e;
+        }
+        metrics.logged(MessageType.PINGREQ, direction, System.nanoTime() - start);
+    }
+
+    @Override
+    public void logPingresp(final @NotNull PingRespOutboundInput pingRespOutboundInput) {
+        final var direction = Direction.OUTBOUND;
+        final var start = System.nanoTime();
+        try {
+            delegate.logPingresp(pingRespOutboundInput);
+        } catch (final RuntimeException e) {
+            metrics.failed(MessageType.PINGRESP, direction);
+            throw e;
+        }
+        metrics.logged(MessageType.PINGRESP, direction, System.nanoTime() - start);
+    }
+
+    @Override
+    public void logPuback(
+            final @NotNull PubackPacket pubackPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var direction = direction(inbound);
+        final var start = System.nanoTime();
+        try {
+            delegate.logPuback(pubackPacket, connection, inbound);
+        } catch (final RuntimeException e) {
+            metrics.failed(MessageType.PUBACK, direction);
+            throw e;
+        }
+        metrics.logged(MessageType.PUBACK, direction, System.nanoTime() - start);
+    }
+
+    @Override
+    public void logPuback(
+            final @NotNull PubackPacket pubackPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound,
+            final long ackLatencyMicros) {
+        final var direction = direction(inbound);
+        final var start = System.nanoTime();
+        try {
+            delegate.logPuback(pubackPacket, connection, inbound, ackLatencyMicros);
+        } catch (final RuntimeException e) {
+            metrics.failed(MessageType.PUBACK, direction);
+            throw e;
+        }
+        metrics.logged(MessageType.PUBACK, direction, System.nanoTime() - start);
+    }
+
+    @Override
+    public void logPubrec(
+            final @NotNull PubrecPacket pubrecPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var direction = direction(inbound);
+        final var start = System.nanoTime();
+        try {
+            delegate.logPubrec(pubrecPacket, connection, inbound);
+        } catch (final RuntimeException e) {
+            metrics.failed(MessageType.PUBREC, direction);
+            throw e;
+        }
+        metrics.logged(MessageType.PUBREC, direction, System.nanoTime() - start);
+    }
+
+    @Override
+    public void logPubrel(
+            final @NotNull PubrelPacket pubrelPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var direction = direction(inbound);
+        final var start = System.nanoTime();
+        try {
+            delegate.logPubrel(pubrelPacket, connection, inbound);
+        } catch (final RuntimeException e) {
+            metrics.failed(MessageType.PUBREL, direction);
+            throw e;
+        }
+        metrics.logged(MessageType.PUBREL, direction, System.nanoTime() - start);
+    }
+
+    @Override
+    public void logPubcomp(
+            final @NotNull PubcompPacket pubcompPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var direction = direction(inbound);
+        final var start = System.nanoTime();
+        try {
+            delegate.logPubcomp(pubcompPacket, connection, inbound);
+        } catch (final RuntimeException e) {
+            metrics.failed(MessageType.PUBCOMP, direction);
+            throw e;
+        }
+        metrics.logged(MessageType.PUBCOMP, direction, System.nanoTime() - start);
+    }
+
+    @Override
+    public void logQos2Flow(final @NotNull Qos2Flow qos2Flow, final @NotNull ConnectionContext connection) {
+        final var direction = direction(qos2Flow.isInbound());
+        final var start = System.nanoTime();
+        try {
+            delegate.logQos2Flow(qos2Flow, connection);
+        } catch (final RuntimeException e) {
+            metrics.failed(MessageType.QOS2_FLOW, direction);
+            throw e;
+        }
+        metrics.logged(MessageType.QOS2_FLOW, direction, System.nanoTime() - start);
+    }
+
+    @Override
+    public void logSessionSummary(
+            final @NotNull SessionSummary sessionSummary,
+            final @NotNull ConnectionContext connection) {
+        final var start = System.nanoTime();
+        try {
+            delegate.logSessionSummary(sessionSummary, connection);
+        } catch (final RuntimeException e) {
+            metrics.failed(MessageType.SESSION_SUMMARY, Direction.EVENT);
+            throw e;
+        }
+        metrics.logged(MessageType.SESSION_SUMMARY, Direction.EVENT, System.nanoTime() - start);
+    }
+
+    @Override
+    public void logPingDigest(final @NotNull PingDigest pingDigest) {
+        final var start = System.nanoTime();
+        try {
+            delegate.logPingDigest(pingDigest);
+        } catch (final RuntimeException e) {
+            metrics.failed(MessageType.PING_DIGEST, Direction.EVENT);
+            throw e;
+        }
+        metrics.logged(MessageType.PING_DIGEST, Direction.EVENT, System.nanoTime() - start);
+    }
+
+    @Override
+    public void logRepeated(final @NotNull RepeatedEvent repeatedEvent) {
+        final var start = System.nanoTime();
+        try {
+            delegate.logRepeated(repeatedEvent);
+        } catch (final RuntimeException e) {
+            metrics.failed(MessageType.REPEATED, Direction.EVENT);
+            throw e;
+        }
+        metrics.logged(MessageType.REPEATED, Direction.EVENT, System.nanoTime() - start);
+    }
+
+    @Override
+    public void logSuppressed(final @NotNull SuppressedEvents suppressedEvents) {
+        final var start = System.nanoTime();
+        try {
+            delegate.logSuppressed(suppressedEvents);
+        } catch (final RuntimeException e) {
+            metrics.failed(MessageType.SUPPRESSED, Direction.EVENT);
+            throw e;
+        }
+        metrics.logged(MessageType.SUPPRESSED, Direction.EVENT, System.nanoTime() - start);
+    }
+
+    private static @NotNull Direction direction(final boolean inbound) {
+        return inbound ? Direction.INBOUND : Direction.OUTBOUND;
+    }
+}
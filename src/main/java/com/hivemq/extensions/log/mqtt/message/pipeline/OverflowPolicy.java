@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.pipeline;
+
+/**
+ * What the {@link AsyncMessageLogger} does with a PUBLISH or PING event when its lane is full.
+ * <p>
+ * Events of the {@link Lane#CONTROL} lane are never dropped, the policy does not apply to them.
+ *
+ * @since 1.4.0
+ */
+public enum OverflowPolicy {
+
+    /**
+     * The new event is dropped.
+     */
+    DROP_NEWEST,
+
+    /**
+     * The oldest buffered event of the lane is dropped to make room for the new one, the broker thread does not wait
+     * for the consumer thread. If the oldest event is still being captured, the new event is dropped instead.
+     */
+    DROP_OLDEST,
+
+    /**
+     * The broker thread waits up to the overflow timeout for a free slot, then the new event is dropped.
+     */
+    BLOCK,
+
+    /**
+     * Only every n-th event is buffered while the lane is at least half full, and the new event is dropped if it is
+     * full.
+     */
+    SAMPLE
+}
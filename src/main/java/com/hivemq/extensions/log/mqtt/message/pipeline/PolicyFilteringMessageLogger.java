@@ -0,0 +1,259 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.pipeline;
+
+import com.hivemq.extension.sdk.api.events.client.parameters.DisconnectEventInput;
+import com.hivemq.extension.sdk.api.interceptor.connack.parameter.ConnackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.pingreq.parameter.PingReqInboundInput;
+import com.hivemq.extension.sdk.api.interceptor.pingresp.parameter.PingRespOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.suback.parameter.SubackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.subscribe.parameter.SubscribeInboundInput;
+import com.hivemq.extension.sdk.api.interceptor.unsuback.parameter.UnsubackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.unsubscribe.parameter.UnsubscribeInboundInput;
+import com.hivemq.extension.sdk.api.packets.connect.ConnectPacket;
+import com.hivemq.extension.sdk.api.packets.disconnect.DisconnectPacket;
+import com.hivemq.extension.sdk.api.packets.puback.PubackPacket;
+import com.hivemq.extension.sdk.api.packets.pubcomp.PubcompPacket;
+import com.hivemq.extension.sdk.api.packets.publish.PublishPacket;
+import com.hivemq.extension.sdk.api.packets.pubrec.PubrecPacket;
+import com.hivemq.extension.sdk.api.packets.pubrel.PubrelPacket;
+import com.hivemq.extensions.log.mqtt.message.config.EventType;
+import com.hivemq.extensions.log.mqtt.message.config.LogPolicy;
+import com.hivemq.extensions.log.mqtt.message.flow.PingDigest;
+import com.hivemq.extensions.log.mqtt.message.flow.Qos2Flow;
+import com.hivemq.extensions.log.mqtt.message.flow.SessionSummary;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
+import com.hivemq.extensions.log.mqtt.message.logger.RepeatedEvent;
+import com.hivemq.extensions.log.mqtt.message.logger.SuppressedEvents;
+import com.hivemq.extensions.log.mqtt.message.topic.TopicFilter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Supplier;
+
+/**
+ * A {@link MessageLogger} that drops the events whose {@link EventType} is disabled in the current {@link LogPolicy}
+ * and the PUBLISH messages whose topic is not matched by its {@link TopicFilter}. A will whose topic is not matched is
+ * left out of the CONNECT.
+ * <p>
+ * Interceptors of existing connections stay registered when an event type is disabled by a configuration reload, this
+ * logger makes the change effective for them immediately. It is the outermost logger, so dropped events are neither
+ * captured nor queued.
+ *
+ * @since 1.4.0
+ */
+public class PolicyFilteringMessageLogger implements MessageLogger {
+
+    private final @NotNull MessageLogger delegate;
+    private final @NotNull Supplier<LogPolicy> currentPolicy;
+
+    public PolicyFilteringMessageLogger(
+            final @NotNull MessageLogger delegate,
+            final @NotNull Supplier<LogPolicy> currentPolicy) {
+        this.delegate = delegate;
+        this.currentPolicy = currentPolicy;
+    }
+
+    private boolean isEnabled(final @NotNull EventType eventType) {
+        return currentPolicy.get().isEnabled(eventType);
+    }
+
+    private boolean isEnabled(
+            final boolean inbound,
+            final @NotNull EventType received,
+            final @NotNull EventType send) {
+        return currentPolicy.get().isEnabled(inbound ? received : send);
+    }
+
+    @Override
+    public void logDisconnect(
+            final @NotNull DisconnectEventInput disconnectEventInput,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        if (isEnabled(EventType.CLIENT_DISCONNECT)) {
+            delegate.logDisconnect(disconnectEventInput, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logDisconnect(
+            final @NotNull DisconnectPacket disconnectPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        if (isEnabled(EventType.CLIENT_DISCONNECT)) {
+            delegate.logDisconnect(disconnectPacket, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logConnect(final @NotNull ConnectPacket connectPacket) {
+        final var policy = currentPolicy.get();
+        if (!policy.isEnabled(EventType.CLIENT_CONNECT)) {
+            return;
+        }
+        final var willPublish = connectPacket.getWillPublish();
+        if (willPublish.isPresent() && !policy.getTopicFilter().matches(willPublish.get().getTopic())) {
+            delegate.logConnect(new ConnectPacketWithoutWill(connectPacket));
+        } else {
+            delegate.logConnect(connectPacket);
+        }
+    }
+
+    @Override
+    public void logConnack(final @NotNull ConnackOutboundInput connackOutboundInput) {
+        if (isEnabled(EventType.CONNACK_SEND)) {
+            delegate.logConnack(connackOutboundInput);
+        }
+    }
+
+    @Override
+    public void logPublish(
+            final @NotNull PublishPacket publishPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var policy = currentPolicy.get();
+        if (policy.isEnabled(inbound ? EventType.PUBLISH_RECEIVED : EventType.PUBLISH_SEND) &&
+                policy.getTopicFilter().matches(publishPacket.getTopic())) {
+            delegate.logPublish(publishPacket, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logSubscribe(final @NotNull SubscribeInboundInput subscribeInboundInput) {
+        if (isEnabled(EventType.SUBSCRIBE_RECEIVED)) {
+            delegate.logSubscribe(subscribeInboundInput);
+        }
+    }
+
+    @Override
+    public void logSuback(final @NotNull SubackOutboundInput subackOutboundInput) {
+        if (isEnabled(EventType.SUBACK_SEND)) {
+            delegate.logSuback(subackOutboundInput);
+        }
+    }
+
+    @Override
+    public void logUnsubscribe(final @NotNull UnsubscribeInboundInput unsubscribeInboundInput) {
+        if (isEnabled(EventType.UNSUBSCRIBE_RECEIVED)) {
+            delegate.logUnsubscribe(unsubscribeInboundInput);
+        }
+    }
+
+    @Override
+    public void logUnsuback(final @NotNull UnsubackOutboundInput unsubackOutboundInput) {
+        if (isEnabled(EventType.UNSUBACK_SEND)) {
+            delegate.logUnsuback(unsubackOutboundInput);
+        }
+    }
+
+    @Override
+    public void logPingreq(final @NotNull PingReqInboundInput pingReqInboundInput) {
+        if (isEnabled(EventType.PING_REQUEST_RECEIVED)) {
+            delegate.logPingreq(pingReqInboundInput);
+        }
+    }
+
+    @Override
+    public void logPingresp(final @NotNull PingRespOutboundInput pingRespOutboundInput) {
+        if (isEnabled(EventType.PING_RESPONSE_SEND)) {
+            delegate.logPingresp(pingRespOutboundInput);
+        }
+    }
+
+    @Override
+    public void logPuback(
+            final @NotNull PubackPacket pubackPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        if (isEnabled(inbound, EventType.PUBACK_RECEIVED, EventType.PUBACK_SEND)) {
+            delegate.logPuback(pubackPacket, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logPuback(
+            final @NotNull PubackPacket pubackPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound,
+            final long ackLatencyMicros) {
+        if (isEnabled(inbound, EventType.PUBACK_RECEIVED, EventType.PUBACK_SEND)) {
+            delegate.logPuback(pubackPacket, connection, inbound, ackLatencyMicros);
+        }
+    }
+
+    @Override
+    public void logPubrec(
+            final @NotNull PubrecPacket pubrecPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        if (isEnabled(inbound, EventType.PUBREC_RECEIVED, EventType.PUBREC_SEND)) {
+            delegate.logPubrec(pubrecPacket, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logPubrel(
+            final @NotNull PubrelPacket pubrelPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        if (isEnabled(inbound, EventType.PUBREL_RECEIVED, EventType.PUBREL_SEND)) {
+            delegate.logPubrel(pubrelPacket, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logPubcomp(
+            final @NotNull PubcompPacket pubcompPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        if (isEnabled(inbound, EventType.PUBCOMP_RECEIVED, EventType.PUBCOMP_SEND)) {
+            delegate.logPubcomp(pubcompPacket, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logQos2Flow(final @NotNull Qos2Flow qos2Flow, final @NotNull ConnectionContext connection) {
+        // the flows are only aggregated if enabled, which is not part of the reloadable policy
+        delegate.logQos2Flow(qos2Flow, connection);
+    }
+
+    @Override
+    public void logSessionSummary(
+            final @NotNull SessionSummary sessionSummary,
+            final @NotNull ConnectionContext connection) {
+        // the sessions are only summarized if enabled, which is not part of the reloadable policy
+        delegate.logSessionSummary(sessionSummary, connection);
+    }
+
+    @Override
+    public void logPingDigest(final @NotNull PingDigest pingDigest) {
+        // the pings are only aggregated if enabled, which is not part of the reloadable policy
+        delegate.logPingDigest(pingDigest);
+    }
+
+    @Override
+    public void logRepeated(final @NotNull RepeatedEvent repeatedEvent) {
+        // the first occurrence of the event already passed the policy
+        delegate.logRepeated(repeatedEvent);
+    }
+
+    @Override
+    public void logSuppressed(final @NotNull SuppressedEvents suppressedEvents) {
+        // the suppressed events already passed the policy
+        delegate.logSuppressed(suppressedEvents);
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.pipeline;
+
+import com.hivemq.extension.sdk.api.events.client.parameters.DisconnectEventInput;
+import com.hivemq.extension.sdk.api.interceptor.connack.parameter.ConnackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.pingreq.parameter.PingReqInboundInput;
+import com.hivemq.extension.sdk.api.interceptor.pingresp.parameter.PingRespOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.suback.parameter.SubackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.subscribe.parameter.SubscribeInboundInput;
+import com.hivemq.extension.sdk.api.interceptor.unsuback.parameter.UnsubackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.unsubscribe.parameter.UnsubscribeInboundInput;
+import com.hivemq.extension.sdk.api.packets.connect.ConnectPacket;
+import com.hivemq.extension.sdk.api.packets.disconnect.DisconnectPacket;
+import com.hivemq.extension.sdk.api.packets.puback.PubackPacket;
+import com.hivemq.extension.sdk.api.packets.pubcomp.PubcompPacket;
+import com.hivemq.extension.sdk.api.packets.publish.PublishPacket;
+import com.hivemq.extension.sdk.api.packets.pubrec.PubrecPacket;
+import com.hivemq.extension.sdk.api.packets.pubrel.PubrelPacket;
+import com.hivemq.extensions.log.mqtt.message.flow.PingDigest;
+import com.hivemq.extensions.log.mqtt.message.flow.Qos2Flow;
+import com.hivemq.extensions.log.mqtt.message.flow.SessionSummary;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
+import com.hivemq.extensions.log.mqtt.message.logger.RepeatedEvent;
+import com.hivemq.extensions.log.mqtt.message.logger.SuppressedEvents;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A {@link MessageLogger} for the events of a single client that limits them with a token bucket.
+ * <p>
+ * An instance is created per connection and only holds a few counters. Events of a client that exceeded its budget
+ * are not passed to the delegate, so they are neither captured nor formatted, but only counted. The number of
+ * suppressed events is logged through the delegate with the next event of the client, at most once per report
+ * interval, and when the client disconnects. CONNECT, CONNACK, DISCONNECT and the session summary are not limited.
+ *
+ * @since 1.4.0
+ */
+public class RateLimitedMessageLogger implements MessageLogger {
+
+    private static final long REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final @NotNull MessageLogger delegate;
+    private final @NotNull String clientId;
+    private final @NotNull LongSupplier nanoClock;
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    // the time when the bucket is full again, one emission interval is added for every logged event
+    private final @NotNull AtomicLong fullAt;
+    private final @NotNull AtomicLong suppressed = new AtomicLong();
+    private final @NotNull AtomicLong nextReport;
+
+    /**
+     * @param delegate        the logger for the events within the budget
+     * @param clientId        the id of the client
+     * @param eventsPerSecond the number of events per second that are logged on average
+     * @param burst           the number of events that are logged at once after the client was idle
+     */
+    public RateLimitedMessageLogger(
+            final @NotNull MessageLogger delegate,
+            final @NotNull String clientId,
+            final int eventsPerSecond,
+            final int burst) {
+        this(delegate, clientId, eventsPerSecond, burst, System::nanoTime);
+    }
+
+    @VisibleForTesting
+    RateLimitedMessageLogger(
+            final @NotNull MessageLogger delegate,
+            final @NotNull String clientId,
+            final int eventsPerSecond,
+            final int burst,
+            final @NotNull LongSupplier nanoClock) {
+        this.delegate = delegate;
+        this.clientId = clientId;
+        this.nanoClock = nanoClock;
+        emissionIntervalNanos = TimeUnit.SECONDS.toNanos(1) / eventsPerSecond;
+        burstNanos = emissionIntervalNanos * Math.max(burst, 1);
+        final var now = nanoClock.getAsLong();
+        fullAt = new AtomicLong(now);
+        nextReport = new AtomicLong(now + REPORT_INTERVAL_NANOS);
+    }
+
+    /**
+     * Takes a token from the bucket.
+     *
+     * @return {@code true} if the event is within the budget and must be logged
+     */
+    private boolean tryAcquire() {
+        final var now = nanoClock.getAsLong();
+        while (true) {
+            final var current = fullAt.get();
+            final var next = Math.max(current, now) + emissionIntervalNanos;
+            if (next - now > burstNanos) {
+                suppressed.incrementAndGet();
+                reportSuppressed(now, false);
+                return false;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                reportSuppressed(now, false);
+                return true;
+            }
+        }
+    }
+
+    private void reportSuppressed(final long now, final boolean force) {
+        if (suppressed.get() == 0) {
+            return;
+        }
+        final var report = nextReport.get();
+        if (!force && now - report < 0) {
+            return;
+        }
+        // only the thread that moves the report time reports, the others keep counting
+        if (!nextReport.compareAndSet(report, now + REPORT_INTERVAL_NANOS)) {
+            return;
+        }
+        final var count = suppressed.getAndSet(0);
+        if (count > 0) {
+            delegate.logSuppressed(new SuppressedEvents(clientId, count));
+        }
+    }
+
+    @VisibleForTesting
+    long getSuppressedCount() {
+        return suppressed.get();
+    }
+
+    @Override
+    public void logDisconnect(
+            final @NotNull DisconnectEventInput disconnectEventInput,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        reportSuppressed(nanoClock.getAsLong(), true);
+        delegate.logDisconnect(disconnectEventInput, connection, inbound);
+    }
+
+    @Override
+    public void logDisconnect(
+            final @NotNull DisconnectPacket disconnectPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        reportSuppressed(nanoClock.getAsLong(), true);
+        delegate.logDisconnect(disconnectPacket, connection, inbound);
+    }
+
+    @Override
+    public void logConnect(final @NotNull ConnectPacket connectPacket) {
+        delegate.logConnect(connectPacket);
+    }
+
+    @Override
+    public void logConnack(final @NotNull ConnackOutboundInput connackOutboundInput) {
+        delegate.logConnack(connackOutboundInput);
+    }
+
+    @Override
+    public void logPublish(
+            final @NotNull PublishPacket publishPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        if (tryAcquire()) {
+            delegate.logPublish(publishPacket, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logSubscribe(final @NotNull SubscribeInboundInput subscribeInboundInput) {
+        if (tryAcquire()) {
+            delegate.logSubscribe(subscribeInboundInput);
+        }
+    }
+
+    @Override
+    public void logSuback(final @NotNull SubackOutboundInput subackOutboundInput) {
+        if (tryAcquire()) {
+            delegate.logSuback(subackOutboundInput);
+        }
+    }
+
+    @Override
+    public void logUnsubscribe(final @NotNull UnsubscribeInboundInput unsubscribeInboundInput) {
+        if (tryAcquire()) {
+            delegate.logUnsubscribe(unsubscribeInboundInput);
+        }
+    }
+
+    @Override
+    public void logUnsuback(final @NotNull UnsubackOutboundInput unsubackOutboundInput) {
+        if (tryAcquire()) {
+            delegate.logUnsuback(unsubackOutboundInput);
+        }
+    }
+
+    @Override
+    public void logPingreq(final @NotNull PingReqInboundInput pingReqInboundInput) {
+        if (tryAcquire()) {
+            delegate.logPingreq(pingReqInboundInput);
+        }
+    }
+
+    @Override
+    public void logPingresp(final @NotNull PingRespOutboundInput pingRespOutboundInput) {
+        if (tryAcquire()) {
+            delegate.logPingresp(pingRespOutboundInput);
+        }
+    }
+
+    @Override
+    public void logPuback(
+            final @NotNull PubackPacket pubackPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        if (tryAcquire()) {
+            delegate.logPuback(pubackPacket, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logPuback(
+            final @NotNull PubackPacket pubackPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound,
+            final long ackLatencyMicros) {
+        if (tryAcquire()) {
+            delegate.logPuback(pubackPacket, connection, inbound, ackLatencyMicros);
+        }
+    }
+
+    @Override
+    public void logPubrec(
+            final @NotNull PubrecPacket pubrecPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        if (tryAcquire()) {
+            delegate.logPubrec(pubrecPacket, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logPubrel(
+            final @NotNull PubrelPacket pubrelPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        if (tryAcquire()) {
+            delegate.logPubrel(pubrelPacket, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logPubcomp(
+            final @NotNull PubcompPacket pubcompPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        if (tryAcquire()) {
+            delegate.logPubcomp(pubcompPacket, connection, inbound);
+        }
+    }
+
+    @Override
+    public void logQos2Flow(final @NotNull Qos2Flow qos2Flow, final @NotNull ConnectionContext connection) {
+        if (tryAcquire()) {
+            delegate.logQos2Flow(qos2Flow, connection);
+        }
+    }
+
+    @Override
+    public void logSessionSummary(
+            final @NotNull SessionSummary sessionSummary,
+            final @NotNull ConnectionContext connection) {
+        reportSuppressed(nanoClock.getAsLong(), true);
+        delegate.logSessionSummary(sessionSummary, connection);
+    }
+
+    @Override
+    public void logPingDigest(final @NotNull PingDigest pingDigest) {
+        // the digest is logged by the extension, not for this client
+        delegate.logPingDigest(pingDigest);
+    }
+
+    @Override
+    public void logRepeated(final @NotNull RepeatedEvent repeatedEvent) {
+        // the repetitions are logged by the extension, not for this client
+        delegate.logRepeated(repeatedEvent);
+    }
+
+    @Override
+    public void logSuppressed(final @NotNull SuppressedEvents suppressedEvents) {
+        delegate.logSuppressed(suppressedEvents);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.pipeline;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free multi-producer single-consumer ring buffer with pre-allocated {@link LogEvent} slots.
+ * <p>
+ * Producers claim a sequence with a single CAS, fill the slot and publish it. Every slot carries its own sequence
+ * number, so the consumer never reads a slot before the producer that claimed it has published it, and a producer
+ * never overwrites a slot before the consumer has released it.
+ * <p>
+ * The consumer takes a published slot with a CAS on the consumer sequence. If the buffer is full, a producer can take
+ * the oldest published slot with the same CAS instead, so exactly one of them owns the slot and the oldest event is
+ * dropped without waiting for the consumer.
+ *
+ * @since 1.4.0
+ */
+class RingBuffer {
+
+    private final @NotNull LogEvent @NotNull [] slots;
+    private final @NotNull AtomicLongArray sequences;
+    private final @NotNull AtomicLong producerSequence = new AtomicLong();
+    private final int mask;
+
+    // advanced by the consumer, or by a producer that drops the oldest event
+    private final @NotNull AtomicLong consumerSequence = new AtomicLong();
+
+    /**
+     * @param requestedCapacity the minimum number of slots, rounded up to the next power of two
+     */
+    RingBuffer(final int requestedCapacity) {
+        final var capacity = capacityFor(requestedCapacity);
+        this.slots = new LogEvent[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (var i = 0; i < capacity; i++) {
+            slots[i] = new LogEvent();
+            sequences.set(i, i);
+        }
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Claims the next free slot.
+     *
+     * @return the claimed sequence or {@code -1} if the buffer is full
+     */
+    long tryClaim() {
+        var sequence = producerSequence.get();
+        while (true) {
+            final var difference = sequences.getAcquire((int) (sequence & mask)) - sequence;
+            if (difference == 0) {
+                if (producerSequence.compareAndSet(sequence, sequence + 1)) {
+                    return sequence;
+                }
+                sequence = producerSequence.get();
+            } else if (difference < 0) {
+                return -1;
+            } else {
+                sequence = producerSequence.get();
+            }
+        }
+    }
+
+    @NotNull LogEvent get(final long sequence) {
+        return slots[(int) (sequence & mask)];
+    }
+
+    /**
+     * Makes a claimed and filled slot visible to the consumer.
+     */
+    void publish(final long sequence) {
+        sequences.setRelease((int) (sequence & mask), sequence + 1);
+    }
+
+    /**
+     * Returns the next published event without taking it. A producer may drop the event at any time, so the consumer
+     * must only use it to decide which buffer to {@link #tryTake() take} from next.
+     *
+     * @return the next published event or {@code null} if there is none
+     */
+    @Nullable LogEvent peek() {
+        final var consumerSequence = this.consumerSequence.get();
+        final var index = (int) (consumerSequence & mask);
+        if (sequences.getAcquire(index) != consumerSequence + 1) {
+            return null;
+        }
+        return slots[index];
+    }
+
+    /**
+     * Takes the next published slot, which stays reserved for the consumer until it is {@link #release(long)
+     * released}, must only be called by the consumer.
+     *
+     * @return the taken sequence or {@code -1} if there is no published slot
+     */
+    long tryTake() {
+        while (true) {
+            final var sequence = consumerSequence.get();
+            if (sequences.getAcquire((int) (sequence & mask)) != sequence + 1) {
+                return -1;
+            }
+            if (consumerSequence.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+    }
+
+    /**
+     * Hands a slot returned by {@link #tryTake()} back to the producers.
+     */
+    void release(final long sequence) {
+        final var index = (int) (sequence & mask);
+        slots[index].clear();
+        sequences.setRelease(index, sequence + slots.length);
+    }
+
+    /**
+     * Drops the oldest event if the buffer is full and the event is published, so the slot can be claimed again.
+     *
+     * @return {@code true} if the oldest event was dropped, {@code false} if the buffer is not full, the oldest slot is
+     *         not published yet or the consumer took it first
+     */
+    boolean tryDropOldest() {
+        final var sequence = consumerSequence.get();
+        if (producerSequence.get() != sequence + slots.length ||
+                sequences.getAcquire((int) (sequence & mask)) != sequence + 1 ||
+                !consumerSequence.compareAndSet(sequence, sequence + 1)) {
+            return false;
+        }
+        release(sequence);
+        return true;
+    }
+
+    /**
+     * @return the number of claimed slots, only an estimate while producers or the consumer are active
+     */
+    int size() {
+        final var size = producerSequence.get() - consumerSequence.getAcquire();
+        return (int) Math.max(0, Math.min(size, slots.length));
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    static int capacityFor(final int requestedCapacity) {
+        if (requestedCapacity <= 2) {
+            return 2;
+        }
+        if (requestedCapacity > (1 << 30)) {
+            return 1 << 30;
+        }
+        return Integer.highestOneBit(requestedCapacity - 1) << 1;
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.pipeline;
+
+import com.hivemq.extension.sdk.api.events.client.parameters.DisconnectEventInput;
+import com.hivemq.extension.sdk.api.interceptor.connack.parameter.ConnackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.pingreq.parameter.PingReqInboundInput;
+import com.hivemq.extension.sdk.api.interceptor.pingresp.parameter.PingRespOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.suback.parameter.SubackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.subscribe.parameter.SubscribeInboundInput;
+import com.hivemq.extension.sdk.api.interceptor.unsuback.parameter.UnsubackOutboundInput;
+import com.hivemq.extension.sdk.api.interceptor.unsubscribe.parameter.UnsubscribeInboundInput;
+import com.hivemq.extension.sdk.api.packets.connect.ConnectPacket;
+import com.hivemq.extension.sdk.api.packets.disconnect.DisconnectPacket;
+import com.hivemq.extension.sdk.api.packets.disconnect.DisconnectReasonCode;
+import com.hivemq.extension.sdk.api.packets.puback.PubackPacket;
+import com.hivemq.extension.sdk.api.packets.pubcomp.PubcompPacket;
+import com.hivemq.extension.sdk.api.packets.pubcomp.PubcompReasonCode;
+import com.hivemq.extension.sdk.api.packets.publish.AckReasonCode;
+import com.hivemq.extension.sdk.api.packets.publish.PublishPacket;
+import com.hivemq.extension.sdk.api.packets.pubrec.PubrecPacket;
+import com.hivemq.extension.sdk.api.packets.pubrel.PubrelPacket;
+import com.hivemq.extension.sdk.api.packets.pubrel.PubrelReasonCode;
+import com.hivemq.extension.sdk.api.packets.subscribe.SubackReasonCode;
+import com.hivemq.extension.sdk.api.packets.unsuback.UnsubackReasonCode;
+import com.hivemq.extensions.log.mqtt.message.flow.PingDigest;
+import com.hivemq.extensions.log.mqtt.message.flow.Qos2Flow;
+import com.hivemq.extensions.log.mqtt.message.flow.SessionSummary;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageType;
+import com.hivemq.extensions.log.mqtt.message.logger.RepeatedEvent;
+import com.hivemq.extensions.log.mqtt.message.logger.SuppressedEvents;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link MessageLogger} for the events of a single client that counts every event in the {@link SessionSummary} of
+ * the connection before it is passed to the delegate.
+ * <p>
+ * With a session summary the interceptors of all packets are added to the connection, so the delegate must drop the
+ * events that are disabled in the policy.
+ *
+ * @since 1.4.0
+ */
+public class SessionSummaryMessageLogger implements MessageLogger {
+
+    private final @NotNull MessageLogger delegate;
+    private final @NotNull SessionSummary sessionSummary;
+
+    public SessionSummaryMessageLogger(
+            final @NotNull MessageLogger delegate,
+            final @NotNull SessionSummary sessionSummary) {
+        this.delegate = delegate;
+        this.sessionSummary = sessionSummary;
+    }
+
+    @Override
+    public void logDisconnect(
+            final @NotNull DisconnectEventInput disconnectEventInput,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        delegate.logDisconnect(disconnectEventInput, connection, inbound);
+    }
+
+    @Override
+    public void logDisconnect(
+            final @NotNull DisconnectPacket disconnectPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        final var reasonCode = disconnectPacket.getReasonCode();
+        count(MessageType.DISCONNECT,
+                inbound,
+                reasonCode == DisconnectReasonCode.NORMAL_DISCONNECTION ||
+                        reasonCode == DisconnectReasonCode.DISCONNECT_WITH_WILL_MESSAGE ? null : reasonCode);
+        delegate.logDisconnect(disconnectPacket, connection, inbound);
+    }
+
+    @Override
+    public void logConnect(final @NotNull ConnectPacket connectPacket) {
+        delegate.logConnect(connectPacket);
+    }
+
+    @Override
+    public void logConnack(final @NotNull ConnackOutboundInput connackOutboundInput) {
+        delegate.logConnack(connackOutboundInput);
+    }
+
+    @Override
+    public void logPublish(
+            final @NotNull PublishPacket publishPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        sessionSummary.published(publishPacket, inbound);
+        delegate.logPublish(publishPacket, connection, inbound);
+    }
+
+    @Override
+    public void logSubscribe(final @NotNull SubscribeInboundInput subscribeInboundInput) {
+        sessionSummary.packet(MessageType.SUBSCRIBE, true);
+        delegate.logSubscribe(subscribeInboundInput);
+    }
+
+    @Override
+    public void logSuback(final @NotNull SubackOutboundInput subackOutboundInput) {
+        sessionSummary.packet(MessageType.SUBACK, false);
+        for (final var reasonCode : subackOutboundInput.getSubackPacket().getReasonCodes()) {
+            if (reasonCode != SubackReasonCode.GRANTED_QOS_0 && reasonCode != SubackReasonCode.GRANTED_QOS_1 &&
+                    reasonCode != SubackReasonCode.GRANTED_QOS_2) {
+                sessionSummary.error(MessageType.SUBACK, false, reasonCode.name());
+            }
+        }
+        delegate.logSuback(subackOutboundInput);
+    }
+
+    @Override
+    public void logUnsubscribe(final @NotNull UnsubscribeInboundInput unsubscribeInboundInput) {
+        sessionSummary.packet(MessageType.UNSUBSCRIBE, true);
+        delegate.logUnsubscribe(unsubscribeInboundInput);
+    }
+
+    @Override
+    public void logUnsuback(final @NotNull UnsubackOutboundInput unsubackOutboundInput) {
+        sessionSummary.packet(MessageType.UNSUBACK, false);
+        for (final var reasonCode : unsubackOutboundInput.getUnsubackPacket().getReasonCodes()) {
+            if (reasonCode != UnsubackReasonCode.SUCCESS && reasonCode != UnsubackReasonCode.NO_SUBSCRIPTIONS_EXISTED) {
+                sessionSummary.error(MessageType.UNSUBACK, false, reasonCode.name());
+            }
+        }
+        delegate.logUnsuback(unsubackOutboundInput);
+    }
+
+    @Override
+    public void logPingreq(final @NotNull PingReqInboundInput pingReqInboundInput) {
+        sessionSummary.packet(MessageType.PINGREQ, true);
+        delegate.logPingreq(pingReqInboundInput);
+    }
+
+    @Override
+    public void logPingresp(final @NotNull PingRespOutboundInput pingRespOutboundInput) {
+        sessionSummary.packet(MessageType.PINGRESP, false);
+        delegate.logPingresp(pingRespOutboundInput);
+    }
+
+    @Override
+    public void logPuback(
+            final @NotNull PubackPacket pubackPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        count(MessageType.PUBACK, inbound, errorOrNull(pubackPacket.getReasonCode()));
+        delegate.logPuback(pubackPacket, connection, inbound);
+    }
+
+    @Override
+    public void logPuback(
+            final @NotNull PubackPacket pubackPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound,
+            final long ackLatencyMicros) {
+        count(MessageType.PUBACK, inbound, errorOrNull(pubackPacket.getReasonCode()));
+        delegate.logPuback(pubackPacket, connection, inbound, ackLatencyMicros);
+    }
+
+    @Override
+    public void logPubrec(
+            final @NotNull PubrecPacket pubrecPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        count(MessageType.PUBREC, inbound, errorOrNull(pubrecPacket.getReasonCode()));
+        delegate.logPubrec(pubrecPacket, connection, inbound);
+    }
+
+    @Override
+    public void logPubrel(
+            final @NotNull PubrelPacket pubrelPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        count(MessageType.PUBREL, inbound, errorOrNull(pubrelPacket.getReasonCode()));
+        delegate.logPubrel(pubrelPacket, connection, inbound);
+    }
+
+    @Override
+    public void logPubcomp(
+            final @NotNull PubcompPacket pubcompPacket,
+            final @NotNull ConnectionContext connection,
+            final boolean inbound) {
+        count(MessageType.PUBCOMP, inbound, errorOrNull(pubcompPacket.getReasonCode()));
+        delegate.logPubcomp(pubcompPacket, connection, inbound);
+    }
+
+    @Override
+    public void logQos2Flow(final @NotNull Qos2Flow qos2Flow, final @NotNull ConnectionContext connection) {
+        // the packets of an aggregated flow are not logged on their own, so they are counted here
+        final var inbound = qos2Flow.isInbound();
+        final var pubrecReasonCode = qos2Flow.getPubrecReasonCode();
+        if (pubrecReasonCode != null) {
+            count(MessageType.PUBREC, !inbound, errorOrNull(pubrecReasonCode));
+        }
+        final var pubrelReasonCode = qos2Flow.getPubrelReasonCode();
+        if (pubrelReasonCode != null) {
+            count(MessageType.PUBREL, inbound, errorOrNull(pubrelReasonCode));
+        }
+        final var pubcompReasonCode = qos2Flow.getPubcompReasonCode();
+        if (pubcompReasonCode != null) {
+            count(MessageType.PUBCOMP, !inbound, errorOrNull(pubcompReasonCode));
+        }
+        delegate.logQos2Flow(qos2Flow, connection);
+    }
+
+    @Override
+    public void logSessionSummary(
+            final @NotNull SessionSummary sessionSummary,
+            final @NotNull ConnectionContext connection) {
+        delegate.logSessionSummary(sessionSummary, connection);
+    }
+
+    @Override
+    public void logPingDigest(final @NotNull PingDigest pingDigest) {
+        delegate.logPingDigest(pingDigest);
+    }
+
+    @Override
+    public void logRepeated(final @NotNull RepeatedEvent repeatedEvent) {
+        delegate.logRepeated(repeatedEvent);
+    }
+
+    @Override
+    public void logSuppressed(final @NotNull SuppressedEvents suppressedEvents) {
+        delegate.logSuppressed(suppressedEvents);
+    }
+
+    private void count(
+            final @NotNull MessageType messageType,
+            final boolean inbound,
+            final @Nullable Enum<?> errorReasonCode) {
+        sessionSummary.packet(messageType, inbound);
+        if (errorReasonCode != null) {
+            sessionSummary.error(messageType, inbound, errorReasonCode.name());
+        }
+    }
+
+    private static @Nullable AckReasonCode errorOrNull(final @NotNull AckReasonCode reasonCode) {
+        return reasonCode == AckReasonCode.SUCCESS || reasonCode == AckReasonCode.NO_MATCHING_SUBSCRIBERS ?
+                null :
+                reasonCode;
+    }
+
+    private static @Nullable PubrelReasonCode errorOrNull(final @NotNull PubrelReasonCode reasonCode) {
+        return reasonCode == PubrelReasonCode.SUCCESS ? null : reasonCode;
+    }
+
+    private static @Nullable PubcompReasonCode errorOrNull(final @NotNull PubcompReasonCode reasonCode) {
+        return reasonCode == PubcompReasonCode.SUCCESS ? null : reasonCode;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.sink;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A {@link LogSink} that collects the records of every calling thread in a batch of its own and hands the batch to
+ * the delegate with a single {@link LogSink#writeBatch(ByteBuffer)}.
+ * <p>
+ * The delegate synchronizes its writes, so without batching every broker thread takes the lock of the delegate once
+ * per MQTT packet. With batching the lock is only taken once per batch. A batch is written when it holds
+ * {@code maxRecords} records or {@code maxBytes} bytes, and {@link #drain()} writes the batches of threads that
+ * stopped logging, so it is called periodically with the linger time as interval. It also discards the batches of
+ * threads that terminated, so their buffers are not kept.
+ *
+ * @since 1.4.0
+ */
+public class BatchingLogSink implements LogSink {
+
+    private final @NotNull LogSink delegate;
+    private final int maxRecords;
+    private final int maxBytes;
+    private final @NotNull CopyOnWriteArrayList<Batch> batches = new CopyOnWriteArrayList<>();
+    private final @NotNull ThreadLocal<Batch> threadBatch = ThreadLocal.withInitial(this::newBatch);
+
+    /**
+     * @param delegate   the sink the batches are written to
+     * @param maxRecords the number of records after which a batch is written
+     * @param maxBytes   the number of record bytes after which a batch is written
+     */
+    public BatchingLogSink(final @NotNull LogSink delegate, final int maxRecords, final int maxBytes) {
+        this.delegate = delegate;
+        this.maxRecords = Math.max(1, maxRecords);
+        this.maxBytes = Math.max(1, maxBytes);
+    }
+
+    @Override
+    public void write(final @NotNull ByteBuffer record) {
+        final var batch = threadBatch.get();
+        final var length = record.remaining();
+        if (length + Integer.BYTES > batch.buffer.capacity()) {
+            // records larger than a batch are written directly, after the records that were logged before them
+            synchronized (batch) {
+                batch.writeTo(delegate);
+                delegate.write(record);
+            }
+            return;
+        }
+        synchronized (batch) {
+            if (length + Integer.BYTES > batch.buffer.remaining()) {
+                batch.writeTo(delegate);
+            }
+            batch.buffer.putInt(length);
+            batch.buffer.put(record);
+            if (++batch.records >= maxRecords || batch.buffer.position() >= maxBytes) {
+                batch.writeTo(delegate);
+            }
+        }
+    }
+
+    /**
+     * Writes the batches of all threads, whether they are full or not, and discards the batches of terminated threads.
+     */
+    public void drain() {
+        for (final var batch : batches) {
+            synchronized (batch) {
+                batch.writeTo(delegate);
+            }
+            // a terminated thread cannot write to its batch anymore, so it stays empty
+            final var owner = batch.owner.get();
+            if (owner == null || !owner.isAlive()) {
+                batches.remove(batch);
+            }
+        }
+    }
+
+    @VisibleForTesting
+    int getBatchCount() {
+        return batches.size();
+    }
+
+    @Override
+    public void flush() {
+        drain();
+        delegate.flush();
+    }
+
+    @Override
+    public void close() {
+        drain();
+        delegate.close();
+    }
+
+    private @NotNull Batch newBatch() {
+        final var batch = new Batch(Thread.currentThread(), maxBytes + Integer.BYTES);
+        batches.add(batch);
+        return batch;
+    }
+
+    /**
+     * The records of one thread. It is only locked by its thread and by {@link #drain()}, so the lock is not contended.
+     */
+    private static class Batch {
+
+        // the batch must not keep its thread alive, the thread keeps the batch in its thread local
+        final @NotNull WeakReference<Thread> owner;
+        final @NotNull ByteBuffer buffer;
+        int records;
+
+        Batch(final @NotNull Thread owner, final int capacity) {
+            this.owner = new WeakReference<>(owner);
+            buffer = ByteBuffer.allocate(capacity);
+        }
+
+        void writeTo(final @NotNull LogSink sink) {
+            if (records == 0) {
+                return;
+            }
+            buffer.flip();
+            try {
+                sink.writeBatch(buffer);
+            } finally {
+                buffer.clear();
+                records = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.sink;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Constants of the binary log format.
+ * <p>
+ * A segment starts with the {@link #MAGIC} bytes and the {@link #VERSION}, followed by records:
+ * <pre>
+ * record     = varint(length) body crc32c(body)
+ * body       = DICTIONARY_RECORD varint(id) varint(length) utf8
+ *            | EVENT_RECORD zigzag(timestamp - previous timestamp) message-type direction field*
+ * field      = varint(field id &lt;&lt; 3 | wire type) value
+ * </pre>
+ * The CRC32C is stored as 4 bytes in big-endian order. The timestamp of the first event of a segment is relative to
+ * {@code 0}. Values are encoded depending on their wire type:
+ * <ul>
+ *     <li>{@link #VARINT}: zigzag encoded varint</li>
+ *     <li>{@link #FALSE}, {@link #TRUE}: no value</li>
+ *     <li>{@link #STRING}: varint length and UTF-8 bytes</li>
+ *     <li>{@link #SYMBOL}: varint id of a string that was defined by a dictionary record of the same segment</li>
+ *     <li>{@link #BYTES}: varint length and the raw bytes</li>
+ *     <li>{@link #OBJECT}: fields followed by {@link #END}</li>
+ *     <li>{@link #ARRAY}: varint count and the elements, each as wire type byte and value</li>
+ * </ul>
+ * The loggers hand over records in the same layout, but with an 8 byte absolute timestamp instead of the record type
+ * and the delta, and with the UTF-8 bytes of the symbols instead of their ids. The sink assigns the ids per segment.
+ *
+ * @since 1.4.0
+ */
+public final class BinaryFormat {
+
+    public static final byte @NotNull [] MAGIC = {'H', 'M', 'Q', 'L'};
+    public static final byte VERSION = 1;
+
+    public static final byte DICTIONARY_RECORD = 1;
+    public static final byte EVENT_RECORD = 2;
+
+    public static final int VARINT = 0;
+    public static final int FALSE = 1;
+    public static final int TRUE = 2;
+    public static final int STRING = 3;
+    public static final int SYMBOL = 4;
+    public static final int BYTES = 5;
+    public static final int OBJECT = 6;
+    public static final int ARRAY = 7;
+
+    public static final int WIRE_TYPE_BITS = 3;
+    public static final int WIRE_TYPE_MASK = (1 << WIRE_TYPE_BITS) - 1;
+    /**
+     * Ends an object, field ids start at 1 so no tag is 0.
+     */
+    public static final int END = 0;
+
+    public static final int MAX_VARINT_LENGTH = 10;
+    public static final int CRC_LENGTH = 4;
+
+    private BinaryFormat() {
+    }
+
+    public static long zigZag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    public static long unZigZag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes an unsigned varint, the array must have {@link #MAX_VARINT_LENGTH} bytes left.
+     *
+     * @return the position after the varint
+     */
+    public static int putVarint(final byte @NotNull [] bytes, final int position, final long value) {
+        var index = position;
+        var remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            bytes[index++] = (byte) ((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        bytes[index++] = (byte) remaining;
+        return index;
+    }
+}
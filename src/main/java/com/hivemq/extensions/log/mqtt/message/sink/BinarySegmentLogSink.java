@@ -0,0 +1,493 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.sink;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32C;
+
+import static com.hivemq.extensions.log.mqtt.message.ExtensionConstants.EXTENSION_NAME;
+import static com.hivemq.extensions.log.mqtt.message.sink.BinaryFormat.CRC_LENGTH;
+import static com.hivemq.extensions.log.mqtt.message.sink.BinaryFormat.MAX_VARINT_LENGTH;
+import static com.hivemq.extensions.log.mqtt.message.sink.BinaryFormat.WIRE_TYPE_MASK;
+import static com.hivemq.extensions.log.mqtt.message.sink.BinaryFormat.putVarint;
+import static com.hivemq.extensions.log.mqtt.message.sink.BinaryFormat.zigZag;
+import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.getBytes;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Writes the records of the {@link BinaryFormat binary log format} to segment files.
+ * <p>
+ * Every segment has its own dictionary: the first record that contains a symbol is preceded by a dictionary record
+ * that assigns the symbol an id, later records only contain the id. The timestamps are written as the difference to
+ * the previous record of the segment. The symbols are looked up by their UTF-8 bytes, so no {@link String} is
+ * created. A new segment is started when the current one is larger than the segment size or older than the roll
+ * interval.
+ * <p>
+ * Segments are named after the configured file with the creation time and a sequence number, e.g.
+ * {@code mqtt-message-log-20240101T120000-0.bin}.
+ *
+ * @since 1.4.0
+ */
+public class BinarySegmentLogSink implements LogSink {
+
+    private static final @NotNull Logger LOG = LoggerFactory.getLogger(BinarySegmentLogSink.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final @NotNull String SUFFIX = ".bin";
+    private static final int HEADER_LENGTH = BinaryFormat.MAGIC.length + 1;
+    private static final @NotNull DateTimeFormatter SEGMENT_TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss").withZone(ZoneOffset.UTC);
+
+    private final @NotNull Path directory;
+    private final @NotNull String prefix;
+    private final long segmentSize;
+    private final long rollIntervalMillis;
+    private final @NotNull LongSupplier clock;
+    private final @NotNull ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final byte @NotNull [] header = new byte[MAX_VARINT_LENGTH];
+    private final @NotNull CRC32C crc = new CRC32C();
+    private final @NotNull SymbolTable symbols = new SymbolTable();
+
+    // the record that is translated, copied if the record is not backed by an array
+    private byte @NotNull [] input = new byte[BUFFER_SIZE];
+    private byte @NotNull [] body = new byte[BUFFER_SIZE];
+    private int bodyLength;
+    // the position after the last varint that was read
+    private int next;
+
+    private @Nullable FileChannel channel;
+    private @Nullable Path path;
+    private long createdMillis;
+    private long bytesInSegment;
+    private long previousTimestamp;
+    private int sequence;
+    private boolean failed;
+
+    /**
+     * @param file               the file name the segment names are derived from, its extension is replaced
+     * @param segmentSize        the size in bytes after which a new segment is started
+     * @param rollIntervalMillis the maximum age of a segment, or {@code 0} to only roll by size
+     */
+    public BinarySegmentLogSink(final @NotNull Path file, final long segmentSize, final long rollIntervalMillis)
+            throws IOException {
+        this(file, segmentSize, rollIntervalMillis, System::currentTimeMillis);
+    }
+
+    @VisibleForTesting
+    BinarySegmentLogSink(
+            final @NotNull Path file,
+            final long segmentSize,
+            final long rollIntervalMillis,
+            final @NotNull LongSupplier clock) throws IOException {
+        final var absoluteFile = file.toAbsolutePath();
+        this.directory = absoluteFile.getParent();
+        final var fileName = absoluteFile.getFileName().toString();
+        final var extension = fileName.lastIndexOf('.');
+        this.prefix = extension > 0 ? fileName.substring(0, extension) : fileName;
+        this.segmentSize = segmentSize;
+        this.rollIntervalMillis = rollIntervalMillis;
+        this.clock = clock;
+        Files.createDirectories(directory);
+        roll();
+    }
+
+    @Override
+    public synchronized void write(final @NotNull ByteBuffer record) {
+        if (channel == null || (bytesInSegment >= segmentSize && bytesInSegment > HEADER_LENGTH)) {
+            roll();
+            if (channel == null) {
+                return;
+            }
+        }
+        final byte[] bytes;
+        final int offset;
+        final var length = record.remaining();
+        if (record.hasArray()) {
+            bytes = record.array();
+            offset = record.arrayOffset() + record.position();
+        } else {
+            if (input.length < length) {
+                input = new byte[length];
+            }
+            getBytes(record, record.position(), input, 0, length);
+            bytes = input;
+            offset = 0;
+        }
+        translate(bytes, offset, offset + length);
+        writeRecord(body, bodyLength);
+    }
+
+    @Override
+    public synchronized void writeBatch(final @NotNull ByteBuffer batch) {
+        LogSink.super.writeBatch(batch);
+    }
+
+    /**
+     * Writes the buffered records to the current segment and starts a new segment if the current one is older than
+     * the roll interval.
+     */
+    @Override
+    public synchronized void flush() {
+        drain();
+        if (rollIntervalMillis > 0 && channel != null && bytesInSegment > HEADER_LENGTH &&
+                clock.getAsLong() - createdMillis >= rollIntervalMillis) {
+            roll();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closeSegment();
+    }
+
+    /**
+     * Translates a record of a logger into the body of an event record.
+     */
+    private void translate(final byte @NotNull [] bytes, final int from, final int to) {
+        var timestamp = 0L;
+        for (var i = 0; i < Long.BYTES; i++) {
+            timestamp = timestamp << 8 | (bytes[from + i] & 0xFF);
+        }
+        bodyLength = 0;
+        ensureBodyCapacity(2 + MAX_VARINT_LENGTH);
+        body[bodyLength++] = BinaryFormat.EVENT_RECORD;
+        bodyLength = putVarint(body, bodyLength, zigZag(timestamp - previousTimestamp));
+        previousTimestamp = timestamp;
+        // message type and direction
+        body[bodyLength++] = bytes[from + Long.BYTES];
+        ensureBodyCapacity(1);
+        body[bodyLength++] = bytes[from + Long.BYTES + 1];
+        var position = from + Long.BYTES + 2;
+        while (position < to) {
+            position = translateField(bytes, position);
+        }
+    }
+
+    /**
+     * @return the position after the field
+     */
+    private int translateField(final byte @NotNull [] bytes, final int position) {
+        final var tag = readVarint(bytes, position);
+        return translateValue(bytes, next, tag & ~WIRE_TYPE_MASK, (int) (tag & WIRE_TYPE_MASK));
+    }
+
+    /**
+     * Copies a value and its tag, symbols are replaced by their ids.
+     *
+     * @param idBits the field id shifted by the wire type bits, {@code 0} for array elements
+     * @return the position after the value
+     */
+    private int translateValue(
+            final byte @NotNull [] bytes,
+            final int position,
+            final long idBits,
+            final int wireType) {
+        var index = position;
+        switch (wireType) {
+            case BinaryFormat.VARINT:
+                putBodyVarint(idBits | wireType);
+                putBodyVarint(readVarint(bytes, index));
+                return next;
+            case BinaryFormat.FALSE:
+            case BinaryFormat.TRUE:
+                putBodyVarint(idBits | wireType);
+                return index;
+            case BinaryFormat.STRING:
+            case BinaryFormat.BYTES: {
+                final var length = (int) readVarint(bytes, index);
+                index = next;
+                putBodyVarint(idBits | wireType);
+                putBodyVarint(length);
+                putBodyBytes(bytes, index, length);
+                return index + length;
+            }
+            case BinaryFormat.SYMBOL: {
+                final var length = (int) readVarint(bytes, index);
+                index = next;
+                final var id = symbol(bytes, index, length);
+                if (id < 0) {
+                    // the dictionary is full, the symbol is written as string
+                    putBodyVarint(idBits | BinaryFormat.STRING);
+                    putBodyVarint(length);
+                    putBodyBytes(bytes, index, length);
+                } else {
+                    putBodyVarint(idBits | wireType);
+                    putBodyVarint(id);
+                }
+                return index + length;
+            }
+            case BinaryFormat.OBJECT:
+                putBodyVarint(idBits | wireType);
+                while (true) {
+                    final var tag = readVarint(bytes, index);
+                    if (tag == BinaryFormat.END) {
+                        putBodyVarint(BinaryFormat.END);
+                        return next;
+                    }
+                    index = translateValue(bytes, next, tag & ~WIRE_TYPE_MASK, (int) (tag & WIRE_TYPE_MASK));
+                }
+            case BinaryFormat.ARRAY: {
+                final var count = readVarint(bytes, index);
+                index = next;
+                putBodyVarint(idBits | wireType);
+                putBodyVarint(count);
+                for (var i = 0; i < count; i++) {
+                    final var elementType = (int) readVarint(bytes, index);
+                    index = translateValue(bytes, next, 0, elementType);
+                }
+                return index;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown wire type " + wireType);
+        }
+    }
+
+    /**
+     * @return the id of the symbol, or {@code -1} if the dictionary of the segment is full
+     */
+    private int symbol(final byte @NotNull [] bytes, final int offset, final int length) {
+        final var hash = SymbolTable.hash(bytes, offset, length);
+        final var id = symbols.find(bytes, offset, length, hash);
+        if (id >= 0) {
+            return id;
+        }
+        final var newId = symbols.add(bytes, offset, length, hash);
+        if (newId < 0) {
+            return -1;
+        }
+        // the dictionary record must precede the event record that uses the symbol
+        final var dictionary = new byte[1 + 2 * MAX_VARINT_LENGTH + length];
+        dictionary[0] = BinaryFormat.DICTIONARY_RECORD;
+        var position = putVarint(dictionary, 1, newId);
+        position = putVarint(dictionary, position, length);
+        System.arraycopy(bytes, offset, dictionary, position, length);
+        writeRecord(dictionary, position + length);
+        return newId;
+    }
+
+    private long readVarint(final byte @NotNull [] bytes, final int position) {
+        var index = position;
+        var value = 0L;
+        for (var shift = 0; ; shift += 7) {
+            final var b = bytes[index++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                next = index;
+                return value;
+            }
+        }
+    }
+
+    private void putBodyVarint(final long value) {
+        ensureBodyCapacity(MAX_VARINT_LENGTH);
+        bodyLength = putVarint(body, bodyLength, value);
+    }
+
+    private void putBodyBytes(final byte @NotNull [] bytes, final int offset, final int length) {
+        ensureBodyCapacity(length);
+        System.arraycopy(bytes, offset, body, bodyLength, length);
+        bodyLength += length;
+    }
+
+    private void ensureBodyCapacity(final int additional) {
+        final var required = bodyLength + additional;
+        if (required > body.length) {
+            body = Arrays.copyOf(body, Math.max(required, body.length * 2));
+        }
+    }
+
+    /**
+     * Writes the length, the body and the CRC32C of the body.
+     */
+    private void writeRecord(final byte @NotNull [] recordBody, final int length) {
+        final var headerLength = putVarint(header, 0, length);
+        crc.reset();
+        crc.update(recordBody, 0, length);
+        final var checksum = (int) crc.getValue();
+        final var recordLength = headerLength + length + CRC_LENGTH;
+        if (recordLength > buffer.remaining()) {
+            drain();
+        }
+        if (recordLength > buffer.capacity()) {
+            // records larger than the buffer are written directly
+            writeFully(ByteBuffer.wrap(header, 0, headerLength));
+            writeFully(ByteBuffer.wrap(recordBody, 0, length));
+            buffer.putInt(checksum);
+        } else {
+            buffer.put(header, 0, headerLength);
+            buffer.put(recordBody, 0, length);
+            buffer.putInt(checksum);
+        }
+        bytesInSegment += recordLength;
+    }
+
+    private void roll() {
+        closeSegment();
+        final var now = clock.getAsLong();
+        final var segmentPath = directory.resolve(prefix + "-" +
+                SEGMENT_TIME_FORMAT.format(Instant.ofEpochMilli(now)) + "-" + sequence++ + SUFFIX);
+        try {
+            channel = FileChannel.open(segmentPath, CREATE_NEW, WRITE);
+            path = segmentPath;
+            createdMillis = now;
+            previousTimestamp = 0;
+            symbols.clear();
+            buffer.put(BinaryFormat.MAGIC);
+            buffer.put(BinaryFormat.VERSION);
+            bytesInSegment = HEADER_LENGTH;
+            failed = false;
+        } catch (final IOException e) {
+            // records are lost until a new segment can be created, but the error is only logged once
+            if (!failed) {
+                failed = true;
+                LOG.error("{}: Could not create log segment {}, reason: {}",
+                        EXTENSION_NAME,
+                        segmentPath,
+                        e.getMessage());
+            }
+        }
+    }
+
+    private void closeSegment() {
+        final var current = channel;
+        if (current == null) {
+            return;
+        }
+        drain();
+        channel = null;
+        try {
+            current.close();
+        } catch (final IOException e) {
+            LOG.warn("{}: Could not close log segment {}, reason: {}", EXTENSION_NAME, path, e.getMessage());
+        }
+    }
+
+    private void drain() {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(final @NotNull ByteBuffer source) {
+        final var current = channel;
+        if (current == null) {
+            source.position(source.limit());
+            return;
+        }
+        try {
+            while (source.hasRemaining()) {
+                current.write(source);
+            }
+            failed = false;
+        } catch (final IOException e) {
+            // records are lost, but the error is only logged once until writing succeeds again
+            source.position(source.limit());
+            if (!failed) {
+                failed = true;
+                LOG.error("{}: Could not write to log segment {}, reason: {}", EXTENSION_NAME, path, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Open addressing hash table from the UTF-8 bytes of a symbol to its id. The size is bounded, so a segment with
+     * many distinct symbols does not grow the heap.
+     */
+    private static class SymbolTable {
+
+        private static final int MAX_SYMBOLS = 16 * 1024;
+        private static final int MAX_BYTES = 1024 * 1024;
+        // twice the maximum number of symbols, so the load factor stays below 0.5
+        private static final int SLOTS = 2 * MAX_SYMBOLS;
+
+        // the id + 1 of the symbol in a slot, 0 for an empty slot
+        private final int @NotNull [] slots = new int[SLOTS];
+        private final int @NotNull [] offsets = new int[MAX_SYMBOLS];
+        private final int @NotNull [] lengths = new int[MAX_SYMBOLS];
+        private final byte @NotNull [] bytes = new byte[MAX_BYTES];
+        private int size;
+        private int bytesUsed;
+
+        static int hash(final byte @NotNull [] source, final int offset, final int length) {
+            var hash = 0;
+            for (var i = offset; i < offset + length; i++) {
+                hash = 31 * hash + source[i];
+            }
+            return hash ^ (hash >>> 16);
+        }
+
+        int find(final byte @NotNull [] source, final int offset, final int length, final int hash) {
+            for (var slot = hash & (SLOTS - 1); ; slot = (slot + 1) & (SLOTS - 1)) {
+                final var entry = slots[slot];
+                if (entry == 0) {
+                    return -1;
+                }
+                final var id = entry - 1;
+                if (lengths[id] == length && Arrays.equals(bytes,
+                        offsets[id],
+                        offsets[id] + length,
+                        source,
+                        offset,
+                        offset + length)) {
+                    return id;
+                }
+            }
+        }
+
+        /**
+         * @return the id of the added symbol, or {@code -1} if the table is full
+         */
+        int add(final byte @NotNull [] source, final int offset, final int length, final int hash) {
+            if (size == MAX_SYMBOLS || bytesUsed + length > MAX_BYTES) {
+                return -1;
+            }
+            final var id = size++;
+            offsets[id] = bytesUsed;
+            lengths[id] = length;
+            System.arraycopy(source, offset, bytes, bytesUsed, length);
+            bytesUsed += length;
+            var slot = hash & (SLOTS - 1);
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & (SLOTS - 1);
+            }
+            slots[slot] = id + 1;
+            return id;
+        }
+
+        void clear() {
+            Arrays.fill(slots, 0);
+            size = 0;
+            bytesUsed = 0;
+        }
+    }
+}
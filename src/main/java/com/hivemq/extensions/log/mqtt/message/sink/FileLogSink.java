@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.sink;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.hivemq.extensions.log.mqtt.message.ExtensionConstants.EXTENSION_NAME;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Appends the records line by line to a file, or without separator for binary records.
+ * <p>
+ * The records are copied into a direct buffer and written to the file channel when the buffer is full or when the
+ * sink is flushed, so neither a {@link String} nor a heap copy of the record is created.
+ *
+ * @since 1.4.0
+ */
+public class FileLogSink implements LogSink {
+
+    private static final @NotNull Logger LOG = LoggerFactory.getLogger(FileLogSink.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte LINE_SEPARATOR = '\n';
+
+    private final @NotNull Path file;
+    private final @NotNull FileChannel channel;
+    private final @NotNull ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final int separatorLength;
+    private boolean failed;
+
+    public FileLogSink(final @NotNull Path file) throws IOException {
+        this(file, true);
+    }
+
+    /**
+     * @param file          the file the records are appended to
+     * @param lineSeparated whether every record is followed by a line separator
+     */
+    public FileLogSink(final @NotNull Path file, final boolean lineSeparated) throws IOException {
+        this.file = file;
+        this.separatorLength = lineSeparated ? 1 : 0;
+        final var parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file, CREATE, WRITE, APPEND);
+    }
+
+    @Override
+    public synchronized void write(final @NotNull ByteBuffer record) {
+        if (record.remaining() + separatorLength > buffer.remaining()) {
+            drain();
+        }
+        if (record.remaining() + separatorLength > buffer.capacity()) {
+            // records larger than the buffer are written directly
+            writeFully(record);
+        } else {
+            buffer.put(record);
+        }
+        if (separatorLength > 0) {
+            buffer.put(LINE_SEPARATOR);
+        }
+    }
+
+    @Override
+    public synchronized void writeBatch(final @NotNull ByteBuffer batch) {
+        LogSink.super.writeBatch(batch);
+    }
+
+    @Override
+    public synchronized void flush() {
+        drain();
+    }
+
+    @Override
+    public synchronized void close() {
+        drain();
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            LOG.warn("{}: Could not close log file {}, reason: {}", EXTENSION_NAME, file, e.getMessage());
+        }
+    }
+
+    private void drain() {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(final @NotNull ByteBuffer source) {
+        try {
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+            failed = false;
+        } catch (final IOException e) {
+            // records are lost, but the error is only logged once until writing succeeds again
+            source.position(source.limit());
+            if (!failed) {
+                failed = true;
+                LOG.error("{}: Could not write to log file {}, reason: {}", EXTENSION_NAME, file, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.sink;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Destination for encoded log records.
+ * <p>
+ * Records are handed over as UTF-8 encoded bytes without line separator, so a sink that writes bytes never needs an
+ * intermediate {@link String}.
+ *
+ * @since 1.4.0
+ */
+public interface LogSink {
+
+    /**
+     * Writes a single record. The bytes between position and limit of the buffer are the record, the buffer is only
+     * valid during the call and its position may be changed by the sink.
+     *
+     * @param record the UTF-8 encoded record
+     */
+    void write(@NotNull ByteBuffer record);
+
+    /**
+     * Writes several records at once. Every record between position and limit of the buffer is preceded by its length
+     * as 4 byte integer. The buffer is only valid during the call.
+     * <p>
+     * Sinks that synchronize their writes should override this method to synchronize once per batch.
+     *
+     * @param batch the length-prefixed records
+     */
+    default void writeBatch(final @NotNull ByteBuffer batch) {
+        final var limit = batch.limit();
+        while (batch.remaining() >= Integer.BYTES) {
+            final var length = batch.getInt();
+            final var end = batch.position() + length;
+            batch.limit(end);
+            write(batch);
+            batch.limit(limit);
+            batch.position(end);
+        }
+    }
+
+    /**
+     * Writes buffered records to the underlying destination.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Flushes and releases the underlying destination.
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.sink;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.function.LongSupplier;
+
+import static com.hivemq.extensions.log.mqtt.message.ExtensionConstants.EXTENSION_NAME;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Appends the records line by line, or without separator for binary records, to pre-allocated memory-mapped segment
+ * files.
+ * <p>
+ * Writing a record only copies it into the mapped segment, the operating system writes the pages to disk and
+ * {@link #flush()} forces them from a background thread. A new segment is started when the current one is full or
+ * older than the roll interval. A closed segment is truncated to the length of its records.
+ * <p>
+ * Segments are named after the configured file with the creation time and a sequence number, e.g.
+ * {@code mqtt-message-log-20240101T120000-0.json}.
+ *
+ * @since 1.4.0
+ */
+public class MappedSegmentLogSink implements LogSink {
+
+    private static final @NotNull Logger LOG = LoggerFactory.getLogger(MappedSegmentLogSink.class);
+
+    private static final byte LINE_SEPARATOR = '\n';
+    private static final @NotNull DateTimeFormatter SEGMENT_TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss").withZone(ZoneOffset.UTC);
+
+    private final @NotNull Path directory;
+    private final @NotNull String prefix;
+    private final @NotNull String suffix;
+    private final int segmentSize;
+    private final long rollIntervalMillis;
+    private final int separatorLength;
+    private final @NotNull LongSupplier clock;
+    // held while forcing a segment, so a segment is not truncated while it is forced
+    private final @NotNull Object forceLock = new Object();
+
+    private @Nullable Segment segment;
+    private volatile @Nullable MappedByteBuffer mapped;
+    private int sequence;
+    private boolean failed;
+
+    /**
+     * @param file               the file name the segment names are derived from
+     * @param segmentSize        the size of a segment in bytes
+     * @param rollIntervalMillis the maximum age of a segment, or {@code 0} to only roll by size
+     */
+    public MappedSegmentLogSink(final @NotNull Path file, final int segmentSize, final long rollIntervalMillis)
+            throws IOException {
+        this(file, segmentSize, rollIntervalMillis, true);
+    }
+
+    /**
+     * @param file               the file name the segment names are derived from
+     * @param segmentSize        the size of a segment in bytes
+     * @param rollIntervalMillis the maximum age of a segment, or {@code 0} to only roll by size
+     * @param lineSeparated      whether every record is followed by a line separator
+     */
+    public MappedSegmentLogSink(
+            final @NotNull Path file,
+            final int segmentSize,
+            final long rollIntervalMillis,
+            final boolean lineSeparated) throws IOException {
+        this(file, segmentSize, rollIntervalMillis, lineSeparated, System::currentTimeMillis);
+    }
+
+    @VisibleForTesting
+    MappedSegmentLogSink(
+            final @NotNull Path file,
+            final int segmentSize,
+            final long rollIntervalMillis,
+            final @NotNull LongSupplier clock) throws IOException {
+        this(file, segmentSize, rollIntervalMillis, true, clock);
+    }
+
+    @VisibleForTesting
+    MappedSegmentLogSink(
+            final @NotNull Path file,
+            final int segmentSize,
+            final long rollIntervalMillis,
+            final boolean lineSeparated,
+            final @NotNull LongSupplier clock) throws IOException {
+        final var absoluteFile = file.toAbsolutePath();
+        this.directory = absoluteFile.getParent();
+        final var fileName = absoluteFile.getFileName().toString();
+        final var extension = fileName.lastIndexOf('.');
+        this.prefix = extension > 0 ? fileName.substring(0, extension) : fileName;
+        this.suffix = extension > 0 ? fileName.substring(extension) : "";
+        this.segmentSize = segmentSize;
+        this.rollIntervalMillis = rollIntervalMillis;
+        this.separatorLength = lineSeparated ? 1 : 0;
+        this.clock = clock;
+        Files.createDirectories(directory);
+        roll(segmentSize);
+    }
+
+    @Override
+    public synchronized void write(final @NotNull ByteBuffer record) {
+        final var required = record.remaining() + separatorLength;
+        var buffer = mapped;
+        if (buffer == null || buffer.remaining() < required) {
+            roll(Math.max(segmentSize, required));
+            buffer = mapped;
+            if (buffer == null) {
+                return;
+            }
+        }
+        buffer.put(record);
+        if (separatorLength > 0) {
+            buffer.put(LINE_SEPARATOR);
+        }
+    }
+
+    @Override
+    public synchronized void writeBatch(final @NotNull ByteBuffer batch) {
+        LogSink.super.writeBatch(batch);
+    }
+
+    /**
+     * Forces the written records of the current segment to disk and starts a new segment if the current one is older
+     * than the roll interval.
+     */
+    @Override
+    public void flush() {
+        synchronized (forceLock) {
+            final var buffer = mapped;
+            if (buffer != null) {
+                // forcing the pages does not touch the position, so the writers are not blocked meanwhile
+                buffer.force();
+            }
+        }
+        if (rollIntervalMillis > 0) {
+            synchronized (this) {
+                final var current = segment;
+                if (current != null && mapped != null && mapped.position() > 0 &&
+                        clock.getAsLong() - current.createdMillis >= rollIntervalMillis) {
+                    roll(segmentSize);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closeSegment();
+    }
+
+    private void roll(final int size) {
+        closeSegment();
+        final var now = clock.getAsLong();
+        final var path = directory.resolve(prefix + "-" + SEGMENT_TIME_FORMAT.format(Instant.ofEpochMilli(now)) + "-" +
+                sequence++ + suffix);
+        try {
+            final var channel = FileChannel.open(path, CREATE_NEW, READ, WRITE);
+            try {
+                mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            } catch (final IOException e) {
+                channel.close();
+                throw e;
+            }
+            segment = new Segment(path, channel, now);
+            failed = false;
+        } catch (final IOException e) {
+            // records are lost until a new segment can be created, but the error is only logged once
+            if (!failed) {
+                failed = true;
+                LOG.error("{}: Could not create log segment {}, reason: {}", EXTENSION_NAME, path, e.getMessage());
+            }
+        }
+    }
+
+    private void closeSegment() {
+        final var current = segment;
+        final var buffer = mapped;
+        segment = null;
+        mapped = null;
+        if (current == null || buffer == null) {
+            return;
+        }
+        try {
+            synchronized (forceLock) {
+                buffer.force();
+                // cut off the pre-allocated space that was not used
+                current.channel.truncate(buffer.position());
+            }
+        } catch (final IOException e) {
+            LOG.warn("{}: Could not truncate log segment {}, reason: {}", EXTENSION_NAME, current.path, e.getMessage());
+        } finally {
+            try {
+                current.channel.close();
+            } catch (final IOException e) {
+                LOG.warn("{}: Could not close log segment {}, reason: {}", EXTENSION_NAME, current.path, e.getMessage());
+            }
+        }
+    }
+
+    private static class Segment {
+
+        private final @NotNull Path path;
+        private final @NotNull FileChannel channel;
+        private final long createdMillis;
+
+        private Segment(final @NotNull Path path, final @NotNull FileChannel channel, final long createdMillis) {
+            this.path = path;
+            this.channel = channel;
+            this.createdMillis = createdMillis;
+        }
+    }
+}
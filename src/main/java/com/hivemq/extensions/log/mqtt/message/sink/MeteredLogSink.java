@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.sink;
+
+import com.hivemq.extensions.log.mqtt.message.metrics.MessageLogMetrics;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link LogSink} that records the bytes of the written records in the {@link MessageLogMetrics}.
+ *
+ * @since 1.4.0
+ */
+public class MeteredLogSink implements LogSink {
+
+    private final @NotNull LogSink delegate;
+    private final @NotNull MessageLogMetrics metrics;
+
+    public MeteredLogSink(final @NotNull LogSink delegate, final @NotNull MessageLogMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void write(final @NotNull ByteBuffer record) {
+        final var bytes = record.remaining();
+        delegate.write(record);
+        metrics.written(bytes);
+    }
+
+    @Override
+    public void writeBatch(final @NotNull ByteBuffer batch) {
+        var bytes = 0;
+        for (var i = batch.position(); i + Integer.BYTES <= batch.limit(); ) {
+            final var length = batch.getInt(i);
+            bytes += length;
+            i += Integer.BYTES + length;
+        }
+        delegate.writeBatch(batch);
+        metrics.written(bytes);
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.sink;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.nio.ByteBuffer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Logs every record as info message of a SLF4J logger, so the records are written by the logging configuration of
+ * HiveMQ.
+ *
+ * @since 1.4.0
+ */
+public class Slf4jLogSink implements LogSink {
+
+    private final @NotNull Logger logger;
+
+    public Slf4jLogSink(final @NotNull Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public void write(final @NotNull ByteBuffer record) {
+        write(logger, record);
+    }
+
+    /**
+     * Logs a single record as info message of the given logger.
+     */
+    public static void write(final @NotNull Logger logger, final @NotNull ByteBuffer record) {
+        final String message;
+        if (record.hasArray()) {
+            message = new String(record.array(), record.arrayOffset() + record.position(), record.remaining(), UTF_8);
+        } else {
+            message = UTF_8.decode(record).toString();
+        }
+        logger.info(message);
+    }
+}
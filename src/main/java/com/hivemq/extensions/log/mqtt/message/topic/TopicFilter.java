@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.topic;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+
+import static com.hivemq.extensions.log.mqtt.message.ExtensionConstants.EXTENSION_NAME;
+
+/**
+ * Decides by the topic whether a PUBLISH or will is logged. A topic is logged if it matches one of the include
+ * filters, or there are none, and matches none of the exclude filters.
+ *
+ * @since 1.4.0
+ */
+public class TopicFilter {
+
+    private static final @NotNull Logger LOG = LoggerFactory.getLogger(TopicFilter.class);
+
+    public static final @NotNull TopicFilter ALL = new TopicFilter(new TopicFilterTrie(), new TopicFilterTrie());
+
+    private final @NotNull TopicFilterTrie include;
+    private final @NotNull TopicFilterTrie exclude;
+
+    public TopicFilter(final @NotNull TopicFilterTrie include, final @NotNull TopicFilterTrie exclude) {
+        this.include = include;
+        this.exclude = exclude;
+    }
+
+    /**
+     * Compiles the include and exclude filters, invalid filters are ignored with a warning.
+     */
+    public static @NotNull TopicFilter compile(
+            final @NotNull Collection<String> include,
+            final @NotNull Collection<String> exclude) {
+        return new TopicFilter(compile(include, "include"), compile(exclude, "exclude"));
+    }
+
+    private static @NotNull TopicFilterTrie compile(
+            final @NotNull Collection<String> topicFilters,
+            final @NotNull String name) {
+        final var trie = new TopicFilterTrie();
+        for (final var topicFilter : topicFilters) {
+            try {
+                trie.add(topicFilter);
+            } catch (final IllegalArgumentException e) {
+                LOG.warn("{}: Ignoring invalid {} topic filter '{}'", EXTENSION_NAME, name, topicFilter);
+            }
+        }
+        return trie;
+    }
+
+    /**
+     * @return whether a PUBLISH or will with the topic is logged
+     */
+    public boolean matches(final @NotNull String topic) {
+        if (!include.isEmpty() && !include.matches(topic)) {
+            return false;
+        }
+        return exclude.isEmpty() || !exclude.matches(topic);
+    }
+}
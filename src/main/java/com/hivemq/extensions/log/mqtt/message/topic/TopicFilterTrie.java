@@ -0,0 +1,236 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.topic;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+
+/**
+ * A set of MQTT topic filters compiled into a trie with one level per node.
+ * <p>
+ * Matching a topic walks the trie level by level, so it takes O(topic levels) independent of the number of filters,
+ * plus the branches of {@code +} wildcards. The levels of the topic are looked up in the open addressing tables of
+ * the nodes by their position in the topic, so matching does not allocate.
+ *
+ * @since 1.4.0
+ */
+public class TopicFilterTrie {
+
+    private static final @NotNull String SINGLE_LEVEL_WILDCARD = "+";
+    private static final @NotNull String MULTI_LEVEL_WILDCARD = "#";
+
+    private final @NotNull Node root = new Node();
+    private int size;
+
+    /**
+     * Compiles the topic filters into a trie.
+     *
+     * @param  topicFilters the topic filters
+     * @return              the trie
+     * @throws IllegalArgumentException if a topic filter is not valid
+     */
+    public static @NotNull TopicFilterTrie compile(final @NotNull Collection<String> topicFilters) {
+        final var trie = new TopicFilterTrie();
+        for (final var topicFilter : topicFilters) {
+            trie.add(topicFilter);
+        }
+        return trie;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the topic filter is not valid
+     */
+    public void add(final @NotNull String topicFilter) {
+        validate(topicFilter);
+        var node = root;
+        var start = 0;
+        while (true) {
+            final var end = levelEnd(topicFilter, start);
+            final var level = topicFilter.substring(start, end);
+            if (MULTI_LEVEL_WILDCARD.equals(level)) {
+                if (!node.multiLevelWildcard) {
+                    node.multiLevelWildcard = true;
+                    size++;
+                }
+                return;
+            }
+            if (SINGLE_LEVEL_WILDCARD.equals(level)) {
+                if (node.singleLevelWildcard == null) {
+                    node.singleLevelWildcard = new Node();
+                }
+                node = node.singleLevelWildcard;
+            } else {
+                node = node.getOrCreate(level);
+            }
+            if (end == topicFilter.length()) {
+                if (!node.terminal) {
+                    node.terminal = true;
+                    size++;
+                }
+                return;
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * @return whether a topic filter of the trie matches the topic
+     */
+    public boolean matches(final @NotNull String topic) {
+        // wildcards at the first level do not match topics starting with $, see MQTT 5 section 4.7.2
+        if (!topic.isEmpty() && topic.charAt(0) == '$') {
+            final var end = levelEnd(topic, 0);
+            final var child = root.get(topic, 0, end);
+            return child != null && matches(child, topic, end + 1);
+        }
+        return matches(root, topic, 0);
+    }
+
+    /**
+     * @return the number of distinct topic filters in the trie
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static boolean matches(final @NotNull Node node, final @NotNull String topic, final int start) {
+        // # also matches the parent level, so "a/#" matches "a"
+        if (node.multiLevelWildcard) {
+            return true;
+        }
+        if (start > topic.length()) {
+            return node.terminal;
+        }
+        final var end = levelEnd(topic, start);
+        final var child = node.get(topic, start, end);
+        if (child != null && matches(child, topic, end + 1)) {
+            return true;
+        }
+        return node.singleLevelWildcard != null && matches(node.singleLevelWildcard, topic, end + 1);
+    }
+
+    private static int levelEnd(final @NotNull String topic, final int start) {
+        final var end = topic.indexOf('/', start);
+        return end == -1 ? topic.length() : end;
+    }
+
+    private static void validate(final @NotNull String topicFilter) {
+        if (topicFilter.isEmpty()) {
+            throw new IllegalArgumentException("Topic filter must not be empty");
+        }
+        for (var i = 0; i < topicFilter.length(); i++) {
+            final var c = topicFilter.charAt(i);
+            if (c != '+' && c != '#') {
+                continue;
+            }
+            final var alone = (i == 0 || topicFilter.charAt(i - 1) == '/') &&
+                    (i == topicFilter.length() - 1 || topicFilter.charAt(i + 1) == '/');
+            if (!alone || (c == '#' && i != topicFilter.length() - 1)) {
+                throw new IllegalArgumentException("Invalid use of wildcard in topic filter '" + topicFilter + "'");
+            }
+        }
+    }
+
+    private static class Node {
+
+        private static final int INITIAL_CAPACITY = 4;
+
+        // open addressing table of the children by their level, the capacity is a power of two
+        private @Nullable String @Nullable [] levels;
+        private @Nullable Node @Nullable [] children;
+        private int childCount;
+        private @Nullable Node singleLevelWildcard;
+        private boolean multiLevelWildcard;
+        private boolean terminal;
+
+        @Nullable Node get(final @NotNull String topic, final int start, final int end) {
+            final var levels = this.levels;
+            if (levels == null) {
+                return null;
+            }
+            final var length = end - start;
+            final var mask = levels.length - 1;
+            var index = hash(topic, start, end) & mask;
+            while (true) {
+                final var level = levels[index];
+                if (level == null) {
+                    return null;
+                }
+                if (level.length() == length && topic.regionMatches(start, level, 0, length)) {
+                    return children[index];
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        @NotNull Node getOrCreate(final @NotNull String level) {
+            final var existing = get(level, 0, level.length());
+            if (existing != null) {
+                return existing;
+            }
+            if (levels == null || (childCount + 1) * 2 > levels.length) {
+                resize();
+            }
+            final var child = new Node();
+            insert(level, child);
+            childCount++;
+            return child;
+        }
+
+        private void resize() {
+            final var oldLevels = levels;
+            final var oldChildren = children;
+            final var capacity = oldLevels == null ? INITIAL_CAPACITY : oldLevels.length * 2;
+            levels = new String[capacity];
+            children = new Node[capacity];
+            if (oldLevels != null) {
+                for (var i = 0; i < oldLevels.length; i++) {
+                    if (oldLevels[i] != null) {
+                        insert(oldLevels[i], oldChildren[i]);
+                    }
+                }
+            }
+        }
+
+        private void insert(final @NotNull String level, final @NotNull Node child) {
+            final var mask = levels.length - 1;
+            var index = hash(level, 0, level.length()) & mask;
+            while (levels[index] != null) {
+                index = (index + 1) & mask;
+            }
+            levels[index] = level;
+            children[index] = child;
+        }
+
+        /**
+         * Same as {@link String#hashCode()} of the level, spread so that the low bits can be used as index.
+         */
+        private static int hash(final @NotNull String topic, final int start, final int end) {
+            var hash = 0;
+            for (var i = start; i < end; i++) {
+                hash = 31 * hash + topic.charAt(i);
+            }
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
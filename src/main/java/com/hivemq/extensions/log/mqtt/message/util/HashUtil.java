@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Fast non-cryptographic hashing of payloads.
+ *
+ * @since 1.4.0
+ */
+public class HashUtil {
+
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME_3 = 0x165667B19E3779F9L;
+    private static final long PRIME_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME_5 = 0x27D4EB2F165667C5L;
+
+    private HashUtil() {
+    }
+
+    /**
+     * Computes the 64 bit xxHash (XXH64 with seed 0) of the remaining bytes of a ByteBuffer without modifying its
+     * position. The bytes are read eight at a time directly from heap and direct buffers.
+     *
+     * @param  buffer the ByteBuffer to hash
+     * @return        the hash
+     */
+    public static long xxHash64(final @NotNull ByteBuffer buffer) {
+        // a view with its own byte order, the order of the given buffer is shared with other threads
+        final var bytes = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        final var length = bytes.remaining();
+        final var limit = bytes.limit();
+        var index = bytes.position();
+        long hash;
+        if (length >= 32) {
+            var v1 = PRIME_1 + PRIME_2;
+            var v2 = PRIME_2;
+            var v3 = 0L;
+            var v4 = -PRIME_1;
+            for (final var end = limit - 32; index <= end; index += 32) {
+                v1 = round(v1, bytes.getLong(index));
+                v2 = round(v2, bytes.getLong(index + 8));
+                v3 = round(v3, bytes.getLong(index + 16));
+                v4 = round(v4, bytes.getLong(index + 24));
+            }
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) +
+                    Long.rotateLeft(v4, 18);
+            hash = mergeRound(hash, v1);
+            hash = mergeRound(hash, v2);
+            hash = mergeRound(hash, v3);
+            hash = mergeRound(hash, v4);
+        } else {
+            hash = PRIME_5;
+        }
+        hash += length;
+        for (; index <= limit - 8; index += 8) {
+            hash ^= round(0, bytes.getLong(index));
+            hash = Long.rotateLeft(hash, 27) * PRIME_1 + PRIME_4;
+        }
+        if (index <= limit - 4) {
+            hash ^= (bytes.getInt(index) & 0xFFFFFFFFL) * PRIME_1;
+            hash = Long.rotateLeft(hash, 23) * PRIME_2 + PRIME_3;
+            index += 4;
+        }
+        for (; index < limit; index++) {
+            hash ^= (bytes.get(index) & 0xFFL) * PRIME_5;
+            hash = Long.rotateLeft(hash, 11) * PRIME_1;
+        }
+        hash ^= hash >>> 33;
+        hash *= PRIME_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME_3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    private static long round(final long accumulator, final long input) {
+        return Long.rotateLeft(accumulator + input * PRIME_2, 31) * PRIME_1;
+    }
+
+    private static long mergeRound(final long accumulator, final long value) {
+        return (accumulator ^ round(0, value)) * PRIME_1 + PRIME_4;
+    }
+}
@@ -19,17 +19,38 @@ package com.hivemq.extensions.log.mqtt.message.util;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * Utility methods for string encoding and formatting.
+ * <p>
+ * Payloads are read from their ByteBuffer in bulk, directly from the backing array of heap buffers and in chunks
+ * from read-only and direct buffers. The position of a buffer is never modified, as the same payload can be logged
+ * concurrently for multiple subscribers.
  *
  * @since 1.3.0
  */
 public class StringUtil {
 
+    /**
+     * Number of bytes that are processed at once when a payload is read in chunks, a multiple of 3 so that chunks
+     * can be Base64 encoded without padding.
+     */
+    public static final int CHUNK_SIZE = 8190;
+
+    // below this length reading the bytes one by one is cheaper than creating a view of the buffer
+    private static final int BULK_THRESHOLD = 256;
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final @NotNull VarHandle LONGS =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
     private static final char @NotNull [] DIGITS =
             {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
 
@@ -50,6 +71,35 @@ public class StringUtil {
         return new String(bytes, UTF_8);
     }
 
+    /**
+     * Converts a ByteBuffer to a string if it only contains printable ASCII characters. The bytes are checked while
+     * they are copied, so a binary payload is rejected at its first chunk.
+     *
+     * @param  buffer the ByteBuffer to convert
+     * @return        the string representation, or null if the buffer contains a byte that is not printable ASCII
+     */
+    public static @Nullable String getAsciiPrintableString(final @NotNull ByteBuffer buffer) {
+        final var position = buffer.position();
+        final var length = buffer.remaining();
+        if (buffer.hasArray()) {
+            final var offset = buffer.arrayOffset() + position;
+            if (!isAsciiPrintable(buffer.array(), offset, offset + length)) {
+                return null;
+            }
+            return new String(buffer.array(), offset, length, ISO_8859_1);
+        }
+        final var bytes = new byte[length];
+        for (var i = 0; i < length; i += CHUNK_SIZE) {
+            final var count = Math.min(CHUNK_SIZE, length - i);
+            getBytes(buffer, position + i, bytes, i, count);
+            if (!isAsciiPrintable(bytes, i, i + count)) {
+                return null;
+            }
+        }
+        // ISO-8859-1 is decoded by a plain copy, and equals UTF-8 for printable ASCII
+        return new String(bytes, ISO_8859_1);
+    }
+
     /**
      * Converts a ByteBuffer to a hexadecimal string.
      *
@@ -60,8 +110,21 @@ public class StringUtil {
         if (buffer == null) {
             return null;
         }
-        final var bytes = getBytes(buffer);
-        return asHexString(bytes);
+        final var position = buffer.position();
+        final var length = buffer.remaining();
+        final var out = new char[length << 1];
+        if (buffer.hasArray()) {
+            final var offset = buffer.arrayOffset() + position;
+            hex(buffer.array(), offset, offset + length, out, 0);
+            return new String(out);
+        }
+        final var chunk = new byte[Math.min(CHUNK_SIZE, length)];
+        for (var i = 0; i < length; i += CHUNK_SIZE) {
+            final var count = Math.min(CHUNK_SIZE, length - i);
+            getBytes(buffer, position + i, chunk, 0, count);
+            hex(chunk, 0, count, out, i << 1);
+        }
+        return new String(out);
     }
 
     /**
@@ -71,13 +134,64 @@ public class StringUtil {
      * @return      the hex string representation
      */
     public static @NotNull String asHexString(final byte @NotNull [] data) {
-        final var length = data.length;
-        final var out = new char[length << 1];
-        for (int i = 0, j = 0; i < length; i++) {
+        final var out = new char[data.length << 1];
+        hex(data, 0, data.length, out, 0);
+        return new String(out);
+    }
+
+    /**
+     * Converts a long to a hexadecimal string of 16 digits.
+     *
+     * @param  value the long to convert
+     * @return       the hex string representation
+     */
+    public static @NotNull String asHexString(final long value) {
+        final var out = new char[16];
+        for (int i = 15, shift = 0; i >= 0; i--, shift += 4) {
+            out[i] = DIGITS[(int) (value >>> shift) & 0x0F];
+        }
+        return new String(out);
+    }
+
+    private static void hex(
+            final byte @NotNull [] data,
+            final int from,
+            final int to,
+            final char @NotNull [] out,
+            final int outIndex) {
+        for (int i = from, j = outIndex; i < to; i++) {
             out[j++] = DIGITS[(0xF0 & data[i]) >>> 4];
             out[j++] = DIGITS[0x0F & data[i]];
         }
-        return new String(out);
+    }
+
+    /**
+     * Checks whether all bytes in the range are printable ASCII characters (0x20 to 0x7E). Eight bytes are checked
+     * at once.
+     *
+     * @param  bytes the bytes to check
+     * @param  from  the index of the first byte, inclusive
+     * @param  to    the index of the last byte, exclusive
+     * @return       whether all bytes are printable
+     */
+    public static boolean isAsciiPrintable(final byte @NotNull [] bytes, final int from, final int to) {
+        var i = from;
+        for (final var end = to - Long.BYTES; i <= end; i += Long.BYTES) {
+            final var word = (long) LONGS.get(bytes, i);
+            // a byte is below 0x20 if subtracting 0x20 borrows, it is above 0x7E if adding 1 carries into the high bit
+            final var below = (word - 0x20 * LOW_BITS) & ~word;
+            final var above = (word + LOW_BITS) | word;
+            if (((below | above) & HIGH_BITS) != 0) {
+                return false;
+            }
+        }
+        for (; i < to; i++) {
+            final var b = bytes[i];
+            if (b < 0x20 || b > 0x7E) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -88,9 +202,110 @@ public class StringUtil {
      */
     public static byte @NotNull [] getBytes(final @NotNull ByteBuffer buffer) {
         final var bytes = new byte[buffer.remaining()];
-        for (var i = 0; i < buffer.remaining(); i++) {
-            bytes[i] = buffer.get(i);
-        }
+        getBytes(buffer, buffer.position(), bytes, 0, bytes.length);
         return bytes;
     }
+
+    /**
+     * Copies bytes from an absolute index of a ByteBuffer without modifying its position.
+     *
+     * @param buffer      the ByteBuffer to copy from
+     * @param index       the index of the first byte in the buffer
+     * @param destination the array to copy to
+     * @param offset      the index of the first byte in the array
+     * @param length      the number of bytes to copy
+     */
+    public static void getBytes(
+            final @NotNull ByteBuffer buffer,
+            final int index,
+            final byte @NotNull [] destination,
+            final int offset,
+            final int length) {
+        if (buffer.hasArray()) {
+            System.arraycopy(buffer.array(), buffer.arrayOffset() + index, destination, offset, length);
+        } else if (length <= BULK_THRESHOLD) {
+            for (var i = 0; i < length; i++) {
+                destination[offset + i] = buffer.get(index + i);
+            }
+        } else {
+            final var view = buffer.duplicate();
+            view.position(index);
+            view.get(destination, offset, length);
+        }
+    }
+
+    /**
+     * Calculates the length of the UTF-8 encoding of a string, see {@link #putUtf8(String, byte[], int)}.
+     *
+     * @param  value the string
+     * @return       the number of bytes
+     */
+    public static int utf8Length(final @NotNull String value) {
+        final var valueLength = value.length();
+        var utf8Length = valueLength;
+        for (var i = 0; i < valueLength; i++) {
+            final var c = value.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                utf8Length += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < valueLength &&
+                    Character.isLowSurrogate(value.charAt(i + 1))) {
+                // two chars are encoded with four bytes
+                utf8Length += 2;
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                utf8Length += 2;
+            }
+        }
+        return utf8Length;
+    }
+
+    /**
+     * Writes the UTF-8 encoding of a string without creating an intermediate array. Unpaired surrogates are replaced
+     * with {@code '?'} like the JDK encoder does.
+     *
+     * @param  value       the string
+     * @param  destination the array to write to, must have {@link #utf8Length(String)} bytes left
+     * @param  offset      the index of the first byte in the array
+     * @return             the index after the last written byte
+     */
+    @SuppressWarnings("deprecation")
+    public static int putUtf8(final @NotNull String value, final byte @NotNull [] destination, final int offset) {
+        final var valueLength = value.length();
+        var ascii = true;
+        for (var i = 0; i < valueLength && ascii; i++) {
+            ascii = value.charAt(i) < 0x80;
+        }
+        if (ascii) {
+            // copies the low byte of every char, which is the UTF-8 encoding for ASCII
+            value.getBytes(0, valueLength, destination, offset);
+            return offset + valueLength;
+        }
+        var index = offset;
+        for (var i = 0; i < valueLength; i++) {
+            final var c = value.charAt(i);
+            if (c < 0x80) {
+                destination[index++] = (byte) c;
+            } else if (c < 0x800) {
+                destination[index++] = (byte) (0xC0 | (c >> 6));
+                destination[index++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < valueLength &&
+                    Character.isLowSurrogate(value.charAt(i + 1))) {
+                final var codePoint = Character.toCodePoint(c, value.charAt(++i));
+                destination[index++] = (byte) (0xF0 | (codePoint >> 18));
+                destination[index++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                destination[index++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                destination[index++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                destination[index++] = '?';
+            } else {
+                destination[index++] = (byte) (0xE0 | (c >> 12));
+                destination[index++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                destination[index++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return index;
+    }
 }
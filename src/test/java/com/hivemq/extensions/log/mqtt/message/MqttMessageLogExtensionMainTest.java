@@ -16,18 +16,36 @@
 
 package com.hivemq.extensions.log.mqtt.message;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.codahale.metrics.MetricRegistry;
 import com.hivemq.extension.sdk.api.client.parameter.ServerInformation;
 import com.hivemq.extension.sdk.api.parameter.ExtensionInformation;
 import com.hivemq.extension.sdk.api.parameter.ExtensionStartInput;
 import com.hivemq.extension.sdk.api.parameter.ExtensionStartOutput;
 import com.hivemq.extension.sdk.api.services.admin.LicenseEdition;
+import com.hivemq.extensions.log.mqtt.message.config.ExtensionConfig;
+import com.hivemq.extensions.log.mqtt.message.config.LogPolicy;
 import com.hivemq.extensions.log.mqtt.message.initializer.ClientInitializerImpl;
 import com.hivemq.extensions.log.mqtt.message.initializer.ClientInitializerImpl4_2;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
+import com.hivemq.extensions.log.mqtt.message.logger.Direction;
+import com.hivemq.extensions.log.mqtt.message.logger.EventLoggers;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageType;
+import com.hivemq.extensions.log.mqtt.message.logger.OutputFormat;
+import com.hivemq.extensions.log.mqtt.message.logger.PayloadLimits;
+import com.hivemq.extensions.log.mqtt.message.metrics.MessageLogMetrics;
+import com.hivemq.extensions.log.mqtt.message.sink.OutputSink;
+import com.hivemq.extensions.log.mqtt.message.topic.TopicFilter;
+import com.hivemq.extensions.log.mqtt.message.util.LogbackTestAppender;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
 
 import java.io.File;
 
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createEmptyPublish;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createPingreq;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -43,6 +61,14 @@ class MqttMessageLogExtensionMainTest {
 
     private final @NotNull MqttMessageLogExtensionMain extensionMain = new MqttMessageLogExtensionMain();
 
+    @RegisterExtension
+    private final @NotNull LogbackTestAppender publishAppender =
+            LogbackTestAppender.createFor(EventLoggers.get(MessageType.PUBLISH, Direction.INBOUND));
+
+    @RegisterExtension
+    private final @NotNull LogbackTestAppender pingreqAppender =
+            LogbackTestAppender.createFor(EventLoggers.get(MessageType.PINGREQ, Direction.INBOUND));
+
     @Test
     void test_extension_start_prevented_no_access_to_static_components() {
         final var information = mock(ExtensionInformation.class);
@@ -68,29 +94,73 @@ class MqttMessageLogExtensionMainTest {
 
     @Test
     void getClientInitializerForEdition_4_2_0_oldImplReturned() {
-        final var clientInitializerForEdition =
-                extensionMain.getClientInitializerForEdition(LicenseEdition.ENTERPRISE, "4.2.0", mock());
+        final var clientInitializerForEdition = extensionMain.getClientInitializerForEdition(LicenseEdition.ENTERPRISE,
+                "4.2.0",
+                mock(),
+                mock(),
+                mock(),
+                mock(),
+                null);
         assertThat(clientInitializerForEdition).isInstanceOf(ClientInitializerImpl4_2.class);
     }
 
     @Test
     void getClientInitializerForEdition_4_3_0_newImplReturned() {
-        final var clientInitializerForEdition =
-                extensionMain.getClientInitializerForEdition(LicenseEdition.ENTERPRISE, "4.3.0", mock());
+        final var clientInitializerForEdition = extensionMain.getClientInitializerForEdition(LicenseEdition.ENTERPRISE,
+                "4.3.0",
+                mock(),
+                mock(),
+                mock(),
+                mock(),
+                null);
         assertThat(clientInitializerForEdition).isInstanceOf(ClientInitializerImpl.class);
     }
 
     @Test
     void getClientInitializerForEdition_4_20_0_newImplReturned() {
-        final var clientInitializerForEdition =
-                extensionMain.getClientInitializerForEdition(LicenseEdition.ENTERPRISE, "4.20.0", mock());
+        final var clientInitializerForEdition = extensionMain.getClientInitializerForEdition(LicenseEdition.ENTERPRISE,
+                "4.20.0",
+                mock(),
+                mock(),
+                mock(),
+                mock(),
+                null);
         assertThat(clientInitializerForEdition).isInstanceOf(ClientInitializerImpl.class);
     }
 
     @Test
     void getClientInitializerForEdition_COMMUNITY_newImplReturned() {
-        final var clientInitializerForEdition =
-                extensionMain.getClientInitializerForEdition(LicenseEdition.COMMUNITY, "2024.1", mock());
+        final var clientInitializerForEdition = extensionMain.getClientInitializerForEdition(LicenseEdition.COMMUNITY,
+                "2024.1",
+                mock(),
+                mock(),
+                mock(),
+                mock(),
+                null);
         assertThat(clientInitializerForEdition).isInstanceOf(ClientInitializerImpl.class);
     }
+
+    @Test
+    void test_batching_with_log_sink_keeps_loggers_of_event_types() throws Exception {
+        final ExtensionConfig config = mock();
+        when(config.getOutputSink()).thenReturn(OutputSink.LOG);
+        when(config.getOutputFormat()).thenReturn(OutputFormat.JSON);
+        when(config.getBatchSize()).thenReturn(64);
+        final var policy =
+                new LogPolicy(LogPolicy.ALL_EVENTS, false, true, false, PayloadLimits.UNLIMITED, TopicFilter.ALL);
+        ((Logger) EventLoggers.get(MessageType.PINGREQ, Direction.INBOUND)).setLevel(Level.OFF);
+
+        final var messageLogger = extensionMain.createFilter(() -> policy)
+                .apply(extensionMain.createMessageLogger(config,
+                        () -> policy,
+                        new File("unused"),
+                        new MessageLogMetrics(new MetricRegistry())));
+        messageLogger.logPublish(createEmptyPublish(), new ConnectionContext("client"), true);
+        messageLogger.logPingreq(createPingreq());
+
+        // the records are logged immediately and one by one instead of being batched
+        assertThat(publishAppender.getEvents()).singleElement()
+                .satisfies(event -> assertThat(event.getFormattedMessage()).contains("\"messageType\":\"PUBLISH\""));
+        assertThat(pingreqAppender.getEvents()).isEmpty();
+    }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.client;
+
+import com.hivemq.extension.sdk.api.client.parameter.ClientBasedInput;
+import com.hivemq.extension.sdk.api.client.parameter.ClientInformation;
+import com.hivemq.extension.sdk.api.client.parameter.ConnectionAttributeStore;
+import com.hivemq.extension.sdk.api.client.parameter.ConnectionInformation;
+import com.hivemq.extension.sdk.api.client.parameter.Listener;
+import com.hivemq.extension.sdk.api.packets.general.MqttVersion;
+import com.hivemq.extensions.log.mqtt.message.config.ExtensionConfig;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @since 1.4.0
+ */
+class ClientSelectorTest {
+
+    private final @NotNull ExtensionConfig config = mock();
+    private final @NotNull ConnectionInformation connectionInformation = mock();
+    private final @NotNull ConnectionAttributeStore connectionAttributeStore = mock();
+    private final @NotNull Listener listener = mock();
+
+    @BeforeEach
+    void setUp() {
+        when(listener.getName()).thenReturn("tcp-listener");
+        when(connectionInformation.getListener()).thenReturn(Optional.of(listener));
+        when(connectionInformation.getMqttVersion()).thenReturn(MqttVersion.V_5);
+        when(connectionInformation.getConnectionAttributeStore()).thenReturn(connectionAttributeStore);
+    }
+
+    @Test
+    void test_no_rules_no_selector() {
+        assertThat(ClientSelector.create(config)).isNull();
+    }
+
+    @Test
+    void test_client_id_prefixes_and_patterns() {
+        when(config.getClientIdPrefixes()).thenReturn(List.of("sensor-", "a.b"));
+        when(config.getClientIdPatterns()).thenReturn(List.of("device-[0-9]+", "[invalid"));
+        final var clientSelector = ClientSelector.create(config);
+        assertThat(clientSelector).isNotNull();
+        assertThat(clientSelector.matches("sensor-1", null, connectionInformation)).isTrue();
+        assertThat(clientSelector.matches("a.b.c", null, connectionInformation)).isTrue();
+        assertThat(clientSelector.matches("axb", null, connectionInformation)).isFalse();
+        assertThat(clientSelector.matches("device-42", null, connectionInformation)).isTrue();
+        assertThat(clientSelector.matches("device-42x", null, connectionInformation)).isFalse();
+        assertThat(clientSelector.matches("[invalid", null, connectionInformation)).isFalse();
+    }
+
+    @Test
+    void test_all_kinds_of_rules_must_match() {
+        when(config.getClientIdPrefixes()).thenReturn(List.of("sensor-"));
+        when(config.getUsernames()).thenReturn(List.of("alice"));
+        when(config.getListeners()).thenReturn(List.of("tcp-listener"));
+        when(config.getMqttVersions()).thenReturn(List.of("3.1.1", "5"));
+        final var clientSelector = ClientSelector.create(config);
+        assertThat(clientSelector).isNotNull();
+        assertThat(clientSelector.matches("sensor-1", "alice", connectionInformation)).isTrue();
+        assertThat(clientSelector.matches("sensor-1", "bob", connectionInformation)).isFalse();
+        assertThat(clientSelector.matches("sensor-1", null, connectionInformation)).isFalse();
+        assertThat(clientSelector.matches("device-1", "alice", connectionInformation)).isFalse();
+
+        when(connectionInformation.getMqttVersion()).thenReturn(MqttVersion.V_3_1);
+        assertThat(clientSelector.matches("sensor-1", "alice", connectionInformation)).isFalse();
+
+        when(connectionInformation.getMqttVersion()).thenReturn(MqttVersion.V_3_1_1);
+        when(connectionInformation.getListener()).thenReturn(Optional.empty());
+        assertThat(clientSelector.matches("sensor-1", "alice", connectionInformation)).isFalse();
+    }
+
+    @Test
+    void test_decision_stored_on_connect() {
+        when(config.getUsernames()).thenReturn(List.of("alice"));
+        final var clientSelector = ClientSelector.create(config);
+        assertThat(clientSelector).isNotNull();
+        final var input = mockInput("client");
+
+        assertThat(clientSelector.select(input, "alice")).isTrue();
+        verify(connectionAttributeStore).putAsString(ClientSelector.SELECTED_ATTRIBUTE, "true");
+
+        when(connectionAttributeStore.getAsString(ClientSelector.SELECTED_ATTRIBUTE)).thenReturn(Optional.of("true"));
+        assertThat(clientSelector.isSelected(input)).isTrue();
+
+        // without a stored decision, the username is unknown
+        when(connectionAttributeStore.getAsString(ClientSelector.SELECTED_ATTRIBUTE)).thenReturn(Optional.empty());
+        assertThat(clientSelector.isSelected(input)).isFalse();
+    }
+
+    private @NotNull ClientBasedInput mockInput(final @NotNull String clientId) {
+        final var clientInformation = mock(ClientInformation.class);
+        when(clientInformation.getClientId()).thenReturn(clientId);
+        final var input = mock(ClientBasedInput.class);
+        when(input.getClientInformation()).thenReturn(clientInformation);
+        when(input.getConnectionInformation()).thenReturn(connectionInformation);
+        return input;
+    }
+}
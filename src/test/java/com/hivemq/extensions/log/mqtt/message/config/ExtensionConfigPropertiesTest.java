@@ -16,6 +16,8 @@
 
 package com.hivemq.extensions.log.mqtt.message.config;
 
+import com.hivemq.extensions.log.mqtt.message.logger.TimestampFormat;
+import com.hivemq.extensions.log.mqtt.message.pipeline.OverflowPolicy;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -247,4 +249,224 @@ class ExtensionConfigPropertiesTest {
         assertThat(allTrueConfig.isPubcompSend()).isTrue();
         assertThat(mixedConfig.isPubcompSend()).isFalse();
     }
+
+    @Test
+    void isAsync() {
+        assertThat(emptyConfig.isAsync()).isFalse();
+        assertThat(emptyConfig.getAsyncBufferSize()).isEqualTo(8192);
+        assertThat(emptyConfig.getAsyncConsumerThreads()).isEqualTo(1);
+
+        final var properties = new Properties();
+        properties.setProperty(ExtensionConfigProperties.ASYNC, ExtensionConfigProperties.TRUE);
+        properties.setProperty(ExtensionConfigProperties.ASYNC_BUFFER_SIZE, "1024");
+        properties.setProperty(ExtensionConfigProperties.ASYNC_CONSUMER_THREADS, "2");
+        final var asyncConfig = new ExtensionConfigProperties(properties);
+        assertThat(asyncConfig.isAsync()).isTrue();
+        assertThat(asyncConfig.getAsyncBufferSize()).isEqualTo(1024);
+        assertThat(asyncConfig.getAsyncConsumerThreads()).isEqualTo(2);
+    }
+
+    @Test
+    void isAckLatency() {
+        assertThat(emptyConfig.isAckLatency()).isFalse();
+        assertThat(emptyConfig.getAckLatencyTopicLevels()).isEqualTo(1);
+
+        final var properties = new Properties();
+        properties.setProperty(ExtensionConfigProperties.ACK_LATENCY, ExtensionConfigProperties.TRUE);
+        properties.setProperty(ExtensionConfigProperties.ACK_LATENCY_TOPIC_LEVELS, "3");
+        final var ackLatencyConfig = new ExtensionConfigProperties(properties);
+        assertThat(ackLatencyConfig.isAckLatency()).isTrue();
+        assertThat(ackLatencyConfig.getAckLatencyTopicLevels()).isEqualTo(3);
+
+        properties.setProperty(ExtensionConfigProperties.ACK_LATENCY_TOPIC_LEVELS, "0");
+        assertThat(ackLatencyConfig.getAckLatencyTopicLevels()).isEqualTo(1);
+    }
+
+    @Test
+    void isQos2FlowAggregation() {
+        assertThat(emptyConfig.isQos2FlowAggregation()).isFalse();
+        assertThat(emptyConfig.getQos2FlowTimeout()).isEqualTo(60);
+
+        final var properties = new Properties();
+        properties.setProperty(ExtensionConfigProperties.QOS2_FLOW_AGGREGATION, ExtensionConfigProperties.TRUE);
+        properties.setProperty(ExtensionConfigProperties.QOS2_FLOW_TIMEOUT, "10");
+        final var qos2FlowConfig = new ExtensionConfigProperties(properties);
+        assertThat(qos2FlowConfig.isQos2FlowAggregation()).isTrue();
+        assertThat(qos2FlowConfig.getQos2FlowTimeout()).isEqualTo(10);
+
+        properties.setProperty(ExtensionConfigProperties.QOS2_FLOW_TIMEOUT, "0");
+        assertThat(qos2FlowConfig.getQos2FlowTimeout()).isEqualTo(60);
+    }
+
+    @Test
+    void isSessionSummary() {
+        assertThat(emptyConfig.isSessionSummary()).isFalse();
+
+        final var properties = new Properties();
+        properties.setProperty(ExtensionConfigProperties.SESSION_SUMMARY, ExtensionConfigProperties.TRUE);
+        final var sessionSummaryConfig = new ExtensionConfigProperties(properties);
+        assertThat(sessionSummaryConfig.isSessionSummary()).isTrue();
+    }
+
+    @Test
+    void isPingDigest() {
+        assertThat(emptyConfig.isPingDigest()).isFalse();
+        assertThat(emptyConfig.getPingDigestInterval()).isEqualTo(60);
+
+        final var properties = new Properties();
+        properties.setProperty(ExtensionConfigProperties.PING_DIGEST, ExtensionConfigProperties.TRUE);
+        properties.setProperty(ExtensionConfigProperties.PING_DIGEST_INTERVAL, "10");
+        final var pingDigestConfig = new ExtensionConfigProperties(properties);
+        assertThat(pingDigestConfig.isPingDigest()).isTrue();
+        assertThat(pingDigestConfig.getPingDigestInterval()).isEqualTo(10);
+
+        properties.setProperty(ExtensionConfigProperties.PING_DIGEST_INTERVAL, "0");
+        assertThat(pingDigestConfig.getPingDigestInterval()).isEqualTo(60);
+    }
+
+    @Test
+    void getDedupWindow() {
+        assertThat(emptyConfig.getDedupWindow()).isZero();
+        assertThat(emptyConfig.getDedupTableSize()).isEqualTo(4096);
+
+        final var properties = new Properties();
+        properties.setProperty(ExtensionConfigProperties.DEDUP_WINDOW, "10");
+        properties.setProperty(ExtensionConfigProperties.DEDUP_TABLE_SIZE, "1024");
+        final var dedupConfig = new ExtensionConfigProperties(properties);
+        assertThat(dedupConfig.getDedupWindow()).isEqualTo(10);
+        assertThat(dedupConfig.getDedupTableSize()).isEqualTo(1024);
+
+        properties.setProperty(ExtensionConfigProperties.DEDUP_WINDOW, "-1");
+        properties.setProperty(ExtensionConfigProperties.DEDUP_TABLE_SIZE, "0");
+        assertThat(dedupConfig.getDedupWindow()).isZero();
+        assertThat(dedupConfig.getDedupTableSize()).isEqualTo(4096);
+    }
+
+    @Test
+    void getMaxPayloadBytes() {
+        assertThat(emptyConfig.getMaxPayloadBytes()).isZero();
+        assertThat(emptyConfig.getPayloadTailBytes()).isZero();
+        assertThat(emptyConfig.getPublishReceivedMaxPayloadBytes()).isZero();
+
+        final var properties = new Properties();
+        properties.setProperty(ExtensionConfigProperties.MAX_PAYLOAD_BYTES, "1024");
+        properties.setProperty(ExtensionConfigProperties.PAYLOAD_TAIL_BYTES, "64");
+        properties.setProperty(ExtensionConfigProperties.PUBLISH_SEND_MAX_PAYLOAD_BYTES, "0");
+        properties.setProperty(ExtensionConfigProperties.WILL_MAX_PAYLOAD_BYTES, "-5");
+        final var limitConfig = new ExtensionConfigProperties(properties);
+        assertThat(limitConfig.getMaxPayloadBytes()).isEqualTo(1024);
+        assertThat(limitConfig.getPayloadTailBytes()).isEqualTo(64);
+        assertThat(limitConfig.getPublishReceivedMaxPayloadBytes()).isEqualTo(1024);
+        assertThat(limitConfig.getPublishSendMaxPayloadBytes()).isZero();
+        assertThat(limitConfig.getWillMaxPayloadBytes()).isEqualTo(1024);
+    }
+
+    @Test
+    void getTopicFilters() {
+        assertThat(emptyConfig.getIncludeTopics()).isEmpty();
+        assertThat(emptyConfig.getExcludeTopics()).isEmpty();
+
+        final var properties = new Properties();
+        properties.setProperty(ExtensionConfigProperties.INCLUDE_TOPICS, "sensors/#, devices/+/status,,");
+        properties.setProperty(ExtensionConfigProperties.EXCLUDE_TOPICS, "sensors/debug/#");
+        final var topicConfig = new ExtensionConfigProperties(properties);
+        assertThat(topicConfig.getIncludeTopics()).containsExactly("sensors/#", "devices/+/status");
+        assertThat(topicConfig.getExcludeTopics()).containsExactly("sensors/debug/#");
+    }
+
+    @Test
+    void getClientSelection() {
+        assertThat(emptyConfig.getClientIdPrefixes()).isEmpty();
+        assertThat(emptyConfig.getMqttVersions()).isEmpty();
+
+        final var properties = new Properties();
+        properties.setProperty(ExtensionConfigProperties.CLIENT_ID_PREFIXES, "sensor-, device-");
+        properties.setProperty(ExtensionConfigProperties.CLIENT_ID_PATTERNS, "client-[0-9]+");
+        properties.setProperty(ExtensionConfigProperties.USERNAMES, "alice");
+        properties.setProperty(ExtensionConfigProperties.LISTENERS, "tcp-listener");
+        properties.setProperty(ExtensionConfigProperties.MQTT_VERSIONS, "3.1.1,5");
+        final var selectionConfig = new ExtensionConfigProperties(properties);
+        assertThat(selectionConfig.getClientIdPrefixes()).containsExactly("sensor-", "device-");
+        assertThat(selectionConfig.getClientIdPatterns()).containsExactly("client-[0-9]+");
+        assertThat(selectionConfig.getUsernames()).containsExactly("alice");
+        assertThat(selectionConfig.getListeners()).containsExactly("tcp-listener");
+        assertThat(selectionConfig.getMqttVersions()).containsExactly("3.1.1", "5");
+    }
+
+    @Test
+    void getRateLimit() {
+        assertThat(emptyConfig.getRateLimit()).isZero();
+
+        final var properties = new Properties();
+        properties.setProperty(ExtensionConfigProperties.RATE_LIMIT, "100");
+        final var rateLimitConfig = new ExtensionConfigProperties(properties);
+        assertThat(rateLimitConfig.getRateLimit()).isEqualTo(100);
+        assertThat(rateLimitConfig.getRateLimitBurst()).isEqualTo(100);
+
+        properties.setProperty(ExtensionConfigProperties.RATE_LIMIT_BURST, "500");
+        assertThat(rateLimitConfig.getRateLimitBurst()).isEqualTo(500);
+    }
+
+    @Test
+    void getTimestampFormat() {
+        assertThat(emptyConfig.getTimestampFormat()).isNull();
+
+        final var properties = new Properties();
+        properties.setProperty(ExtensionConfigProperties.TIMESTAMP_FORMAT, "iso-8601");
+        final var timestampConfig = new ExtensionConfigProperties(properties);
+        assertThat(timestampConfig.getTimestampFormat()).isEqualTo(TimestampFormat.ISO_8601);
+
+        properties.setProperty(ExtensionConfigProperties.TIMESTAMP_FORMAT, "epoch-micros");
+        assertThat(timestampConfig.getTimestampFormat()).isEqualTo(TimestampFormat.EPOCH_MICROS);
+
+        properties.setProperty(ExtensionConfigProperties.TIMESTAMP_FORMAT, "rfc-1123");
+        assertThat(timestampConfig.getTimestampFormat()).isNull();
+    }
+
+    @Test
+    void getBatchSize() {
+        assertThat(emptyConfig.getBatchSize()).isZero();
+        assertThat(emptyConfig.getBatchBytes()).isEqualTo(65536);
+        assertThat(emptyConfig.getBatchLinger()).isEqualTo(100);
+
+        final var properties = new Properties();
+        properties.setProperty(ExtensionConfigProperties.BATCH_SIZE, "64");
+        properties.setProperty(ExtensionConfigProperties.BATCH_BYTES, "4096");
+        properties.setProperty(ExtensionConfigProperties.BATCH_LINGER, "0");
+        final var batchConfig = new ExtensionConfigProperties(properties);
+        assertThat(batchConfig.getBatchSize()).isEqualTo(64);
+        assertThat(batchConfig.getBatchBytes()).isEqualTo(4096);
+        assertThat(batchConfig.getBatchLinger()).isEqualTo(100);
+    }
+
+    @Test
+    void getAsyncOverflowPolicy() {
+        assertThat(emptyConfig.getAsyncOverflowPolicy()).isEqualTo(OverflowPolicy.DROP_NEWEST);
+        assertThat(emptyConfig.getAsyncOverflowTimeout()).isEqualTo(10);
+        assertThat(emptyConfig.getAsyncSampleRate()).isEqualTo(10);
+
+        final var properties = new Properties();
+        properties.setProperty(ExtensionConfigProperties.ASYNC_OVERFLOW_POLICY, "drop-oldest");
+        properties.setProperty(ExtensionConfigProperties.ASYNC_OVERFLOW_TIMEOUT, "0");
+        properties.setProperty(ExtensionConfigProperties.ASYNC_SAMPLE_RATE, "100");
+        final var overflowConfig = new ExtensionConfigProperties(properties);
+        assertThat(overflowConfig.getAsyncOverflowPolicy()).isEqualTo(OverflowPolicy.DROP_OLDEST);
+        assertThat(overflowConfig.getAsyncOverflowTimeout()).isZero();
+        assertThat(overflowConfig.getAsyncSampleRate()).isEqualTo(100);
+
+        properties.setProperty(ExtensionConfigProperties.ASYNC_OVERFLOW_POLICY, "drop-everything");
+        properties.setProperty(ExtensionConfigProperties.ASYNC_SAMPLE_RATE, "0");
+        assertThat(overflowConfig.getAsyncOverflowPolicy()).isEqualTo(OverflowPolicy.DROP_NEWEST);
+        assertThat(overflowConfig.getAsyncSampleRate()).isEqualTo(10);
+    }
+
+    @Test
+    void getAsyncBufferSize_invalid_defaults() {
+        final var properties = new Properties();
+        properties.setProperty(ExtensionConfigProperties.ASYNC_BUFFER_SIZE, "-1");
+        properties.setProperty(ExtensionConfigProperties.ASYNC_CONSUMER_THREADS, "many");
+        final var invalidConfig = new ExtensionConfigProperties(properties);
+        assertThat(invalidConfig.getAsyncBufferSize()).isEqualTo(8192);
+        assertThat(invalidConfig.getAsyncConsumerThreads()).isEqualTo(1);
+    }
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.config;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @since 1.4.0
+ */
+class LogPolicyReloaderTest {
+
+    private static final @NotNull String HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+    @TempDir
+    private @NotNull Path extensionHome;
+
+    private @NotNull File configXml;
+    private @NotNull AtomicReference<LogPolicy> policy;
+    private @NotNull LogPolicyReloader reloader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.createDirectories(extensionHome.resolve("conf"));
+        configXml = extensionHome.resolve("conf/config.xml").toFile();
+        writeConfig("<hivemq-mqtt-message-log-extension>\n" +
+                "    <verbose>false</verbose>\n" +
+                "</hivemq-mqtt-message-log-extension>\n", 1_000);
+        policy = new AtomicReference<>(LogPolicy.compile(XmlParser.unmarshalExtensionConfig(configXml)));
+        reloader = new LogPolicyReloader(extensionHome.toFile(), policy);
+    }
+
+    @Test
+    void run_unchanged_keepsPolicy() {
+        final var initial = policy.get();
+
+        reloader.run();
+
+        assertThat(policy.get()).isSameAs(initial);
+    }
+
+    @Test
+    void run_changed_publishesNewPolicy() throws Exception {
+        assertThat(policy.get().isVerbose()).isFalse();
+        assertThat(policy.get().isEnabled(EventType.PUBLISH_RECEIVED)).isTrue();
+
+        writeConfig("<hivemq-mqtt-message-log-extension>\n" +
+                "    <verbose>true</verbose>\n" +
+                "    <publish-received>false</publish-received>\n" +
+                "</hivemq-mqtt-message-log-extension>\n", 2_000);
+        reloader.run();
+
+        assertThat(policy.get().isVerbose()).isTrue();
+        assertThat(policy.get().isEnabled(EventType.PUBLISH_RECEIVED)).isFalse();
+        assertThat(policy.get().isEnabled(EventType.PUBLISH_SEND)).isTrue();
+    }
+
+    @Test
+    void run_invalid_keepsPolicy() throws Exception {
+        final var initial = policy.get();
+
+        writeConfig("<invalid-config>\n" + "    <verbose>true</verbose>\n" + "</invalid-config>\n", 2_000);
+        reloader.run();
+
+        assertThat(policy.get()).isSameAs(initial);
+    }
+
+    @Test
+    void run_removed_keepsPolicy() {
+        final var initial = policy.get();
+
+        assertThat(configXml.delete()).isTrue();
+        reloader.run();
+
+        assertThat(policy.get()).isSameAs(initial);
+    }
+
+    private void writeConfig(final @NotNull String content, final long lastModified) throws Exception {
+        Files.writeString(configXml.toPath(), HEADER + content);
+        // the modification time is set explicitly, as file systems may only store it in seconds
+        assertThat(configXml.setLastModified(lastModified)).isTrue();
+    }
+}
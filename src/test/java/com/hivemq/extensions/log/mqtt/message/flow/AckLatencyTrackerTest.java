@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.flow;
+
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extension.sdk.api.packets.general.Qos;
+import com.hivemq.extension.sdk.api.packets.publish.PublishPacket;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
+import com.hivemq.extensions.log.mqtt.message.metrics.MessageLogMetrics;
+import com.hivemq.extensions.log.mqtt.message.util.LogbackTestAppender;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @since 1.4.0
+ */
+class AckLatencyTrackerTest {
+
+    private static final @NotNull String PREFIX = MessageLogMetrics.PREFIX;
+
+    @RegisterExtension
+    private final @NotNull LogbackTestAppender logbackTestAppender =
+            LogbackTestAppender.createFor(LoggerFactory.getLogger(MessageLogger.class));
+
+    private final @NotNull MetricRegistry metricRegistry = new MetricRegistry();
+    private final @NotNull AtomicLong nanoTime = new AtomicLong(1_000);
+    private final @NotNull AckLatencyTracker tracker =
+            new AckLatencyTracker("client", 2, new MessageLogMetrics(metricRegistry), nanoTime::get);
+
+    @Test
+    void test_puback_correlated_with_publish() {
+        tracker.published(createPublish(1, Qos.AT_LEAST_ONCE, false, "sensors/kitchen/temperature"), false);
+        tracker.published(createPublish(1, Qos.AT_LEAST_ONCE, false, "commands"), true);
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(3));
+
+        assertThat(tracker.acknowledged(1, true)).isEqualTo(3_000);
+        assertThat(tracker.acknowledged(1, true)).isEqualTo(-1);
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertThat(tracker.acknowledged(1, false)).isEqualTo(4_000);
+
+        final var timers = metricRegistry.getTimers();
+        assertThat(timers.get(PREFIX + ".ack-latency.outbound.sensors/kitchen").getCount()).isEqualTo(1);
+        assertThat(timers.get(PREFIX + ".ack-latency.inbound.commands").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void test_topic_prefix_of_consecutive_acknowledgements() {
+        tracker.published(createPublish(1, Qos.AT_LEAST_ONCE, false, "sensors/kitchen/temperature"), false);
+        tracker.published(createPublish(2, Qos.AT_LEAST_ONCE, false, "sensors/kitchen/temperature"), false);
+        tracker.published(createPublish(3, Qos.AT_LEAST_ONCE, false, "sensors/garage/humidity"), false);
+        tracker.published(createPublish(4, Qos.AT_LEAST_ONCE, false, "sensors/kitchen/humidity"), false);
+        for (var packetId = 1; packetId <= 4; packetId++) {
+            tracker.acknowledged(packetId, true);
+        }
+
+        final var timers = metricRegistry.getTimers();
+        assertThat(timers.get(PREFIX + ".ack-latency.outbound.sensors/kitchen").getCount()).isEqualTo(3);
+        assertThat(timers.get(PREFIX + ".ack-latency.outbound.sensors/garage").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void test_only_qos_1_tracked() {
+        tracker.published(createPublish(0, Qos.AT_MOST_ONCE, false, "topic"), false);
+        tracker.published(createPublish(2, Qos.EXACTLY_ONCE, false, "topic"), false);
+
+        assertThat(tracker.acknowledged(0, true)).isEqualTo(-1);
+        assertThat(tracker.acknowledged(2, true)).isEqualTo(-1);
+    }
+
+    @Test
+    void test_redelivered_publish_counts_from_first_delivery() {
+        tracker.published(createPublish(7, Qos.AT_LEAST_ONCE, false, "topic"), false);
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(5));
+        tracker.published(createPublish(7, Qos.AT_LEAST_ONCE, true, "topic"), false);
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertThat(tracker.acknowledged(7, true)).isEqualTo(10_000);
+    }
+
+    @Test
+    void test_evict_logs_histogram_and_drops_in_flight_packets() {
+        tracker.published(createPublish(1, Qos.AT_LEAST_ONCE, false, "topic"), false);
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(2));
+        tracker.acknowledged(1, true);
+        tracker.published(createPublish(2, Qos.AT_LEAST_ONCE, false, "topic"), false);
+
+        tracker.evict();
+        tracker.published(createPublish(3, Qos.AT_LEAST_ONCE, false, "topic"), false);
+
+        assertThat(tracker.acknowledged(2, true)).isEqualTo(-1);
+        assertThat(tracker.acknowledged(3, true)).isEqualTo(-1);
+        assertThat(logbackTestAppender.getEvents()).hasSize(1);
+        assertThat(logbackTestAppender.getEvents().get(0).getFormattedMessage()).isEqualTo(
+                "Ack latency of QoS 1 PUBLISH sent to client 'client': Count: '1', p50: '2000us', p99: '2000us', " +
+                        "Max: '2000us'");
+    }
+
+    private static @NotNull PublishPacket createPublish(
+            final int packetId,
+            final @NotNull Qos qos,
+            final boolean dup,
+            final @NotNull String topic) {
+        final PublishPacket publishPacket = mock();
+        when(publishPacket.getPacketId()).thenReturn(packetId);
+        when(publishPacket.getQos()).thenReturn(qos);
+        when(publishPacket.getDupFlag()).thenReturn(dup);
+        when(publishPacket.getTopic()).thenReturn(topic);
+        return publishPacket;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.flow;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @since 1.4.0
+ */
+class PacketIdMapTest {
+
+    private final @NotNull PacketIdMap map = new PacketIdMap();
+
+    @Test
+    void test_put_and_remove() {
+        map.put(1, 100, "a");
+        map.put(2, 200, "b");
+        map.put(1, 101, "c");
+
+        assertThat(map.size()).isEqualTo(2);
+        final var slot = map.indexOf(1);
+        assertThat(map.valueAt(slot)).isEqualTo(101);
+        assertThat(map.attachmentAt(slot)).isEqualTo("c");
+
+        map.removeAt(slot);
+        assertThat(map.indexOf(1)).isEqualTo(-1);
+        assertThat(map.valueAt(map.indexOf(2))).isEqualTo(200);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void test_grows_beyond_initial_capacity() {
+        for (var packetId = 1; packetId <= 65_535; packetId++) {
+            map.put(packetId, packetId * 10L, null);
+        }
+        assertThat(map.size()).isEqualTo(65_535);
+        for (var packetId = 1; packetId <= 65_535; packetId++) {
+            assertThat(map.valueAt(map.indexOf(packetId))).isEqualTo(packetId * 10L);
+        }
+
+        map.clear();
+        assertThat(map.size()).isZero();
+        assertThat(map.indexOf(1)).isEqualTo(-1);
+    }
+
+    @Test
+    void test_random_operations_match_hash_map() {
+        final var random = new Random(42);
+        final var expected = new HashMap<Integer, Long>();
+        for (var i = 0; i < 200_000; i++) {
+            // few distinct identifiers, so the probe sequences collide and removals shift entries back
+            final var packetId = 1 + random.nextInt(64);
+            if (random.nextBoolean()) {
+                map.put(packetId, i, null);
+                expected.put(packetId, (long) i);
+            } else {
+                final var slot = map.indexOf(packetId);
+                assertThat(slot >= 0).isEqualTo(expected.containsKey(packetId));
+                if (slot >= 0) {
+                    assertThat(map.valueAt(slot)).isEqualTo(expected.remove(packetId));
+                    map.removeAt(slot);
+                }
+            }
+            assertThat(map.size()).isEqualTo(expected.size());
+        }
+        expected.forEach((packetId, value) -> assertThat(map.valueAt(map.indexOf(packetId))).isEqualTo(value));
+    }
+}
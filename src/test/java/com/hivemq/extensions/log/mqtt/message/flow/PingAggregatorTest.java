@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hivemq.extensions.log.mqtt.message.flow;
+
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @since 1.4.0
+ */
+class PingAggregatorTest {
+
+    private final @NotNull MessageLogger messageLogger = mock();
+    private final @NotNull AtomicLong nanoTime = new AtomicLong(1_000);
+    private final @NotNull PingAggregator pingAggregator = new PingAggregator(messageLogger, nanoTime::get);
+
+    @Test
+    void test_pings_counted_per_interval() {
+        final var client1 = pingAggregator.track("client-1");
+        client1.connected(60);
+        final var client2 = pingAggregator.track("client-2");
+        client2.connected(60);
+        client1.pingreq();
+        client1.pingresp();
+        client2.pingreq();
+        client2.pingresp();
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        client1.pingreq();
+        client1.pingresp();
+
+        final var pingDigest = flush();
+        assertThat(pingDigest.getDurationMillis()).isEqualTo(60_000);
+        assertThat(pingDigest.getPingreqs()).isEqualTo(3);
+        assertThat(pingDigest.getPingresps()).isEqualTo(3);
+        assertThat(pingDigest.getClients()).isEqualTo(2);
+        assertThat(pingDigest.getOutlierClients()).isZero();
+        assertThat(pingDigest.getOutliers()).isEmpty();
+    }
+
+    @Test
+    void test_early_pings_reported_as_outliers() {
+        final var client1 = pingAggregator.track("client-1");
+        client1.connected(60);
+        final var client2 = pingAggregator.track("client-2");
+        // the keep-alive is unknown until the connection started
+        client1.pingreq();
+        client2.pingreq();
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        client1.pingreq();
+        client1.pingreq();
+        client2.pingreq();
+
+        final var pingDigest = flush();
+        assertThat(pingDigest.getClients()).isEqualTo(2);
+        assertThat(pingDigest.getOutlierClients()).isEqualTo(1);
+        assertThat(pingDigest.getOutliers()).hasSize(1);
+        final var outlier = pingDigest.getOutliers().getFirst();
+        assertThat(outlier.getClientId()).isEqualTo("client-1");
+        assertThat(outlier.getKeepAlive()).isEqualTo(60);
+        assertThat(outlier.getIntervalMillis()).isEqualTo(10_000);
+    }
+
+    @Test
+    void test_outliers_limited_per_interval() {
+        final var clients = new ArrayList<PingAggregator.ClientPings>();
+        for (var i = 0; i < 12; i++) {
+            final var client = pingAggregator.track("client-" + i);
+            client.connected(60);
+            client.pingreq();
+            clients.add(client);
+        }
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        clients.forEach(PingAggregator.ClientPings::pingreq);
+
+        final var pingDigest = flush();
+        assertThat(pingDigest.getOutlierClients()).isEqualTo(12);
+        assertThat(pingDigest.getOutliers()).hasSize(10);
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        clients.getFirst().pingreq();
+        pingAggregator.flush();
+        final var captor = ArgumentCaptor.forClass(PingDigest.class);
+        verify(messageLogger, times(2)).logPingDigest(captor.capture());
+        assertThat(captor.getValue().getOutliers()).singleElement()
+                .satisfies(outlier -> assertThat(outlier.getClientId()).isEqualTo("client-0"));
+    }
+
+    @Test
+    void test_empty_interval_not_logged() {
+        pingAggregator.flush();
+        verify(messageLogger, never()).logPingDigest(any());
+
+        final var client = pingAggregator.track("client");
+        client.pingreq();
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        pingAggregator.flush();
+        pingAggregator.flush();
+        verify(messageLogger, times(1)).logPingDigest(any());
+    }
+
+    private @NotNull PingDigest flush() {
+        pingAggregator.flush();
+        final var captor = ArgumentCaptor.forClass(PingDigest.class);
+        verify(messageLogger).logPingDigest(captor.capture());
+        return captor.getValue();
+    }
+}
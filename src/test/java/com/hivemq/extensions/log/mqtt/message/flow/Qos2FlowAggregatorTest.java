@@ -0,0 +1,201 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.flow;
+
+import com.hivemq.extension.sdk.api.packets.general.Qos;
+import com.hivemq.extension.sdk.api.packets.pubcomp.PubcompPacket;
+import com.hivemq.extension.sdk.api.packets.pubcomp.PubcompReasonCode;
+import com.hivemq.extension.sdk.api.packets.publish.AckReasonCode;
+import com.hivemq.extension.sdk.api.packets.publish.PublishPacket;
+import com.hivemq.extension.sdk.api.packets.pubrec.PubrecPacket;
+import com.hivemq.extension.sdk.api.packets.pubrel.PubrelPacket;
+import com.hivemq.extension.sdk.api.packets.pubrel.PubrelReasonCode;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @since 1.4.0
+ */
+class Qos2FlowAggregatorTest {
+
+    private static final @NotNull ConnectionContext CONNECTION = new ConnectionContext("client");
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final @NotNull MessageLogger messageLogger = mock();
+    private final @NotNull AtomicLong nanoTime = new AtomicLong(1_000);
+    private final @NotNull Qos2FlowAggregator aggregator =
+            new Qos2FlowAggregator(CONNECTION, messageLogger, TIMEOUT_NANOS, nanoTime::get);
+
+    @Test
+    void test_complete_inbound_flow_logged_once() {
+        aggregator.published(createPublish(1, Qos.EXACTLY_ONCE, false), true);
+        nanoTime.addAndGet(TimeUnit.MICROSECONDS.toNanos(100));
+        assertThat(aggregator.pubrec(createPubrec(1, AckReasonCode.SUCCESS), false)).isTrue();
+        nanoTime.addAndGet(TimeUnit.MICROSECONDS.toNanos(200));
+        assertThat(aggregator.pubrel(createPubrel(1), true)).isTrue();
+        nanoTime.addAndGet(TimeUnit.MICROSECONDS.toNanos(300));
+        verify(messageLogger, never()).logQos2Flow(any(), any());
+        assertThat(aggregator.pubcomp(createPubcomp(1), false)).isTrue();
+
+        final var flow = captureFlow();
+        assertThat(flow.getPacketId()).isEqualTo(1);
+        assertThat(flow.isInbound()).isTrue();
+        assertThat(flow.getTopic()).isEqualTo("topic");
+        assertThat(flow.isComplete()).isTrue();
+        assertThat(flow.isSuccessful()).isTrue();
+        assertThat(flow.getPubrecReasonCode()).isEqualTo(AckReasonCode.SUCCESS);
+        assertThat(flow.getPubrelReasonCode()).isEqualTo(PubrelReasonCode.SUCCESS);
+        assertThat(flow.getPubcompReasonCode()).isEqualTo(PubcompReasonCode.SUCCESS);
+        assertThat(flow.getPubrecMicros()).isEqualTo(100);
+        assertThat(flow.getPubrelMicros()).isEqualTo(200);
+        assertThat(flow.getPubcompMicros()).isEqualTo(300);
+        assertThat(flow.getDurationMicros()).isEqualTo(600);
+
+        assertThat(aggregator.pubcomp(createPubcomp(1), false)).isFalse();
+    }
+
+    @Test
+    void test_outbound_flow_matches_inbound_acknowledgements() {
+        aggregator.published(createPublish(1, Qos.EXACTLY_ONCE, false), false);
+
+        assertThat(aggregator.pubrec(createPubrec(1, AckReasonCode.SUCCESS), false)).isFalse();
+        assertThat(aggregator.pubrec(createPubrec(1, AckReasonCode.SUCCESS), true)).isTrue();
+        assertThat(aggregator.pubrel(createPubrel(1), true)).isFalse();
+        assertThat(aggregator.pubrel(createPubrel(1), false)).isTrue();
+        assertThat(aggregator.pubcomp(createPubcomp(1), true)).isTrue();
+
+        assertThat(captureFlow().isInbound()).isFalse();
+    }
+
+    @Test
+    void test_pubrec_with_error_ends_flow() {
+        aggregator.published(createPublish(1, Qos.EXACTLY_ONCE, false), true);
+        assertThat(aggregator.pubrec(createPubrec(1, AckReasonCode.NOT_AUTHORIZED), false)).isTrue();
+
+        final var flow = captureFlow();
+        assertThat(flow.isComplete()).isTrue();
+        assertThat(flow.isSuccessful()).isFalse();
+        assertThat(flow.getPubrecReasonCode()).isEqualTo(AckReasonCode.NOT_AUTHORIZED);
+        assertThat(flow.getPubrelReasonCode()).isNull();
+        assertThat(flow.getPubrelMicros()).isEqualTo(-1);
+        assertThat(aggregator.pubrel(createPubrel(1), true)).isFalse();
+    }
+
+    @Test
+    void test_qos_0_and_1_not_aggregated() {
+        aggregator.published(createPublish(1, Qos.AT_MOST_ONCE, false), true);
+        aggregator.published(createPublish(2, Qos.AT_LEAST_ONCE, false), true);
+
+        assertThat(aggregator.pubrec(createPubrec(1, AckReasonCode.SUCCESS), false)).isFalse();
+        assertThat(aggregator.pubrec(createPubrec(2, AckReasonCode.SUCCESS), false)).isFalse();
+    }
+
+    @Test
+    void test_redelivered_publish_continues_flow() {
+        aggregator.published(createPublish(1, Qos.EXACTLY_ONCE, false), false);
+        nanoTime.addAndGet(TimeUnit.MICROSECONDS.toNanos(100));
+        aggregator.published(createPublish(1, Qos.EXACTLY_ONCE, true), false);
+        nanoTime.addAndGet(TimeUnit.MICROSECONDS.toNanos(100));
+        aggregator.pubrec(createPubrec(1, AckReasonCode.SUCCESS), true);
+        aggregator.pubrel(createPubrel(1), false);
+        aggregator.pubcomp(createPubcomp(1), true);
+
+        assertThat(captureFlow().getDurationMicros()).isEqualTo(200);
+    }
+
+    @Test
+    void test_expire_logs_timed_out_flows_as_incomplete() {
+        aggregator.published(createPublish(1, Qos.EXACTLY_ONCE, false), true);
+        nanoTime.addAndGet(TIMEOUT_NANOS / 2);
+        aggregator.published(createPublish(2, Qos.EXACTLY_ONCE, false), true);
+        aggregator.pubrec(createPubrec(1, AckReasonCode.SUCCESS), false);
+        nanoTime.addAndGet(TIMEOUT_NANOS / 2);
+
+        aggregator.expire();
+
+        final var flow = captureFlow();
+        assertThat(flow.getPacketId()).isEqualTo(1);
+        assertThat(flow.isComplete()).isFalse();
+        assertThat(flow.isSuccessful()).isFalse();
+        assertThat(flow.getPubrecReasonCode()).isEqualTo(AckReasonCode.SUCCESS);
+        assertThat(aggregator.pubrel(createPubrel(1), true)).isFalse();
+        assertThat(aggregator.pubrel(createPubrel(2), true)).isTrue();
+    }
+
+    @Test
+    void test_evict_logs_open_flows_and_stops_aggregation() {
+        aggregator.published(createPublish(1, Qos.EXACTLY_ONCE, false), true);
+        aggregator.published(createPublish(2, Qos.EXACTLY_ONCE, false), false);
+
+        aggregator.evict();
+        aggregator.published(createPublish(3, Qos.EXACTLY_ONCE, false), true);
+
+        verify(messageLogger, times(2)).logQos2Flow(any(), eq(CONNECTION));
+        assertThat(aggregator.pubrec(createPubrec(3, AckReasonCode.SUCCESS), false)).isFalse();
+    }
+
+    private @NotNull Qos2Flow captureFlow() {
+        final var captor = ArgumentCaptor.forClass(Qos2Flow.class);
+        verify(messageLogger).logQos2Flow(captor.capture(), eq(CONNECTION));
+        return captor.getValue();
+    }
+
+    private static @NotNull PublishPacket createPublish(final int packetId, final @NotNull Qos qos, final boolean dup) {
+        final PublishPacket publishPacket = mock();
+        when(publishPacket.getPacketId()).thenReturn(packetId);
+        when(publishPacket.getQos()).thenReturn(qos);
+        when(publishPacket.getDupFlag()).thenReturn(dup);
+        when(publishPacket.getTopic()).thenReturn("topic");
+        return publishPacket;
+    }
+
+    private static @NotNull PubrecPacket createPubrec(final int packetId, final @NotNull AckReasonCode reasonCode) {
+        final PubrecPacket pubrecPacket = mock();
+        when(pubrecPacket.getPacketIdentifier()).thenReturn(packetId);
+        when(pubrecPacket.getReasonCode()).thenReturn(reasonCode);
+        return pubrecPacket;
+    }
+
+    private static @NotNull PubrelPacket createPubrel(final int packetId) {
+        final PubrelPacket pubrelPacket = mock();
+        when(pubrelPacket.getPacketIdentifier()).thenReturn(packetId);
+        when(pubrelPacket.getReasonCode()).thenReturn(PubrelReasonCode.SUCCESS);
+        return pubrelPacket;
+    }
+
+    private static @NotNull PubcompPacket createPubcomp(final int packetId) {
+        final PubcompPacket pubcompPacket = mock();
+        when(pubcompPacket.getPacketIdentifier()).thenReturn(packetId);
+        when(pubcompPacket.getReasonCode()).thenReturn(PubcompReasonCode.SUCCESS);
+        return pubcompPacket;
+    }
+}
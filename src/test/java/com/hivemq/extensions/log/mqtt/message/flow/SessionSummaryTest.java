@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.flow;
+
+import com.hivemq.extension.sdk.api.packets.general.Qos;
+import com.hivemq.extension.sdk.api.packets.publish.PublishPacket;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageType;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @since 1.4.0
+ */
+class SessionSummaryTest {
+
+    private final @NotNull AtomicLong nanoTime = new AtomicLong(1_000);
+    private final @NotNull SessionSummary summary = new SessionSummary(nanoTime.get(), nanoTime::get);
+
+    @Test
+    void test_packets_counted_by_type_and_direction() {
+        summary.packet(MessageType.SUBSCRIBE, true);
+        summary.packet(MessageType.PUBACK, false);
+        summary.packet(MessageType.PUBACK, false);
+        summary.packet(MessageType.PUBACK, true);
+
+        assertThat(summary.getPackets(MessageType.PUBACK, false)).isEqualTo(2);
+        final var packetCounts = summary.getPacketCounts();
+        assertThat(packetCounts).hasSize(3);
+        assertThat(packetCounts.get(0).getMessageType()).isEqualTo(MessageType.SUBSCRIBE);
+        assertThat(packetCounts.get(0).isInbound()).isTrue();
+        assertThat(packetCounts.get(0).getCount()).isEqualTo(1);
+        assertThat(packetCounts.get(1).getMessageType()).isEqualTo(MessageType.PUBACK);
+        assertThat(packetCounts.get(1).isInbound()).isTrue();
+        assertThat(packetCounts.get(2).getMessageType()).isEqualTo(MessageType.PUBACK);
+        assertThat(packetCounts.get(2).isInbound()).isFalse();
+        assertThat(packetCounts.get(2).getCount()).isEqualTo(2);
+    }
+
+    @Test
+    void test_publishes_counted_with_payload_bytes_and_qos() {
+        summary.published(createPublish("a", Qos.AT_MOST_ONCE, 10), true);
+        summary.published(createPublish("a", Qos.AT_LEAST_ONCE, 20), true);
+        summary.published(createPublish("b", Qos.EXACTLY_ONCE, 0), false);
+
+        assertThat(summary.getPackets(MessageType.PUBLISH, true)).isEqualTo(2);
+        assertThat(summary.getPackets(MessageType.PUBLISH, false)).isEqualTo(1);
+        assertThat(summary.getPayloadBytes(true)).isEqualTo(30);
+        assertThat(summary.getPayloadBytes(false)).isZero();
+        assertThat(summary.getPublishes(0, true)).isEqualTo(1);
+        assertThat(summary.getPublishes(1, true)).isEqualTo(1);
+        assertThat(summary.getPublishes(2, true)).isZero();
+        assertThat(summary.getPublishes(2, false)).isEqualTo(1);
+        assertThat(summary.getDistinctTopics()).isEqualTo(2);
+    }
+
+    @Test
+    void test_distinct_topics_approximated() {
+        assertThat(summary.getDistinctTopics()).isZero();
+        for (var i = 0; i < 500; i++) {
+            summary.published(createPublish("sensors/" + i + "/temperature", Qos.AT_MOST_ONCE, 0), true);
+            summary.published(createPublish("sensors/" + i + "/temperature", Qos.AT_MOST_ONCE, 0), false);
+        }
+
+        assertThat(summary.getDistinctTopics()).isCloseTo(500, within(50L));
+    }
+
+    @Test
+    void test_errors_counted_by_reason_code() {
+        summary.error(MessageType.PUBACK, true, "NOT_AUTHORIZED");
+        summary.error(MessageType.SUBACK, false, "NOT_AUTHORIZED");
+        summary.error(MessageType.PUBACK, true, "NOT_AUTHORIZED");
+        summary.error(MessageType.PUBACK, false, "NOT_AUTHORIZED");
+
+        final var errors = summary.getErrors();
+        assertThat(errors).hasSize(3);
+        assertThat(errors.get(0).getMessageType()).isEqualTo(MessageType.PUBACK);
+        assertThat(errors.get(0).isInbound()).isTrue();
+        assertThat(errors.get(0).getReasonCode()).isEqualTo("NOT_AUTHORIZED");
+        assertThat(errors.get(0).getCount()).isEqualTo(2);
+        assertThat(errors.get(1).getMessageType()).isEqualTo(MessageType.SUBACK);
+        assertThat(errors.get(2).isInbound()).isFalse();
+    }
+
+    @Test
+    void test_closed_summary_not_changed() {
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(1500));
+        assertThat(summary.getDurationMillis()).isEqualTo(1500);
+        summary.close();
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(1500));
+
+        summary.packet(MessageType.PINGREQ, true);
+        summary.published(createPublish("a", Qos.AT_MOST_ONCE, 10), true);
+        summary.error(MessageType.PUBACK, true, "NOT_AUTHORIZED");
+
+        assertThat(summary.getDurationMillis()).isEqualTo(1500);
+        assertThat(summary.getPacketCounts()).isEmpty();
+        assertThat(summary.getErrors()).isEmpty();
+        assertThat(summary.getDistinctTopics()).isZero();
+    }
+
+    private static @NotNull PublishPacket createPublish(
+            final @NotNull String topic,
+            final @NotNull Qos qos,
+            final int payloadBytes) {
+        final PublishPacket publishPacket = mock();
+        when(publishPacket.getTopic()).thenReturn(topic);
+        when(publishPacket.getQos()).thenReturn(qos);
+        when(publishPacket.getPayload()).thenReturn(Optional.of(ByteBuffer.allocate(payloadBytes)));
+        return publishPacket;
+    }
+}
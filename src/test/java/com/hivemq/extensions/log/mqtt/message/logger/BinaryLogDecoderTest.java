@@ -0,0 +1,221 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import com.hivemq.extension.sdk.api.packets.general.DisconnectedReasonCode;
+import com.hivemq.extensions.log.mqtt.message.config.LogPolicy;
+import com.hivemq.extensions.log.mqtt.message.sink.BinarySegmentLogSink;
+import com.hivemq.extensions.log.mqtt.message.sink.LogSink;
+import com.hivemq.extensions.log.mqtt.message.util.PacketUtil;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createConnectWithBinaryPassword;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createEmptyPublish;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullConnack;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullConnect;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullDisconnect;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullPuback;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullPublish;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullPublishWithBinaryPayload;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullSuback;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullSubsribe;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullUnsuback;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullUnsubsribe;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createPingreq;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createPingresp;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @since 1.4.0
+ */
+class BinaryLogDecoderTest {
+
+    private static final @NotNull ConnectionContext CONNECTION = new ConnectionContext("client");
+
+    @Test
+    void test_decoded_records_equal_json_records(@TempDir final @NotNull Path tempDir) throws Exception {
+        final var policy = policy(true, true);
+        final var expected = logAll(policy, tempDir);
+
+        final var decoded = decode(segments(tempDir));
+        assertThat(decoded.errors).isEmpty();
+        assertThat(stripTimestamps(decoded.records)).containsExactlyElementsOf(stripTimestamps(expected));
+    }
+
+    @Test
+    void test_decoded_truncated_payloads_equal_json_records(@TempDir final @NotNull Path tempDir) throws Exception {
+        final var limit = new PayloadLimit(4, 2);
+        final var policy = MessageLoggerFactory.fixedPolicy(true,
+                true,
+                true,
+                new PayloadLimits(limit, limit, limit));
+        final var expected = logAll(policy, tempDir);
+
+        final var decoded = decode(segments(tempDir));
+        assertThat(decoded.errors).isEmpty();
+        assertThat(stripTimestamps(decoded.records)).containsExactlyElementsOf(stripTimestamps(expected));
+    }
+
+    @Test
+    void test_symbols_written_once_per_segment(@TempDir final @NotNull Path tempDir) throws Exception {
+        final var policy = policy(false, false);
+        final var sink = new BinarySegmentLogSink(tempDir.resolve("messages.bin"), 1024 * 1024, 0);
+        final var logger = new BinaryMessageLogger(policy, sink);
+        logger.logPingreq(createPingreq());
+        sink.flush();
+        final var segment = segments(tempDir).get(0);
+        final var sizeOfFirst = Files.size(segment);
+        for (var i = 0; i < 10; i++) {
+            logger.logPingreq(createPingreq());
+        }
+        sink.close();
+
+        // the client id is only contained in the dictionary record that precedes the first event
+        final var content = new String(Files.readAllBytes(segment), UTF_8);
+        final var clientId = createPingreq().getClientInformation().getClientId();
+        assertThat(content.indexOf(clientId)).isEqualTo(content.lastIndexOf(clientId));
+        assertThat(Files.size(segment) - sizeOfFirst).isLessThan((sizeOfFirst - 5) * 10);
+        assertThat(decode(List.of(segment)).records).hasSize(11);
+    }
+
+    @Test
+    void test_dictionary_restarted_in_new_segment(@TempDir final @NotNull Path tempDir) throws Exception {
+        final var policy = policy(true, true);
+        final var sink = new BinarySegmentLogSink(tempDir.resolve("messages.bin"), 1, 0);
+        final var logger = new BinaryMessageLogger(policy, sink);
+        logger.logPublish(createFullPublish(), CONNECTION, true);
+        logger.logPublish(createFullPublish(), CONNECTION, true);
+        sink.close();
+
+        final var segments = segments(tempDir);
+        assertThat(segments).hasSize(2);
+        final var decoded = decode(segments);
+        assertThat(decoded.errors).isEmpty();
+        assertThat(decoded.records).hasSize(2);
+        assertThat(stripTimestamps(List.of(decoded.records.get(0)))).isEqualTo(
+                stripTimestamps(List.of(decoded.records.get(1))));
+    }
+
+    @Test
+    void test_corrupted_record_detected(@TempDir final @NotNull Path tempDir) throws Exception {
+        final var policy = policy(true, true);
+        final var sink = new BinarySegmentLogSink(tempDir.resolve("messages.bin"), 1024 * 1024, 0);
+        final var logger = new BinaryMessageLogger(policy, sink);
+        logger.logPingreq(createPingreq());
+        sink.flush();
+        final var segment = segments(tempDir).get(0);
+        final var validLength = (int) Files.size(segment);
+        logger.logPublish(createFullPublish(), CONNECTION, true);
+        sink.close();
+
+        final var bytes = Files.readAllBytes(segment);
+        bytes[bytes.length - 10] ^= 0x01;
+        Files.write(segment, bytes);
+
+        final var decoded = decode(List.of(segment));
+        assertThat(decoded.records).hasSize(1);
+        assertThat(decoded.errors).contains("invalid checksum");
+
+        Files.write(segment, Arrays.copyOf(bytes, validLength + 3));
+        final var truncated = decode(List.of(segment));
+        assertThat(truncated.records).hasSize(1);
+        assertThat(truncated.errors).contains("truncated record");
+    }
+
+    private static @NotNull Supplier<LogPolicy> policy(final boolean verbose, final boolean payload) {
+        return MessageLoggerFactory.fixedPolicy(verbose, payload, false, PayloadLimits.UNLIMITED);
+    }
+
+    private static @NotNull List<String> logAll(final @NotNull Supplier<LogPolicy> policy, final @NotNull Path dir)
+            throws IOException {
+        final var expected = new ArrayList<String>();
+        final LogSink jsonSink = record -> expected.add(UTF_8.decode(record).toString());
+        final var binarySink = new BinarySegmentLogSink(dir.resolve("messages.bin"), 1024 * 1024, 0);
+        for (final var logger : List.of(new JsonMessageLogger(policy, jsonSink),
+                new BinaryMessageLogger(policy, binarySink))) {
+            logger.logDisconnect(new PacketUtil.TestDisconnect(DisconnectedReasonCode.BANNED,
+                    "banned",
+                    new PacketUtil.TestUserProperties(2)), CONNECTION, false);
+            logger.logDisconnect(createFullDisconnect(), CONNECTION, true);
+            logger.logConnect(createFullConnect());
+            logger.logConnect(createConnectWithBinaryPassword());
+            logger.logConnack(createFullConnack());
+            logger.logPublish(createFullPublish(), CONNECTION, true);
+            logger.logPublish(createFullPublishWithBinaryPayload(), CONNECTION, false);
+            logger.logPublish(createEmptyPublish(), CONNECTION, false);
+            logger.logSubscribe(createFullSubsribe());
+            logger.logSuback(createFullSuback());
+            logger.logUnsubscribe(createFullUnsubsribe());
+            logger.logUnsuback(createFullUnsuback());
+            logger.logPingreq(createPingreq());
+            logger.logPingresp(createPingresp());
+            logger.logPuback(createFullPuback(), CONNECTION, false);
+        }
+        binarySink.close();
+        return expected;
+    }
+
+    private static @NotNull Decoded decode(final @NotNull List<Path> segments) throws IOException {
+        final var out = new ByteArrayOutputStream();
+        final var err = new ByteArrayOutputStream();
+        final var decoder = new BinaryLogDecoder(out);
+        try (final var errStream = new PrintStream(err, true, UTF_8)) {
+            for (final var segment : segments) {
+                decoder.decode(segment, errStream);
+            }
+        }
+        final var output = out.toString(UTF_8);
+        return new Decoded(output.isEmpty() ? List.of() : List.of(output.split("\n")), err.toString(UTF_8));
+    }
+
+    private static @NotNull List<String> stripTimestamps(final @NotNull List<String> records) {
+        return records.stream()
+                .map(record -> record.replaceFirst("^\\{\"timestamp\":\\d+", "{"))
+                .collect(Collectors.toList());
+    }
+
+    private static @NotNull List<Path> segments(final @NotNull Path directory) throws IOException {
+        try (final var files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static class Decoded {
+
+        private final @NotNull List<String> records;
+        private final @NotNull String errors;
+
+        private Decoded(final @NotNull List<String> records, final @NotNull String errors) {
+            this.records = records;
+            this.errors = errors;
+        }
+    }
+}
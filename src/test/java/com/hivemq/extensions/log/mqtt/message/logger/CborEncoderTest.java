@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.asHexString;
+import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.getBytes;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The expected encodings are taken from appendix A of RFC 8949.
+ *
+ * @since 1.4.0
+ */
+class CborEncoderTest {
+
+    @Test
+    void test_number() {
+        assertThat(hex(CborEncoder.get().number(0))).isEqualTo("00");
+        assertThat(hex(CborEncoder.get().number(23))).isEqualTo("17");
+        assertThat(hex(CborEncoder.get().number(24))).isEqualTo("1818");
+        assertThat(hex(CborEncoder.get().number(100))).isEqualTo("1864");
+        assertThat(hex(CborEncoder.get().number(1000))).isEqualTo("1903e8");
+        assertThat(hex(CborEncoder.get().number(1000000))).isEqualTo("1a000f4240");
+        assertThat(hex(CborEncoder.get().number(1000000000000L))).isEqualTo("1b000000e8d4a51000");
+        assertThat(hex(CborEncoder.get().number(-1))).isEqualTo("20");
+        assertThat(hex(CborEncoder.get().number(-10))).isEqualTo("29");
+        assertThat(hex(CborEncoder.get().number(-100))).isEqualTo("3863");
+        assertThat(hex(CborEncoder.get().number(-1000))).isEqualTo("3903e7");
+        assertThat(hex(CborEncoder.get().number(Long.MIN_VALUE))).isEqualTo("3b7fffffffffffffff");
+    }
+
+    @Test
+    void test_text() {
+        assertThat(hex(CborEncoder.get().text(""))).isEqualTo("60");
+        assertThat(hex(CborEncoder.get().text("a"))).isEqualTo("6161");
+        assertThat(hex(CborEncoder.get().text("IETF"))).isEqualTo("6449455446");
+        assertThat(hex(CborEncoder.get().text("ü"))).isEqualTo("62c3bc");
+        assertThat(hex(CborEncoder.get().text("水"))).isEqualTo("63e6b0b4");
+        assertThat(hex(CborEncoder.get().text("x".repeat(24)))).startsWith("7818");
+    }
+
+    @Test
+    void test_indefinite_map_and_array() {
+        final var encoder = CborEncoder.get().beginMap().field("a", 1);
+        encoder.key("b").beginArray().number(2).number(3).end();
+        assertThat(hex(encoder.end())).isEqualTo("bf61610161629f0203ffff");
+    }
+
+    @Test
+    void test_simple_values_and_bytes() {
+        assertThat(hex(CborEncoder.get().field("a", false))).isEqualTo("6161f4");
+        assertThat(hex(CborEncoder.get().field("a", true))).isEqualTo("6161f5");
+
+        final var direct = ByteBuffer.allocateDirect(4).put(new byte[]{1, 2, 3, 4}).flip();
+        assertThat(hex(CborEncoder.get().bytesField("a", direct))).isEqualTo("61614401020304");
+        assertThat(direct.position()).isZero();
+    }
+
+    @Test
+    void test_null_string_field_omitted() {
+        assertThat(hex(CborEncoder.get().field("a", (String) null))).isEmpty();
+    }
+
+    @Test
+    void test_precomputed_client_id_field_equals_field() {
+        final var clientId = "a\"b/grüße\u0001";
+        final var connection = new ConnectionContext(clientId);
+        assertThat(hex(CborEncoder.get().field(connection.getCborClientIdField()))).isEqualTo(
+                hex(CborEncoder.get().field("clientId", clientId)));
+    }
+
+    static @NotNull String hex(final @NotNull CborEncoder encoder) {
+        return asHexString(getBytes(encoder.asByteBuffer()));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import com.hivemq.extensions.log.mqtt.message.sink.LogSink;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createConnectWithBinaryPassword;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullPublishWithBinaryPayload;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullSubsribe;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createPingreq;
+import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.asHexString;
+import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.getBytes;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @since 1.4.0
+ */
+class CborMessageLoggerTest {
+
+    private static final @NotNull ConnectionContext CONNECTION = new ConnectionContext("client");
+
+    private final @NotNull List<String> records = new ArrayList<>();
+    private final @NotNull LogSink sink = record -> records.add(asHexString(getBytes(record)));
+
+    @Test
+    void test_pingreq_map() {
+        logger(false).logPingreq(createPingreq());
+
+        assertThat(records).hasSize(1);
+        final var record = records.get(0);
+        assertThat(record).startsWith("bf" + text("timestamp") + "1b");
+        assertThat(record).contains(text("messageType") + text("PINGREQ") + text("direction") + text("INBOUND") +
+                text("clientId"));
+        assertThat(record).endsWith("ff");
+    }
+
+    @Test
+    void test_binary_payload_embedded_as_byte_string() {
+        logger(true).logPublish(createFullPublishWithBinaryPayload(), CONNECTION, false);
+
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0)).contains(text("direction") + text("OUTBOUND") + text("clientId") + text("client") +
+                text("topic"));
+        assertThat(records.get(0)).contains(text("topic") + text("topic") + text("payload") +
+                "4b000102fffe7f48656c6c6f");
+        assertThat(records.get(0)).doesNotContain(text("payloadBase64"));
+    }
+
+    @Test
+    void test_binary_password_embedded_as_byte_string() {
+        logger(true).logConnect(createConnectWithBinaryPassword());
+
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0)).contains(text("password") + "4");
+        assertThat(records.get(0)).doesNotContain(text("passwordBase64"));
+    }
+
+    @Test
+    void test_subscriptions_as_array_of_maps() {
+        logger(false).logSubscribe(createFullSubsribe());
+
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0)).contains(text("subscriptions") + "9fbf" + text("topicFilter"));
+    }
+
+    private @NotNull CborMessageLogger logger(final boolean verbose) {
+        return new CborMessageLogger(MessageLoggerFactory.fixedPolicy(verbose,
+                true,
+                false,
+                PayloadLimits.UNLIMITED), sink);
+    }
+
+    /**
+     * @return the hex encoded CBOR text string of a short ASCII value
+     */
+    private static @NotNull String text(final @NotNull String value) {
+        return asHexString(new byte[]{(byte) (0x60 | value.length())}) + asHexString(value.getBytes(UTF_8));
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import com.hivemq.extension.sdk.api.packets.disconnect.DisconnectPacket;
+import com.hivemq.extension.sdk.api.packets.general.Qos;
+import com.hivemq.extension.sdk.api.packets.general.UserProperties;
+import com.hivemq.extension.sdk.api.packets.puback.PubackPacket;
+import com.hivemq.extension.sdk.api.packets.publish.PayloadFormatIndicator;
+import com.hivemq.extension.sdk.api.packets.publish.PublishPacket;
+import com.hivemq.extensions.log.mqtt.message.util.PacketUtil;
+import com.sun.management.ThreadMXBean;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createEmptyDisconnect;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createEmptyPuback;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @since 1.4.0
+ */
+class JsonEncoderTest {
+
+    private static final @NotNull ConnectionContext TEST_CONNECTION = new ConnectionContext("test-client-id");
+
+    private long written;
+
+    @Test
+    void test_escaped_plain_string_copied() {
+        assertThat(JsonEncoder.get().escaped("topic/a/b").toString()).isEqualTo("topic/a/b");
+    }
+
+    @Test
+    void test_escaped_special_characters() {
+        assertThat(JsonEncoder.get().escaped("a\"b\\c\n\r\t\b\f").toString()).isEqualTo(
+                "a\\\"b\\\\c\\n\\r\\t\\b\\f");
+        assertThat(JsonEncoder.get().escaped("\u0000\u001f").toString()).isEqualTo("\\u0000\\u001f");
+    }
+
+    @Test
+    void test_escaped_non_ascii_encoded_as_utf8() {
+        final var value = "grüße/€/😀";
+        assertThat(JsonEncoder.get().escaped(value).toString()).isEqualTo(value);
+    }
+
+    @Test
+    void test_precomputed_client_id_field_equals_field() {
+        final var clientId = "a\"b/grüße\u0001";
+        final var connection = new ConnectionContext(clientId);
+        assertThat(JsonEncoder.get().beginObject().field(connection.getJsonClientIdField()).toString()).isEqualTo(
+                JsonEncoder.get().beginObject().field("clientId", clientId).toString());
+        assertThat(JsonEncoder.get().field("a", 1).field(connection.getJsonClientIdField()).toString()).isEqualTo(
+                JsonEncoder.get().field("a", 1).field("clientId", clientId).toString());
+    }
+
+    @Test
+    void test_number() {
+        assertThat(JsonEncoder.get().number(0).toString()).isEqualTo("0");
+        assertThat(JsonEncoder.get().number(-42).toString()).isEqualTo("-42");
+        assertThat(JsonEncoder.get().number(Long.MAX_VALUE).toString()).isEqualTo(Long.toString(Long.MAX_VALUE));
+        assertThat(JsonEncoder.get().number(Long.MIN_VALUE).toString()).isEqualTo(Long.toString(Long.MIN_VALUE));
+    }
+
+    @Test
+    void test_binary_field_printable_and_base64() {
+        assertThat(JsonEncoder.get()
+                .binaryField("payload", "payloadBase64", ByteBuffer.wrap("a\"b".getBytes(UTF_8)))
+                .toString()).isEqualTo(",\"payload\":\"a\\\"b\"");
+
+        final var binary = new byte[]{0, 1, 2, (byte) 0xFF, 4};
+        assertThat(JsonEncoder.get()
+                .binaryField("payload", "payloadBase64", ByteBuffer.wrap(binary).asReadOnlyBuffer())
+                .toString()).isEqualTo(",\"payloadBase64\":\"" + Base64.getEncoder().encodeToString(binary) + "\"");
+    }
+
+    @Test
+    void test_nested_object_first_key_without_separator() {
+        final var json = JsonEncoder.get().field("a", 1).key("b").beginObject();
+        json.binaryField("payload", "payloadBase64", ByteBuffer.wrap(new byte[]{0})).field("c", true).ascii('}');
+        assertThat(json.toString()).isEqualTo(",\"a\":1,\"b\":{\"payloadBase64\":\"AA==\",\"c\":true}");
+    }
+
+    @Test
+    void test_binary_field_read_in_chunks() {
+        final var text = "\"quoted\\".repeat(3000);
+        final var binary = new byte[20_000];
+        new Random(42).nextBytes(binary);
+        for (final var buffer : List.of(ByteBuffer.wrap(text.getBytes(UTF_8)).asReadOnlyBuffer(),
+                ByteBuffer.allocateDirect(text.length()).put(text.getBytes(UTF_8)).flip())) {
+            assertThat(JsonEncoder.get().binaryField("payload", "payloadBase64", buffer).toString()).isEqualTo(
+                    ",\"payload\":\"" + text.replace("\\", "\\\\").replace("\"", "\\\"") + "\"");
+        }
+        for (final var buffer : List.of(ByteBuffer.wrap(binary).asReadOnlyBuffer(),
+                ByteBuffer.allocateDirect(binary.length).put(binary).flip())) {
+            assertThat(JsonEncoder.get().binaryField("payload", "payloadBase64", buffer).toString()).isEqualTo(
+                    ",\"payloadBase64\":\"" + Base64.getEncoder().encodeToString(binary) + "\"");
+            assertThat(buffer.position()).isZero();
+        }
+    }
+
+    @Test
+    void test_buffer_grows_for_large_records() {
+        final var value = "x".repeat(100_000);
+        assertThat(JsonEncoder.get().escaped(value).toString()).isEqualTo(value);
+        assertThat(JsonEncoder.get().length()).isZero();
+    }
+
+    @Test
+    void test_non_verbose_events_do_not_allocate() {
+        final var logger = new JsonMessageLogger(false, true, false) {
+            @Override
+            void write(final @NotNull JsonEncoder json, final @NotNull Logger logger) {
+                written += json.length();
+            }
+        };
+        final var puback = createEmptyPuback();
+        final var disconnect = createEmptyDisconnect();
+        final var publish = new CachedPublishPacket();
+
+        final var iterations = 10_000;
+        for (var i = 0; i < 5 * iterations; i++) {
+            logEvents(logger, puback, disconnect, publish);
+        }
+        final var threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final var before = threadMXBean.getCurrentThreadAllocatedBytes();
+        for (var i = 0; i < iterations; i++) {
+            logEvents(logger, puback, disconnect, publish);
+        }
+        final var allocated = threadMXBean.getCurrentThreadAllocatedBytes() - before;
+
+        assertThat(written).isPositive();
+        // less than one byte per event leaves room for the measurement itself
+        assertThat(allocated).isLessThan(iterations);
+    }
+
+    private static void logEvents(
+            final @NotNull JsonMessageLogger logger,
+            final @NotNull PubackPacket puback,
+            final @NotNull DisconnectPacket disconnect,
+            final @NotNull PublishPacket publish) {
+        logger.logPuback(puback, TEST_CONNECTION, true);
+        logger.logDisconnect(disconnect, TEST_CONNECTION, false);
+        logger.logPublish(publish, TEST_CONNECTION, true);
+    }
+
+    /**
+     * Returns the same instances on every call, so only the logger can allocate.
+     */
+    private static class CachedPublishPacket implements PublishPacket {
+
+        private final @NotNull Optional<ByteBuffer> payload =
+                Optional.of(ByteBuffer.wrap("message".getBytes(UTF_8)).asReadOnlyBuffer());
+        private final @NotNull UserProperties userProperties = new PacketUtil.TestUserProperties(0);
+
+        @Override
+        public boolean getDupFlag() {
+            return false;
+        }
+
+        @Override
+        public @NotNull Qos getQos() {
+            return Qos.AT_LEAST_ONCE;
+        }
+
+        @Override
+        public boolean getRetain() {
+            return false;
+        }
+
+        @Override
+        public @NotNull String getTopic() {
+            return "topic";
+        }
+
+        @Override
+        public int getPacketId() {
+            return 1;
+        }
+
+        @Override
+        public @NotNull Optional<PayloadFormatIndicator> getPayloadFormatIndicator() {
+            return Optional.empty();
+        }
+
+        @Override
+        public @NotNull Optional<Long> getMessageExpiryInterval() {
+            return Optional.empty();
+        }
+
+        @Override
+        public @NotNull Optional<String> getResponseTopic() {
+            return Optional.empty();
+        }
+
+        @Override
+        public @NotNull Optional<ByteBuffer> getCorrelationData() {
+            return Optional.empty();
+        }
+
+        @Override
+        public @NotNull List<Integer> getSubscriptionIdentifiers() {
+            return List.of();
+        }
+
+        @Override
+        public @NotNull Optional<String> getContentType() {
+            return Optional.empty();
+        }
+
+        @Override
+        public @NotNull Optional<ByteBuffer> getPayload() {
+            return payload;
+        }
+
+        @Override
+        public @NotNull UserProperties getUserProperties() {
+            return userProperties;
+        }
+    }
+}
@@ -18,6 +18,7 @@ package com.hivemq.extensions.log.mqtt.message.logger;
 
 import com.hivemq.extension.sdk.api.events.client.parameters.DisconnectEventInput;
 import com.hivemq.extension.sdk.api.packets.general.DisconnectedReasonCode;
+import com.hivemq.extensions.log.mqtt.message.sink.Slf4jLogSink;
 import com.hivemq.extensions.log.mqtt.message.util.LogbackTestAppender;
 import com.hivemq.extensions.log.mqtt.message.util.PacketUtil;
 import org.assertj.core.data.MapEntry;
@@ -25,12 +26,15 @@ import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import static com.hivemq.extensions.log.mqtt.message.util.HashUtil.xxHash64;
 import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.TestDisconnect;
 import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.TestUserProperties;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createCompleteQos2Flow;
 import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createConnectWithBinaryPassword;
 import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createEmptyConnack;
 import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createEmptyConnect;
@@ -57,8 +61,15 @@ import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullS
 import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullSubsribe;
 import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullUnsuback;
 import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullUnsubsribe;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createIncompleteQos2Flow;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createPingDigest;
 import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createPingreq;
 import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createPingresp;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createRepeatedEvent;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createSessionSummary;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createSuppressedEvents;
+import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.asHexString;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.entry;
 
@@ -67,6 +78,8 @@ import static org.assertj.core.api.Assertions.entry;
  */
 class JsonMessageLoggerTest {
 
+    private static final @NotNull ConnectionContext TEST_CONNECTION = new ConnectionContext("test-client-id");
+
     @RegisterExtension
     private final @NotNull LogbackTestAppender logbackTestAppender = LogbackTestAppender.createFor(MessageLogger.LOG);
 
@@ -78,13 +91,12 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_lifecycle_disconnect_verbose_all_set() {
         final var logger = new JsonMessageLogger(true, false, false);
-        logger.logDisconnect("Received DISCONNECT from client 'test-client-id'",
-                new TestDisconnect(DisconnectedReasonCode.BAD_AUTHENTICATION_METHOD,
-                        "ReasonString",
-                        new TestUserProperties(5)));
+        logger.logDisconnect(new TestDisconnect(DisconnectedReasonCode.BAD_AUTHENTICATION_METHOD,
+                "ReasonString",
+                new TestUserProperties(5)), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.DISCONNECT,
-                Direction.EVENT,
-                List.of(entry("message", "Received DISCONNECT from client 'test-client-id'"),
+                Direction.INBOUND,
+                List.of(entry("clientId", "test-client-id"),
                         entry("reasonCode", "BAD_AUTHENTICATION_METHOD"),
                         entry("reasonString", "ReasonString"),
                         entry("userProperties",
@@ -98,35 +110,34 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_lifecycle_disconnect_verbose_none_set() {
         final var logger = new JsonMessageLogger(true, false, false);
-        logger.logDisconnect("Received DISCONNECT from client 'test-client-id'", new TestDisconnect(null, null, null));
+        logger.logDisconnect(new TestDisconnect(null, null, null), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.DISCONNECT,
-                Direction.EVENT,
-                List.of(entry("message", "Received DISCONNECT from client 'test-client-id'"))));
+                Direction.INBOUND,
+                List.of(entry("clientId", "test-client-id"))));
     }
 
     @Test
     void test_log_lifecycle_disconnect_verbose_user_properties_empty() {
         final var logger = new JsonMessageLogger(true, false, false);
-        logger.logDisconnect("Received DISCONNECT from client 'test-client-id'",
-                new TestDisconnect(null, null, new TestUserProperties(0)));
+        logger.logDisconnect(new TestDisconnect(null, null, new TestUserProperties(0)), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.DISCONNECT,
-                Direction.EVENT,
-                List.of(entry("message", "Received DISCONNECT from client 'test-client-id'"))));
+                Direction.INBOUND,
+                List.of(entry("clientId", "test-client-id"))));
     }
 
     @Test
     void test_log_lifecycle_disconnect_not_verbose() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logDisconnect("Received DISCONNECT from client 'test-client-id'", new TestDisconnect(null, null, null));
+        logger.logDisconnect(new TestDisconnect(null, null, null), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.DISCONNECT,
-                Direction.EVENT,
-                List.of(entry("message", "Received DISCONNECT from client 'test-client-id'"))));
+                Direction.INBOUND,
+                List.of(entry("clientId", "test-client-id"))));
     }
 
     @Test
     void test_log_inbound_disconnect_verbose_all_set() {
         final var logger = new JsonMessageLogger(true, false, false);
-        logger.logDisconnect(createFullDisconnect(), "test-client-id", true);
+        logger.logDisconnect(createFullDisconnect(), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.DISCONNECT,
                 Direction.INBOUND,
                 List.of(entry("clientId", "test-client-id"),
@@ -142,7 +153,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_inbound_disconnect_verbose_none_set() {
         final var logger = new JsonMessageLogger(true, false, false);
-        logger.logDisconnect(createEmptyDisconnect(), "test-client-id", true);
+        logger.logDisconnect(createEmptyDisconnect(), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.DISCONNECT,
                 Direction.INBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "NOT_AUTHORIZED"))));
@@ -151,7 +162,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_inbound_disconnect_not_verbose_all_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logDisconnect(createFullDisconnect(), "test-client-id", true);
+        logger.logDisconnect(createFullDisconnect(), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.DISCONNECT,
                 Direction.INBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "NOT_AUTHORIZED"))));
@@ -160,7 +171,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_inbound_disconnect_not_verbose_none_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logDisconnect(createFullDisconnect(), "test-client-id", true);
+        logger.logDisconnect(createFullDisconnect(), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.DISCONNECT,
                 Direction.INBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "NOT_AUTHORIZED"))));
@@ -169,7 +180,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_outbound_disconnect_verbose_all_set() {
         final var logger = new JsonMessageLogger(true, false, false);
-        logger.logDisconnect(createFullDisconnect(), "test-client-id", false);
+        logger.logDisconnect(createFullDisconnect(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.DISCONNECT,
                 Direction.OUTBOUND,
                 List.of(entry("clientId", "test-client-id"),
@@ -185,7 +196,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_outbound_disconnect_verbose_none_set() {
         final var logger = new JsonMessageLogger(true, false, false);
-        logger.logDisconnect(createEmptyDisconnect(), "test-client-id", false);
+        logger.logDisconnect(createEmptyDisconnect(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.DISCONNECT,
                 Direction.OUTBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "NOT_AUTHORIZED"))));
@@ -194,7 +205,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_outbound_disconnect_not_verbose_all_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logDisconnect(createFullDisconnect(), "test-client-id", false);
+        logger.logDisconnect(createFullDisconnect(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.DISCONNECT,
                 Direction.OUTBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "NOT_AUTHORIZED"))));
@@ -203,7 +214,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_outbound_disconnect_not_verbose_none_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logDisconnect(createEmptyDisconnect(), "test-client-id", false);
+        logger.logDisconnect(createEmptyDisconnect(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.DISCONNECT,
                 Direction.OUTBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "NOT_AUTHORIZED"))));
@@ -517,10 +528,11 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_publish_verbose_all_set() {
         final var logger = new JsonMessageLogger(true, true, false);
-        logger.logPublish("Sent PUBLISH to client 'test-client-id' on topic", createFullPublish());
+        logger.logPublish(createFullPublish(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBLISH,
                 Direction.OUTBOUND,
-                List.of(entry("topic", "topic"),
+                List.of(entry("clientId", "test-client-id"),
+                        entry("topic", "topic"),
                         entry("payload", "message"),
                         entry("qos", 1),
                         entry("retained", false),
@@ -539,10 +551,11 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_publish_verbose_no_payload_all_set() {
         final var logger = new JsonMessageLogger(true, false, false);
-        logger.logPublish("Sent PUBLISH to client 'test-client-id' on topic", createFullPublish());
+        logger.logPublish(createFullPublish(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBLISH,
                 Direction.OUTBOUND,
-                List.of(entry("topic", "topic"),
+                List.of(entry("clientId", "test-client-id"),
+                        entry("topic", "topic"),
                         entry("qos", 1),
                         entry("retained", false),
                         entry("messageExpiryInterval", 10000),
@@ -560,31 +573,86 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_publish_not_verbose_all_set() {
         final var logger = new JsonMessageLogger(false, true, false);
-        logger.logPublish("Sent PUBLISH to client 'test-client-id' on topic", createFullPublish());
+        logger.logPublish(createFullPublish(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBLISH,
                 Direction.OUTBOUND,
-                List.of(entry("topic", "topic"),
+                List.of(entry("clientId", "test-client-id"),
+                        entry("topic", "topic"),
                         entry("payload", "message"),
                         entry("qos", 1),
                         entry("retained", false))));
     }
 
+    @Test
+    void test_log_publish_payload_truncated() {
+        final var payload = "abcdefghijklmnopqrstuvwxyz".getBytes(UTF_8);
+        final var limits = new PayloadLimits(PayloadLimit.UNLIMITED, new PayloadLimit(4, 3), PayloadLimit.UNLIMITED);
+        final var logger = new JsonMessageLogger(false,
+                true,
+                false,
+                limits,
+                new Slf4jLogSink(MessageLogger.LOG));
+        logger.logPublish(createFullPublish(payload), TEST_CONNECTION, false);
+        assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBLISH,
+                Direction.OUTBOUND,
+                List.of(entry("clientId", "test-client-id"),
+                        entry("topic", "topic"),
+                        entry("payloadHead", "abcd"),
+                        entry("payloadTail", "xyz"),
+                        entry("payloadSize", 26),
+                        entry("payloadHash", asHexString(xxHash64(ByteBuffer.wrap(payload)))),
+                        entry("qos", 1),
+                        entry("retained", false))));
+
+        // the limit of the other direction applies to received messages
+        logger.logPublish(createFullPublish(payload), TEST_CONNECTION, true);
+        assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBLISH,
+                Direction.INBOUND,
+                List.of(entry("clientId", "test-client-id"),
+                        entry("topic", "topic"),
+                        entry("payload", "abcdefghijklmnopqrstuvwxyz"),
+                        entry("qos", 1),
+                        entry("retained", false))));
+    }
+
+    @Test
+    void test_log_publish_payload_within_limit() {
+        final var limit = new PayloadLimit(20, 6);
+        final var logger = new JsonMessageLogger(false,
+                true,
+                false,
+                new PayloadLimits(limit, limit, limit),
+                new Slf4jLogSink(MessageLogger.LOG));
+        logger.logPublish(createFullPublish("abcdefghijklmnopqrstuvwxyz".getBytes(UTF_8)), TEST_CONNECTION, false);
+        assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBLISH,
+                Direction.OUTBOUND,
+                List.of(entry("clientId", "test-client-id"),
+                        entry("topic", "topic"),
+                        entry("payload", "abcdefghijklmnopqrstuvwxyz"),
+                        entry("qos", 1),
+                        entry("retained", false))));
+    }
+
     @Test
     void test_log_publish_not_verbose_no_payload_all_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logPublish("Sent PUBLISH to client 'test-client-id' on topic", createFullPublish());
+        logger.logPublish(createFullPublish(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBLISH,
                 Direction.OUTBOUND,
-                List.of(entry("topic", "topic"), entry("qos", 1), entry("retained", false))));
+                List.of(entry("clientId", "test-client-id"),
+                        entry("topic", "topic"),
+                        entry("qos", 1),
+                        entry("retained", false))));
     }
 
     @Test
     void test_log_publish_verbose_none_set() {
         final var logger = new JsonMessageLogger(true, true, false);
-        logger.logPublish("Sent PUBLISH to client 'test-client-id' on topic", createEmptyPublish());
+        logger.logPublish(createEmptyPublish(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBLISH,
                 Direction.OUTBOUND,
-                List.of(entry("topic", "topic"),
+                List.of(entry("clientId", "test-client-id"),
+                        entry("topic", "topic"),
                         entry("payload", "message"),
                         entry("qos", 1),
                         entry("retained", false),
@@ -594,10 +662,11 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_publish_verbose_no_payload_none_set() {
         final var logger = new JsonMessageLogger(true, false, false);
-        logger.logPublish("Sent PUBLISH to client 'test-client-id' on topic", createEmptyPublish());
+        logger.logPublish(createEmptyPublish(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBLISH,
                 Direction.OUTBOUND,
-                List.of(entry("topic", "topic"),
+                List.of(entry("clientId", "test-client-id"),
+                        entry("topic", "topic"),
                         entry("qos", 1),
                         entry("retained", false),
                         entry("duplicateDelivery", false))));
@@ -606,10 +675,11 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_publish_verbose_binary_payload_shows_base64() {
         final var logger = new JsonMessageLogger(true, true, false);
-        logger.logPublish("Sent PUBLISH to client 'test-client-id' on topic", createFullPublishWithBinaryPayload());
+        logger.logPublish(createFullPublishWithBinaryPayload(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBLISH,
                 Direction.OUTBOUND,
-                List.of(entry("topic", "topic"),
+                List.of(entry("clientId", "test-client-id"),
+                        entry("topic", "topic"),
                         entry("payloadBase64", "AAEC//5/SGVsbG8="),
                         entry("qos", 1),
                         entry("retained", false),
@@ -628,10 +698,11 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_publish_not_verbose_binary_payload_shows_base64() {
         final var logger = new JsonMessageLogger(false, true, false);
-        logger.logPublish("Sent PUBLISH to client 'test-client-id' on topic", createFullPublishWithBinaryPayload());
+        logger.logPublish(createFullPublishWithBinaryPayload(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBLISH,
                 Direction.OUTBOUND,
-                List.of(entry("topic", "topic"),
+                List.of(entry("clientId", "test-client-id"),
+                        entry("topic", "topic"),
                         entry("payloadBase64", "AAEC//5/SGVsbG8="),
                         entry("qos", 1),
                         entry("retained", false))));
@@ -843,6 +914,18 @@ class JsonMessageLoggerTest {
                 expectedJson(MessageType.PINGREQ, Direction.INBOUND, List.of(entry("clientId", "test-client-id"))));
     }
 
+    @Test
+    void test_log_pingreq_timestamp_iso_8601() {
+        final var logger = new JsonMessageLogger(MessageLoggerFactory.fixedPolicy(false,
+                false,
+                false,
+                PayloadLimits.UNLIMITED), TimestampFormat.ISO_8601, new Slf4jLogSink(MessageLogger.LOG));
+        logger.logPingreq(createPingreq());
+        final var message = logbackTestAppender.getEvents().getFirst().getFormattedMessage();
+        assertThat(message).matches(
+                "\\{\"timestamp\":\"\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}\\.\\d{6}Z\",\"messageType\":\"PINGREQ\",.*");
+    }
+
     @Test
     void test_log_pingresp() {
         final var logger = new JsonMessageLogger(false, false, false);
@@ -854,7 +937,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_puback_inbound_verbose_all_set() {
         final var logger = new JsonMessageLogger(true, false, false);
-        logger.logPuback(createFullPuback(), "test-client-id", true);
+        logger.logPuback(createFullPuback(), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBACK,
                 Direction.INBOUND,
                 List.of(entry("clientId", "test-client-id"),
@@ -868,16 +951,27 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_puback_inbound_not_verbose_all_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logPuback(createFullPuback(), "test-client-id", true);
+        logger.logPuback(createFullPuback(), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBACK,
                 Direction.INBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "NO_MATCHING_SUBSCRIBERS"))));
     }
 
+    @Test
+    void test_log_puback_inbound_ack_latency() {
+        final var logger = new JsonMessageLogger(false, false, false);
+        logger.logPuback(createFullPuback(), TEST_CONNECTION, true, 1500);
+        assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBACK,
+                Direction.INBOUND,
+                List.of(entry("clientId", "test-client-id"),
+                        entry("reasonCode", "NO_MATCHING_SUBSCRIBERS"),
+                        entry("ackLatencyMicros", 1500))));
+    }
+
     @Test
     void test_log_puback_inbound_verbose_none_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logPuback(createEmptyPuback(), "test-client-id", true);
+        logger.logPuback(createEmptyPuback(), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBACK,
                 Direction.INBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "NO_MATCHING_SUBSCRIBERS"))));
@@ -886,7 +980,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_puback_inbound_not_verbose_none_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logPuback(createEmptyPuback(), "test-client-id", true);
+        logger.logPuback(createEmptyPuback(), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBACK,
                 Direction.INBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "NO_MATCHING_SUBSCRIBERS"))));
@@ -895,7 +989,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_puback_outbound_verbose_all_set() {
         final var logger = new JsonMessageLogger(true, false, false);
-        logger.logPuback(createFullPuback(), "test-client-id", false);
+        logger.logPuback(createFullPuback(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBACK,
                 Direction.OUTBOUND,
                 List.of(entry("clientId", "test-client-id"),
@@ -909,7 +1003,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_puback_outbound_not_verbose_all_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logPuback(createFullPuback(), "test-client-id", false);
+        logger.logPuback(createFullPuback(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBACK,
                 Direction.OUTBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "NO_MATCHING_SUBSCRIBERS"))));
@@ -918,7 +1012,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_puback_outbound_verbose_none_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logPuback(createEmptyPuback(), "test-client-id", false);
+        logger.logPuback(createEmptyPuback(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBACK,
                 Direction.OUTBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "NO_MATCHING_SUBSCRIBERS"))));
@@ -927,7 +1021,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_puback_outbound_not_verbose_none_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logPuback(createEmptyPuback(), "test-client-id", false);
+        logger.logPuback(createEmptyPuback(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBACK,
                 Direction.OUTBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "NO_MATCHING_SUBSCRIBERS"))));
@@ -936,7 +1030,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubrec_inbound_verbose_all_set() {
         final var logger = new JsonMessageLogger(true, false, false);
-        logger.logPubrec(createFullPubrec(), "test-client-id", true);
+        logger.logPubrec(createFullPubrec(), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBREC,
                 Direction.INBOUND,
                 List.of(entry("clientId", "test-client-id"),
@@ -949,7 +1043,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubrec_inbound_not_verbose_all_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logPubrec(createFullPubrec(), "test-client-id", true);
+        logger.logPubrec(createFullPubrec(), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBREC,
                 Direction.INBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "SUCCESS"))));
@@ -958,7 +1052,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubrec_inbound_verbose_none_set() {
         final var logger = new JsonMessageLogger(true, false, false);
-        logger.logPubrec(createEmptyPubrec(), "test-client-id", true);
+        logger.logPubrec(createEmptyPubrec(), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBREC,
                 Direction.INBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "NO_MATCHING_SUBSCRIBERS"))));
@@ -967,7 +1061,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubrec_inbound_not_verbose_none_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logPubrec(createEmptyPubrec(), "test-client-id", true);
+        logger.logPubrec(createEmptyPubrec(), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBREC,
                 Direction.INBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "NO_MATCHING_SUBSCRIBERS"))));
@@ -976,7 +1070,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubrec_outbound_verbose_all_set() {
         final var logger = new JsonMessageLogger(true, false, false);
-        logger.logPubrec(createFullPubrec(), "test-client-id", false);
+        logger.logPubrec(createFullPubrec(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBREC,
                 Direction.OUTBOUND,
                 List.of(entry("clientId", "test-client-id"),
@@ -989,7 +1083,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubrec_outbound_not_verbose_all_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logPubrec(createFullPubrec(), "test-client-id", false);
+        logger.logPubrec(createFullPubrec(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBREC,
                 Direction.OUTBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "SUCCESS"))));
@@ -998,7 +1092,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubrec_outbound_verbose_none_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logPubrec(createEmptyPubrec(), "test-client-id", false);
+        logger.logPubrec(createEmptyPubrec(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBREC,
                 Direction.OUTBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "NO_MATCHING_SUBSCRIBERS"))));
@@ -1007,7 +1101,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubrec_outbound_not_verbose_none_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logPubrec(createEmptyPubrec(), "test-client-id", false);
+        logger.logPubrec(createEmptyPubrec(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBREC,
                 Direction.OUTBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "NO_MATCHING_SUBSCRIBERS"))));
@@ -1016,7 +1110,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubrel_inbound_verbose_all_set() {
         final var logger = new JsonMessageLogger(true, false, false);
-        logger.logPubrel(createFullPubrel(), "test-client-id", true);
+        logger.logPubrel(createFullPubrel(), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBREL,
                 Direction.INBOUND,
                 List.of(entry("clientId", "test-client-id"),
@@ -1029,7 +1123,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubrel_inbound_not_verbose_all_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logPubrel(createFullPubrel(), "test-client-id", true);
+        logger.logPubrel(createFullPubrel(), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBREL,
                 Direction.INBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "PACKET_IDENTIFIER_NOT_FOUND"))));
@@ -1038,7 +1132,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubrel_inbound_verbose_none_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logPubrel(createEmptyPubrel(), "test-client-id", true);
+        logger.logPubrel(createEmptyPubrel(), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBREL,
                 Direction.INBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "SUCCESS"))));
@@ -1047,7 +1141,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubrel_inbound_not_verbose_none_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logPubrel(createEmptyPubrel(), "test-client-id", true);
+        logger.logPubrel(createEmptyPubrel(), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBREL,
                 Direction.INBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "SUCCESS"))));
@@ -1056,7 +1150,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubrel_outbound_verbose_all_set() {
         final var logger = new JsonMessageLogger(true, false, false);
-        logger.logPubrel(createFullPubrel(), "test-client-id", false);
+        logger.logPubrel(createFullPubrel(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBREL,
                 Direction.OUTBOUND,
                 List.of(entry("clientId", "test-client-id"),
@@ -1069,7 +1163,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubrel_outbound_not_verbose_all_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logPubrel(createFullPubrel(), "test-client-id", false);
+        logger.logPubrel(createFullPubrel(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBREL,
                 Direction.OUTBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "PACKET_IDENTIFIER_NOT_FOUND"))));
@@ -1078,7 +1172,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubrel_outbound_verbose_none_set() {
         final var logger = new JsonMessageLogger(true, false, false);
-        logger.logPubrel(createEmptyPubrel(), "test-client-id", false);
+        logger.logPubrel(createEmptyPubrel(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBREL,
                 Direction.OUTBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "SUCCESS"))));
@@ -1087,7 +1181,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubrel_outbound_not_verbose_none_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logPubrel(createEmptyPubrel(), "test-client-id", false);
+        logger.logPubrel(createEmptyPubrel(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBREL,
                 Direction.OUTBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "SUCCESS"))));
@@ -1096,7 +1190,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubcomp_inbound_verbose_all_set() {
         final var logger = new JsonMessageLogger(true, false, false);
-        logger.logPubcomp(createFullPubcomp(), "test-client-id", true);
+        logger.logPubcomp(createFullPubcomp(), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBCOMP,
                 Direction.INBOUND,
                 List.of(entry("clientId", "test-client-id"),
@@ -1109,7 +1203,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubcomp_inbound_not_verbose_all_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logPubcomp(createFullPubcomp(), "test-client-id", true);
+        logger.logPubcomp(createFullPubcomp(), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBCOMP,
                 Direction.INBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "PACKET_IDENTIFIER_NOT_FOUND"))));
@@ -1118,7 +1212,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubcomp_inbound_verbose_none_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logPubcomp(createEmptyPubcomp(), "test-client-id", true);
+        logger.logPubcomp(createEmptyPubcomp(), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBCOMP,
                 Direction.INBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "SUCCESS"))));
@@ -1127,7 +1221,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubcomp_inbound_not_verbose_none_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logPubcomp(createEmptyPubcomp(), "test-client-id", true);
+        logger.logPubcomp(createEmptyPubcomp(), TEST_CONNECTION, true);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBCOMP,
                 Direction.INBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "SUCCESS"))));
@@ -1136,7 +1230,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubcomp_outbound_verbose_all_set() {
         final var logger = new JsonMessageLogger(true, false, false);
-        logger.logPubcomp(createFullPubcomp(), "test-client-id", false);
+        logger.logPubcomp(createFullPubcomp(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBCOMP,
                 Direction.OUTBOUND,
                 List.of(entry("clientId", "test-client-id"),
@@ -1149,7 +1243,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubcomp_outbound_not_verbose_all_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logPubcomp(createFullPubcomp(), "test-client-id", false);
+        logger.logPubcomp(createFullPubcomp(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBCOMP,
                 Direction.OUTBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "PACKET_IDENTIFIER_NOT_FOUND"))));
@@ -1158,7 +1252,7 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubcomp_outbound_verbose_none_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logPubcomp(createEmptyPubcomp(), "test-client-id", false);
+        logger.logPubcomp(createEmptyPubcomp(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBCOMP,
                 Direction.OUTBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "SUCCESS"))));
@@ -1167,81 +1261,181 @@ class JsonMessageLoggerTest {
     @Test
     void test_log_pubcomp_outbound_not_verbose_none_set() {
         final var logger = new JsonMessageLogger(false, false, false);
-        logger.logPubcomp(createEmptyPubcomp(), "test-client-id", false);
+        logger.logPubcomp(createEmptyPubcomp(), TEST_CONNECTION, false);
         assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PUBCOMP,
                 Direction.OUTBOUND,
                 List.of(entry("clientId", "test-client-id"), entry("reasonCode", "SUCCESS"))));
     }
 
+    @Test
+    void test_log_qos2_flow_complete() {
+        final var logger = new JsonMessageLogger(false, false, false);
+        logger.logQos2Flow(createCompleteQos2Flow(), TEST_CONNECTION);
+        assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.QOS2_FLOW,
+                Direction.INBOUND,
+                List.of(entry("clientId", "test-client-id"),
+                        entry("topic", "topic"),
+                        entry("packetId", 10),
+                        entry("complete", true),
+                        entry("pubrecReasonCode", "SUCCESS"),
+                        entry("pubrecMicros", 100),
+                        entry("pubrelReasonCode", "SUCCESS"),
+                        entry("pubrelMicros", 200),
+                        entry("pubcompReasonCode", "SUCCESS"),
+                        entry("pubcompMicros", 300),
+                        entry("durationMicros", 600))));
+    }
+
+    @Test
+    void test_log_qos2_flow_incomplete() {
+        final var logger = new JsonMessageLogger(false, false, false);
+        logger.logQos2Flow(createIncompleteQos2Flow(), TEST_CONNECTION);
+        assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.QOS2_FLOW,
+                Direction.OUTBOUND,
+                List.of(entry("clientId", "test-client-id"),
+                        entry("topic", "topic"),
+                        entry("packetId", 10),
+                        entry("complete", false),
+                        entry("pubrecReasonCode", "SUCCESS"),
+                        entry("pubrecMicros", 100),
+                        entry("durationMicros", 60_000_000))));
+    }
+
     @Test
     void test_append_json_escaped_double_quote() {
         final var logger = new JsonMessageLogger(true, true, false);
-        logger.logDisconnect("foo\"bar", testDisconnect);
-        assertThat(getJsonMessage()).contains("\"message\":\"foo\\\"bar\"");
+        logger.logDisconnect(testDisconnect, new ConnectionContext("foo\"bar"), true);
+        assertThat(getJsonMessage()).contains("\"clientId\":\"foo\\\"bar\"");
     }
 
     @Test
     void test_append_json_escaped_backslash() {
         final var logger = new JsonMessageLogger(true, true, false);
-        logger.logDisconnect("foo\\bar", testDisconnect);
-        assertThat(getJsonMessage()).contains("\"message\":\"foo\\\\bar\"");
+        logger.logDisconnect(testDisconnect, new ConnectionContext("foo\\bar"), true);
+        assertThat(getJsonMessage()).contains("\"clientId\":\"foo\\\\bar\"");
     }
 
     @Test
     void test_append_json_escaped_newline() {
         final var logger = new JsonMessageLogger(true, true, false);
-        logger.logDisconnect("foo\nbar", testDisconnect);
-        assertThat(getJsonMessage()).contains("\"message\":\"foo\\nbar\"");
+        logger.logDisconnect(testDisconnect, new ConnectionContext("foo\nbar"), true);
+        assertThat(getJsonMessage()).contains("\"clientId\":\"foo\\nbar\"");
     }
 
     @Test
     void test_append_json_escaped_carriage_return() {
         final var logger = new JsonMessageLogger(true, true, false);
-        logger.logDisconnect("foo\rbar", testDisconnect);
-        assertThat(getJsonMessage()).contains("\"message\":\"foo\\rbar\"");
+        logger.logDisconnect(testDisconnect, new ConnectionContext("foo\rbar"), true);
+        assertThat(getJsonMessage()).contains("\"clientId\":\"foo\\rbar\"");
     }
 
     @Test
     void test_append_json_escaped_tab() {
         final var logger = new JsonMessageLogger(true, true, false);
-        logger.logDisconnect("foo\tbar", testDisconnect);
-        assertThat(getJsonMessage()).contains("\"message\":\"foo\\tbar\"");
+        logger.logDisconnect(testDisconnect, new ConnectionContext("foo\tbar"), true);
+        assertThat(getJsonMessage()).contains("\"clientId\":\"foo\\tbar\"");
     }
 
     @Test
     void test_append_json_escaped_backspace() {
         final var logger = new JsonMessageLogger(true, true, false);
-        logger.logDisconnect("foo\bbar", testDisconnect);
-        assertThat(getJsonMessage()).contains("\"message\":\"foo\\bbar\"");
+        logger.logDisconnect(testDisconnect, new ConnectionContext("foo\bbar"), true);
+        assertThat(getJsonMessage()).contains("\"clientId\":\"foo\\bbar\"");
     }
 
     @Test
     void test_append_json_escaped_form_feed() {
         final var logger = new JsonMessageLogger(true, true, false);
-        logger.logDisconnect("foo\fbar", testDisconnect);
-        assertThat(getJsonMessage()).contains("\"message\":\"foo\\fbar\"");
+        logger.logDisconnect(testDisconnect, new ConnectionContext("foo\fbar"), true);
+        assertThat(getJsonMessage()).contains("\"clientId\":\"foo\\fbar\"");
     }
 
     @Test
     void test_append_json_escaped_control_character() {
         // SOH (Start of Heading) control character
         final var logger = new JsonMessageLogger(true, true, false);
-        logger.logDisconnect("foo\u0001bar", testDisconnect);
-        assertThat(getJsonMessage()).contains("\"message\":\"foo\\u0001bar\"");
+        logger.logDisconnect(testDisconnect, new ConnectionContext("foo\u0001bar"), true);
+        assertThat(getJsonMessage()).contains("\"clientId\":\"foo\\u0001bar\"");
     }
 
     @Test
     void test_append_json_escaped_multiple_special_characters() {
         final var logger = new JsonMessageLogger(true, true, false);
-        logger.logDisconnect("foo\"bar\\baz\nqux", testDisconnect);
-        assertThat(getJsonMessage()).contains("\"message\":\"foo\\\"bar\\\\baz\\nqux\"");
+        logger.logDisconnect(testDisconnect, new ConnectionContext("foo\"bar\\baz\nqux"), true);
+        assertThat(getJsonMessage()).contains("\"clientId\":\"foo\\\"bar\\\\baz\\nqux\"");
     }
 
     @Test
     void test_append_json_escaped_regular_text() {
         final var logger = new JsonMessageLogger(true, true, false);
-        logger.logDisconnect("foobar", testDisconnect);
-        assertThat(getJsonMessage()).contains("\"message\":\"foobar\"");
+        logger.logDisconnect(testDisconnect, new ConnectionContext("foobar"), true);
+        assertThat(getJsonMessage()).contains("\"clientId\":\"foobar\"");
+    }
+
+    @Test
+    void test_log_session_summary() {
+        final var logger = new JsonMessageLogger(false, false, false);
+        logger.logSessionSummary(createSessionSummary(), TEST_CONNECTION);
+        assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.SESSION_SUMMARY,
+                Direction.EVENT,
+                List.of(entry("clientId", "test-client-id"),
+                        entry("durationMillis", 1500),
+                        entry("packets",
+                                new ArrayType(List.of(List.of(entry("messageType", "PUBLISH"),
+                                                entry("direction", "INBOUND"),
+                                                entry("count", 2)),
+                                        List.of(entry("messageType", "PUBACK"),
+                                                entry("direction", "OUTBOUND"),
+                                                entry("count", 2))))),
+                        entry("payloadBytesInbound", 10),
+                        entry("qosInbound", "[0,2,0]"),
+                        entry("distinctTopics", 1),
+                        entry("errors",
+                                new ArrayType(List.of(List.of(entry("messageType", "PUBACK"),
+                                        entry("direction", "OUTBOUND"),
+                                        entry("reasonCode", "NOT_AUTHORIZED"),
+                                        entry("count", 1))))))));
+    }
+
+    @Test
+    void test_log_ping_digest() {
+        final var logger = new JsonMessageLogger(false, false, false);
+        logger.logPingDigest(createPingDigest());
+        assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.PING_DIGEST,
+                Direction.EVENT,
+                List.of(entry("durationMillis", 60000),
+                        entry("pingreqs", 120),
+                        entry("pingresps", 120),
+                        entry("clients", 100),
+                        entry("outlierClients", 1),
+                        entry("outliers",
+                                new ArrayType(List.of(List.of(entry("clientId", "test-client-id"),
+                                        entry("keepAlive", 60),
+                                        entry("intervalMillis", 5000))))))));
+    }
+
+    @Test
+    void test_log_repeated() {
+        final var logger = new JsonMessageLogger(false, false, false);
+        logger.logRepeated(createRepeatedEvent());
+        assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.REPEATED,
+                Direction.EVENT,
+                List.of(entry("repeatedMessageType", "PUBACK"),
+                        entry("repeatedDirection", "INBOUND"),
+                        entry("clientId", "test-client-id"),
+                        entry("reasonCode", "NOT_AUTHORIZED"),
+                        entry("count", 41),
+                        entry("firstMillis", 1715934612345L),
+                        entry("lastMillis", 1715934622301L))));
+    }
+
+    @Test
+    void test_log_suppressed() {
+        final var logger = new JsonMessageLogger(false, false, false);
+        logger.logSuppressed(createSuppressedEvents());
+        assertThat(getJsonMessage()).isEqualTo(expectedJson(MessageType.SUPPRESSED,
+                Direction.EVENT,
+                List.of(entry("clientId", "test-client-id"), entry("count", 17))));
     }
 
     private @NotNull String getJsonMessage() {
@@ -1301,6 +1495,11 @@ class JsonMessageLoggerTest {
         PUBREC,
         PUBREL,
         PUBCOMP,
+        QOS2_FLOW,
+        SESSION_SUMMARY,
+        PING_DIGEST,
+        REPEATED,
+        SUPPRESSED,
     }
 
     private enum Direction {
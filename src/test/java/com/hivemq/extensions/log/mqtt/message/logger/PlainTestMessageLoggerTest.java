@@ -21,9 +21,14 @@ import com.hivemq.extensions.log.mqtt.message.util.LogbackTestAppender;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.slf4j.MDC;
 
+import java.nio.ByteBuffer;
+
+import static com.hivemq.extensions.log.mqtt.message.util.HashUtil.xxHash64;
 import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.TestDisconnect;
 import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.TestUserProperties;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createCompleteQos2Flow;
 import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createConnectWithBinaryPassword;
 import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createEmptyConnack;
 import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createEmptyConnect;
@@ -50,9 +55,15 @@ import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullS
 import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullSubsribe;
 import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullUnsuback;
 import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullUnsubsribe;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createIncompleteQos2Flow;
 import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createLifeCycleCompareDisconnect;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createPingDigest;
 import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createPingreq;
 import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createPingresp;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createRepeatedEvent;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createSessionSummary;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createSuppressedEvents;
+import static com.hivemq.extensions.log.mqtt.message.util.StringUtil.asHexString;
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -60,6 +71,8 @@ import static org.assertj.core.api.Assertions.assertThat;
  */
 class PlainTestMessageLoggerTest {
 
+    private static final @NotNull ConnectionContext TEST_CONNECTION = new ConnectionContext("test-client-id");
+
     @RegisterExtension
     private final @NotNull LogbackTestAppender logbackTestAppender = LogbackTestAppender.createFor(MessageLogger.LOG);
 
@@ -69,23 +82,21 @@ class PlainTestMessageLoggerTest {
         final var expectedLog =
                 "Received DISCONNECT from client 'test-client-id': Reason Code: 'BAD_AUTHENTICATION_METHOD'";
 
-        logger.logDisconnect("Received DISCONNECT from client 'test-client-id'",
-                new TestDisconnect(DisconnectedReasonCode.BAD_AUTHENTICATION_METHOD,
-                        "Okay",
-                        new TestUserProperties(3)));
+        logger.logDisconnect(new TestDisconnect(DisconnectedReasonCode.BAD_AUTHENTICATION_METHOD,
+                "Okay",
+                new TestUserProperties(3)), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage()).isEqualTo(expectedLog);
 
-        logger.logDisconnect(createLifeCycleCompareDisconnect(), "test-client-id", true);
+        logger.logDisconnect(createLifeCycleCompareDisconnect(), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage()).isEqualTo(expectedLog);
     }
 
     @Test
     void test_log_lifecycle_disconnect_verbose_all_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logDisconnect("Received DISCONNECT from client 'test-client-id'",
-                new TestDisconnect(DisconnectedReasonCode.BAD_AUTHENTICATION_METHOD,
-                        "ReasonString",
-                        new TestUserProperties(5)));
+        logger.logDisconnect(new TestDisconnect(DisconnectedReasonCode.BAD_AUTHENTICATION_METHOD,
+                "ReasonString",
+                new TestUserProperties(5)), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage()).isEqualTo(
                 """
                         Received DISCONNECT from client 'test-client-id': Reason Code: 'BAD_AUTHENTICATION_METHOD', Reason String: 'ReasonString', \
@@ -95,7 +106,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_lifecycle_disconnect_verbose_none_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logDisconnect("Received DISCONNECT from client 'test-client-id'", new TestDisconnect(null, null, null));
+        logger.logDisconnect(new TestDisconnect(null, null, null), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage()).isEqualTo("""
                 Received DISCONNECT from client 'test-client-id': Reason Code: 'null', Reason String: 'null', \
                 User Properties: 'null'""");
@@ -104,8 +115,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_lifecycle_disconnect_verbose_user_properties_empty() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logDisconnect("Received DISCONNECT from client 'test-client-id'",
-                new TestDisconnect(null, null, new TestUserProperties(0)));
+        logger.logDisconnect(new TestDisconnect(null, null, new TestUserProperties(0)), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage()).isEqualTo("""
                 Received DISCONNECT from client 'test-client-id': Reason Code: 'null', Reason String: 'null', \
                 User Properties: 'null'""");
@@ -114,52 +124,71 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_lifecycle_disconnect_not_verbose() {
         final var logger = new PlainTextMessageLogger(false, false, false);
-        logger.logDisconnect("Received DISCONNECT from client 'test-client-id'", new TestDisconnect(null, null, null));
+        logger.logDisconnect(new TestDisconnect(null, null, null), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage())
                 .isEqualTo("Received DISCONNECT from client 'test-client-id': Reason Code: 'null'");
     }
 
+    @Test
+    void test_log_lifecycle_disconnect_outbound() {
+        final var logger = new PlainTextMessageLogger(false, false, false);
+        logger.logDisconnect(new TestDisconnect(DisconnectedReasonCode.NOT_AUTHORIZED, null, null),
+                TEST_CONNECTION,
+                false);
+        assertThat(getPlaintextMessage())
+                .isEqualTo("Sent DISCONNECT to client 'test-client-id': Reason Code: 'NOT_AUTHORIZED'");
+    }
+
+    @Test
+    void test_log_routed_to_logger_of_type_and_direction() {
+        final var logger = new PlainTextMessageLogger(false, false, false);
+        logger.logPublish(createEmptyPublish(), TEST_CONNECTION, false);
+        assertThat(logbackTestAppender.getEvents()).singleElement()
+                .satisfies(event -> assertThat(event.getLoggerName()).isEqualTo(MessageLogger.LOG.getName() +
+                        ".publish.outbound"));
+    }
+
     @Test
     void test_log_inbound_disconnect_verbose_all_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logDisconnect(createFullDisconnect(), "clientId", true);
+        logger.logDisconnect(createFullDisconnect(), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage()).isEqualTo("""
-                Received DISCONNECT from client 'clientId': Reason Code: 'NOT_AUTHORIZED', Reason String: 'Okay', \
-                Server Reference: 'Server2', Session Expiry: '123', \
+                Received DISCONNECT from client 'test-client-id': Reason Code: 'NOT_AUTHORIZED', \
+                Reason String: 'Okay', Server Reference: 'Server2', Session Expiry: '123', \
                 User Properties: [Name: 'name0', Value: 'value0'], [Name: 'name1', Value: 'value1']""");
     }
 
     @Test
     void test_log_inbound_disconnect_verbose_none_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logDisconnect(createEmptyDisconnect(), "clientId", true);
+        logger.logDisconnect(createEmptyDisconnect(), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage()).isEqualTo("""
-                Received DISCONNECT from client 'clientId': Reason Code: 'NOT_AUTHORIZED', Reason String: 'null', \
-                Server Reference: 'null', Session Expiry: 'null', User Properties: 'null'""");
+                Received DISCONNECT from client 'test-client-id': Reason Code: 'NOT_AUTHORIZED', \
+                Reason String: 'null', Server Reference: 'null', Session Expiry: 'null', User Properties: 'null'""");
     }
 
     @Test
     void test_log_inbound_disconnect_not_verbose_all_set() {
         final var logger = new PlainTextMessageLogger(false, false, false);
-        logger.logDisconnect(createFullDisconnect(), "clientId", true);
+        logger.logDisconnect(createFullDisconnect(), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage())
-                .isEqualTo("Received DISCONNECT from client 'clientId': Reason Code: 'NOT_AUTHORIZED'");
+                .isEqualTo("Received DISCONNECT from client 'test-client-id': Reason Code: 'NOT_AUTHORIZED'");
     }
 
     @Test
     void test_log_inbound_disconnect_not_verbose_none_set() {
         final var logger = new PlainTextMessageLogger(false, false, false);
-        logger.logDisconnect(createFullDisconnect(), "clientId", true);
+        logger.logDisconnect(createFullDisconnect(), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage())
-                .isEqualTo("Received DISCONNECT from client 'clientId': Reason Code: 'NOT_AUTHORIZED'");
+                .isEqualTo("Received DISCONNECT from client 'test-client-id': Reason Code: 'NOT_AUTHORIZED'");
     }
 
     @Test
     void test_log_outbound_disconnect_verbose_all_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logDisconnect(createFullDisconnect(), "clientId", false);
+        logger.logDisconnect(createFullDisconnect(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage()).isEqualTo("""
-                Sent DISCONNECT to client 'clientId': Reason Code: 'NOT_AUTHORIZED', Reason String: 'Okay', \
+                Sent DISCONNECT to client 'test-client-id': Reason Code: 'NOT_AUTHORIZED', Reason String: 'Okay', \
                 Server Reference: 'Server2', Session Expiry: '123', \
                 User Properties: [Name: 'name0', Value: 'value0'], [Name: 'name1', Value: 'value1']""");
     }
@@ -167,26 +196,26 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_outbound_disconnect_verbose_none_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logDisconnect(createEmptyDisconnect(), "clientId", false);
+        logger.logDisconnect(createEmptyDisconnect(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage()).isEqualTo("""
-                Sent DISCONNECT to client 'clientId': Reason Code: 'NOT_AUTHORIZED', Reason String: 'null', \
+                Sent DISCONNECT to client 'test-client-id': Reason Code: 'NOT_AUTHORIZED', Reason String: 'null', \
                 Server Reference: 'null', Session Expiry: 'null', User Properties: 'null'""");
     }
 
     @Test
     void test_log_outbound_disconnect_not_verbose_all_set() {
         final var logger = new PlainTextMessageLogger(false, false, false);
-        logger.logDisconnect(createFullDisconnect(), "clientId", false);
+        logger.logDisconnect(createFullDisconnect(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage())
-                .isEqualTo("Sent DISCONNECT to client 'clientId': Reason Code: 'NOT_AUTHORIZED'");
+                .isEqualTo("Sent DISCONNECT to client 'test-client-id': Reason Code: 'NOT_AUTHORIZED'");
     }
 
     @Test
     void test_log_outbound_disconnect_not_verbose_none_set() {
         final var logger = new PlainTextMessageLogger(false, false, false);
-        logger.logDisconnect(createEmptyDisconnect(), "clientId", false);
+        logger.logDisconnect(createEmptyDisconnect(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage())
-                .isEqualTo("Sent DISCONNECT to client 'clientId': Reason Code: 'NOT_AUTHORIZED'");
+                .isEqualTo("Sent DISCONNECT to client 'test-client-id': Reason Code: 'NOT_AUTHORIZED'");
     }
 
     @Test
@@ -358,7 +387,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_publish_verbose_all_set() {
         final var logger = new PlainTextMessageLogger(true, true, false);
-        logger.logPublish("Sent PUBLISH to client 'test-client-id' on topic", createFullPublish());
+        logger.logPublish(createFullPublish(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage()).isEqualTo(
                 """
                         Sent PUBLISH to client 'test-client-id' on topic 'topic': Payload: 'message', QoS: '1', Retained: 'false', \
@@ -371,7 +400,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_publish_verbose_no_payload_all_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logPublish("Sent PUBLISH to client 'test-client-id' on topic", createFullPublish());
+        logger.logPublish(createFullPublish(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage()).isEqualTo("""
                 Sent PUBLISH to client 'test-client-id' on topic 'topic': QoS: '1', Retained: 'false', \
                 Message Expiry Interval: '10000', Duplicate Delivery: 'false', Correlation Data: 'data', \
@@ -383,15 +412,27 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_publish_not_verbose_all_set() {
         final var logger = new PlainTextMessageLogger(false, true, false);
-        logger.logPublish("Sent PUBLISH to client 'test-client-id' on topic", createFullPublish());
+        logger.logPublish(createFullPublish(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage()).isEqualTo(
                 "Sent PUBLISH to client 'test-client-id' on topic 'topic': Payload: 'message', QoS: '1', Retained: 'false'");
     }
 
+    @Test
+    void test_log_publish_payload_truncated() {
+        final var payload = new byte[]{'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 0, 1, (byte) 0xFF};
+        final var limits = new PayloadLimits(PayloadLimit.UNLIMITED, new PayloadLimit(4, 3), PayloadLimit.UNLIMITED);
+        final var logger = new PlainTextMessageLogger(false, true, false, limits);
+        logger.logPublish(createFullPublish(payload), TEST_CONNECTION, false);
+        assertThat(getPlaintextMessage()).isEqualTo(
+                "Sent PUBLISH to client 'test-client-id' on topic 'topic': Payload Head: 'abcd', " +
+                        "Payload Tail (Hex): '0001ff', Payload Size: '11', Payload Hash: '" +
+                        asHexString(xxHash64(ByteBuffer.wrap(payload))) + "', QoS: '1', Retained: 'false'");
+    }
+
     @Test
     void test_log_publish_not_verbose_no_payload_all_set() {
         final var logger = new PlainTextMessageLogger(false, false, false);
-        logger.logPublish("Sent PUBLISH to client 'test-client-id' on topic", createFullPublish());
+        logger.logPublish(createFullPublish(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage())
                 .isEqualTo("Sent PUBLISH to client 'test-client-id' on topic 'topic': QoS: '1', Retained: 'false'");
     }
@@ -399,7 +440,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_publish_verbose_none_set() {
         final var logger = new PlainTextMessageLogger(true, true, false);
-        logger.logPublish("Sent PUBLISH to client 'test-client-id' on topic", createEmptyPublish());
+        logger.logPublish(createEmptyPublish(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage()).isEqualTo(
                 """
                         Sent PUBLISH to client 'test-client-id' on topic 'topic': Payload: 'message', QoS: '1', Retained: 'false',\
@@ -411,7 +452,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_publish_verbose_no_payload_none_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logPublish("Sent PUBLISH to client 'test-client-id' on topic", createEmptyPublish());
+        logger.logPublish(createEmptyPublish(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage()).isEqualTo("""
                 Sent PUBLISH to client 'test-client-id' on topic 'topic': QoS: '1', Retained: 'false',\
                  Message Expiry Interval: 'null', Duplicate Delivery: 'false', Correlation Data: 'null',\
@@ -422,7 +463,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_publish_verbose_binary_payload_shows_hex() {
         final var logger = new PlainTextMessageLogger(true, true, false);
-        logger.logPublish("Sent PUBLISH to client 'test-client-id' on topic", createFullPublishWithBinaryPayload());
+        logger.logPublish(createFullPublishWithBinaryPayload(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage()).isEqualTo(
                 """
                         Sent PUBLISH to client 'test-client-id' on topic 'topic': Payload (Hex): '000102fffe7f48656c6c6f', QoS: '1', Retained: 'false', \
@@ -435,7 +476,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_publish_not_verbose_binary_payload_shows_hex() {
         final var logger = new PlainTextMessageLogger(false, true, false);
-        logger.logPublish("Sent PUBLISH to client 'test-client-id' on topic", createFullPublishWithBinaryPayload());
+        logger.logPublish(createFullPublishWithBinaryPayload(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage()).isEqualTo(
                 "Sent PUBLISH to client 'test-client-id' on topic 'topic': Payload (Hex): '000102fffe7f48656c6c6f', QoS: '1', Retained: 'false'");
     }
@@ -594,6 +635,22 @@ class PlainTestMessageLoggerTest {
         assertThat(getPlaintextMessage()).isEqualTo("Received PING REQUEST from client 'test-client-id'");
     }
 
+    @Test
+    void test_log_pingreq_timestamp_in_mdc() {
+        final var logger = MessageLoggerFactory.createLogger(OutputFormat.PLAIN_TEXT,
+                TimestampFormat.EPOCH_MICROS,
+                MessageLoggerFactory.fixedPolicy(false, false, false, PayloadLimits.UNLIMITED),
+                null);
+        final var before = EventClock.systemTimeMicros();
+        logger.logPingreq(createPingreq());
+        final var event = logbackTestAppender.getEvents().getFirst();
+        assertThat(Long.parseLong(event.getMDCPropertyMap().get(TimestampMdcMessageLogger.MDC_KEY))).isBetween(
+                before,
+                EventClock.systemTimeMicros());
+        assertThat(getPlaintextMessage()).isEqualTo("Received PING REQUEST from client 'test-client-id'");
+        assertThat(MDC.get(TimestampMdcMessageLogger.MDC_KEY)).isNull();
+    }
+
     @Test
     void test_log_pingresp() {
         final var logger = new PlainTextMessageLogger(false, false, false);
@@ -604,7 +661,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_puback_inbound_verbose_all_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logPuback(createFullPuback(), "test-client-id", true);
+        logger.logPuback(createFullPuback(), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage()).isEqualTo(
                 """
                         Received PUBACK from client 'test-client-id': Reason Code: 'NO_MATCHING_SUBSCRIBERS', Reason String: 'Okay', \
@@ -614,7 +671,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_puback_inbound_not_verbose_all_set() {
         final var logger = new PlainTextMessageLogger(false, false, false);
-        logger.logPuback(createFullPuback(), "test-client-id", true);
+        logger.logPuback(createFullPuback(), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage())
                 .isEqualTo("Received PUBACK from client 'test-client-id': Reason Code: 'NO_MATCHING_SUBSCRIBERS'");
     }
@@ -622,7 +679,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_puback_inbound_verbose_none_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logPuback(createEmptyPuback(), "test-client-id", true);
+        logger.logPuback(createEmptyPuback(), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage()).isEqualTo(
                 """
                         Received PUBACK from client 'test-client-id': Reason Code: 'NO_MATCHING_SUBSCRIBERS', Reason String: 'null', \
@@ -632,7 +689,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_puback_inbound_not_verbose_none_set() {
         final var logger = new PlainTextMessageLogger(false, false, false);
-        logger.logPuback(createEmptyPuback(), "test-client-id", true);
+        logger.logPuback(createEmptyPuback(), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage())
                 .isEqualTo("Received PUBACK from client 'test-client-id': Reason Code: 'NO_MATCHING_SUBSCRIBERS'");
     }
@@ -640,7 +697,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_puback_outbound_verbose_all_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logPuback(createFullPuback(), "test-client-id", false);
+        logger.logPuback(createFullPuback(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage()).isEqualTo("""
                 Sent PUBACK to client 'test-client-id': Reason Code: 'NO_MATCHING_SUBSCRIBERS', Reason String: 'Okay', \
                 User Properties: [Name: 'name0', Value: 'value0'], [Name: 'name1', Value: 'value1']""");
@@ -649,7 +706,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_puback_outbound_not_verbose_all_set() {
         final var logger = new PlainTextMessageLogger(false, false, false);
-        logger.logPuback(createFullPuback(), "test-client-id", false);
+        logger.logPuback(createFullPuback(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage())
                 .isEqualTo("Sent PUBACK to client 'test-client-id': Reason Code: 'NO_MATCHING_SUBSCRIBERS'");
     }
@@ -657,7 +714,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_puback_outbound_verbose_none_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logPuback(createEmptyPuback(), "test-client-id", false);
+        logger.logPuback(createEmptyPuback(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage()).isEqualTo("""
                 Sent PUBACK to client 'test-client-id': Reason Code: 'NO_MATCHING_SUBSCRIBERS', Reason String: 'null', \
                 User Properties: 'null'""");
@@ -666,7 +723,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_puback_outbound_not_verbose_none_set() {
         final var logger = new PlainTextMessageLogger(false, false, false);
-        logger.logPuback(createEmptyPuback(), "test-client-id", false);
+        logger.logPuback(createEmptyPuback(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage())
                 .isEqualTo("Sent PUBACK to client 'test-client-id': Reason Code: 'NO_MATCHING_SUBSCRIBERS'");
     }
@@ -674,7 +731,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_pubrec_inbound_verbose_all_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logPubrec(createFullPubrec(), "test-client-id", true);
+        logger.logPubrec(createFullPubrec(), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage()).isEqualTo("""
                 Received PUBREC from client 'test-client-id': Reason Code: 'SUCCESS', Reason String: 'Okay', \
                 User Properties: [Name: 'name0', Value: 'value0']""");
@@ -683,7 +740,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_pubrec_inbound_not_verbose_all_set() {
         final var logger = new PlainTextMessageLogger(false, false, false);
-        logger.logPubrec(createFullPubrec(), "test-client-id", true);
+        logger.logPubrec(createFullPubrec(), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage())
                 .isEqualTo("Received PUBREC from client 'test-client-id': Reason Code: 'SUCCESS'");
     }
@@ -691,7 +748,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_pubrec_inbound_verbose_none_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logPubrec(createEmptyPubrec(), "test-client-id", true);
+        logger.logPubrec(createEmptyPubrec(), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage()).isEqualTo(
                 """
                         Received PUBREC from client 'test-client-id': Reason Code: 'NO_MATCHING_SUBSCRIBERS', Reason String: 'null', \
@@ -701,7 +758,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_pubrec_inbound_not_verbose_none_set() {
         final var logger = new PlainTextMessageLogger(false, false, false);
-        logger.logPubrec(createEmptyPubrec(), "test-client-id", true);
+        logger.logPubrec(createEmptyPubrec(), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage())
                 .isEqualTo("Received PUBREC from client 'test-client-id': Reason Code: 'NO_MATCHING_SUBSCRIBERS'");
     }
@@ -709,7 +766,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_pubrec_outbound_verbose_all_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logPubrec(createFullPubrec(), "test-client-id", false);
+        logger.logPubrec(createFullPubrec(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage()).isEqualTo("""
                 Sent PUBREC to client 'test-client-id': Reason Code: 'SUCCESS', Reason String: 'Okay', \
                 User Properties: [Name: 'name0', Value: 'value0']""");
@@ -718,14 +775,14 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_pubrec_outbound_not_verbose_all_set() {
         final var logger = new PlainTextMessageLogger(false, false, false);
-        logger.logPubrec(createFullPubrec(), "test-client-id", false);
+        logger.logPubrec(createFullPubrec(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage()).isEqualTo("Sent PUBREC to client 'test-client-id': Reason Code: 'SUCCESS'");
     }
 
     @Test
     void test_log_pubrec_outbound_verbose_none_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logPubrec(createEmptyPubrec(), "test-client-id", false);
+        logger.logPubrec(createEmptyPubrec(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage()).isEqualTo("""
                 Sent PUBREC to client 'test-client-id': Reason Code: 'NO_MATCHING_SUBSCRIBERS', Reason String: 'null', \
                 User Properties: 'null'""");
@@ -734,7 +791,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_pubrec_outbound_not_verbose_none_set() {
         final var logger = new PlainTextMessageLogger(false, false, false);
-        logger.logPubrec(createEmptyPubrec(), "test-client-id", false);
+        logger.logPubrec(createEmptyPubrec(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage())
                 .isEqualTo("Sent PUBREC to client 'test-client-id': Reason Code: 'NO_MATCHING_SUBSCRIBERS'");
     }
@@ -742,7 +799,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_pubrel_inbound_verbose_all_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logPubrel(createFullPubrel(), "test-client-id", true);
+        logger.logPubrel(createFullPubrel(), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage()).isEqualTo(
                 """
                         Received PUBREL from client 'test-client-id': Reason Code: 'PACKET_IDENTIFIER_NOT_FOUND', Reason String: 'Okay', \
@@ -752,7 +809,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_pubrel_inbound_not_verbose_all_set() {
         final var logger = new PlainTextMessageLogger(false, false, false);
-        logger.logPubrel(createFullPubrel(), "test-client-id", true);
+        logger.logPubrel(createFullPubrel(), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage())
                 .isEqualTo("Received PUBREL from client 'test-client-id': Reason Code: 'PACKET_IDENTIFIER_NOT_FOUND'");
     }
@@ -760,7 +817,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_pubrel_inbound_verbose_none_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logPubrel(createEmptyPubrel(), "test-client-id", true);
+        logger.logPubrel(createEmptyPubrel(), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage()).isEqualTo("""
                 Received PUBREL from client 'test-client-id': Reason Code: 'SUCCESS', Reason String: 'null', \
                 User Properties: 'null'""");
@@ -769,7 +826,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_pubrel_inbound_not_verbose_none_set() {
         final var logger = new PlainTextMessageLogger(false, false, false);
-        logger.logPubrel(createEmptyPubrel(), "test-client-id", true);
+        logger.logPubrel(createEmptyPubrel(), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage())
                 .isEqualTo("Received PUBREL from client 'test-client-id': Reason Code: 'SUCCESS'");
     }
@@ -777,7 +834,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_pubrel_outbound_verbose_all_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logPubrel(createFullPubrel(), "test-client-id", false);
+        logger.logPubrel(createFullPubrel(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage()).isEqualTo(
                 """
                         Sent PUBREL to client 'test-client-id': Reason Code: 'PACKET_IDENTIFIER_NOT_FOUND', Reason String: 'Okay', \
@@ -787,7 +844,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_pubrel_outbound_not_verbose_all_set() {
         final var logger = new PlainTextMessageLogger(false, false, false);
-        logger.logPubrel(createFullPubrel(), "test-client-id", false);
+        logger.logPubrel(createFullPubrel(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage())
                 .isEqualTo("Sent PUBREL to client 'test-client-id': Reason Code: 'PACKET_IDENTIFIER_NOT_FOUND'");
     }
@@ -795,7 +852,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_pubrel_outbound_verbose_none_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logPubrel(createEmptyPubrel(), "test-client-id", false);
+        logger.logPubrel(createEmptyPubrel(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage()).isEqualTo("""
                 Sent PUBREL to client 'test-client-id': Reason Code: 'SUCCESS', Reason String: 'null', \
                 User Properties: 'null'""");
@@ -804,14 +861,14 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_pubrel_outbound_not_verbose_none_set() {
         final var logger = new PlainTextMessageLogger(false, false, false);
-        logger.logPubrel(createEmptyPubrel(), "test-client-id", false);
+        logger.logPubrel(createEmptyPubrel(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage()).isEqualTo("Sent PUBREL to client 'test-client-id': Reason Code: 'SUCCESS'");
     }
 
     @Test
     void test_log_pubcomp_inbound_verbose_all_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logPubcomp(createFullPubcomp(), "test-client-id", true);
+        logger.logPubcomp(createFullPubcomp(), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage()).isEqualTo(
                 """
                         Received PUBCOMP from client 'test-client-id': Reason Code: 'PACKET_IDENTIFIER_NOT_FOUND', Reason String: 'Okay', \
@@ -821,7 +878,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_pubcomp_inbound_not_verbose_all_set() {
         final var logger = new PlainTextMessageLogger(false, false, false);
-        logger.logPubcomp(createFullPubcomp(), "test-client-id", true);
+        logger.logPubcomp(createFullPubcomp(), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage())
                 .isEqualTo("Received PUBCOMP from client 'test-client-id': Reason Code: 'PACKET_IDENTIFIER_NOT_FOUND'");
     }
@@ -829,7 +886,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_pubcomp_inbound_verbose_none_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logPubcomp(createEmptyPubcomp(), "test-client-id", true);
+        logger.logPubcomp(createEmptyPubcomp(), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage()).isEqualTo("""
                 Received PUBCOMP from client 'test-client-id': Reason Code: 'SUCCESS', Reason String: 'null', \
                 User Properties: 'null'""");
@@ -838,7 +895,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_pubcomp_inbound_not_verbose_none_set() {
         final var logger = new PlainTextMessageLogger(false, false, false);
-        logger.logPubcomp(createEmptyPubcomp(), "test-client-id", true);
+        logger.logPubcomp(createEmptyPubcomp(), TEST_CONNECTION, true);
         assertThat(getPlaintextMessage())
                 .isEqualTo("Received PUBCOMP from client 'test-client-id': Reason Code: 'SUCCESS'");
     }
@@ -846,7 +903,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_pubcomp_outbound_verbose_all_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logPubcomp(createFullPubcomp(), "test-client-id", false);
+        logger.logPubcomp(createFullPubcomp(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage()).isEqualTo(
                 """
                         Sent PUBCOMP to client 'test-client-id': Reason Code: 'PACKET_IDENTIFIER_NOT_FOUND', Reason String: 'Okay', \
@@ -856,7 +913,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_pubcomp_outbound_not_verbose_all_set() {
         final var logger = new PlainTextMessageLogger(false, false, false);
-        logger.logPubcomp(createFullPubcomp(), "test-client-id", false);
+        logger.logPubcomp(createFullPubcomp(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage())
                 .isEqualTo("Sent PUBCOMP to client 'test-client-id': Reason Code: 'PACKET_IDENTIFIER_NOT_FOUND'");
     }
@@ -864,7 +921,7 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_pubcomp_outbound_verbose_none_set() {
         final var logger = new PlainTextMessageLogger(true, false, false);
-        logger.logPubcomp(createEmptyPubcomp(), "test-client-id", false);
+        logger.logPubcomp(createEmptyPubcomp(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage()).isEqualTo("""
                 Sent PUBCOMP to client 'test-client-id': Reason Code: 'SUCCESS', Reason String: 'null', \
                 User Properties: 'null'""");
@@ -873,10 +930,71 @@ class PlainTestMessageLoggerTest {
     @Test
     void test_log_pubcomp_outbound_not_verbose_none_set() {
         final var logger = new PlainTextMessageLogger(false, false, false);
-        logger.logPubcomp(createEmptyPubcomp(), "test-client-id", false);
+        logger.logPubcomp(createEmptyPubcomp(), TEST_CONNECTION, false);
         assertThat(getPlaintextMessage()).isEqualTo("Sent PUBCOMP to client 'test-client-id': Reason Code: 'SUCCESS'");
     }
 
+    @Test
+    void test_log_qos2_flow_complete() {
+        final var logger = new PlainTextMessageLogger(false, false, false);
+        logger.logQos2Flow(createCompleteQos2Flow(), TEST_CONNECTION);
+        assertThat(getPlaintextMessage()).isEqualTo(
+                """
+                        Received QoS 2 flow from client 'test-client-id' for topic 'topic': Packet Id: '10', \
+                        PUBREC: 'SUCCESS' after '100us', PUBREL: 'SUCCESS' after '200us', \
+                        PUBCOMP: 'SUCCESS' after '300us', Duration: '600us'""");
+    }
+
+    @Test
+    void test_log_qos2_flow_incomplete() {
+        final var logger = new PlainTextMessageLogger(false, false, false);
+        logger.logQos2Flow(createIncompleteQos2Flow(), TEST_CONNECTION);
+        assertThat(getPlaintextMessage()).isEqualTo(
+                """
+                        Sent incomplete QoS 2 flow to client 'test-client-id' on topic 'topic': Packet Id: '10', \
+                        PUBREC: 'SUCCESS' after '100us', Duration: '60000000us'""");
+    }
+
+    @Test
+    void test_log_session_summary() {
+        final var logger = new PlainTextMessageLogger(false, false, false);
+        logger.logSessionSummary(createSessionSummary(), TEST_CONNECTION);
+        assertThat(getPlaintextMessage()).isEqualTo(
+                """
+                        Session summary of client 'test-client-id': Duration: '1500ms', \
+                        Received: [PUBLISH: '2' (Payload Bytes: '10', QoS 0: '0', QoS 1: '2', QoS 2: '0')], \
+                        Sent: [PUBACK: '2'], Distinct Topics: '1', Errors: [Sent PUBACK 'NOT_AUTHORIZED': '1']""");
+    }
+
+    @Test
+    void test_log_ping_digest() {
+        final var logger = new PlainTextMessageLogger(false, false, false);
+        logger.logPingDigest(createPingDigest());
+        assertThat(getPlaintextMessage()).isEqualTo(
+                """
+                        Ping digest: Duration: '60000ms', PINGREQ: '120', PINGRESP: '120', Clients: '100', \
+                        Outlier Clients: '1', Outliers: [Client 'test-client-id': Keep Alive: '60s', \
+                        Interval: '5000ms']""");
+    }
+
+    @Test
+    void test_log_repeated() {
+        final var logger = new PlainTextMessageLogger(false, false, false);
+        logger.logRepeated(createRepeatedEvent());
+        assertThat(getPlaintextMessage()).isEqualTo(
+                """
+                        Received PUBACK from client 'test-client-id' with reason code 'NOT_AUTHORIZED' repeated '41' \
+                        times between '2024-05-17T08:30:12.345Z' and '2024-05-17T08:30:22.301Z'""");
+    }
+
+    @Test
+    void test_log_suppressed() {
+        final var logger = new PlainTextMessageLogger(false, false, false);
+        logger.logSuppressed(createSuppressedEvents());
+        assertThat(getPlaintextMessage()).isEqualTo(
+                "Suppressed '17' events of client 'test-client-id' that exceeded the rate limit");
+    }
+
     private @NotNull String getPlaintextMessage() {
         final var events = logbackTestAppender.getEvents();
         assertThat(events).hasSize(1);
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.logger;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @since 1.4.0
+ */
+class TimestampFormatterTest {
+
+    private static final DateTimeFormatter ISO_8601_MICROS =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSS'Z'").withZone(ZoneOffset.UTC);
+
+    @Test
+    void test_iso8601() {
+        final var formatter = new TimestampFormatter();
+        assertThat(iso8601(formatter, 0)).isEqualTo("1970-01-01T00:00:00.000000Z");
+        assertThat(iso8601(formatter, 1_640_995_200_123_456L)).isEqualTo("2022-01-01T00:00:00.123456Z");
+        assertThat(iso8601(formatter, 1_640_995_200_999_999L)).isEqualTo("2022-01-01T00:00:00.999999Z");
+        assertThat(iso8601(formatter, 1_640_995_201_000_001L)).isEqualTo("2022-01-01T00:00:01.000001Z");
+        assertThat(iso8601(formatter, -1)).isEqualTo("1969-12-31T23:59:59.999999Z");
+    }
+
+    @Test
+    void test_iso8601_matches_date_time_formatter() {
+        final var formatter = new TimestampFormatter();
+        final var random = new Random(42);
+        var micros = Instant.parse("2024-02-28T23:59:58Z").toEpochMilli() * 1_000;
+        for (var i = 0; i < 10_000; i++) {
+            // mostly steps within the same second, sometimes across seconds, days and months
+            micros += random.nextInt(10) == 0 ? random.nextInt(100_000_000) : random.nextInt(1_000);
+            final var expected = ISO_8601_MICROS.format(Instant.EPOCH.plus(micros, ChronoUnit.MICROS));
+            assertThat(iso8601(formatter, micros)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void test_format() {
+        final var formatter = new TimestampFormatter();
+        assertThat(formatter.format(TimestampFormat.EPOCH_MILLIS, 1_640_995_200_123_456L)).isEqualTo("1640995200123");
+        assertThat(formatter.format(TimestampFormat.EPOCH_MICROS, 1_640_995_200_123_456L)).isEqualTo(
+                "1640995200123456");
+        assertThat(formatter.format(TimestampFormat.ISO_8601, 1_640_995_200_123_456L)).isEqualTo(
+                "2022-01-01T00:00:00.123456Z");
+    }
+
+    private static String iso8601(final TimestampFormatter formatter, final long epochMicros) {
+        return new String(formatter.iso8601(epochMicros), 0, TimestampFormatter.ISO_8601_LENGTH, US_ASCII);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.metrics;
+
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
+import com.hivemq.extensions.log.mqtt.message.logger.Direction;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageType;
+import com.hivemq.extensions.log.mqtt.message.pipeline.MeteredMessageLogger;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createEmptyPublish;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullPuback;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+/**
+ * @since 1.4.0
+ */
+class MessageLogMetricsTest {
+
+    private static final @NotNull ConnectionContext CONNECTION = new ConnectionContext("client");
+    private static final @NotNull String PREFIX = MessageLogMetrics.PREFIX;
+
+    private final @NotNull MetricRegistry metricRegistry = new MetricRegistry();
+    private final @NotNull MessageLogMetrics metrics = new MessageLogMetrics(metricRegistry);
+
+    @Test
+    void test_metrics_registered_for_logged_directions() {
+        assertThat(metricRegistry.getMeters()).containsKeys(PREFIX + ".publish.inbound.logged",
+                PREFIX + ".publish.outbound.failed",
+                PREFIX + ".disconnect.inbound.logged",
+                PREFIX + ".connect.inbound.logged");
+        assertThat(metricRegistry.getMeters()).doesNotContainKeys(PREFIX + ".connect.outbound.logged",
+                PREFIX + ".publish.event.logged",
+                PREFIX + ".disconnect.event.logged");
+        assertThat(metricRegistry.getTimers()).containsKey(PREFIX + ".suback.outbound.format-time");
+        assertThat(metricRegistry.getCounters()).containsKey(PREFIX + ".bytes");
+    }
+
+    @Test
+    void test_metered_logger_records_metrics() {
+        final MessageLogger delegate = mock();
+        doThrow(new IllegalStateException()).when(delegate).logPuback(any(), any(), anyBoolean());
+        final var logger = new MeteredMessageLogger(delegate, metrics);
+
+        logger.logPublish(createEmptyPublish(), CONNECTION, true);
+        logger.logPublish(createEmptyPublish(), CONNECTION, true);
+        logger.logPublish(createEmptyPublish(), CONNECTION, false);
+        assertThatThrownBy(() -> logger.logPuback(createFullPuback(), CONNECTION, false)).isInstanceOf(
+                IllegalStateException.class);
+
+        assertThat(metricRegistry.meter(PREFIX + ".publish.inbound.logged").getCount()).isEqualTo(2);
+        assertThat(metricRegistry.meter(PREFIX + ".publish.outbound.logged").getCount()).isEqualTo(1);
+        assertThat(metricRegistry.timer(PREFIX + ".publish.inbound.format-time").getCount()).isEqualTo(2);
+        assertThat(metricRegistry.meter(PREFIX + ".puback.outbound.logged").getCount()).isZero();
+        assertThat(metricRegistry.meter(PREFIX + ".puback.outbound.failed").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void test_not_logged_direction_ignored() {
+        metrics.logged(MessageType.CONNECT, Direction.OUTBOUND, 1_000);
+        metrics.failed(MessageType.CONNECT, Direction.OUTBOUND);
+
+        assertThat(metricRegistry.getMeters().values()).allSatisfy(meter -> assertThat(meter.getCount()).isZero());
+    }
+
+    @Test
+    void test_remove_unregisters_all_metrics() {
+        metrics.registerDropped("publish", () -> 3);
+        assertThat(metricRegistry.getGauges().get(PREFIX + ".async.publish.dropped").getValue()).isEqualTo(3L);
+
+        metricRegistry.counter("other");
+        metrics.remove();
+        assertThat(metricRegistry.getNames()).containsExactly("other");
+    }
+}
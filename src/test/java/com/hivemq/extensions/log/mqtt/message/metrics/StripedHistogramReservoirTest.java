@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+/**
+ * @since 1.4.0
+ */
+class StripedHistogramReservoirTest {
+
+    @Test
+    void test_bucket_bounds() {
+        for (var value = 0L; value < 100_000; value++) {
+            final var index = StripedHistogramReservoir.index(value);
+            assertThat(StripedHistogramReservoir.lowerBound(index)).isLessThanOrEqualTo(value);
+            assertThat(StripedHistogramReservoir.lowerBound(index + 1)).isGreaterThan(value);
+        }
+        assertThat(StripedHistogramReservoir.index(Long.MAX_VALUE)).isEqualTo(
+                StripedHistogramReservoir.index(1L << 50));
+    }
+
+    @Test
+    void test_empty_snapshot() {
+        final var snapshot = new StripedHistogramReservoir().getSnapshot();
+        assertThat(snapshot.size()).isZero();
+        assertThat(snapshot.getValues()).isEmpty();
+        assertThat(snapshot.getMin()).isZero();
+        assertThat(snapshot.getMax()).isZero();
+        assertThat(snapshot.getMean()).isZero();
+        assertThat(snapshot.getMedian()).isZero();
+    }
+
+    @Test
+    void test_quantiles_within_bucket_precision() {
+        final var reservoir = new StripedHistogramReservoir();
+        for (var value = 1; value <= 10_000; value++) {
+            reservoir.update(value * 1_000L);
+        }
+        final var snapshot = reservoir.getSnapshot();
+        assertThat(reservoir.size()).isEqualTo(10_000);
+        assertThat(snapshot.size()).isEqualTo(1028);
+        assertThat(snapshot.getMin()).isEqualTo(1_000);
+        assertThat(snapshot.getMax()).isEqualTo(10_000_000);
+        assertThat(snapshot.getMean()).isEqualTo(5_000_500);
+        assertThat(snapshot.getMedian()).isCloseTo(5_000_000, offset(5_000_000 * 0.07));
+        assertThat(snapshot.get99thPercentile()).isCloseTo(9_900_000, offset(9_900_000 * 0.07));
+        assertThat(snapshot.getValue(0)).isEqualTo(1_000);
+        assertThat(snapshot.getValue(1)).isEqualTo(10_000_000);
+        assertThat(snapshot.getValues()).isSorted();
+    }
+
+    @Test
+    void test_concurrent_updates_counted() throws Exception {
+        final var reservoir = new StripedHistogramReservoir();
+        final var threads = new ArrayList<Thread>();
+        for (var i = 0; i < 4; i++) {
+            final var thread = new Thread(() -> {
+                for (var value = 0; value < 10_000; value++) {
+                    reservoir.update(value);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (final var thread : threads) {
+            thread.join();
+        }
+        final var snapshot = reservoir.getSnapshot();
+        assertThat(reservoir.size()).isEqualTo(40_000);
+        assertThat(snapshot.getMin()).isEqualTo(0);
+        assertThat(snapshot.getMax()).isEqualTo(9_999);
+        assertThat(snapshot.getMean()).isEqualTo(4_999.5);
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.pipeline;
+
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
+import com.hivemq.extensions.log.mqtt.message.util.LogbackTestAppender;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.InOrder;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createEmptyPublish;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullConnect;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullPuback;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullPubrel;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createPingreq;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @since 1.4.0
+ */
+class AsyncMessageLoggerTest {
+
+    private static final @NotNull String TEST_CLIENT_ID = "test-client-id";
+    private static final @NotNull ConnectionContext TEST_CONNECTION = new ConnectionContext(TEST_CLIENT_ID);
+
+    @RegisterExtension
+    private final @NotNull LogbackTestAppender logbackTestAppender =
+            LogbackTestAppender.createFor(LoggerFactory.getLogger(AsyncMessageLogger.class));
+
+    private final @NotNull MessageLogger delegate = mock();
+
+    @Test
+    void test_events_logged_in_order_on_consumer_thread() {
+        final var consumerThread = new AtomicReference<Thread>();
+        doAnswer(invocation -> {
+            consumerThread.set(Thread.currentThread());
+            return null;
+        }).when(delegate).logConnect(any());
+
+        final var logger = new AsyncMessageLogger(delegate, 16, 1);
+        logger.start();
+        final var connect = createFullConnect();
+        final var publish = createEmptyPublish();
+        final var puback = createFullPuback();
+        logger.logConnect(connect);
+        logger.logPublish(publish, TEST_CONNECTION, true);
+        logger.logPuback(puback, TEST_CONNECTION, true);
+        logger.stop();
+
+        final InOrder inOrder = inOrder(delegate);
+        inOrder.verify(delegate).logConnect(connect);
+        inOrder.verify(delegate).logPublish(publish, TEST_CONNECTION, true);
+        inOrder.verify(delegate).logPuback(puback, TEST_CONNECTION, true);
+        assertThat(consumerThread.get()).isNotNull().isNotSameAs(Thread.currentThread());
+    }
+
+    @Test
+    void test_events_logged_synchronously_when_not_running() {
+        final var logger = new AsyncMessageLogger(delegate, 16, 1);
+        final var puback = createFullPuback();
+
+        logger.logPuback(puback, TEST_CONNECTION, false);
+        verify(delegate).logPuback(puback, TEST_CONNECTION, false);
+
+        logger.start();
+        logger.stop();
+        logger.logPuback(puback, TEST_CONNECTION, false);
+        verify(delegate, times(2)).logPuback(puback, TEST_CONNECTION, false);
+    }
+
+    @Test
+    void test_full_buffer_drops_events() throws Exception {
+        final var blocked = new CountDownLatch(1);
+        final var unblock = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            blocked.countDown();
+            unblock.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(delegate).logConnect(any());
+
+        final var logger = new AsyncMessageLogger(delegate, 2, 1);
+        logger.start();
+        logger.logConnect(createFullConnect());
+        assertThat(blocked.await(10, TimeUnit.SECONDS)).isTrue();
+
+        final var puback = createFullPuback();
+        for (var i = 0; i < 5; i++) {
+            logger.logPuback(puback, TEST_CONNECTION, true);
+        }
+        unblock.countDown();
+        logger.stop();
+
+        // the blocked CONNECT occupies a slot of the control lane, so both slots of the publish lane are free
+        assertThat(logger.getDroppedCount()).isEqualTo(3);
+        assertThat(logger.getDroppedCount(Lane.PUBLISH)).isEqualTo(3);
+        verify(delegate, times(2)).logPuback(puback, TEST_CONNECTION, true);
+    }
+
+    @Test
+    void test_full_control_lane_logs_synchronously() {
+        final var unblock = blockFirstConnect();
+        final var logger = new AsyncMessageLogger(delegate, 2, 1);
+        logger.start();
+        logger.logConnect(createFullConnect());
+
+        // a PUBREL with an error reason code is not dropped either
+        final var pubrel = createFullPubrel();
+        for (var i = 0; i < 5; i++) {
+            logger.logPubrel(pubrel, TEST_CONNECTION, true);
+        }
+        // one slot of the control lane is free, the other events are logged on the calling thread
+        verify(delegate, times(4)).logPubrel(pubrel, TEST_CONNECTION, true);
+        unblock.countDown();
+        logger.stop();
+
+        assertThat(logger.getDroppedCount()).isZero();
+        verify(delegate, times(5)).logPubrel(pubrel, TEST_CONNECTION, true);
+    }
+
+    @Test
+    void test_drop_oldest_policy_drops_oldest_event() throws Exception {
+        final var unblock = blockFirstConnect();
+        final var logger = new AsyncMessageLogger(delegate, 2, 1, OverflowPolicy.DROP_OLDEST, 10_000, 1);
+        logger.start();
+        logger.logConnect(createFullConnect());
+
+        final var first = createFullPuback();
+        final var second = createFullPuback();
+        final var third = createFullPuback();
+        logger.logPuback(first, TEST_CONNECTION, true);
+        logger.logPuback(second, TEST_CONNECTION, true);
+        // the consumer is still blocked, so the oldest event is dropped without waiting for it
+        logger.logPuback(third, TEST_CONNECTION, true);
+        assertThat(logger.getDroppedCount(Lane.PUBLISH)).isEqualTo(1);
+        unblock.countDown();
+        logger.stop();
+
+        assertThat(logger.getDroppedCount(Lane.PUBLISH)).isEqualTo(1);
+        verify(delegate, never()).logPuback(first, TEST_CONNECTION, true);
+        final InOrder inOrder = inOrder(delegate);
+        inOrder.verify(delegate).logPuback(second, TEST_CONNECTION, true);
+        inOrder.verify(delegate).logPuback(third, TEST_CONNECTION, true);
+    }
+
+    @Test
+    void test_block_policy_waits_for_free_slot() throws Exception {
+        final var unblock = blockFirstConnect();
+        final var logger = new AsyncMessageLogger(delegate, 2, 1, OverflowPolicy.BLOCK, 10_000, 1);
+        logger.start();
+        logger.logConnect(createFullConnect());
+
+        final var puback = createFullPuback();
+        logger.logPuback(puback, TEST_CONNECTION, true);
+        logger.logPuback(puback, TEST_CONNECTION, true);
+        final var producer = new Thread(() -> logger.logPuback(puback, TEST_CONNECTION, true));
+        producer.start();
+        unblock.countDown();
+        producer.join(10_000);
+        logger.stop();
+
+        assertThat(logger.getDroppedCount()).isZero();
+        verify(delegate, times(3)).logPuback(puback, TEST_CONNECTION, true);
+    }
+
+    @Test
+    void test_block_policy_drops_after_timeout() {
+        final var unblock = blockFirstConnect();
+        final var logger = new AsyncMessageLogger(delegate, 2, 1, OverflowPolicy.BLOCK, 50, 1);
+        logger.start();
+        logger.logConnect(createFullConnect());
+
+        final var puback = createFullPuback();
+        for (var i = 0; i < 3; i++) {
+            logger.logPuback(puback, TEST_CONNECTION, true);
+        }
+        assertThat(logger.getDroppedCount(Lane.PUBLISH)).isEqualTo(1);
+        unblock.countDown();
+        logger.stop();
+
+        verify(delegate, times(2)).logPuback(puback, TEST_CONNECTION, true);
+    }
+
+    @Test
+    void test_sample_policy_samples_half_full_lane() {
+        final var unblock = blockFirstConnect();
+        final var logger = new AsyncMessageLogger(delegate, 8, 1, OverflowPolicy.SAMPLE, 0, 3);
+        logger.start();
+        logger.logConnect(createFullConnect());
+
+        final var ping = createPingreq();
+        for (var i = 0; i < 20; i++) {
+            logger.logPingreq(ping);
+        }
+        unblock.countDown();
+        logger.stop();
+
+        // 4 events fill half of the lane, then every third event is buffered until the lane is full
+        assertThat(logger.getDroppedCount(Lane.PING)).isEqualTo(12);
+        verify(delegate, times(8)).logPingreq(ping);
+    }
+
+    @Test
+    void test_drops_reported_while_consumer_is_busy() {
+        final var nanoTime = new AtomicLong();
+        final var logger = new AsyncMessageLogger(delegate, 2, 1, OverflowPolicy.DROP_NEWEST, 0, 1, nanoTime::get);
+        final var puback = createFullPuback();
+        final var reportedWhileBusy = new AtomicBoolean();
+        final var requeued = new AtomicInteger();
+        // every logged PUBACK captures the next one, so the lane is never empty until the drops are reported
+        doAnswer(invocation -> {
+            if (logbackTestAppender.getEvents()
+                    .stream()
+                    .anyMatch(event -> event.getFormattedMessage().contains("Dropped 3 MQTT events of the publish"))) {
+                reportedWhileBusy.set(true);
+            } else if (requeued.incrementAndGet() < 100_000) {
+                logger.logPuback(puback, TEST_CONNECTION, true);
+            }
+            return null;
+        }).when(delegate).logPuback(puback, TEST_CONNECTION, true);
+        final var unblock = blockFirstConnect();
+        logger.start();
+        logger.logConnect(createFullConnect());
+        for (var i = 0; i < 5; i++) {
+            logger.logPuback(puback, TEST_CONNECTION, true);
+        }
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(11));
+        unblock.countDown();
+        logger.stop();
+
+        assertThat(logger.getDroppedCount(Lane.PUBLISH)).isEqualTo(3);
+        assertThat(reportedWhileBusy).isTrue();
+    }
+
+    private @NotNull CountDownLatch blockFirstConnect() {
+        final var blocked = new CountDownLatch(1);
+        final var unblock = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            if (blocked.getCount() > 0) {
+                blocked.countDown();
+                unblock.await(10, TimeUnit.SECONDS);
+            }
+            return null;
+        }).when(delegate).logConnect(any());
+        return unblock;
+    }
+
+    @Test
+    void test_exception_in_delegate_does_not_stop_consumer() {
+        doAnswer(invocation -> {
+            throw new IllegalStateException("test");
+        }).when(delegate).logConnect(any());
+
+        final var logger = new AsyncMessageLogger(delegate, 16, 1);
+        logger.start();
+        final var puback = createFullPuback();
+        logger.logConnect(createFullConnect());
+        logger.logPuback(puback, TEST_CONNECTION, true);
+        logger.stop();
+
+        verify(delegate).logPuback(eq(puback), eq(TEST_CONNECTION), eq(true));
+    }
+}
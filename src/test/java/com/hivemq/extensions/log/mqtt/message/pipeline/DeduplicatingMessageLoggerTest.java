@@ -0,0 +1,152 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.pipeline;
+
+import com.hivemq.extensions.log.mqtt.message.config.LogPolicy;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
+import com.hivemq.extensions.log.mqtt.message.logger.Direction;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageType;
+import com.hivemq.extensions.log.mqtt.message.logger.PayloadLimits;
+import com.hivemq.extensions.log.mqtt.message.logger.RepeatedEvent;
+import com.hivemq.extensions.log.mqtt.message.topic.TopicFilter;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullPublish;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullPuback;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createPingreq;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createSessionSummary;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @since 1.4.0
+ */
+class DeduplicatingMessageLoggerTest {
+
+    private static final @NotNull String TEST_CLIENT_ID = "test-client-id";
+    private static final @NotNull ConnectionContext TEST_CONNECTION = new ConnectionContext(TEST_CLIENT_ID);
+
+    private final @NotNull MessageLogger delegate = mock();
+    private final @NotNull AtomicLong currentTimeMillis = new AtomicLong(1_000);
+    private final @NotNull AtomicReference<LogPolicy> policy = new AtomicReference<>(policy(false));
+    private final @NotNull DeduplicatingMessageLogger logger =
+            new DeduplicatingMessageLogger(delegate, policy::get, 10_000, 64, currentTimeMillis::get);
+
+    @Test
+    void test_repetitions_suppressed_within_window() {
+        final var puback = createFullPuback();
+        logger.logPuback(puback, TEST_CONNECTION, true);
+        currentTimeMillis.set(2_000);
+        logger.logPuback(puback, TEST_CONNECTION, true);
+        currentTimeMillis.set(3_000);
+        logger.logPuback(puback, TEST_CONNECTION, true);
+        verify(delegate).logPuback(puback, TEST_CONNECTION, true);
+        verify(delegate, never()).logRepeated(any());
+
+        // the window starts with the first occurrence
+        currentTimeMillis.set(10_999);
+        logger.expire();
+        verify(delegate, never()).logRepeated(any());
+        currentTimeMillis.set(11_000);
+        logger.expire();
+
+        final var repeatedEvent = ArgumentCaptor.forClass(RepeatedEvent.class);
+        verify(delegate).logRepeated(repeatedEvent.capture());
+        assertThat(repeatedEvent.getValue().getMessageType()).isEqualTo(MessageType.PUBACK);
+        assertThat(repeatedEvent.getValue().getDirection()).isEqualTo(Direction.INBOUND);
+        assertThat(repeatedEvent.getValue().getClientId()).isEqualTo(TEST_CLIENT_ID);
+        assertThat(repeatedEvent.getValue().getReasonCode()).isEqualTo(puback.getReasonCode().name());
+        assertThat(repeatedEvent.getValue().getCount()).isEqualTo(2);
+        assertThat(repeatedEvent.getValue().getFirstMillis()).isEqualTo(2_000);
+        assertThat(repeatedEvent.getValue().getLastMillis()).isEqualTo(3_000);
+
+        // the next occurrence starts a new window
+        logger.logPuback(puback, TEST_CONNECTION, true);
+        verify(delegate, times(2)).logPuback(puback, TEST_CONNECTION, true);
+    }
+
+    @Test
+    void test_different_events_not_suppressed() {
+        final var puback = createFullPuback();
+        final var otherConnection = new ConnectionContext("other-client-id");
+        logger.logPuback(puback, TEST_CONNECTION, true);
+        logger.logPuback(puback, TEST_CONNECTION, false);
+        logger.logPuback(puback, otherConnection, true);
+        logger.logPingreq(createPingreq());
+
+        verify(delegate).logPuback(puback, TEST_CONNECTION, true);
+        verify(delegate).logPuback(puback, TEST_CONNECTION, false);
+        verify(delegate).logPuback(puback, otherConnection, true);
+        verify(delegate).logPingreq(any());
+        logger.flush();
+        verify(delegate, never()).logRepeated(any());
+    }
+
+    @Test
+    void test_publish_payload_only_compared_if_logged() {
+        final var message = createFullPublish("message".getBytes());
+        final var otherMessage = createFullPublish("other message".getBytes());
+        logger.logPublish(message, TEST_CONNECTION, true);
+        logger.logPublish(otherMessage, TEST_CONNECTION, true);
+        verify(delegate).logPublish(message, TEST_CONNECTION, true);
+        verify(delegate, never()).logPublish(otherMessage, TEST_CONNECTION, true);
+
+        policy.set(policy(true));
+        currentTimeMillis.set(20_000);
+        logger.logPublish(message, TEST_CONNECTION, true);
+        logger.logPublish(otherMessage, TEST_CONNECTION, true);
+        logger.logPublish(message, TEST_CONNECTION, true);
+        verify(delegate, times(2)).logPublish(message, TEST_CONNECTION, true);
+        verify(delegate).logPublish(otherMessage, TEST_CONNECTION, true);
+    }
+
+    @Test
+    void test_flush_logs_pending_repetitions() {
+        final var puback = createFullPuback();
+        for (var i = 0; i < 5; i++) {
+            logger.logPuback(puback, TEST_CONNECTION, true);
+        }
+        logger.flush();
+        logger.flush();
+
+        final var repeatedEvent = ArgumentCaptor.forClass(RepeatedEvent.class);
+        verify(delegate).logRepeated(repeatedEvent.capture());
+        assertThat(repeatedEvent.getValue().getCount()).isEqualTo(4);
+    }
+
+    @Test
+    void test_aggregates_not_suppressed() {
+        final var sessionSummary = createSessionSummary();
+        logger.logSessionSummary(sessionSummary, TEST_CONNECTION);
+        logger.logSessionSummary(sessionSummary, TEST_CONNECTION);
+        verify(delegate, times(2)).logSessionSummary(sessionSummary, TEST_CONNECTION);
+    }
+
+    private static @NotNull LogPolicy policy(final boolean payload) {
+        return new LogPolicy(LogPolicy.ALL_EVENTS, false, payload, false, PayloadLimits.UNLIMITED, TopicFilter.ALL);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.pipeline;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
+import com.hivemq.extensions.log.mqtt.message.logger.Direction;
+import com.hivemq.extensions.log.mqtt.message.logger.EventLoggers;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageType;
+import com.hivemq.extensions.log.mqtt.message.util.LogbackTestAppender;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createEmptyPublish;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullPuback;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createRepeatedEvent;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @since 1.4.0
+ */
+class LogLevelFilteringMessageLoggerTest {
+
+    private static final @NotNull ConnectionContext TEST_CONNECTION = new ConnectionContext("test-client-id");
+
+    @RegisterExtension
+    private final @NotNull LogbackTestAppender logbackTestAppender = LogbackTestAppender.createFor(MessageLogger.LOG);
+
+    private final @NotNull MessageLogger delegate = mock();
+    private final @NotNull LogLevelFilteringMessageLogger logger = new LogLevelFilteringMessageLogger(delegate);
+
+    @AfterEach
+    void tearDown() {
+        setLevel(MessageType.PUBLISH, Direction.INBOUND, null);
+        setLevel(MessageType.PUBACK, Direction.INBOUND, null);
+    }
+
+    @Test
+    void test_enabled_events_delegated() {
+        final var publish = createEmptyPublish();
+        logger.logPublish(publish, TEST_CONNECTION, true);
+        logger.logPublish(publish, TEST_CONNECTION, false);
+        verify(delegate).logPublish(publish, TEST_CONNECTION, true);
+        verify(delegate).logPublish(publish, TEST_CONNECTION, false);
+    }
+
+    @Test
+    void test_disabled_type_and_direction_dropped() {
+        setLevel(MessageType.PUBLISH, Direction.INBOUND, Level.OFF);
+        final var publish = createEmptyPublish();
+        logger.logPublish(publish, TEST_CONNECTION, true);
+        logger.logPublish(publish, TEST_CONNECTION, false);
+        verify(delegate, never()).logPublish(publish, TEST_CONNECTION, true);
+        verify(delegate).logPublish(publish, TEST_CONNECTION, false);
+
+        // the level is checked for every event
+        setLevel(MessageType.PUBLISH, Direction.INBOUND, Level.INFO);
+        logger.logPublish(publish, TEST_CONNECTION, true);
+        verify(delegate).logPublish(publish, TEST_CONNECTION, true);
+    }
+
+    @Test
+    void test_repeated_event_checked_against_repeated_type() {
+        setLevel(MessageType.PUBACK, Direction.INBOUND, Level.OFF);
+        final var puback = createFullPuback();
+        final var repeatedEvent = createRepeatedEvent();
+        logger.logPuback(puback, TEST_CONNECTION, true);
+        logger.logRepeated(repeatedEvent);
+        verify(delegate, never()).logPuback(puback, TEST_CONNECTION, true);
+        verify(delegate, never()).logRepeated(repeatedEvent);
+    }
+
+    private static void setLevel(
+            final @NotNull MessageType type,
+            final @NotNull Direction direction,
+            final @Nullable Level level) {
+        ((Logger) EventLoggers.get(type, direction)).setLevel(level);
+    }
+}
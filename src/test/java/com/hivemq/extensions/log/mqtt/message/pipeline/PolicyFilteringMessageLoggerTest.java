@@ -0,0 +1,104 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.pipeline;
+
+import com.hivemq.extension.sdk.api.packets.connect.ConnectPacket;
+import com.hivemq.extensions.log.mqtt.message.config.EventType;
+import com.hivemq.extensions.log.mqtt.message.config.LogPolicy;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
+import com.hivemq.extensions.log.mqtt.message.logger.PayloadLimits;
+import com.hivemq.extensions.log.mqtt.message.topic.TopicFilter;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullConnect;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullPublish;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @since 1.4.0
+ */
+class PolicyFilteringMessageLoggerTest {
+
+    private static final @NotNull ConnectionContext TEST_CONNECTION = new ConnectionContext("test-client-id");
+
+    private final @NotNull MessageLogger delegate = mock();
+    private final @NotNull AtomicReference<LogPolicy> policy =
+            new AtomicReference<>(policy(LogPolicy.ALL_EVENTS, TopicFilter.ALL));
+    private final @NotNull PolicyFilteringMessageLogger logger =
+            new PolicyFilteringMessageLogger(delegate, policy::get);
+
+    @Test
+    void test_disabled_event_type_dropped() {
+        final var publish = createFullPublish();
+        policy.set(policy(LogPolicy.ALL_EVENTS & ~(1 << EventType.PUBLISH_SEND.ordinal()), TopicFilter.ALL));
+        logger.logPublish(publish, TEST_CONNECTION, false);
+        logger.logPublish(publish, TEST_CONNECTION, true);
+        verify(delegate, never()).logPublish(publish, TEST_CONNECTION, false);
+        verify(delegate).logPublish(publish, TEST_CONNECTION, true);
+    }
+
+    @Test
+    void test_publish_topic_filtered() {
+        final var publish = createFullPublish();
+        policy.set(policy(LogPolicy.ALL_EVENTS,
+                TopicFilter.compile(List.of("topic", "sensors/#"), List.of("sensors/debug/#"))));
+        logger.logPublish(publish, TEST_CONNECTION, false);
+        verify(delegate).logPublish(publish, TEST_CONNECTION, false);
+
+        policy.set(policy(LogPolicy.ALL_EVENTS, TopicFilter.compile(List.of(), List.of("#"))));
+        logger.logPublish(publish, TEST_CONNECTION, true);
+        verify(delegate, never()).logPublish(publish, TEST_CONNECTION, true);
+    }
+
+    @Test
+    void test_connect_will_topic_excluded() {
+        final var connect = createFullConnect();
+        logger.logConnect(connect);
+        verify(delegate).logConnect(connect);
+
+        policy.set(policy(LogPolicy.ALL_EVENTS, TopicFilter.compile(List.of(), List.of("willtopic"))));
+        logger.logConnect(connect);
+        final var captor = ArgumentCaptor.forClass(ConnectPacket.class);
+        verify(delegate, times(2)).logConnect(captor.capture());
+        final var logged = captor.getAllValues().get(1);
+        assertThat(logged.getWillPublish()).isEmpty();
+        assertThat(logged.getClientId()).isEqualTo(connect.getClientId());
+        assertThat(logged.getUserName()).isEqualTo(connect.getUserName());
+    }
+
+    @Test
+    void test_disabled_connect_dropped() {
+        policy.set(policy(LogPolicy.ALL_EVENTS & ~(1 << EventType.CLIENT_CONNECT.ordinal()), TopicFilter.ALL));
+        logger.logConnect(createFullConnect());
+        verify(delegate, never()).logConnect(any());
+    }
+
+    private static @NotNull LogPolicy policy(final int events, final @NotNull TopicFilter topicFilter) {
+        return new LogPolicy(events, false, false, false, PayloadLimits.UNLIMITED, topicFilter);
+    }
+}
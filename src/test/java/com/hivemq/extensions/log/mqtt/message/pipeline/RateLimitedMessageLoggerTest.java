@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.pipeline;
+
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
+import com.hivemq.extensions.log.mqtt.message.logger.SuppressedEvents;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createEmptyPublish;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullDisconnect;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullPuback;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @since 1.4.0
+ */
+class RateLimitedMessageLoggerTest {
+
+    private static final @NotNull String TEST_CLIENT_ID = "test-client-id";
+    private static final @NotNull ConnectionContext TEST_CONNECTION = new ConnectionContext(TEST_CLIENT_ID);
+
+    private final @NotNull MessageLogger delegate = mock();
+    private final @NotNull AtomicLong nanoTime = new AtomicLong(1_000);
+    // 10 events per second with a burst of 3
+    private final @NotNull RateLimitedMessageLogger logger =
+            new RateLimitedMessageLogger(delegate, TEST_CLIENT_ID, 10, 3, nanoTime::get);
+
+    @Test
+    void test_events_over_budget_suppressed() {
+        final var publish = createEmptyPublish();
+        for (var i = 0; i < 5; i++) {
+            logger.logPublish(publish, TEST_CONNECTION, true);
+        }
+        verify(delegate, times(3)).logPublish(publish, TEST_CONNECTION, true);
+        assertThat(logger.getSuppressedCount()).isEqualTo(2);
+
+        // a token is added every 100 ms
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        logger.logPuback(createFullPuback(), TEST_CONNECTION, true);
+        logger.logPuback(createFullPuback(), TEST_CONNECTION, true);
+        verify(delegate, times(1)).logPuback(any(), any(), anyBoolean());
+        assertThat(logger.getSuppressedCount()).isEqualTo(3);
+
+        // the bucket does not hold more than the burst
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        for (var i = 0; i < 5; i++) {
+            logger.logPublish(publish, TEST_CONNECTION, true);
+        }
+        verify(delegate, times(6)).logPublish(publish, TEST_CONNECTION, true);
+        assertThat(logger.getSuppressedCount()).isEqualTo(5);
+        verify(delegate, never()).logSuppressed(any());
+    }
+
+    @Test
+    void test_suppressed_events_reported_periodically() {
+        final var publish = createEmptyPublish();
+        for (var i = 0; i < 10; i++) {
+            logger.logPublish(publish, TEST_CONNECTION, true);
+        }
+        verify(delegate, never()).logSuppressed(any());
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        logger.logPublish(publish, TEST_CONNECTION, true);
+        final var suppressedEvents = ArgumentCaptor.forClass(SuppressedEvents.class);
+        final var inOrder = inOrder(delegate);
+        inOrder.verify(delegate).logSuppressed(suppressedEvents.capture());
+        inOrder.verify(delegate).logPublish(publish, TEST_CONNECTION, true);
+        assertThat(suppressedEvents.getValue().getClientId()).isEqualTo(TEST_CLIENT_ID);
+        assertThat(suppressedEvents.getValue().getCount()).isEqualTo(7);
+        assertThat(logger.getSuppressedCount()).isZero();
+        verify(delegate, times(4)).logPublish(publish, TEST_CONNECTION, true);
+    }
+
+    @Test
+    void test_suppressed_events_reported_on_disconnect() {
+        final var publish = createEmptyPublish();
+        for (var i = 0; i < 5; i++) {
+            logger.logPublish(publish, TEST_CONNECTION, true);
+        }
+        final var disconnect = createFullDisconnect();
+        logger.logDisconnect(disconnect, TEST_CONNECTION, true);
+
+        final var suppressedEvents = ArgumentCaptor.forClass(SuppressedEvents.class);
+        final var inOrder = inOrder(delegate);
+        inOrder.verify(delegate).logSuppressed(suppressedEvents.capture());
+        inOrder.verify(delegate).logDisconnect(disconnect, TEST_CONNECTION, true);
+        assertThat(suppressedEvents.getValue().getClientId()).isEqualTo(TEST_CLIENT_ID);
+        assertThat(suppressedEvents.getValue().getCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.pipeline;
+
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
+import com.hivemq.extensions.log.mqtt.message.logger.Direction;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageType;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @since 1.4.0
+ */
+class RingBufferTest {
+
+    @Test
+    void test_capacity_rounded_to_power_of_two() {
+        assertThat(RingBuffer.capacityFor(0)).isEqualTo(2);
+        assertThat(RingBuffer.capacityFor(2)).isEqualTo(2);
+        assertThat(RingBuffer.capacityFor(3)).isEqualTo(4);
+        assertThat(RingBuffer.capacityFor(1000)).isEqualTo(1024);
+        assertThat(RingBuffer.capacityFor(8192)).isEqualTo(8192);
+        assertThat(RingBuffer.capacityFor(Integer.MAX_VALUE)).isEqualTo(1 << 30);
+    }
+
+    @Test
+    void test_peek_empty_buffer() {
+        final var ringBuffer = new RingBuffer(4);
+        assertThat(ringBuffer.peek()).isNull();
+    }
+
+    @Test
+    void test_unpublished_slot_not_visible() {
+        final var ringBuffer = new RingBuffer(4);
+        final var sequence = ringBuffer.tryClaim();
+        assertThat(sequence).isEqualTo(0);
+        assertThat(ringBuffer.peek()).isNull();
+
+        ringBuffer.publish(sequence);
+        assertThat(ringBuffer.peek()).isNotNull();
+    }
+
+    @Test
+    void test_full_buffer_rejects_claim_until_released() {
+        final var ringBuffer = new RingBuffer(4);
+        for (var i = 0; i < 4; i++) {
+            final var sequence = ringBuffer.tryClaim();
+            assertThat(sequence).isEqualTo(i);
+            ringBuffer.get(sequence).set(MessageType.PUBLISH,
+                    Direction.INBOUND,
+                    new ConnectionContext("client-" + i),
+                    i,
+                    -1);
+            ringBuffer.publish(sequence);
+        }
+        assertThat(ringBuffer.tryClaim()).isEqualTo(-1);
+
+        final var sequence = ringBuffer.tryTake();
+        assertThat(sequence).isEqualTo(0);
+        final var event = ringBuffer.get(sequence);
+        assertThat(event.connection.getClientId()).isEqualTo("client-0");
+        assertThat(ringBuffer.tryClaim()).isEqualTo(-1);
+        ringBuffer.release(sequence);
+        assertThat(event.data).isNull();
+
+        assertThat(ringBuffer.tryClaim()).isEqualTo(4);
+    }
+
+    @Test
+    void test_drop_oldest_only_when_full() {
+        final var ringBuffer = new RingBuffer(2);
+        assertThat(ringBuffer.tryDropOldest()).isFalse();
+        for (var i = 0; i < 2; i++) {
+            final var sequence = ringBuffer.tryClaim();
+            ringBuffer.get(sequence).set(MessageType.PUBLISH, Direction.INBOUND, null, i, -1);
+            ringBuffer.publish(sequence);
+            if (i == 0) {
+                assertThat(ringBuffer.tryDropOldest()).isFalse();
+            }
+        }
+
+        assertThat(ringBuffer.tryDropOldest()).isTrue();
+        final var sequence = ringBuffer.tryClaim();
+        assertThat(sequence).isEqualTo(2);
+        ringBuffer.get(sequence).set(MessageType.PUBLISH, Direction.INBOUND, null, 2, -1);
+        ringBuffer.publish(sequence);
+
+        for (var i = 1; i <= 2; i++) {
+            final var taken = ringBuffer.tryTake();
+            assertThat(ringBuffer.get(taken).data).isEqualTo(i);
+            ringBuffer.release(taken);
+        }
+        assertThat(ringBuffer.tryTake()).isEqualTo(-1);
+    }
+
+    @Test
+    void test_drop_oldest_skips_unpublished_and_taken_slots() {
+        final var ringBuffer = new RingBuffer(2);
+        final var unpublished = ringBuffer.tryClaim();
+        ringBuffer.publish(ringBuffer.tryClaim());
+        assertThat(ringBuffer.tryDropOldest()).isFalse();
+
+        ringBuffer.publish(unpublished);
+        final var taken = ringBuffer.tryTake();
+        assertThat(taken).isEqualTo(unpublished);
+        // dropping the next event would not free the slot the consumer still uses
+        assertThat(ringBuffer.tryDropOldest()).isFalse();
+        ringBuffer.release(taken);
+        ringBuffer.publish(ringBuffer.tryClaim());
+        assertThat(ringBuffer.tryDropOldest()).isTrue();
+        assertThat(ringBuffer.tryTake()).isEqualTo(2);
+    }
+
+    @Test
+    void test_events_consumed_in_order_across_wrap_around() throws Exception {
+        final var ringBuffer = new RingBuffer(8);
+        final var count = 10_000;
+        final var producer = new Thread(() -> {
+            for (var i = 0; i < count; i++) {
+                var sequence = ringBuffer.tryClaim();
+                while (sequence < 0) {
+                    Thread.onSpinWait();
+                    sequence = ringBuffer.tryClaim();
+                }
+                ringBuffer.get(sequence).set(MessageType.PUBLISH, Direction.INBOUND, null, i, -1);
+                ringBuffer.publish(sequence);
+            }
+        });
+        producer.start();
+
+        for (var i = 0; i < count; i++) {
+            var sequence = ringBuffer.tryTake();
+            while (sequence < 0) {
+                Thread.onSpinWait();
+                sequence = ringBuffer.tryTake();
+            }
+            assertThat(ringBuffer.get(sequence).data).isEqualTo(i);
+            ringBuffer.release(sequence);
+        }
+        producer.join();
+        assertThat(ringBuffer.peek()).isNull();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hivemq.extensions.log.mqtt.message.pipeline;
+
+import com.hivemq.extensions.log.mqtt.message.flow.SessionSummary;
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLogger;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageType;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createCompleteQos2Flow;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullDisconnect;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullPubcomp;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullPuback;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullPublish;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createFullSuback;
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createPingreq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @since 1.4.0
+ */
+class SessionSummaryMessageLoggerTest {
+
+    private static final @NotNull String TEST_CLIENT_ID = "test-client-id";
+    private static final @NotNull ConnectionContext TEST_CONNECTION = new ConnectionContext(TEST_CLIENT_ID);
+
+    private final @NotNull MessageLogger delegate = mock();
+    private final @NotNull SessionSummary sessionSummary = mock();
+    private final @NotNull SessionSummaryMessageLogger logger =
+            new SessionSummaryMessageLogger(delegate, sessionSummary);
+
+    @Test
+    void test_packets_counted_and_forwarded() {
+        final var publish = createFullPublish();
+        logger.logPublish(publish, TEST_CONNECTION, true);
+        final var pingreq = createPingreq();
+        logger.logPingreq(pingreq);
+        final var suback = createFullSuback();
+        logger.logSuback(suback);
+        final var puback = createFullPuback();
+        logger.logPuback(puback, TEST_CONNECTION, false);
+
+        verify(sessionSummary).published(publish, true);
+        verify(sessionSummary).packet(MessageType.PINGREQ, true);
+        verify(sessionSummary).packet(MessageType.SUBACK, false);
+        verify(sessionSummary).packet(MessageType.PUBACK, false);
+        // granted QoS and no matching subscribers are no errors
+        verify(sessionSummary, never()).error(any(), anyBoolean(), anyString());
+        verify(delegate).logPublish(publish, TEST_CONNECTION, true);
+        verify(delegate).logPingreq(pingreq);
+        verify(delegate).logSuback(suback);
+        verify(delegate).logPuback(puback, TEST_CONNECTION, false);
+    }
+
+    @Test
+    void test_error_reason_codes_counted() {
+        logger.logDisconnect(createFullDisconnect(), TEST_CONNECTION, true);
+        logger.logPubcomp(createFullPubcomp(), TEST_CONNECTION, false);
+        logger.logPubcomp(createFullPubcomp(), TEST_CONNECTION, false);
+
+        verify(sessionSummary).packet(MessageType.DISCONNECT, true);
+        verify(sessionSummary).error(MessageType.DISCONNECT, true, "NOT_AUTHORIZED");
+        verify(sessionSummary, times(2)).packet(MessageType.PUBCOMP, false);
+        verify(sessionSummary, times(2)).error(MessageType.PUBCOMP, false, "PACKET_IDENTIFIER_NOT_FOUND");
+    }
+
+    @Test
+    void test_qos2_flow_steps_counted() {
+        final var qos2Flow = createCompleteQos2Flow();
+        logger.logQos2Flow(qos2Flow, TEST_CONNECTION);
+
+        // the flow of an inbound PUBLISH is acknowledged by the broker
+        verify(sessionSummary).packet(MessageType.PUBREC, false);
+        verify(sessionSummary).packet(MessageType.PUBREL, true);
+        verify(sessionSummary).packet(MessageType.PUBCOMP, false);
+        verify(sessionSummary, never()).error(any(), anyBoolean(), anyString());
+        verify(delegate).logQos2Flow(qos2Flow, TEST_CONNECTION);
+    }
+}
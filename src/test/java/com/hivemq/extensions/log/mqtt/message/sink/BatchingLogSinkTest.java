@@ -0,0 +1,146 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.sink;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @since 1.4.0
+ */
+class BatchingLogSinkTest {
+
+    private final @NotNull List<List<String>> batches = new ArrayList<>();
+    private final @NotNull LogSink delegate = new LogSink() {
+        @Override
+        public void write(final @NotNull ByteBuffer record) {
+            batches.add(List.of(UTF_8.decode(record).toString()));
+        }
+
+        @Override
+        public void writeBatch(final @NotNull ByteBuffer batch) {
+            final var records = new ArrayList<String>();
+            while (batch.hasRemaining()) {
+                final var record = new byte[batch.getInt()];
+                batch.get(record);
+                records.add(new String(record, UTF_8));
+            }
+            batches.add(records);
+        }
+    };
+
+    @Test
+    void test_batch_written_when_full() {
+        final var sink = new BatchingLogSink(delegate, 3, 1024);
+        for (var i = 0; i < 7; i++) {
+            sink.write(record("record-" + i));
+        }
+        assertThat(batches).containsExactly(List.of("record-0", "record-1", "record-2"),
+                List.of("record-3", "record-4", "record-5"));
+
+        sink.drain();
+        assertThat(batches).hasSize(3);
+        assertThat(batches.get(2)).containsExactly("record-6");
+
+        sink.drain();
+        assertThat(batches).hasSize(3);
+    }
+
+    @Test
+    void test_batch_written_when_bytes_reached() {
+        final var sink = new BatchingLogSink(delegate, 100, 28);
+        sink.write(record("0123456789"));
+        sink.write(record("0123456789"));
+        sink.write(record("abc"));
+        sink.drain();
+
+        // every record takes 4 more bytes for its length
+        assertThat(batches).containsExactly(List.of("0123456789", "0123456789"), List.of("abc"));
+    }
+
+    @Test
+    void test_large_record_written_after_batch() {
+        final var sink = new BatchingLogSink(delegate, 100, 16);
+        sink.write(record("small"));
+        sink.write(record("x".repeat(100)));
+
+        assertThat(batches).containsExactly(List.of("small"), List.of("x".repeat(100)));
+    }
+
+    @Test
+    void test_batches_of_threads_drained(@TempDir final @NotNull Path tempDir) throws Exception {
+        final var file = tempDir.resolve("messages.json");
+        final var sink = new BatchingLogSink(new FileLogSink(file), 1000, 64 * 1024);
+        final var threads = new ArrayList<Thread>();
+        for (var i = 0; i < 4; i++) {
+            final var name = "thread-" + i;
+            final var thread = new Thread(() -> {
+                for (var j = 0; j < 100; j++) {
+                    sink.write(record(name + "-" + j));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (final var thread : threads) {
+            thread.join();
+        }
+        sink.close();
+
+        final var lines = Files.readAllLines(file, UTF_8);
+        assertThat(lines).hasSize(400);
+        // the records of every thread are written in order
+        final var expected = new ArrayList<String>();
+        for (var j = 0; j < 100; j++) {
+            expected.add("thread-2-" + j);
+        }
+        assertThat(lines).filteredOn(line -> line.startsWith("thread-2-")).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void test_batches_of_terminated_threads_discarded() throws Exception {
+        final var sink = new BatchingLogSink(delegate, 100, 1024);
+        sink.write(record("current"));
+        final var thread = new Thread(() -> sink.write(record("terminated")));
+        thread.start();
+        thread.join();
+        assertThat(sink.getBatchCount()).isEqualTo(2);
+
+        sink.drain();
+        assertThat(batches).containsExactlyInAnyOrder(List.of("current"), List.of("terminated"));
+        assertThat(sink.getBatchCount()).isEqualTo(1);
+
+        sink.write(record("next"));
+        sink.drain();
+        assertThat(batches).hasSize(3);
+        assertThat(batches.get(2)).containsExactly("next");
+    }
+
+    private static @NotNull ByteBuffer record(final @NotNull String record) {
+        return ByteBuffer.wrap(record.getBytes(UTF_8));
+    }
+}
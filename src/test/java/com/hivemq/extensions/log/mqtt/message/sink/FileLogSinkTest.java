@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.sink;
+
+import com.hivemq.extensions.log.mqtt.message.logger.ConnectionContext;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageLoggerFactory;
+import com.hivemq.extensions.log.mqtt.message.logger.OutputFormat;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.hivemq.extensions.log.mqtt.message.util.PacketUtil.createEmptyPuback;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @since 1.4.0
+ */
+class FileLogSinkTest {
+
+    private static final @NotNull ConnectionContext TEST_CONNECTION = new ConnectionContext("test-client-id");
+
+    @Test
+    void test_records_written_as_lines(@TempDir final @NotNull Path tempDir) throws Exception {
+        final var file = tempDir.resolve("log").resolve("messages.json");
+        final var sink = new FileLogSink(file);
+        sink.write(ByteBuffer.wrap("{\"a\":1}".getBytes(UTF_8)));
+        sink.write(ByteBuffer.wrap("{\"b\":\"ü\"}".getBytes(UTF_8)));
+        assertThat(Files.size(file)).isZero();
+
+        sink.flush();
+        assertThat(Files.readAllLines(file, UTF_8)).containsExactly("{\"a\":1}", "{\"b\":\"ü\"}");
+        sink.close();
+    }
+
+    @Test
+    void test_record_larger_than_buffer(@TempDir final @NotNull Path tempDir) throws Exception {
+        final var file = tempDir.resolve("messages.json");
+        final var sink = new FileLogSink(file);
+        final var large = "x".repeat(200_000);
+        sink.write(ByteBuffer.wrap("first".getBytes(UTF_8)));
+        sink.write(ByteBuffer.wrap(large.getBytes(UTF_8)));
+        sink.write(ByteBuffer.wrap("last".getBytes(UTF_8)));
+        sink.close();
+
+        assertThat(Files.readAllLines(file, UTF_8)).containsExactly("first", large, "last");
+    }
+
+    @Test
+    void test_json_logger_writes_to_sink(@TempDir final @NotNull Path tempDir) throws Exception {
+        final var file = tempDir.resolve("messages.json");
+        final var sink = new FileLogSink(file);
+        final var logger = MessageLoggerFactory.createLogger(false, true, false, OutputFormat.JSON, sink);
+        logger.logPuback(createEmptyPuback(), TEST_CONNECTION, true);
+        sink.close();
+
+        final var lines = Files.readAllLines(file, UTF_8);
+        assertThat(lines).hasSize(1);
+        assertThat(lines.get(0).replaceAll("\"timestamp\":\\d+,", "")).isEqualTo(
+                "{\"messageType\":\"PUBACK\",\"direction\":\"INBOUND\",\"clientId\":\"test-client-id\"," +
+                        "\"reasonCode\":\"NO_MATCHING_SUBSCRIBERS\"}");
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.sink;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @since 1.4.0
+ */
+class MappedSegmentLogSinkTest {
+
+    // 2024-01-01T12:00:00Z
+    private static final long START = 1_704_110_400_000L;
+
+    private final @NotNull AtomicLong clock = new AtomicLong(START);
+
+    @Test
+    void test_records_written_as_lines_and_segment_truncated(@TempDir final @NotNull Path tempDir) throws Exception {
+        final var sink = new MappedSegmentLogSink(tempDir.resolve("messages.json"), 4096, 0, clock::get);
+        write(sink, "{\"a\":1}");
+        write(sink, "{\"b\":\"ü\"}");
+        sink.close();
+
+        final var segments = segments(tempDir);
+        assertThat(segments).containsExactly(tempDir.resolve("messages-20240101T120000-0.json"));
+        assertThat(Files.readAllLines(segments.get(0), UTF_8)).containsExactly("{\"a\":1}", "{\"b\":\"ü\"}");
+        assertThat(Files.size(segments.get(0))).isEqualTo(19);
+    }
+
+    @Test
+    void test_segment_rolled_when_full(@TempDir final @NotNull Path tempDir) throws Exception {
+        final var sink = new MappedSegmentLogSink(tempDir.resolve("messages.json"), 10, 0, clock::get);
+        write(sink, "first");
+        write(sink, "second");
+        write(sink, "third");
+        sink.close();
+
+        final var segments = segments(tempDir);
+        assertThat(segments).hasSize(3);
+        assertThat(Files.readAllLines(segments.get(0), UTF_8)).containsExactly("first");
+        assertThat(Files.readAllLines(segments.get(1), UTF_8)).containsExactly("second");
+        assertThat(Files.readAllLines(segments.get(2), UTF_8)).containsExactly("third");
+    }
+
+    @Test
+    void test_segment_rolled_on_flush_after_interval(@TempDir final @NotNull Path tempDir) throws Exception {
+        final var sink = new MappedSegmentLogSink(tempDir.resolve("messages.json"), 4096, 60_000, clock::get);
+        write(sink, "first");
+        sink.flush();
+        assertThat(segments(tempDir)).hasSize(1);
+
+        clock.addAndGet(60_000);
+        sink.flush();
+        write(sink, "second");
+        sink.close();
+
+        assertThat(segments(tempDir)).containsExactly(tempDir.resolve("messages-20240101T120000-0.json"),
+                tempDir.resolve("messages-20240101T120100-1.json"));
+        assertThat(Files.readAllLines(tempDir.resolve("messages-20240101T120000-0.json"), UTF_8)).containsExactly(
+                "first");
+        assertThat(Files.readAllLines(tempDir.resolve("messages-20240101T120100-1.json"), UTF_8)).containsExactly(
+                "second");
+    }
+
+    @Test
+    void test_empty_segment_not_rolled_after_interval(@TempDir final @NotNull Path tempDir) throws Exception {
+        final var sink = new MappedSegmentLogSink(tempDir.resolve("messages.json"), 4096, 60_000, clock::get);
+        clock.addAndGet(120_000);
+        sink.flush();
+        sink.close();
+
+        assertThat(segments(tempDir)).hasSize(1);
+    }
+
+    @Test
+    void test_record_larger_than_segment(@TempDir final @NotNull Path tempDir) throws Exception {
+        final var sink = new MappedSegmentLogSink(tempDir.resolve("messages.json"), 64, 0, clock::get);
+        final var large = "x".repeat(1000);
+        write(sink, "first");
+        write(sink, large);
+        write(sink, "last");
+        sink.close();
+
+        final var segments = segments(tempDir);
+        assertThat(segments).hasSize(3);
+        assertThat(Files.readAllLines(segments.get(1), UTF_8)).containsExactly(large);
+        assertThat(Files.readAllLines(segments.get(2), UTF_8)).containsExactly("last");
+    }
+
+    private static void write(final @NotNull LogSink sink, final @NotNull String record) {
+        sink.write(ByteBuffer.wrap(record.getBytes(UTF_8)));
+    }
+
+    private static @NotNull List<Path> segments(final @NotNull Path directory) throws IOException {
+        try (final var files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+}
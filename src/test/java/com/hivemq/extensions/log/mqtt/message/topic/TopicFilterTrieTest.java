@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.topic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @since 1.4.0
+ */
+class TopicFilterTrieTest {
+
+    @Test
+    void test_exact_filters() {
+        final var trie = TopicFilterTrie.compile(List.of("a/b", "a/b/c", "/x", "y/"));
+        assertThat(trie.size()).isEqualTo(4);
+        assertThat(trie.matches("a/b")).isTrue();
+        assertThat(trie.matches("a/b/c")).isTrue();
+        assertThat(trie.matches("/x")).isTrue();
+        assertThat(trie.matches("y/")).isTrue();
+        assertThat(trie.matches("a")).isFalse();
+        assertThat(trie.matches("a/b/c/d")).isFalse();
+        assertThat(trie.matches("a/bc")).isFalse();
+        assertThat(trie.matches("x")).isFalse();
+        assertThat(trie.matches("y")).isFalse();
+    }
+
+    @Test
+    void test_single_level_wildcard() {
+        final var trie = TopicFilterTrie.compile(List.of("a/+/c", "+"));
+        assertThat(trie.matches("a/b/c")).isTrue();
+        assertThat(trie.matches("a//c")).isTrue();
+        assertThat(trie.matches("b")).isTrue();
+        assertThat(trie.matches("")).isTrue();
+        assertThat(trie.matches("a/b")).isFalse();
+        assertThat(trie.matches("a/b/c/d")).isFalse();
+        assertThat(trie.matches("/b")).isFalse();
+    }
+
+    @Test
+    void test_multi_level_wildcard() {
+        final var trie = TopicFilterTrie.compile(List.of("sensors/#"));
+        assertThat(trie.matches("sensors")).isTrue();
+        assertThat(trie.matches("sensors/")).isTrue();
+        assertThat(trie.matches("sensors/1/temperature")).isTrue();
+        assertThat(trie.matches("sensor")).isFalse();
+        assertThat(trie.matches("actors/1")).isFalse();
+        assertThat(TopicFilterTrie.compile(List.of("#")).matches("any/topic")).isTrue();
+    }
+
+    @Test
+    void test_dollar_topics_not_matched_by_leading_wildcards() {
+        final var trie = TopicFilterTrie.compile(List.of("#", "+/info"));
+        assertThat(trie.matches("$SYS/info")).isFalse();
+        assertThat(trie.matches("info/info")).isTrue();
+        assertThat(TopicFilterTrie.compile(List.of("$SYS/#")).matches("$SYS/info")).isTrue();
+    }
+
+    @Test
+    void test_many_filters() {
+        final var topicFilters = new ArrayList<String>();
+        for (int i = 0; i < 10_000; i++) {
+            topicFilters.add("devices/" + i + "/+/status");
+        }
+        final var trie = TopicFilterTrie.compile(topicFilters);
+        assertThat(trie.size()).isEqualTo(10_000);
+        assertThat(trie.matches("devices/0/a/status")).isTrue();
+        assertThat(trie.matches("devices/9999/b/status")).isTrue();
+        assertThat(trie.matches("devices/10000/b/status")).isFalse();
+        assertThat(trie.matches("devices/42/b/state")).isFalse();
+    }
+
+    @Test
+    void test_duplicate_filters_counted_once() {
+        final var trie = TopicFilterTrie.compile(List.of("a/#", "a/#"));
+        assertThat(trie.size()).isEqualTo(1);
+    }
+
+    @Test
+    void test_invalid_filters() {
+        final var trie = new TopicFilterTrie();
+        assertThatThrownBy(() -> trie.add("")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> trie.add("a/#/b")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> trie.add("a/b#")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> trie.add("a+/b")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(trie.isEmpty()).isTrue();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @since 1.4.0
+ */
+class HashUtilTest {
+
+    @Test
+    void test_xx_hash_64_reference_values() {
+        assertThat(HashUtil.xxHash64(ByteBuffer.allocate(0))).isEqualTo(0xEF46DB3751D8E999L);
+        assertThat(HashUtil.xxHash64(ByteBuffer.wrap("abc".getBytes(UTF_8)))).isEqualTo(0x44BC2CF5AD770999L);
+        assertThat(HashUtil.xxHash64(ByteBuffer.wrap("Nobody inspects the spammish repetition".getBytes(UTF_8))))
+                .isEqualTo(0xFBCEA83C8A378BF1L);
+    }
+
+    @Test
+    void test_xx_hash_64_independent_of_buffer() {
+        final var bytes = "xxNobody inspects the spammish repetition".getBytes(UTF_8);
+        final var direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip().position(2);
+        final var readOnly = ByteBuffer.wrap(bytes).asReadOnlyBuffer().position(2);
+        assertThat(HashUtil.xxHash64(direct)).isEqualTo(0xFBCEA83C8A378BF1L);
+        assertThat(HashUtil.xxHash64(readOnly)).isEqualTo(0xFBCEA83C8A378BF1L);
+        assertThat(direct.position()).isEqualTo(2);
+        assertThat(direct.order()).isEqualTo(ByteOrder.BIG_ENDIAN);
+    }
+}
@@ -54,6 +54,13 @@ import com.hivemq.extension.sdk.api.packets.subscribe.Subscription;
 import com.hivemq.extension.sdk.api.packets.unsuback.UnsubackPacket;
 import com.hivemq.extension.sdk.api.packets.unsuback.UnsubackReasonCode;
 import com.hivemq.extension.sdk.api.packets.unsubscribe.UnsubscribePacket;
+import com.hivemq.extensions.log.mqtt.message.flow.PingDigest;
+import com.hivemq.extensions.log.mqtt.message.flow.Qos2Flow;
+import com.hivemq.extensions.log.mqtt.message.flow.SessionSummary;
+import com.hivemq.extensions.log.mqtt.message.logger.Direction;
+import com.hivemq.extensions.log.mqtt.message.logger.MessageType;
+import com.hivemq.extensions.log.mqtt.message.logger.RepeatedEvent;
+import com.hivemq.extensions.log.mqtt.message.logger.SuppressedEvents;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -63,6 +70,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * @version 1.1.0
@@ -538,6 +546,10 @@ public class PacketUtil {
     }
 
     public static PublishPacket createFullPublish() {
+        return createFullPublish("message".getBytes());
+    }
+
+    public static PublishPacket createFullPublish(final byte @NotNull [] payload) {
         return new PublishPacket() {
 
             @Override
@@ -597,7 +609,7 @@ public class PacketUtil {
 
             @Override
             public @NotNull Optional<ByteBuffer> getPayload() {
-                return Optional.of(ByteBuffer.wrap("message".getBytes()));
+                return Optional.of(ByteBuffer.wrap(payload));
             }
 
             @Override
@@ -1560,6 +1572,92 @@ public class PacketUtil {
         };
     }
 
+    public static Qos2Flow createCompleteQos2Flow() {
+        final Qos2Flow qos2Flow = mock();
+        when(qos2Flow.getPacketId()).thenReturn(10);
+        when(qos2Flow.isInbound()).thenReturn(true);
+        when(qos2Flow.getTopic()).thenReturn("topic");
+        when(qos2Flow.isComplete()).thenReturn(true);
+        when(qos2Flow.isSuccessful()).thenReturn(true);
+        when(qos2Flow.getPubrecReasonCode()).thenReturn(AckReasonCode.SUCCESS);
+        when(qos2Flow.getPubrecMicros()).thenReturn(100L);
+        when(qos2Flow.getPubrelReasonCode()).thenReturn(PubrelReasonCode.SUCCESS);
+        when(qos2Flow.getPubrelMicros()).thenReturn(200L);
+        when(qos2Flow.getPubcompReasonCode()).thenReturn(PubcompReasonCode.SUCCESS);
+        when(qos2Flow.getPubcompMicros()).thenReturn(300L);
+        when(qos2Flow.getDurationMicros()).thenReturn(600L);
+        return qos2Flow;
+    }
+
+    public static Qos2Flow createIncompleteQos2Flow() {
+        final Qos2Flow qos2Flow = mock();
+        when(qos2Flow.getPacketId()).thenReturn(10);
+        when(qos2Flow.isInbound()).thenReturn(false);
+        when(qos2Flow.getTopic()).thenReturn("topic");
+        when(qos2Flow.getPubrecReasonCode()).thenReturn(AckReasonCode.SUCCESS);
+        when(qos2Flow.getPubrecMicros()).thenReturn(100L);
+        when(qos2Flow.getPubrelMicros()).thenReturn(-1L);
+        when(qos2Flow.getPubcompMicros()).thenReturn(-1L);
+        when(qos2Flow.getDurationMicros()).thenReturn(60_000_000L);
+        return qos2Flow;
+    }
+
+    public static SessionSummary createSessionSummary() {
+        final SessionSummary.PacketCount publishCount = mock();
+        when(publishCount.getMessageType()).thenReturn(MessageType.PUBLISH);
+        when(publishCount.isInbound()).thenReturn(true);
+        when(publishCount.getCount()).thenReturn(2L);
+        final SessionSummary.PacketCount pubackCount = mock();
+        when(pubackCount.getMessageType()).thenReturn(MessageType.PUBACK);
+        when(pubackCount.isInbound()).thenReturn(false);
+        when(pubackCount.getCount()).thenReturn(2L);
+        final SessionSummary.ErrorCount pubackError = mock();
+        when(pubackError.getMessageType()).thenReturn(MessageType.PUBACK);
+        when(pubackError.isInbound()).thenReturn(false);
+        when(pubackError.getReasonCode()).thenReturn("NOT_AUTHORIZED");
+        when(pubackError.getCount()).thenReturn(1L);
+        final SessionSummary sessionSummary = mock();
+        when(sessionSummary.getDurationMillis()).thenReturn(1500L);
+        when(sessionSummary.getPacketCounts()).thenReturn(List.of(publishCount, pubackCount));
+        when(sessionSummary.getPackets(MessageType.PUBLISH, true)).thenReturn(2L);
+        when(sessionSummary.getPackets(MessageType.PUBACK, false)).thenReturn(2L);
+        when(sessionSummary.getPayloadBytes(true)).thenReturn(10L);
+        when(sessionSummary.getPublishes(1, true)).thenReturn(2L);
+        when(sessionSummary.getDistinctTopics()).thenReturn(1L);
+        when(sessionSummary.getErrors()).thenReturn(List.of(pubackError));
+        return sessionSummary;
+    }
+
+    public static PingDigest createPingDigest() {
+        final PingDigest.Outlier outlier = mock();
+        when(outlier.getClientId()).thenReturn("test-client-id");
+        when(outlier.getKeepAlive()).thenReturn(60);
+        when(outlier.getIntervalMillis()).thenReturn(5000L);
+        final PingDigest pingDigest = mock();
+        when(pingDigest.getDurationMillis()).thenReturn(60_000L);
+        when(pingDigest.getPingreqs()).thenReturn(120L);
+        when(pingDigest.getPingresps()).thenReturn(120L);
+        when(pingDigest.getClients()).thenReturn(100L);
+        when(pingDigest.getOutlierClients()).thenReturn(1L);
+        when(pingDigest.getOutliers()).thenReturn(List.of(outlier));
+        return pingDigest;
+    }
+
+    public static RepeatedEvent createRepeatedEvent() {
+        return new RepeatedEvent(MessageType.PUBACK,
+                Direction.INBOUND,
+                "test-client-id",
+                null,
+                "NOT_AUTHORIZED",
+                41,
+                1715934612345L,
+                1715934622301L);
+    }
+
+    public static SuppressedEvents createSuppressedEvents() {
+        return new SuppressedEvents("test-client-id", 17);
+    }
+
     public record TestDisconnect(@Nullable DisconnectedReasonCode reasonCode, @Nullable String reasonString,
             @Nullable UserProperties userProperties) implements DisconnectEventInput {
 
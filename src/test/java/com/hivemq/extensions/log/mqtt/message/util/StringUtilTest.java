@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.log.mqtt.message.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @since 1.4.0
+ */
+class StringUtilTest {
+
+    @Test
+    void test_is_ascii_printable() {
+        final var printable = new byte[100];
+        for (var i = 0; i < printable.length; i++) {
+            printable[i] = (byte) (' ' + i % ('~' - ' ' + 1));
+        }
+        assertThat(StringUtil.isAsciiPrintable(printable, 0, printable.length)).isTrue();
+        assertThat(StringUtil.isAsciiPrintable(printable, 3, 3)).isTrue();
+
+        // every position of a word and the byte by byte rest, with the bytes next to the printable range
+        for (final var invalid : new byte[]{0x00, 0x1F, 0x7F, (byte) 0x80, (byte) 0xFF}) {
+            for (var i = 0; i < 20; i++) {
+                final var bytes = Arrays.copyOf(printable, 20);
+                bytes[i] = invalid;
+                assertThat(StringUtil.isAsciiPrintable(bytes, 0, bytes.length)).isFalse();
+                assertThat(StringUtil.isAsciiPrintable(bytes, i + 1, bytes.length)).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void test_get_ascii_printable_string() {
+        final var text = "a \"quoted\" text ~".repeat(1000);
+        for (final var buffer : buffers(text.getBytes(UTF_8))) {
+            assertThat(StringUtil.getAsciiPrintableString(buffer)).isEqualTo(text);
+            assertThat(buffer.position()).isZero();
+        }
+        final var binary = (text + "\n").getBytes(UTF_8);
+        for (final var buffer : buffers(binary)) {
+            assertThat(StringUtil.getAsciiPrintableString(buffer)).isNull();
+        }
+        assertThat(StringUtil.getAsciiPrintableString(ByteBuffer.allocate(0))).isEmpty();
+    }
+
+    @Test
+    void test_get_hex_string() {
+        final var bytes = new byte[20_000];
+        for (var i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        final var expected = StringUtil.asHexString(bytes);
+        assertThat(expected).startsWith("000102").endsWith("1d1e1f");
+        for (final var buffer : buffers(bytes)) {
+            assertThat(StringUtil.getHexStringFromByteBuffer(buffer)).isEqualTo(expected);
+        }
+        assertThat(StringUtil.getHexStringFromByteBuffer(null)).isNull();
+    }
+
+    @Test
+    void test_long_as_hex_string() {
+        assertThat(StringUtil.asHexString(0L)).isEqualTo("0000000000000000");
+        assertThat(StringUtil.asHexString(0xEF46DB3751D8E999L)).isEqualTo("ef46db3751d8e999");
+        assertThat(StringUtil.asHexString(0x1AL)).isEqualTo("000000000000001a");
+    }
+
+    @Test
+    void test_get_bytes_from_position() {
+        final var bytes = "0123456789".repeat(100).getBytes(UTF_8);
+        for (final var buffer : buffers(bytes)) {
+            buffer.position(5);
+            assertThat(StringUtil.getBytes(buffer)).isEqualTo(Arrays.copyOfRange(bytes, 5, bytes.length));
+            assertThat(buffer.position()).isEqualTo(5);
+        }
+    }
+
+    @Test
+    void test_put_utf8() {
+        for (final var value : List.of("", "ascii", "ü", "€ euro", "emoji \uD83D\uDE00", "unpaired \uD800 high")) {
+            final var expected = value.getBytes(UTF_8);
+            assertThat(StringUtil.utf8Length(value)).isEqualTo(expected.length);
+            final var bytes = new byte[expected.length + 2];
+            assertThat(StringUtil.putUtf8(value, bytes, 1)).isEqualTo(expected.length + 1);
+            assertThat(Arrays.copyOfRange(bytes, 1, expected.length + 1)).isEqualTo(expected);
+        }
+    }
+
+    private static @NotNull List<ByteBuffer> buffers(final byte @NotNull [] bytes) {
+        final var direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        return List.of(ByteBuffer.wrap(bytes), ByteBuffer.wrap(bytes).asReadOnlyBuffer(), direct);
+    }
+}